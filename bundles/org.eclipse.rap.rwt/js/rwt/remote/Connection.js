@@ -215,17 +215,23 @@ rwt.qx.Class.define( "rwt.remote.Connection", {
     _handleSuccess : function( event ) {
       try {
         var messageObject = JSON.parse( event.responseText );
-        rwt.remote.EventUtil.setSuspended( true );
-        var that = this;
-        Processor.processMessage( messageObject, function() {
-          that._requestPending = false;
-          Widget.flushGlobalQueues();
-          rap._.notify( "render" );
-          EventUtil.setSuspended( false );
-          ServerPush.getInstance().sendServerPushRequest();
-          that.dispatchSimpleEvent( "received" );
-          that._hideWaitHint();
-        } );
+        if( messageObject.head.error ) {
+          // a streamed message that failed after the response has been committed
+          this._hideWaitHint();
+          ErrorHandler.showErrorBox( messageObject.head.error, true );
+        } else {
+          rwt.remote.EventUtil.setSuspended( true );
+          var that = this;
+          Processor.processMessage( messageObject, function() {
+            that._requestPending = false;
+            Widget.flushGlobalQueues();
+            rap._.notify( "render" );
+            EventUtil.setSuspended( false );
+            ServerPush.getInstance().sendServerPushRequest();
+            that.dispatchSimpleEvent( "received" );
+            that._hideWaitHint();
+          } );
+        }
       } catch( ex ) {
         ErrorHandler.processJavaScriptErrorInResponse( event.responseText, ex, event.target );
         this._hideWaitHint();
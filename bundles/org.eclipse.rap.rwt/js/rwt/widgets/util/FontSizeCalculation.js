@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,26 +21,53 @@ rwt.qx.Class.define( "rwt.widgets.util.FontSizeCalculation", {
     measureItems : function( args ) {
       var items = args.items;
       var results = {};
+      var charWidths = null;
       for( var i = 0; i < items.length; i++ ) {
         var item = items[ i ];
         var isMarkup = item[ 7 ];
         var size = this._measureItem( item, !isMarkup );
         var id = item[ 0 ];
         results[ id ] = size;
+        if( item[ 8 ] ) {
+          charWidths = charWidths || {};
+          charWidths[ id ] = this._measureCharWidths( item );
+        }
       }
-      this._storeMeasurements( id, results );
+      this._storeMeasurements( id, results, charWidths );
     },
 
     _measureItem : function( item, escapeText ) {
       var text = escapeText ? this._escapeText( item[ 1 ] ) : item[ 1 ];
-      var fontProps = {
+      var width = item[ 6 ] > 0 ? item[ 6 ] : null;
+      return this.computeTextDimensions( text, this._getFontProps( item ), width );
+    },
+
+    // Measures a run of each character to get the width with a precision of a tenth pixel. The
+    // offset that is added to every measured text follows the widths.
+    _measureCharWidths : function( item ) {
+      var chars = item[ 8 ];
+      var fontProps = this._getFontProps( item );
+      var result = [];
+      for( var i = 0; i < chars.length; i++ ) {
+        var run = "";
+        for( var j = 0; j < 10; j++ ) {
+          run += chars.charAt( i );
+        }
+        var size = this.computeTextDimensions( this._escapeText( run ), fontProps, null );
+        var width = Math.max( 0, size[ 0 ] - this._offset ) / 10;
+        result.push( Math.round( width * 100 ) / 100 );
+      }
+      result.push( this._offset );
+      return result;
+    },
+
+    _getFontProps : function( item ) {
+      return {
         "fontFamily" : item[ 2 ],
         "fontSize" : item[ 3 ] + "px",
         "fontWeight" : item[ 4 ] ? "bold" : "normal",
         "fontStyle" : item[ 5 ] ? "italic" : "normal"
       };
-      var width = item[ 6 ] > 0 ? item[ 6 ] : null;
-      return this.computeTextDimensions( text, fontProps, width );
     },
 
     computeTextDimensions : function( text, fontProps, wrapWidth ) {
@@ -140,11 +167,15 @@ rwt.qx.Class.define( "rwt.widgets.util.FontSizeCalculation", {
       return node;
     },
 
-    _storeMeasurements : function( id, results ) {
+    _storeMeasurements : function( id, results, charWidths ) {
       var remoteObject = rwt.remote.Connection.getInstance().getRemoteObject( this );
-      remoteObject.call( "storeMeasurements", {
+      var properties = {
         "results" : results
-      } );
+      };
+      if( charWidths ) {
+        properties.charWidths = charWidths;
+      }
+      remoteObject.call( "storeMeasurements", properties );
     },
 
     _escapeText : function( text ) {
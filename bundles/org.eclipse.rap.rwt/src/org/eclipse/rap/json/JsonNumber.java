@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,23 +16,52 @@ import java.io.IOException;
 @SuppressWarnings( "serial" ) // use default serial UID
 class JsonNumber extends JsonValue {
 
+  private static final int CACHE_LOW = -128;
+  private static final int CACHE_HIGH = 1023;
+  private static final JsonNumber[] CACHE = new JsonNumber[ CACHE_HIGH - CACHE_LOW + 1 ];
+
+  static {
+    for( int i = 0; i < CACHE.length; i++ ) {
+      CACHE[ i ] = new JsonNumber( CACHE_LOW + i );
+    }
+  }
+
+  // null for integral numbers that are backed by the primitive value
   private final String string;
+  private final long value;
 
   JsonNumber( String string ) {
     if( string == null ) {
       throw new NullPointerException( "string is null" );
     }
     this.string = string;
+    value = 0;
+  }
+
+  private JsonNumber( long value ) {
+    string = null;
+    this.value = value;
+  }
+
+  static JsonNumber create( long value ) {
+    if( value >= CACHE_LOW && value <= CACHE_HIGH ) {
+      return CACHE[ ( int )value - CACHE_LOW ];
+    }
+    return new JsonNumber( value );
   }
 
   @Override
   public String toString() {
-    return string;
+    return string != null ? string : Long.toString( value, 10 );
   }
 
   @Override
   protected void write( JsonWriter writer ) throws IOException {
-    writer.write( string );
+    if( string != null ) {
+      writer.write( string );
+    } else {
+      writer.writeNumber( value );
+    }
   }
 
   @Override
@@ -42,27 +71,30 @@ class JsonNumber extends JsonValue {
 
   @Override
   public int asInt() {
-    return Integer.parseInt( string, 10 );
+    if( string == null && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ) {
+      return ( int )value;
+    }
+    return Integer.parseInt( toString(), 10 );
   }
 
   @Override
   public long asLong() {
-    return Long.parseLong( string, 10 );
+    return string != null ? Long.parseLong( string, 10 ) : value;
   }
 
   @Override
   public float asFloat() {
-    return Float.parseFloat( string );
+    return string != null ? Float.parseFloat( string ) : value;
   }
 
   @Override
   public double asDouble() {
-    return Double.parseDouble( string );
+    return string != null ? Double.parseDouble( string ) : value;
   }
 
   @Override
   public int hashCode() {
-    return string.hashCode();
+    return toString().hashCode();
   }
 
   @Override
@@ -77,7 +109,10 @@ class JsonNumber extends JsonValue {
       return false;
     }
     JsonNumber other = (JsonNumber)object;
-    return string.equals( other.string );
+    if( string == null && other.string == null ) {
+      return value == other.value;
+    }
+    return toString().equals( other.toString() );
   }
 
 }
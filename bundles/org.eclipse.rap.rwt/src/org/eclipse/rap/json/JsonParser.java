@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,8 @@ class JsonParser {
 
   private static final int MIN_BUFFER_SIZE = 10;
   private static final int DEFAULT_BUFFER_SIZE = 1024;
+  private static final int STRING_CACHE_SIZE = 64;
+  private static final int MAX_CACHED_STRING_LENGTH = 32;
 
   private final Reader reader;
   private final char[] buffer;
@@ -30,6 +32,7 @@ class JsonParser {
   private int current;
   private StringBuilder captureBuffer;
   private int captureStart;
+  private String[] stringCache;
 
   /*
    * |                      bufferOffset
@@ -196,7 +199,7 @@ class JsonParser {
         read();
       }
     }
-    String string = endCapture();
+    String string = endStringCapture();
     read();
     return string;
   }
@@ -357,6 +360,46 @@ class JsonParser {
     return captured;
   }
 
+  /*
+   * Names and short values such as widget ids are repeated throughout a message. Strings that
+   * are captured entirely from the buffer are looked up in a small cache before a new string is
+   * created from the buffered characters.
+   */
+  private String endStringCapture() {
+    int end = current == -1 ? index : index - 1;
+    int length = end - captureStart;
+    if( captureBuffer.length() > 0 || length > MAX_CACHED_STRING_LENGTH ) {
+      return endCapture();
+    }
+    int hash = 0;
+    for( int i = captureStart; i < end; i++ ) {
+      hash = 31 * hash + buffer[ i ];
+    }
+    if( stringCache == null ) {
+      stringCache = new String[ STRING_CACHE_SIZE ];
+    }
+    int slot = ( hash ^ hash >>> 16 ) & ( STRING_CACHE_SIZE - 1 );
+    String cached = stringCache[ slot ];
+    if( cached == null || cached.hashCode() != hash || !isCaptured( cached, length ) ) {
+      cached = new String( buffer, captureStart, length );
+      stringCache[ slot ] = cached;
+    }
+    captureStart = -1;
+    return cached;
+  }
+
+  private boolean isCaptured( String string, int length ) {
+    if( string.length() != length ) {
+      return false;
+    }
+    for( int i = 0; i < length; i++ ) {
+      if( string.charAt( i ) != buffer[ captureStart + i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private ParseException expected( String expected ) {
     if( isEndOfText() ) {
       return error( "Unexpected end of input" );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 EclipseSource.
+ * Copyright (c) 2008, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -119,7 +119,7 @@ public abstract class JsonValue implements Serializable {
    * @since 2.2
    */
   public static JsonValue valueOf( int value ) {
-    return new JsonNumber( Integer.toString( value, 10 ) );
+    return JsonNumber.create( value );
   }
 
   /**
@@ -130,7 +130,7 @@ public abstract class JsonValue implements Serializable {
    * @return a JSON value that represents the given value
    */
   public static JsonValue valueOf( long value ) {
-    return new JsonNumber( Long.toString( value, 10 ) );
+    return JsonNumber.create( value );
   }
 
   /**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,31 +31,52 @@ class JsonWriter {
   private static final char[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
                                              'a', 'b', 'c', 'd', 'e', 'f' };
 
+  private static final String LONG_MIN_VALUE = Long.toString( Long.MIN_VALUE );
+
   protected final Writer writer;
+  // the decimal digits of a long and its sign
+  private final char[] digits;
 
   JsonWriter( Writer writer ) {
     this.writer = writer;
+    digits = new char[ 20 ];
   }
 
   void write( String string ) throws IOException {
     writer.write( string );
   }
 
+  void writeNumber( long value ) throws IOException {
+    if( value == Long.MIN_VALUE ) {
+      // cannot be negated
+      writer.write( LONG_MIN_VALUE );
+    } else {
+      long remaining = value < 0 ? -value : value;
+      int start = digits.length;
+      do {
+        digits[ --start ] = ( char )( '0' + remaining % 10 );
+        remaining /= 10;
+      } while( remaining != 0 );
+      if( value < 0 ) {
+        digits[ --start ] = '-';
+      }
+      writer.write( digits, start, digits.length - start );
+    }
+  }
+
   void writeString( String string ) throws IOException {
     writer.write( '"' );
     int length = string.length();
     int start = 0;
-    char[] chars = new char[ length ];
-    string.getChars( 0, length, chars, 0 );
     for( int index = 0; index < length; index++ ) {
-      char[] replacement = getReplacementChars( chars[index] );
+      char[] replacement = getReplacementChars( string.charAt( index ) );
       if( replacement != null ) {
-        writer.write( chars, start, index - start );
+        writer.write( string, start, index - start );
         writer.write( replacement );
         start = index+1;
       }
     }
-    writer.write( chars, start, length - start );
+    writer.write( string, start, length - start );
     writer.write( '"' );
   }
 
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.internal.resources.ResourceManagerImpl;
+import org.eclipse.rap.rwt.service.ResourceManager;
+
+
+/**
+ * A servlet that delivers the resources registered with the resource manager. Unlike the default
+ * servlet of the container, it marks resources that are requested with the fingerprint of their
+ * current content as cacheable forever, and it delivers a gzip compressed copy of a resource if
+ * one exists and the client accepts it. The compressed copies can not be requested directly.
+ * <p>
+ * Fingerprints and compressed copies are enabled with the system properties
+ * <code>org.eclipse.rap.rwt.resourceFingerprints</code> and
+ * <code>org.eclipse.rap.rwt.compressResources</code>. Without, the servlet behaves like a
+ * static file servlet. It has to be registered for the resources path of the application:
+ * </p>
+ *
+ * <pre>
+ * &lt;servlet&gt;
+ *   &lt;servlet-name&gt;rwtResources&lt;/servlet-name&gt;
+ *   &lt;servlet-class&gt;org.eclipse.rap.rwt.engine.RWTResourceServlet&lt;/servlet-class&gt;
+ * &lt;/servlet&gt;
+ *
+ * &lt;servlet-mapping&gt;
+ *   &lt;servlet-name&gt;rwtResources&lt;/servlet-name&gt;
+ *   &lt;url-pattern&gt;/rwt-resources/*&lt;/url-pattern&gt;
+ * &lt;/servlet-mapping&gt;
+ * </pre>
+ *
+ * @since 2.3
+ * @noextend This class is not intended to be subclassed by clients.
+ */
+public class RWTResourceServlet extends HttpServlet {
+
+  private static final String GZIP = "gzip";
+  private static final String X_GZIP = "x-gzip";
+  private static final String ANY_ENCODING = "*";
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+  private static final String REVALIDATE = "no-cache";
+  private static final int BUFFER_SIZE = 8192;
+
+  @Override
+  public String getServletInfo() {
+    return "RWT Resource Servlet";
+  }
+
+  @Override
+  public void doGet( HttpServletRequest request, HttpServletResponse response )
+    throws ServletException, IOException
+  {
+    ApplicationContextImpl applicationContext
+      = ApplicationContextImpl.getFrom( getServletContext() );
+    if( applicationContext == null || !applicationContext.allowsRequests() ) {
+      response.sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+    } else {
+      File directory = applicationContext.getResourceDirectory().getDirectory();
+      File file = getResourceFile( directory, request.getPathInfo() );
+      if( file == null ) {
+        response.sendError( HttpServletResponse.SC_NOT_FOUND );
+      } else {
+        String fingerprint = getFingerprint( applicationContext, request.getPathInfo() );
+        deliver( request, response, file, fingerprint );
+      }
+    }
+  }
+
+  private void deliver( HttpServletRequest request,
+                        HttpServletResponse response,
+                        File file,
+                        String fingerprint )
+    throws IOException
+  {
+    String contentType = getServletContext().getMimeType( file.getName() );
+    if( contentType != null ) {
+      response.setContentType( contentType );
+    }
+    // an outdated fingerprint must not be cached, the URL will deliver different content later
+    boolean fingerprinted = fingerprint != null && fingerprint.equals( request.getQueryString() );
+    response.setHeader( "Cache-Control", fingerprinted ? CACHE_FOREVER : REVALIDATE );
+    response.setHeader( "Vary", "Accept-Encoding" );
+    long lastModified = file.lastModified() / 1000 * 1000;
+    response.setDateHeader( "Last-Modified", lastModified );
+    if( isNotModified( request, lastModified ) ) {
+      response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+    } else {
+      File content = file;
+      File compressedFile = new File( file.getPath() + GZIP_EXTENSION );
+      if( acceptsGzip( request.getHeader( "Accept-Encoding" ) ) && compressedFile.isFile() ) {
+        response.setHeader( "Content-Encoding", GZIP );
+        content = compressedFile;
+      }
+      response.setContentLength( ( int )content.length() );
+      copy( content, response.getOutputStream() );
+    }
+  }
+
+  static File getResourceFile( File directory, String path ) throws IOException {
+    File result = null;
+    if( path != null && path.length() > 1 ) {
+      File file = new File( directory, path.substring( 1 ) );
+      String directoryPath = directory.getCanonicalPath() + File.separator;
+      // reject paths that point outside of the resources directory
+      if(    file.isFile()
+          && file.getCanonicalPath().startsWith( directoryPath )
+          && !isCompressedCopy( file ) )
+      {
+        result = file;
+      }
+    }
+    return result;
+  }
+
+  private static String getFingerprint( ApplicationContextImpl applicationContext, String path ) {
+    String result = null;
+    ResourceManager resourceManager = applicationContext.getResourceManager();
+    if( resourceManager instanceof ResourceManagerImpl ) {
+      result = ( ( ResourceManagerImpl )resourceManager ).getFingerprint( path.substring( 1 ) );
+    }
+    return result;
+  }
+
+  private static boolean isNotModified( HttpServletRequest request, long lastModified ) {
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = request.getDateHeader( "If-Modified-Since" );
+    } catch( IllegalArgumentException invalidHeader ) {
+      ifModifiedSince = -1;
+    }
+    return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+  }
+
+  private static boolean isCompressedCopy( File file ) {
+    String path = file.getPath();
+    return    path.endsWith( GZIP_EXTENSION )
+           && new File( path.substring( 0, path.length() - GZIP_EXTENSION.length() ) ).isFile();
+  }
+
+  /*
+   * An encoding with a quality of 0 is not acceptable. The wildcard applies only if gzip is not
+   * listed explicitly.
+   */
+  static boolean acceptsGzip( String acceptEncoding ) {
+    float gzipQuality = -1;
+    float anyQuality = -1;
+    if( acceptEncoding != null ) {
+      String[] codings = acceptEncoding.split( "," );
+      for( int i = 0; i < codings.length; i++ ) {
+        String[] parts = codings[ i ].split( ";" );
+        String coding = parts[ 0 ].trim().toLowerCase( Locale.ENGLISH );
+        if( coding.equals( GZIP ) || coding.equals( X_GZIP ) ) {
+          gzipQuality = Math.max( gzipQuality, getQuality( parts ) );
+        } else if( coding.equals( ANY_ENCODING ) ) {
+          anyQuality = Math.max( anyQuality, getQuality( parts ) );
+        }
+      }
+    }
+    return gzipQuality == -1 ? anyQuality > 0 : gzipQuality > 0;
+  }
+
+  private static float getQuality( String[] parts ) {
+    float result = 1;
+    for( int i = 1; i < parts.length; i++ ) {
+      String parameter = parts[ i ].trim();
+      if( parameter.startsWith( "q=" ) || parameter.startsWith( "Q=" ) ) {
+        try {
+          result = Float.parseFloat( parameter.substring( 2 ).trim() );
+        } catch( NumberFormatException invalidQuality ) {
+          result = 0;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void copy( File file, OutputStream outputStream ) throws IOException {
+    InputStream inputStream = new FileInputStream( file );
+    try {
+      byte[] buffer = new byte[ BUFFER_SIZE ];
+      int read = inputStream.read( buffer );
+      while( read != -1 ) {
+        outputStream.write( buffer, 0, read );
+        read = inputStream.read( buffer );
+      }
+    } finally {
+      inputStream.close();
+    }
+  }
+
+}
@@ -72,6 +72,11 @@ import org.eclipse.rap.rwt.service.ServiceHandler;
  */
 public class RWTServlet extends HttpServlet {
 
+  // Must be a power of two, locks are selected by masking the hash of the connection
+  private static final int UI_SESSION_LOCK_COUNT = 64;
+  // Only guards the creation of UISessions, lookups of existing UISessions are not synchronized
+  private static final Object[] UI_SESSION_LOCKS = createUISessionLocks();
+
   private ApplicationContextImpl applicationContext;
 
   @Override
@@ -148,17 +153,38 @@ public class RWTServlet extends HttpServlet {
   }
 
   static void ensureUISession( ServiceContext serviceContext ) {
-    // Ensure that there is exactly one UISession per connection created
-    synchronized( RWTServlet.class ) {
-      HttpServletRequest request = serviceContext.getRequest();
-      HttpSession httpSession = request.getSession( true );
-      String connectionId = request.getParameter( UrlParameters.PARAM_CONNECTION_ID );
-      UISessionImpl uiSession = UISessionImpl.getInstanceFromSession( httpSession, connectionId );
-      if( uiSession == null ) {
-        uiSession = new UISessionBuilder( serviceContext ).buildUISession();
+    HttpServletRequest request = serviceContext.getRequest();
+    HttpSession httpSession = request.getSession( true );
+    String connectionId = request.getParameter( UrlParameters.PARAM_CONNECTION_ID );
+    UISessionImpl uiSession = UISessionImpl.getInstanceFromSession( httpSession, connectionId );
+    if( uiSession == null ) {
+      // Ensure that there is exactly one UISession per connection created
+      synchronized( getUISessionLock( httpSession, connectionId ) ) {
+        uiSession = UISessionImpl.getInstanceFromSession( httpSession, connectionId );
+        if( uiSession == null ) {
+          uiSession = new UISessionBuilder( serviceContext ).buildUISession();
+        }
       }
-      serviceContext.setUISession( uiSession );
     }
+    serviceContext.setUISession( uiSession );
+  }
+
+  private static Object getUISessionLock( HttpSession httpSession, String connectionId ) {
+    String sessionId = httpSession.getId();
+    int hash = sessionId == null ? 0 : sessionId.hashCode() * 31;
+    if( connectionId != null ) {
+      hash += connectionId.hashCode();
+    }
+    hash ^= hash >>> 16;
+    return UI_SESSION_LOCKS[ hash & ( UI_SESSION_LOCKS.length - 1 ) ];
+  }
+
+  private static Object[] createUISessionLocks() {
+    Object[] result = new Object[ UI_SESSION_LOCK_COUNT ];
+    for( int i = 0; i < result.length; i++ ) {
+      result[ i ] = new Object();
+    }
+    return result;
   }
 
   static String createRedirectUrl( HttpServletRequest request ) {
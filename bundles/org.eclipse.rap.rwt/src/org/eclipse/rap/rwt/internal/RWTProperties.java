@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,117 @@ public final class RWTProperties {
 
   public static final String ID_GENERATOR = "org.eclipse.rap.idGenerator";
 
+  /*
+   * Writes the protocol operations directly to the response instead of collecting them in a
+   * message object. Note that the response may be committed before the life cycle has finished.
+   */
+  public static final String STREAM_PROTOCOL_MESSAGES
+    = "org.eclipse.rap.rwt.streamProtocolMessages";
+
+  /*
+   * The last protocol message is kept in the UI session to answer duplicate requests. These
+   * properties control whether it is stored gzip compressed and the maximum number of bytes that
+   * are stored. Larger messages are not buffered and cannot be sent again.
+   */
+  public static final String COMPRESS_BUFFERED_MESSAGE
+    = "org.eclipse.rap.rwt.compressBufferedMessage";
+  public static final String BUFFERED_MESSAGE_LIMIT = "org.eclipse.rap.rwt.bufferedMessageLimit";
+
+  /*
+   * Compresses protocol messages with gzip or deflate if the client accepts it. Messages smaller
+   * than the threshold (in bytes) and streamed messages are sent uncompressed.
+   */
+  public static final String COMPRESS_PROTOCOL_MESSAGES
+    = "org.eclipse.rap.rwt.compressProtocolMessages";
+  public static final String PROTOCOL_COMPRESSION_THRESHOLD
+    = "org.eclipse.rap.rwt.protocolCompressionThreshold";
+
+  /*
+   * Decodes client messages that are sent with the gzip or deflate content coding. Requests with
+   * a decoded message larger than the limit (in bytes) are rejected, so that a small compressed
+   * request can not expand to an arbitrary amount of memory.
+   */
+  public static final String DECOMPRESS_CLIENT_MESSAGES
+    = "org.eclipse.rap.rwt.decompressClientMessages";
+  public static final String DECOMPRESSED_MESSAGE_LIMIT
+    = "org.eclipse.rap.rwt.decompressedMessageLimit";
+
+  /*
+   * Suspends server push requests using the asynchronous processing of the Servlet 3.0 API
+   * instead of blocking a container thread. Requires the RWT servlet to be registered with
+   * async-supported set to true. Without, the requests are blocked as before.
+   */
+  public static final String ASYNC_SERVER_PUSH = "org.eclipse.rap.rwt.asyncServerPush";
+
+  /*
+   * Selects the threads that run the UI code of the RWTLifeCycle. Accepts "virtual" to use
+   * virtual threads on Java 24 or later, or the name of a ThreadFactory implementation.
+   */
+  public static final String UI_THREAD_FACTORY = "org.eclipse.rap.rwt.uiThreadFactory";
+
+  /*
+   * Appends a checksum of the content to the URLs of registered resources, so that the resources
+   * can be cached forever. With compression enabled, a gzip compressed copy of text resources is
+   * written next to the resource file. Both copies can be served by the RWTResourceServlet.
+   */
+  public static final String RESOURCE_FINGERPRINTS = "org.eclipse.rap.rwt.resourceFingerprints";
+  public static final String COMPRESS_RESOURCES = "org.eclipse.rap.rwt.compressResources";
+
+  /*
+   * Keeps the content of registered resources in memory, so that reading a registered resource
+   * does not access the resource directory.
+   */
+  public static final String CACHE_RESOURCES = "org.eclipse.rap.rwt.cacheResources";
+
+  /*
+   * Calls readData only for the widgets that are targeted by an operation of the client message,
+   * instead of for every widget. Custom life cycle adapters must not read operations for other
+   * targets than their widget (with the exception of its scroll bars) when this is enabled.
+   */
+  public static final String TARGETED_READ_DATA = "org.eclipse.rap.rwt.targetedReadData";
+
+  /*
+   * The path of a file that keeps the measured text sizes across restarts. The file is read when
+   * the application starts and sizes measured afterwards are appended to it.
+   */
+  public static final String TEXT_SIZE_STORE_FILE = "org.eclipse.rap.rwt.textSizeStoreFile";
+
+  /*
+   * Lets the client measure the widths of the Latin-1 and CJK characters along with a font
+   * probe, so that the size of single line texts can be computed without a measurement request.
+   */
+  public static final String CHAR_WIDTH_TABLES = "org.eclipse.rap.rwt.charWidthTables";
+
+  /*
+   * The number of images created from image data or streams that are kept in memory even when
+   * no Image refers to them anymore. Other unreferenced images are evicted. A negative value,
+   * the default, keeps all of them.
+   */
+  public static final String GENERATED_IMAGE_CACHE_SIZE
+    = "org.eclipse.rap.rwt.generatedImageCacheSize";
+
+  /*
+   * The name of a ReplicationHook implementation that tells the servlet engine to replicate a
+   * changed UI session. By default, the session attribute is set again.
+   */
+  public static final String REPLICATION_HOOK = "org.eclipse.rap.rwt.replicationHook";
+
+  /*
+   * Lets a ClusteredSynchronizer mark the UI session as changed on the application scheduler
+   * instead of sending a request to the local server for every asyncExec. Most servlet engines
+   * replicate a session only when a request completes, so this requires a ReplicationHook that
+   * triggers the replication outside of a request. Otherwise, the added runnables are replicated
+   * with the next request.
+   */
+  public static final String IN_PROCESS_REPLICATION = "org.eclipse.rap.rwt.inProcessReplication";
+
+  /*
+   * The time in milliseconds that file setting stores collect changes before writing them in the
+   * background. By default, every change is written immediately.
+   */
+  public static final String SETTING_STORE_WRITE_DELAY
+    = "org.eclipse.rap.rwt.settingStoreWriteDelay";
+
   private RWTProperties() {
     // prevent instantiation
   }
@@ -42,9 +153,98 @@ public final class RWTProperties {
     return System.getProperty( ID_GENERATOR );
   }
 
+  public static boolean isProtocolStreamingEnabled() {
+    return getBooleanProperty( STREAM_PROTOCOL_MESSAGES, false );
+  }
+
+  public static boolean isBufferedMessageCompressionEnabled() {
+    return getBooleanProperty( COMPRESS_BUFFERED_MESSAGE, false );
+  }
+
+  public static int getBufferedMessageLimit() {
+    return getIntProperty( BUFFERED_MESSAGE_LIMIT, Integer.MAX_VALUE );
+  }
+
+  public static boolean isProtocolCompressionEnabled() {
+    return getBooleanProperty( COMPRESS_PROTOCOL_MESSAGES, false );
+  }
+
+  public static int getProtocolCompressionThreshold() {
+    return getIntProperty( PROTOCOL_COMPRESSION_THRESHOLD, 1024 );
+  }
+
+  public static boolean isClientMessageDecompressionEnabled() {
+    return getBooleanProperty( DECOMPRESS_CLIENT_MESSAGES, false );
+  }
+
+  public static int getDecompressedMessageLimit() {
+    return getIntProperty( DECOMPRESSED_MESSAGE_LIMIT, 4 * 1024 * 1024 );
+  }
+
+  public static boolean isAsyncServerPushEnabled() {
+    return getBooleanProperty( ASYNC_SERVER_PUSH, false );
+  }
+
+  public static String getUIThreadFactory() {
+    return System.getProperty( UI_THREAD_FACTORY );
+  }
+
+  public static boolean isResourceFingerprintingEnabled() {
+    return getBooleanProperty( RESOURCE_FINGERPRINTS, false );
+  }
+
+  public static boolean isResourceCompressionEnabled() {
+    return getBooleanProperty( COMPRESS_RESOURCES, false );
+  }
+
+  public static boolean isResourceCachingEnabled() {
+    return getBooleanProperty( CACHE_RESOURCES, false );
+  }
+
+  public static boolean isTargetedReadDataEnabled() {
+    return getBooleanProperty( TARGETED_READ_DATA, false );
+  }
+
+  public static String getTextSizeStoreFile() {
+    return System.getProperty( TEXT_SIZE_STORE_FILE );
+  }
+
+  public static boolean isCharWidthTablesEnabled() {
+    return getBooleanProperty( CHAR_WIDTH_TABLES, false );
+  }
+
+  public static int getGeneratedImageCacheSize() {
+    return getIntProperty( GENERATED_IMAGE_CACHE_SIZE, -1 );
+  }
+
+  public static String getReplicationHook() {
+    return System.getProperty( REPLICATION_HOOK );
+  }
+
+  public static boolean isInProcessReplicationEnabled() {
+    return getBooleanProperty( IN_PROCESS_REPLICATION, false );
+  }
+
+  public static int getSettingStoreWriteDelay() {
+    return getIntProperty( SETTING_STORE_WRITE_DELAY, 0 );
+  }
+
   public static boolean getBooleanProperty( String name, boolean defaultValue ) {
     String value = System.getProperty( name );
     return value == null ? defaultValue : value.equalsIgnoreCase( "true" );
   }
 
+  public static int getIntProperty( String name, int defaultValue ) {
+    String value = System.getProperty( name );
+    int result = defaultValue;
+    if( value != null ) {
+      try {
+        result = Integer.parseInt( value.trim() );
+      } catch( NumberFormatException exception ) {
+        // use default value
+      }
+    }
+    return result;
+  }
+
 }
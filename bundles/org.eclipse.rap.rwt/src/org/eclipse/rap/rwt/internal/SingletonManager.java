@@ -10,6 +10,13 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.rap.rwt.internal.util.ClassUtil;
@@ -25,7 +32,7 @@ public class SingletonManager implements SerializableCompatibility {
   private static final String ATTR_SINGLETON_MANAGER
     = SingletonManager.class.getName() + "#instance";
 
-  private final SharedInstanceBuffer<Class<?>, AtomicReference<Object>> singletonHolders;
+  private transient SharedInstanceBuffer<Class<?>, AtomicReference<Object>> singletonHolders;
 
   SingletonManager() {
     singletonHolders = new SharedInstanceBuffer<Class<?>, AtomicReference<Object>>();
@@ -71,6 +78,39 @@ public class SingletonManager implements SerializableCompatibility {
     return ( SingletonManager )applicationContext.getAttribute( ATTR_SINGLETON_MANAGER );
   }
 
+  // Only the singletons are written, as pairs of type and instance without their holders
+  private void writeObject( ObjectOutputStream stream ) throws IOException {
+    Map<Class<?>, AtomicReference<Object>> holders = singletonHolders.getInstances();
+    List<Object> pairs = new ArrayList<Object>();
+    for( Entry<Class<?>, AtomicReference<Object>> entry : holders.entrySet() ) {
+      Object singleton = entry.getValue().get();
+      if( singleton != null ) {
+        pairs.add( entry.getKey() );
+        pairs.add( singleton );
+      }
+    }
+    stream.defaultWriteObject();
+    stream.writeInt( pairs.size() / 2 );
+    for( Object object : pairs ) {
+      stream.writeObject( object );
+    }
+  }
+
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    singletonHolders = new SharedInstanceBuffer<Class<?>, AtomicReference<Object>>();
+    int size = stream.readInt();
+    for( int i = 0; i < size; i++ ) {
+      Class<?> type = ( Class<?> )stream.readObject();
+      final Object singleton = stream.readObject();
+      singletonHolders.get( type, new IInstanceCreator<AtomicReference<Object>>() {
+        public AtomicReference<Object> createInstance() {
+          return new AtomicReference<Object>( singleton );
+        }
+      } );
+    }
+  }
+
   private static void checkNotInstalled( UISession uiSession ) {
     if( getInstance( uiSession ) != null ) {
       String msg = "SingletonManager already installed for UI session: " + uiSession.getId();
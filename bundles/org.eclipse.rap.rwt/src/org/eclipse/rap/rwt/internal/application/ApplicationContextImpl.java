@@ -11,18 +11,25 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.application;
 
+import java.io.File;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.ServletContext;
 
 import org.eclipse.rap.rwt.application.ApplicationConfiguration;
 import org.eclipse.rap.rwt.application.ExceptionHandler;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.client.ClientSelector;
+import org.eclipse.rap.rwt.internal.engine.ReplicationHook;
+import org.eclipse.rap.rwt.internal.engine.SetAttributeReplicationHook;
 import org.eclipse.rap.rwt.internal.lifecycle.EntryPointManager;
 import org.eclipse.rap.rwt.internal.lifecycle.LifeCycleAdapterFactory;
 import org.eclipse.rap.rwt.internal.lifecycle.LifeCycleFactory;
@@ -40,6 +47,7 @@ import org.eclipse.rap.rwt.internal.service.StartupPage;
 import org.eclipse.rap.rwt.internal.textsize.MeasurementListener;
 import org.eclipse.rap.rwt.internal.textsize.ProbeStore;
 import org.eclipse.rap.rwt.internal.textsize.TextSizeStorage;
+import org.eclipse.rap.rwt.internal.textsize.TextSizeStoreFile;
 import org.eclipse.rap.rwt.internal.theme.ThemeManager;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 import org.eclipse.rap.rwt.internal.util.SerializableLock;
@@ -62,6 +70,8 @@ public class ApplicationContextImpl implements ApplicationContext {
 
   private final static String ATTR_APPLICATION_CONTEXT
     = ApplicationContextImpl.class.getName() + "#instance";
+  private final static int MIN_SCHEDULER_THREADS = 2;
+  private final static int MAX_SCHEDULER_THREADS = 4;
 
   // TODO [fappel]: this allows to set a fake double of the resource manager for testing purpose.
   //                Think about a less intrusive solution.
@@ -109,7 +119,11 @@ public class ApplicationContextImpl implements ApplicationContext {
   private final Set<ApplicationContextListener> listeners;
   private final SerializableLock listenersLock;
   private final AtomicReference<State> state;
+  private final SerializableLock schedulerLock;
   private ExceptionHandler exceptionHandler;
+  private ReplicationHook replicationHook;
+  private ScheduledExecutorService scheduler;
+  private TextSizeStoreFile textSizeStoreFile;
 
   public ApplicationContextImpl( ApplicationConfiguration applicationConfiguration,
                                  ServletContext servletContext )
@@ -140,6 +154,8 @@ public class ApplicationContextImpl implements ApplicationContext {
     listeners = new HashSet<ApplicationContextListener>();
     listenersLock = new SerializableLock();
     state = new AtomicReference<State>( State.INACTIVE );
+    schedulerLock = new SerializableLock();
+    replicationHook = SetAttributeReplicationHook.createConfiguredHook();
   }
 
   public static ApplicationContextImpl getFrom( ServletContext servletContext ) {
@@ -315,6 +331,34 @@ public class ApplicationContextImpl implements ApplicationContext {
     return clientSelector;
   }
 
+  /**
+   * Returns a scheduler for short running background tasks that is shared by all UI sessions of
+   * this application. The scheduler is created on first access and shut down when the
+   * application context is deactivated.
+   * <p>
+   * Tasks must not block, in particular they must not write to the response of a client. The
+   * scheduler runs several threads, so that a task that takes longer does not delay the tasks of
+   * all other UI sessions, and tasks may run concurrently.
+   * </p>
+   */
+  public ScheduledExecutorService getScheduler() {
+    synchronized( schedulerLock ) {
+      if( scheduler == null ) {
+        scheduler = Executors.newScheduledThreadPool( getSchedulerThreadCount(),
+                                                      new SchedulerThreadFactory() );
+      }
+      return scheduler;
+    }
+  }
+
+  public ReplicationHook getReplicationHook() {
+    return replicationHook;
+  }
+
+  public void setReplicationHook( ReplicationHook replicationHook ) {
+    this.replicationHook = replicationHook;
+  }
+
   public ExceptionHandler getExceptionHandler() {
     return exceptionHandler;
   }
@@ -340,6 +384,7 @@ public class ApplicationContextImpl implements ApplicationContext {
     }
     resourceRegistry.registerResources();
     clientSelector.activate();
+    openTextSizeStoreFile();
   }
 
   void doDeactivate() {
@@ -356,6 +401,32 @@ public class ApplicationContextImpl implements ApplicationContext {
     settingStoreManager.deregisterFactory();
     resourceDirectory.reset();
     applicationStore.reset();
+    shutdownScheduler();
+    closeTextSizeStoreFile();
+  }
+
+  private void openTextSizeStoreFile() {
+    String path = RWTProperties.getTextSizeStoreFile();
+    if( path != null ) {
+      textSizeStoreFile = new TextSizeStoreFile( new File( path ), textSizeStorage );
+      textSizeStoreFile.open();
+    }
+  }
+
+  private void closeTextSizeStoreFile() {
+    if( textSizeStoreFile != null ) {
+      textSizeStoreFile.close();
+      textSizeStoreFile = null;
+    }
+  }
+
+  private void shutdownScheduler() {
+    synchronized( schedulerLock ) {
+      if( scheduler != null ) {
+        scheduler.shutdownNow();
+        scheduler = null;
+      }
+    }
   }
 
   private ServiceManagerImpl createServiceManager() {
@@ -412,4 +483,19 @@ public class ApplicationContextImpl implements ApplicationContext {
     servletContext.log( msg, exception );
   }
 
+  private static int getSchedulerThreadCount() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    return Math.max( MIN_SCHEDULER_THREADS, Math.min( MAX_SCHEDULER_THREADS, processors ) );
+  }
+
+  private static class SchedulerThreadFactory implements ThreadFactory {
+
+    public Thread newThread( Runnable runnable ) {
+      Thread thread = new Thread( runnable, "RWT Scheduler" );
+      thread.setDaemon( true );
+      return thread;
+    }
+
+  }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -80,11 +80,7 @@ public class RWTClusterSupport implements Filter {
 
   private static void markSessionChanged( HttpSession httpSession, String connectionId ) {
     // If a session attribute changes, the servlet engine must be told to replicate the change.
-    // Unfortunately the Servlet specs do not specify how this should be done.
-    // The most common way is to call HttpSession.setAttribute() to flag the object as changed.
-    // See http://wiki.eclipse.org/RAP/RWT_Cluster#Serializable_Session_Data
-    // See also: J2EE clustering, Part 2, section Session-storage guidelines
-    // http://java.sun.com/developer/technicalArticles/J2EE/clustering/
+    // Unfortunately the Servlet specs do not specify how this should be done, see ReplicationHook.
     UISessionImpl uiSession = UISessionImpl.getInstanceFromSession( httpSession, connectionId );
     if( uiSession != null ) {
       uiSession.attachToHttpSession();
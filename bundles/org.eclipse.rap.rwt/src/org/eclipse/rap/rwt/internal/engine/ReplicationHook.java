@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.engine;
+
+import javax.servlet.http.HttpSession;
+
+
+/**
+ * Tells the servlet engine that an attribute of an HTTP session has changed and needs to be
+ * replicated. The Servlet specification does not define how this is done. The default
+ * implementation sets the attribute again, which is understood by most engines. An engine
+ * specific implementation can be configured with the system property
+ * <code>org.eclipse.rap.rwt.replicationHook</code>.
+ * <p>
+ * With <code>org.eclipse.rap.rwt.inProcessReplication</code> enabled, the hook is also called
+ * outside of a request when a background thread adds a runnable to a
+ * <code>ClusteredSynchronizer</code>. Engines like Tomcat and Jetty replicate a session only when
+ * a request completes, so setting the attribute again does not replicate the session then. A hook
+ * used with this option has to trigger the replication itself.
+ * </p>
+ */
+public interface ReplicationHook {
+
+  void attributeChanged( HttpSession httpSession, String name, Object value );
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.engine;
+
+import javax.servlet.http.HttpSession;
+
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.util.ClassInstantiationException;
+import org.eclipse.rap.rwt.internal.util.ClassUtil;
+
+
+/**
+ * Flags a session attribute as changed by setting it again.
+ * See http://wiki.eclipse.org/RAP/RWT_Cluster#Serializable_Session_Data
+ * See also: J2EE clustering, Part 2, section Session-storage guidelines
+ * http://java.sun.com/developer/technicalArticles/J2EE/clustering/
+ */
+public final class SetAttributeReplicationHook implements ReplicationHook {
+
+  public static final ReplicationHook INSTANCE = new SetAttributeReplicationHook();
+
+  /**
+   * Creates the hook that is configured with the system property
+   * <code>org.eclipse.rap.rwt.replicationHook</code>, or returns the default hook.
+   */
+  public static ReplicationHook createConfiguredHook() {
+    ReplicationHook result = INSTANCE;
+    String className = RWTProperties.getReplicationHook();
+    if( className != null ) {
+      ClassLoader classLoader = SetAttributeReplicationHook.class.getClassLoader();
+      Object hook = ClassUtil.newInstance( classLoader, className );
+      if( !( hook instanceof ReplicationHook ) ) {
+        String message = "Class is not an instance of ReplicationHook: " + className;
+        throw new ClassInstantiationException( message, null );
+      }
+      result = ( ReplicationHook )hook;
+    }
+    return result;
+  }
+
+  private SetAttributeReplicationHook() {
+    // prevent instantiation
+  }
+
+  public void attributeChanged( HttpSession httpSession, String name, Object value ) {
+    httpSession.setAttribute( name, value );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
 package org.eclipse.rap.rwt.internal.lifecycle;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -79,12 +80,14 @@ public class RWTLifeCycle extends LifeCycle {
 
   private final ApplicationContextImpl applicationContext;
   private final PhaseListenerManager phaseListenerManager;
+  private final ThreadFactory uiThreadFactory;
   Runnable uiRunnable;
 
   public RWTLifeCycle( ApplicationContextImpl applicationContext ) {
     super( applicationContext );
     this.applicationContext = applicationContext;
     phaseListenerManager = new PhaseListenerManager( this );
+    uiThreadFactory = UIThreadFactoryProvider.getThreadFactory();
     uiRunnable = new UIThreadController();
   }
 
@@ -246,7 +249,7 @@ public class RWTLifeCycle extends LifeCycle {
 
   private IUIThreadHolder createUIThread() {
     UISession uiSession = ContextProvider.getUISession();
-    IUIThreadHolder result = new UIThread( uiRunnable );
+    IUIThreadHolder result = new UIThread( uiRunnable, uiThreadFactory );
     result.getThread().setDaemon( true );
     result.getThread().setName( "UIThread [" + uiSession.getId() + "]" );
     LifeCycleUtil.setUIThread( uiSession, result );
@@ -287,7 +290,7 @@ public class RWTLifeCycle extends LifeCycle {
 
   private final class UIThreadController implements Runnable {
     public void run() {
-      IUIThreadHolder uiThread = ( IUIThreadHolder )Thread.currentThread();
+      UIThread uiThread = UIThread.getCurrent();
       try {
         // [rh] sync exception handling and switchThread (see bug 316676)
         synchronized( uiThread.getLock() ) {
@@ -314,7 +317,7 @@ public class RWTLifeCycle extends LifeCycle {
         }
       } catch( UIThreadTerminatedError e ) {
         // If we get here, the session is being invalidated, see UIThread#terminateThread()
-        ( ( ISessionShutdownAdapter )uiThread ).processShutdown();
+        uiThread.processShutdown();
       }
     }
   }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2008, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.lifecycle;
 
+import java.util.concurrent.ThreadFactory;
+
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.ServiceContext;
@@ -21,19 +23,46 @@ import org.eclipse.rap.rwt.service.UISession;
 import org.eclipse.swt.widgets.Display;
 
 
-final class UIThread extends Thread implements IUIThreadHolder, ISessionShutdownAdapter {
+/**
+ * Holds the thread that runs the UI code of a UI session. The thread itself is created by a
+ * <code>ThreadFactory</code>, which allows to run the UI code on threads other than dedicated
+ * platform threads.
+ */
+final class UIThread implements IUIThreadHolder, ISessionShutdownAdapter {
 
   static final class UIThreadTerminatedError extends ThreadDeath {
     private static final long serialVersionUID = 1L;
   }
 
+  private static final ThreadLocal<UIThread> CURRENT = new ThreadLocal<UIThread>();
+
+  private final Thread thread;
+  private final Object lock;
   private ServiceContext serviceContext;
   private UISession uiSession;
   private Runnable shutdownCallback;
   private volatile boolean uiThreadTerminating;
+  private volatile boolean uiThreadTerminated;
 
   public UIThread( Runnable runnable ) {
-    super( runnable );
+    this( runnable, UIThreadFactoryProvider.DEFAULT_THREAD_FACTORY );
+  }
+
+  UIThread( Runnable runnable, ThreadFactory threadFactory ) {
+    lock = new Object();
+    thread = threadFactory.newThread( new UIThreadRunnable( this, runnable ) );
+  }
+
+  /**
+   * Returns the UI thread holder whose thread is executing the calling code or <code>null</code>
+   * if called from another thread.
+   */
+  static UIThread getCurrent() {
+    return CURRENT.get();
+  }
+
+  void start() {
+    thread.start();
   }
 
   //////////////////////////
@@ -64,6 +93,24 @@ final class UIThread extends Thread implements IUIThreadHolder, ISessionShutdown
           handleInterruptInSwitchThread( e );
         }
       }
+      if( uiThreadTerminated && Thread.currentThread() != thread ) {
+        waitForTermination();
+      }
+    }
+  }
+
+  private void waitForTermination() {
+    // The terminating UI thread notifies the lock shortly before it ends. Callers expect the
+    // thread to be dead when switchThread returns, as with the monitor of the thread itself.
+    // Waiting on the lock instead of joining releases the monitor held by the caller meanwhile.
+    Object lock = getLock();
+    while( thread.isAlive() ) {
+      try {
+        lock.wait( 10 );
+      } catch( InterruptedException e ) {
+        String msg = "Received InterruptedException while waiting for terminated UIThread";
+        ServletLog.log( msg, e );
+      }
     }
   }
 
@@ -98,15 +145,6 @@ final class UIThread extends Thread implements IUIThreadHolder, ISessionShutdown
     }
   }
 
-  @Override
-  public void run() {
-    try {
-      super.run();
-    } finally {
-      // TODO [rh] call lock.notifyAll()?
-    }
-  }
-
   public void terminateThread() {
     // Prepare a service context to be used by the UI thread that may continue
     // to run as a result of the interrupt call
@@ -127,12 +165,11 @@ final class UIThread extends Thread implements IUIThreadHolder, ISessionShutdown
   }
 
   public Thread getThread() {
-    return this;
+    return thread;
   }
 
   public Object getLock() {
-    // TODO [rh] use a distinct (final) lock object instead of 'this'
-    return this;
+    return lock;
   }
 
 
@@ -179,4 +216,30 @@ final class UIThread extends Thread implements IUIThreadHolder, ISessionShutdown
     return applicationContext != null && applicationContext.isActive();
   }
 
+  private static final class UIThreadRunnable implements Runnable {
+
+    private final UIThread uiThread;
+    private final Runnable runnable;
+
+    UIThreadRunnable( UIThread uiThread, Runnable runnable ) {
+      this.uiThread = uiThread;
+      this.runnable = runnable;
+    }
+
+    public void run() {
+      CURRENT.set( uiThread );
+      try {
+        runnable.run();
+      } finally {
+        CURRENT.remove();
+        // release a request thread that waits in switchThread for the terminated UI thread
+        synchronized( uiThread.getLock() ) {
+          uiThread.uiThreadTerminated = true;
+          uiThread.getLock().notifyAll();
+        }
+      }
+    }
+
+  }
+
 }
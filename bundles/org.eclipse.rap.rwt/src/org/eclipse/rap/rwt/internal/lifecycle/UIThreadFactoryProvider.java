@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.lifecycle;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.service.ServletLog;
+import org.eclipse.rap.rwt.internal.util.ClassInstantiationException;
+import org.eclipse.rap.rwt.internal.util.ClassUtil;
+
+
+/**
+ * Provides the <code>ThreadFactory</code> that creates the UI threads of the
+ * <code>RWTLifeCycle</code>. By default, a dedicated platform thread is created for each UI
+ * session. The system property <code>org.eclipse.rap.rwt.uiThreadFactory</code> accepts the
+ * value <code>virtual</code> to use virtual threads on JVMs that support them, or the name of a
+ * class that implements <code>ThreadFactory</code>.
+ * <p>
+ * UI threads wait in <code>synchronized</code> blocks. Before Java 24, a virtual thread that waits
+ * in a monitor pins its carrier thread, and the carrier pool is limited to 256 threads. Therefore,
+ * virtual threads are only used from Java 24 on, older JVMs fall back to platform threads.
+ * </p>
+ */
+final class UIThreadFactoryProvider {
+
+  static final String VIRTUAL = "virtual";
+  private static final int UNPINNED_MONITORS_VERSION = 24;
+
+  static final ThreadFactory DEFAULT_THREAD_FACTORY = new ThreadFactory() {
+    public Thread newThread( Runnable runnable ) {
+      return new Thread( runnable );
+    }
+  };
+
+  private UIThreadFactoryProvider() {
+    // prevent instantiation
+  }
+
+  static ThreadFactory getThreadFactory() {
+    return getThreadFactory( RWTProperties.getUIThreadFactory() );
+  }
+
+  static ThreadFactory getThreadFactory( String name ) {
+    ThreadFactory result = DEFAULT_THREAD_FACTORY;
+    if( VIRTUAL.equals( name ) ) {
+      if( hasUnpinnedMonitors( System.getProperty( "java.specification.version" ) ) ) {
+        result = createVirtualThreadFactory();
+      } else {
+        String message = "Virtual UI threads require Java "
+                       + UNPINNED_MONITORS_VERSION
+                       + " or later, using platform threads";
+        ServletLog.log( message, null );
+      }
+    } else if( name != null ) {
+      result = createCustomThreadFactory( name );
+    }
+    return result;
+  }
+
+  // Versions before Java 9 are numbered 1.x
+  static boolean hasUnpinnedMonitors( String specificationVersion ) {
+    boolean result = false;
+    if( specificationVersion != null ) {
+      int end = specificationVersion.indexOf( '.' );
+      String major = end == -1 ? specificationVersion : specificationVersion.substring( 0, end );
+      try {
+        result = Integer.parseInt( major.trim() ) >= UNPINNED_MONITORS_VERSION;
+      } catch( NumberFormatException unknownVersion ) {
+        result = false;
+      }
+    }
+    return result;
+  }
+
+  private static ThreadFactory createVirtualThreadFactory() {
+    // Thread.ofVirtual().factory() is accessed reflectively as it is not available on all JVMs
+    ThreadFactory result = DEFAULT_THREAD_FACTORY;
+    try {
+      Method ofVirtual = Thread.class.getMethod( "ofVirtual" );
+      Object builder = ofVirtual.invoke( null );
+      Method factory = ofVirtual.getReturnType().getMethod( "factory" );
+      result = ( ThreadFactory )factory.invoke( builder );
+    } catch( NoSuchMethodException notSupported ) {
+      // fall back to platform threads
+    } catch( Exception exception ) {
+      throw new ClassInstantiationException( "Failed to create virtual thread factory", exception );
+    }
+    return result;
+  }
+
+  private static ThreadFactory createCustomThreadFactory( String className ) {
+    ClassLoader classLoader = UIThreadFactoryProvider.class.getClassLoader();
+    Object result = ClassUtil.newInstance( classLoader, className );
+    if( !( result instanceof ThreadFactory ) ) {
+      String message = "Class is not an instance of ThreadFactory: " + className;
+      throw new ClassInstantiationException( message, null );
+    }
+    return ( ThreadFactory )result;
+  }
+
+}
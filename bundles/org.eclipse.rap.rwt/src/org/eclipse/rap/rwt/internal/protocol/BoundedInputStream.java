@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.protocol;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipException;
+
+import javax.servlet.http.HttpServletResponse;
+
+
+/**
+ * Reads a decompressed client message. Fails with an <code>InvalidRequestException</code> when
+ * more than the given number of bytes are read or when the compressed data is corrupt.
+ */
+final class BoundedInputStream extends FilterInputStream {
+
+  private final long limit;
+  private long count;
+
+  BoundedInputStream( InputStream inputStream, long limit ) {
+    super( inputStream );
+    this.limit = limit;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int result;
+    try {
+      result = super.read();
+    } catch( ZipException exception ) {
+      throw createCorruptDataException();
+    } catch( EOFException exception ) {
+      throw createCorruptDataException();
+    }
+    if( result != -1 ) {
+      count( 1 );
+    }
+    return result;
+  }
+
+  @Override
+  public int read( byte[] buffer, int offset, int length ) throws IOException {
+    int result;
+    try {
+      result = super.read( buffer, offset, length );
+    } catch( ZipException exception ) {
+      throw createCorruptDataException();
+    } catch( EOFException exception ) {
+      throw createCorruptDataException();
+    }
+    if( result > 0 ) {
+      count( result );
+    }
+    return result;
+  }
+
+  @Override
+  public long skip( long length ) throws IOException {
+    long result = super.skip( length );
+    count( result );
+    return result;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private void count( long length ) {
+    count += length;
+    if( count > limit ) {
+      String message = "Decompressed client message exceeds " + limit + " bytes";
+      throw new InvalidRequestException( HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, message );
+    }
+  }
+
+  static InvalidRequestException createCorruptDataException() {
+    String message = "Invalid compressed client message";
+    return new InvalidRequestException( HttpServletResponse.SC_BAD_REQUEST, message );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,17 +10,27 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.protocol;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
-import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
+import org.eclipse.rap.rwt.internal.protocol.ClientMessageReader.OperationData;
+import org.eclipse.rap.rwt.internal.protocol.ClientMessageReader.Range;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 
 
+/**
+ * A message sent by the client. The header and the action, target and name of every operation are
+ * read when the message is created. When the message is read from its text, the properties of an
+ * operation are parsed when they are accessed for the first time, most handlers only look at the
+ * properties of the few operations for their widgets.
+ */
 public class ClientMessage {
 
   public static final String PROP_HEAD = "head";
@@ -29,32 +39,62 @@ public class ClientMessage {
   public static final String OPERATION_NOTIFY = "notify";
   public static final String OPERATION_CALL = "call";
 
-  private final JsonObject message;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final String message;
+  private final JsonObject json;
   private final JsonObject head;
   private final HashMap<String,List<Operation>> operationsMap;
   private final List<Operation> operationsList;
 
   public ClientMessage( JsonObject json ) {
-    ParamCheck.notNull( json, "json" );
-    message = json;
-    try {
-      head = message.get( PROP_HEAD ).asObject();
-    } catch( Exception exception ) {
-      throw new IllegalArgumentException( "Missing header object: " + json );
+    this( null, json, getHead( json ), getOperations( json ) );
+  }
+
+  private ClientMessage( String text,
+                         JsonObject json,
+                         JsonObject head,
+                         List<OperationData> operations )
+  {
+    message = text;
+    this.json = json;
+    this.head = head;
+    operationsMap = new HashMap<String,List<Operation>>();
+    operationsList = new ArrayList<Operation>( operations.size() );
+    processOperations( operations );
+  }
+
+  /**
+   * Reads a client message from the given reader. Only the structure of the message is read, the
+   * properties of the operations are parsed when they are accessed.
+   *
+   * @param reader the reader to read the message from
+   * @return the client message
+   * @throws IOException if reading from the reader fails
+   * @throws IllegalArgumentException if the message is not a valid client message
+   */
+  public static ClientMessage readFrom( Reader reader ) throws IOException {
+    ParamCheck.notNull( reader, "reader" );
+    StringBuilder buffer = new StringBuilder( BUFFER_SIZE );
+    char[] chars = new char[ BUFFER_SIZE ];
+    int count = reader.read( chars );
+    while( count != -1 ) {
+      buffer.append( chars, 0, count );
+      count = reader.read( chars );
     }
-    JsonArray operations;
-    try {
-      operations = message.get( PROP_OPERATIONS ).asArray();
-    } catch( Exception exception ) {
-      throw new IllegalArgumentException( "Missing operations array: " + json );
+    String text = buffer.toString();
+    ClientMessageReader messageReader = new ClientMessageReader( text );
+    messageReader.read();
+    Range headRange = messageReader.getHead();
+    if( headRange == null || !headRange.isObject ) {
+      throw new IllegalArgumentException( "Missing header object" );
     }
-    try {
-      operationsMap = new HashMap<String,List<Operation>>();
-      operationsList = new ArrayList<Operation>();
-      processOperations( operations );
-    } catch( UnsupportedOperationException exception ) {
-      throw new IllegalArgumentException( "Invalid operations array: " + json );
+    JsonObject head = JsonObject.readFrom( text.substring( headRange.start, headRange.end ) );
+    List<OperationData> operations = messageReader.getOperations();
+    if( operations == null ) {
+      throw new IllegalArgumentException( "Missing operations array" );
     }
+    return new ClientMessage( text, null, head, operations );
   }
 
   public JsonValue getHeader( String key ) {
@@ -73,6 +113,10 @@ public class ClientMessage {
     return Collections.unmodifiableList( operations );
   }
 
+  public Set<String> getAllTargets() {
+    return Collections.unmodifiableSet( operationsMap.keySet() );
+  }
+
   public List<CallOperation> getAllCallOperationsFor( String target, String methodName ) {
     List<CallOperation> result = new ArrayList<CallOperation>();
     List<Operation> operations = target == null ? operationsList : operationsMap.get( target );
@@ -93,11 +137,12 @@ public class ClientMessage {
     SetOperation result = null;
     List<Operation> operations = target == null ? operationsList : operationsMap.get( target );
     if( operations != null ) {
-      for( Operation operation : operations ) {
+      // search backwards to parse only the properties of the operations after the last match
+      for( int i = operations.size() - 1; i >= 0 && result == null; i-- ) {
+        Operation operation = operations.get( i );
         if( operation instanceof SetOperation ) {
-          SetOperation currentOperation = ( SetOperation )operation;
-          if( property == null || operation.getPropertyNames().contains( property ) ) {
-            result = currentOperation;
+          if( property == null || operation.getProperty( property ) != null ) {
+            result = ( SetOperation )operation;
           }
         }
       }
@@ -109,7 +154,8 @@ public class ClientMessage {
     NotifyOperation result = null;
     List<Operation> operations = target == null ? operationsList : operationsMap.get( target );
     if( operations != null ) {
-      for( Operation operation : operations ) {
+      for( int i = operations.size() - 1; i >= 0 && result == null; i-- ) {
+        Operation operation = operations.get( i );
         if( operation instanceof NotifyOperation ) {
           NotifyOperation currentOperation = ( NotifyOperation )operation;
           if( eventName == null || currentOperation.getEventName().equals( eventName ) ) {
@@ -123,17 +169,40 @@ public class ClientMessage {
 
   @Override
   public String toString() {
-    return message.toString();
+    return message != null ? message : json.toString();
   }
 
-  private void processOperations( JsonArray operations ) {
-    for( int i = 0; i < operations.size(); i++ ) {
-      Operation operation = createOperation( operations.get( i ).asArray() );
-      appendOperation( operation );
+  private static JsonObject getHead( JsonObject json ) {
+    ParamCheck.notNull( json, "json" );
+    JsonValue head = json.get( PROP_HEAD );
+    if( head == null || !head.isObject() ) {
+      throw new IllegalArgumentException( "Missing header object" );
     }
+    return head.asObject();
   }
 
-  private Operation createOperation( JsonArray data ) {
+  private static List<OperationData> getOperations( JsonObject json ) {
+    JsonValue operations = json.get( PROP_OPERATIONS );
+    if( operations == null || !operations.isArray() ) {
+      throw new IllegalArgumentException( "Missing operations array" );
+    }
+    List<OperationData> result = new ArrayList<OperationData>( operations.asArray().size() );
+    for( JsonValue operation : operations.asArray() ) {
+      if( !operation.isArray() ) {
+        throw new IllegalArgumentException( "Invalid operations array" );
+      }
+      result.add( new OperationData( operation.asArray() ) );
+    }
+    return result;
+  }
+
+  private void processOperations( List<OperationData> operations ) {
+    for( OperationData data : operations ) {
+      appendOperation( createOperation( data ) );
+    }
+  }
+
+  private Operation createOperation( OperationData data ) {
     Operation result = null;
     String action = getOperationAction( data );
     if( action.equals( OPERATION_SET ) ) {
@@ -152,19 +221,18 @@ public class ClientMessage {
     String target = operation.getTarget();
     List<Operation> targetOperations = operationsMap.get( target );
     if( targetOperations == null ) {
-      targetOperations = new ArrayList<Operation>();
+      targetOperations = new ArrayList<Operation>( 2 );
+      operationsMap.put( target, targetOperations );
     }
     targetOperations.add( operation );
-    operationsMap.put( target, targetOperations );
     operationsList.add( operation );
   }
 
-  private String getOperationAction( JsonArray operation ) {
-    String result;
-    try {
-      result = operation.get( 0 ).asString();
-    } catch( Exception e ) {
-      throw new IllegalArgumentException( "Could not find action for operation " + operation );
+  private String getOperationAction( OperationData operation ) {
+    String result = operation.getString( 0 );
+    if( result == null ) {
+      int index = operationsList.size();
+      throw new IllegalArgumentException( "Could not find action for operation " + index );
     }
     return result;
   }
@@ -172,12 +240,18 @@ public class ClientMessage {
   public abstract class Operation {
 
     private final String target;
+    private final Range propertiesRange;
+    private JsonObject properties;
 
-    private Operation( JsonArray operation ) {
-      try {
-        target = operation.get( 1 ).asString();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Invalid operation target", e );
+    private Operation( OperationData operation, int propertiesPosition ) {
+      target = operation.getString( 1 );
+      if( target == null ) {
+        throw new IllegalArgumentException( "Invalid operation target" );
+      }
+      properties = operation.getJsonObject( propertiesPosition );
+      propertiesRange = operation.getObject( propertiesPosition );
+      if( properties == null && propertiesRange == null ) {
+        throw new IllegalArgumentException( "Properties object missing in operation" );
       }
     }
 
@@ -193,26 +267,20 @@ public class ClientMessage {
       return getProperties().get( key );
     }
 
-    abstract public JsonObject getProperties();
+    public JsonObject getProperties() {
+      if( properties == null ) {
+        String text = message.substring( propertiesRange.start, propertiesRange.end );
+        properties = JsonObject.readFrom( text );
+      }
+      return properties;
+    }
 
   }
 
   public final class SetOperation extends Operation {
 
-    private final JsonObject properties;
-
-    private SetOperation( JsonArray operation ) {
-      super( operation );
-      try {
-        properties = operation.get( 2 ).asObject();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Properties object missing in operation", e );
-      }
-    }
-
-    @Override
-    public JsonObject getProperties() {
-      return properties;
+    private SetOperation( OperationData operation ) {
+      super( operation, 2 );
     }
 
   }
@@ -220,19 +288,12 @@ public class ClientMessage {
   public final class NotifyOperation extends Operation {
 
     private final String eventName;
-    private final JsonObject properties;
-
-    private NotifyOperation( JsonArray operation ) {
-      super( operation );
-      try {
-        eventName = operation.get( 2 ).asString();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Event type missing in operation", e );
-      }
-      try {
-        properties = operation.get( 3 ).asObject();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Properties object missing in operation", e );
+
+    private NotifyOperation( OperationData operation ) {
+      super( operation, 3 );
+      eventName = operation.getString( 2 );
+      if( eventName == null ) {
+        throw new IllegalArgumentException( "Event type missing in operation" );
       }
     }
 
@@ -240,29 +301,17 @@ public class ClientMessage {
       return eventName;
     }
 
-    @Override
-    public JsonObject getProperties() {
-      return properties;
-    }
-
   }
 
   public final class CallOperation extends Operation {
 
     private final String methodName;
-    private final JsonObject properties;
-
-    private CallOperation( JsonArray operation ) {
-      super( operation );
-      try {
-        methodName = operation.get( 2 ).asString();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Method name missing in operation", e );
-      }
-      try {
-        properties = operation.get( 3 ).asObject();
-      } catch( Exception e ) {
-        throw new IllegalArgumentException( "Properties object missing in operation", e );
+
+    private CallOperation( OperationData operation ) {
+      super( operation, 3 );
+      methodName = operation.getString( 2 );
+      if( methodName == null ) {
+        throw new IllegalArgumentException( "Method name missing in operation" );
       }
     }
 
@@ -270,11 +319,6 @@ public class ClientMessage {
       return methodName;
     }
 
-    @Override
-    public JsonObject getProperties() {
-      return properties;
-    }
-
   }
 
 }
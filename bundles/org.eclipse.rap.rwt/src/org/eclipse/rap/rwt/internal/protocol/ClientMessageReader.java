@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rap.json.JsonArray;
+import org.eclipse.rap.json.JsonObject;
+import org.eclipse.rap.json.JsonValue;
+
+
+/**
+ * Reads the structure of a client message in a single pass without creating JSON values for the
+ * properties of the operations. The strings at the beginning of every operation, i.e. action,
+ * target and event or method name, are decoded. Objects are only located in the message text, so
+ * that they can be parsed when they are accessed.
+ * <p>
+ * The reader validates the complete message against the JSON grammar, so that parsing a located
+ * value later on cannot fail. Errors quote only an excerpt of the message around the position of
+ * the error.
+ * </p>
+ */
+final class ClientMessageReader {
+
+  private static final String[] LITERALS = { "true", "false", "null" };
+  private static final String ESCAPE_CHARS = "\"\\/bfnrt";
+  private static final int EXCERPT_LENGTH = 60;
+
+  private final String text;
+  private int index;
+  private Range head;
+  private List<OperationData> operations;
+
+  ClientMessageReader( String text ) {
+    this.text = text;
+  }
+
+  void read() {
+    skipWhiteSpace();
+    readRequiredChar( '{' );
+    skipWhiteSpace();
+    if( !readChar( '}' ) ) {
+      do {
+        skipWhiteSpace();
+        String name = readString();
+        skipWhiteSpace();
+        readRequiredChar( ':' );
+        skipWhiteSpace();
+        if( ClientMessage.PROP_HEAD.equals( name ) ) {
+          head = skipValue();
+        } else if( ClientMessage.PROP_OPERATIONS.equals( name ) && current() == '[' ) {
+          operations = readOperations();
+        } else {
+          skipValue();
+        }
+        skipWhiteSpace();
+      } while( readChar( ',' ) );
+      readRequiredChar( '}' );
+    }
+    skipWhiteSpace();
+    if( index < text.length() ) {
+      throw error( "Unexpected character" );
+    }
+  }
+
+  /**
+   * Returns the range of the header value or <code>null</code> if the message has no header.
+   */
+  Range getHead() {
+    return head;
+  }
+
+  /**
+   * Returns the operations or <code>null</code> if the message has no operations array.
+   */
+  List<OperationData> getOperations() {
+    return operations;
+  }
+
+  private List<OperationData> readOperations() {
+    List<OperationData> result = new ArrayList<OperationData>();
+    readRequiredChar( '[' );
+    skipWhiteSpace();
+    if( !readChar( ']' ) ) {
+      do {
+        skipWhiteSpace();
+        result.add( readOperation() );
+        skipWhiteSpace();
+      } while( readChar( ',' ) );
+      readRequiredChar( ']' );
+    }
+    return result;
+  }
+
+  private OperationData readOperation() {
+    if( current() != '[' ) {
+      throw error( "Invalid operations array" );
+    }
+    OperationData result = new OperationData();
+    skip();
+    skipWhiteSpace();
+    if( !readChar( ']' ) ) {
+      do {
+        skipWhiteSpace();
+        if( current() == '"' ) {
+          result.elements.add( readString() );
+        } else {
+          result.elements.add( skipValue() );
+        }
+        skipWhiteSpace();
+      } while( readChar( ',' ) );
+      readRequiredChar( ']' );
+    }
+    return result;
+  }
+
+  private String readString() {
+    int start = index;
+    readRequiredChar( '"' );
+    boolean escaped = false;
+    while( current() != '"' ) {
+      char ch = current();
+      if( ch == '\\' ) {
+        escaped = true;
+        skip();
+        skipEscape();
+      } else if( ch < 0x20 ) {
+        throw error( "Invalid string character" );
+      } else {
+        skip();
+      }
+    }
+    skip();
+    String result;
+    if( escaped ) {
+      result = JsonValue.readFrom( text.substring( start, index ) ).asString();
+    } else {
+      result = text.substring( start + 1, index - 1 );
+    }
+    return result;
+  }
+
+  private void skipEscape() {
+    char ch = current();
+    if( ch == 'u' ) {
+      skip();
+      for( int i = 0; i < 4; i++ ) {
+        if( !isHexDigit( current() ) ) {
+          throw error( "Expected hexadecimal digit" );
+        }
+        skip();
+      }
+    } else if( ESCAPE_CHARS.indexOf( ch ) != -1 ) {
+      skip();
+    } else {
+      throw error( "Invalid escape sequence" );
+    }
+  }
+
+  private Range skipValue() {
+    int start = index;
+    char first = current();
+    if( first == '"' ) {
+      readString();
+    } else if( first == '{' ) {
+      skipObject();
+    } else if( first == '[' ) {
+      skipArray();
+    } else if( first == '-' || isDigit( first ) ) {
+      skipNumber();
+    } else {
+      skipLiteral();
+    }
+    return new Range( start, index, first == '{' );
+  }
+
+  private void skipObject() {
+    readRequiredChar( '{' );
+    skipWhiteSpace();
+    if( !readChar( '}' ) ) {
+      do {
+        skipWhiteSpace();
+        if( current() != '"' ) {
+          throw error( "Expected name" );
+        }
+        readString();
+        skipWhiteSpace();
+        readRequiredChar( ':' );
+        skipWhiteSpace();
+        skipValue();
+        skipWhiteSpace();
+      } while( readChar( ',' ) );
+      readRequiredChar( '}' );
+    }
+  }
+
+  private void skipArray() {
+    readRequiredChar( '[' );
+    skipWhiteSpace();
+    if( !readChar( ']' ) ) {
+      do {
+        skipWhiteSpace();
+        skipValue();
+        skipWhiteSpace();
+      } while( readChar( ',' ) );
+      readRequiredChar( ']' );
+    }
+  }
+
+  private void skipNumber() {
+    readChar( '-' );
+    if( !readChar( '0' ) ) {
+      skipDigits();
+    }
+    if( readChar( '.' ) ) {
+      skipDigits();
+    }
+    if( readChar( 'e' ) || readChar( 'E' ) ) {
+      if( !readChar( '+' ) ) {
+        readChar( '-' );
+      }
+      skipDigits();
+    }
+  }
+
+  private void skipDigits() {
+    if( !isDigit( current() ) ) {
+      throw error( "Expected digit" );
+    }
+    while( index < text.length() && isDigit( text.charAt( index ) ) ) {
+      index++;
+    }
+  }
+
+  private void skipLiteral() {
+    String literal = null;
+    for( int i = 0; i < LITERALS.length && literal == null; i++ ) {
+      if( text.startsWith( LITERALS[ i ], index ) ) {
+        literal = LITERALS[ i ];
+      }
+    }
+    if( literal == null ) {
+      throw error( "Expected value" );
+    }
+    index += literal.length();
+  }
+
+  private void readRequiredChar( char ch ) {
+    if( !readChar( ch ) ) {
+      throw error( "Expected '" + ch + "'" );
+    }
+  }
+
+  private boolean readChar( char ch ) {
+    boolean result = index < text.length() && text.charAt( index ) == ch;
+    if( result ) {
+      index++;
+    }
+    return result;
+  }
+
+  private void skipWhiteSpace() {
+    while( index < text.length() && isWhiteSpace( text.charAt( index ) ) ) {
+      index++;
+    }
+  }
+
+  private char current() {
+    if( index >= text.length() ) {
+      throw error( "Unexpected end of input" );
+    }
+    return text.charAt( index );
+  }
+
+  private void skip() {
+    current();
+    index++;
+  }
+
+  private IllegalArgumentException error( String message ) {
+    String location = " at " + index + " in client message: " + getExcerpt();
+    return new IllegalArgumentException( message + location );
+  }
+
+  private String getExcerpt() {
+    int start = Math.max( 0, index - EXCERPT_LENGTH / 2 );
+    int end = Math.min( text.length(), start + EXCERPT_LENGTH );
+    StringBuilder result = new StringBuilder();
+    if( start > 0 ) {
+      result.append( "..." );
+    }
+    result.append( text, start, end );
+    if( end < text.length() ) {
+      result.append( "..." );
+    }
+    return result.toString();
+  }
+
+  private static boolean isDigit( char ch ) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static boolean isHexDigit( char ch ) {
+    return isDigit( ch ) || ch >= 'a' && ch <= 'f' || ch >= 'A' && ch <= 'F';
+  }
+
+  private static boolean isWhiteSpace( char ch ) {
+    return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+  }
+
+  /**
+   * The position of a value in the message text.
+   */
+  static final class Range {
+
+    final int start;
+    final int end;
+    final boolean isObject;
+
+    Range( int start, int end, boolean isObject ) {
+      this.start = start;
+      this.end = end;
+      this.isObject = isObject;
+    }
+
+  }
+
+  /**
+   * The elements of an operation, a decoded <code>String</code> for strings and a
+   * <code>Range</code> for any other value. Operations of a message that has already been parsed
+   * hold the <code>JsonValue</code> instead of the range.
+   */
+  static final class OperationData {
+
+    private final List<Object> elements;
+
+    OperationData() {
+      elements = new ArrayList<Object>( 4 );
+    }
+
+    OperationData( JsonArray operation ) {
+      elements = new ArrayList<Object>( operation.size() );
+      for( JsonValue value : operation ) {
+        elements.add( value.isString() ? value.asString() : value );
+      }
+    }
+
+    String getString( int position ) {
+      Object element = position < elements.size() ? elements.get( position ) : null;
+      return element instanceof String ? ( String )element : null;
+    }
+
+    Range getObject( int position ) {
+      Object element = position < elements.size() ? elements.get( position ) : null;
+      boolean isObject = element instanceof Range && ( ( Range )element ).isObject;
+      return isObject ? ( Range )element : null;
+    }
+
+    JsonObject getJsonObject( int position ) {
+      Object element = position < elements.size() ? elements.get( position ) : null;
+      boolean isObject = element instanceof JsonValue && ( ( JsonValue )element ).isObject();
+      return isObject ? ( ( JsonValue )element ).asObject() : null;
+    }
+
+  }
+
+}
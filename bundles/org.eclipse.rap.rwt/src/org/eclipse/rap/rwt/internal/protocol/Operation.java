@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,9 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.protocol;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
@@ -55,4 +58,20 @@ final class Operation {
     return json;
   }
 
+  void writeTo( Writer writer ) throws IOException {
+    writer.write( '[' );
+    JsonValue.valueOf( action ).writeTo( writer );
+    writer.write( ',' );
+    JsonValue.valueOf( target ).writeTo( writer );
+    if( detail != null ) {
+      writer.write( ',' );
+      JsonValue.valueOf( detail ).writeTo( writer );
+    }
+    if( properties != null && !properties.isEmpty() ) {
+      writer.write( ',' );
+      properties.writeTo( writer );
+    }
+    writer.write( ']' );
+  }
+
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.protocol;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import javax.servlet.ServletResponse;
+
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.util.HTTP;
+
+
+/**
+ * A writer that passes a streamed protocol message to the response and keeps a UTF-8 encoded
+ * copy of it. The copy is needed to answer duplicate requests without running the life cycle.
+ * It is only kept as long as it does not exceed the buffered message limit, larger messages are
+ * not buffered anyway. The response writer is not obtained before the first character is written.
+ */
+public class ProtocolMessageOutput extends Writer {
+
+  private static final Charset CHARSET = Charset.forName( HTTP.CHARSET_UTF_8 );
+
+  private final ServletResponse response;
+  private final LimitedByteArrayOutputStream bytes;
+  private final Writer copy;
+  private Writer target;
+
+  public ProtocolMessageOutput( ServletResponse response ) {
+    this( response, RWTProperties.getBufferedMessageLimit() );
+  }
+
+  ProtocolMessageOutput( ServletResponse response, int copyLimit ) {
+    this.response = response;
+    bytes = new LimitedByteArrayOutputStream( copyLimit );
+    copy = new OutputStreamWriter( bytes, CHARSET );
+  }
+
+  @Override
+  public void write( int character ) throws IOException {
+    getTarget().write( character );
+    if( !bytes.exceeded ) {
+      copy.write( character );
+    }
+  }
+
+  @Override
+  public void write( char[] buffer, int offset, int length ) throws IOException {
+    getTarget().write( buffer, offset, length );
+    if( !bytes.exceeded ) {
+      copy.write( buffer, offset, length );
+    }
+  }
+
+  @Override
+  public void write( String string, int offset, int length ) throws IOException {
+    getTarget().write( string, offset, length );
+    if( !bytes.exceeded ) {
+      copy.write( string, offset, length );
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if( target != null ) {
+      target.flush();
+    }
+    copy.flush();
+  }
+
+  /**
+   * Flushes the pending output but leaves the response writer open.
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+
+  /**
+   * Returns the UTF-8 encoded message or <code>null</code> if it exceeds the copy limit.
+   */
+  public byte[] toByteArray() throws IOException {
+    copy.flush();
+    return bytes.exceeded ? null : bytes.toByteArray();
+  }
+
+  /**
+   * Whether the response has been committed, i.e. parts of the message have been sent.
+   */
+  public boolean isCommitted() {
+    return response.isCommitted();
+  }
+
+  /**
+   * Discards the output that has not been sent to the client yet.
+   */
+  public void reset() {
+    target = null;
+    response.resetBuffer();
+  }
+
+  private Writer getTarget() throws IOException {
+    if( target == null ) {
+      target = new BufferedWriter( response.getWriter() );
+    }
+    return target;
+  }
+
+  // Stops keeping the bytes once the limit is exceeded
+  private static final class LimitedByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private final int limit;
+    private boolean exceeded;
+
+    LimitedByteArrayOutputStream( int limit ) {
+      this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write( int value ) {
+      if( ensureCapacity( 1 ) ) {
+        super.write( value );
+      }
+    }
+
+    @Override
+    public synchronized void write( byte[] buffer, int offset, int length ) {
+      if( ensureCapacity( length ) ) {
+        super.write( buffer, offset, length );
+      }
+    }
+
+    private boolean ensureCapacity( int length ) {
+      if( !exceeded && length > limit - count ) {
+        exceeded = true;
+        buf = new byte[ 0 ];
+        count = 0;
+      }
+      return !exceeded;
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2010, 2013 EclipseSource and others.
+* Copyright (c) 2010, 2014 EclipseSource and others.
 * All rights reserved. This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License v1.0
 * which accompanies this distribution, and is available at
@@ -18,6 +18,8 @@ import static org.eclipse.rap.rwt.internal.protocol.ProtocolConstants.ACTION_SET
 import static org.eclipse.rap.rwt.internal.protocol.ProtocolConstants.HEAD;
 import static org.eclipse.rap.rwt.internal.protocol.ProtocolConstants.OPERATIONS;
 
+import java.io.IOException;
+
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
@@ -27,18 +29,37 @@ public class ProtocolMessageWriter {
 
   private final JsonObject head;
   private final JsonArray operations;
+  private final ProtocolMessageOutput output;
   private Operation pendingOperation;
   private boolean alreadyCreated;
+  private boolean outputStarted;
 
   public ProtocolMessageWriter() {
     head = new JsonObject();
     operations = new JsonArray();
+    output = null;
+  }
+
+  /**
+   * Creates a protocol writer that does not keep the operations in memory but writes every
+   * completed operation to the given output as soon as the next one is appended. Since the head
+   * can still be changed while the operations are written, it is written after the operations.
+   * A message written in this mode has to be completed by calling {@link #finishMessage()}.
+   */
+  public ProtocolMessageWriter( ProtocolMessageOutput output ) {
+    head = new JsonObject();
+    operations = null;
+    this.output = output;
   }
 
   public boolean hasOperations() {
     return pendingOperation != null;
   }
 
+  public boolean isStreaming() {
+    return output != null;
+  }
+
   public void appendHead( String property, int value ) {
     appendHead( property, JsonValue.valueOf( value ) );
   }
@@ -108,11 +129,62 @@ public class ProtocolMessageWriter {
   }
 
   public JsonObject createMessage() {
+    if( isStreaming() ) {
+      throw new IllegalStateException( "Message is streamed and must be finished instead" );
+    }
     ensureMessagePending();
     alreadyCreated = true;
     return createMessageObject();
   }
 
+  /**
+   * Writes the remaining parts of a streamed message to the output.
+   *
+   * @return the complete message as UTF-8 encoded bytes or <code>null</code> if it exceeds the
+   *         buffered message limit
+   */
+  public byte[] finishMessage() throws IOException {
+    if( !isStreaming() ) {
+      throw new IllegalStateException( "Message is not streamed and must be created instead" );
+    }
+    ensureMessagePending();
+    alreadyCreated = true;
+    appendPendingOperation();
+    ensureOutputStarted();
+    output.write( ']' );
+    output.write( ',' );
+    writeName( HEAD );
+    head.writeTo( output );
+    output.write( '}' );
+    output.flush();
+    return output.toByteArray();
+  }
+
+  /**
+   * Ends a streamed message that can not be completed. If parts of the message have already been
+   * sent, the message is closed with a head that only contains the given property, the pending
+   * operation is dropped. Otherwise, the output is discarded.
+   */
+  public void abortMessage( String property, JsonValue value ) throws IOException {
+    if( !isStreaming() ) {
+      throw new IllegalStateException( "Message is not streamed and cannot be aborted" );
+    }
+    if( !alreadyCreated ) {
+      alreadyCreated = true;
+      if( output.isCommitted() ) {
+        ensureOutputStarted();
+        output.write( ']' );
+        output.write( ',' );
+        writeName( HEAD );
+        new JsonObject().add( property, value ).writeTo( output );
+        output.write( '}' );
+        output.flush();
+      } else {
+        output.reset();
+      }
+    }
+  }
+
   private void ensureMessagePending() {
     if( alreadyCreated ) {
       throw new IllegalStateException( "Message already created" );
@@ -142,8 +214,39 @@ public class ProtocolMessageWriter {
 
   private void appendPendingOperation() {
     if( pendingOperation != null ) {
-      operations.add( pendingOperation.toJson() );
+      if( isStreaming() ) {
+        writePendingOperation();
+      } else {
+        operations.add( pendingOperation.toJson() );
+      }
     }
   }
 
+  private void writePendingOperation() {
+    try {
+      if( outputStarted ) {
+        output.write( ',' );
+      } else {
+        ensureOutputStarted();
+      }
+      pendingOperation.writeTo( output );
+    } catch( IOException exception ) {
+      throw new RuntimeException( "Failed to write protocol message", exception );
+    }
+  }
+
+  private void ensureOutputStarted() throws IOException {
+    if( !outputStarted ) {
+      output.write( '{' );
+      writeName( OPERATIONS );
+      output.write( '[' );
+      outputStarted = true;
+    }
+  }
+
+  private void writeName( String name ) throws IOException {
+    JsonValue.valueOf( name ).writeTo( output );
+    output.write( ':' );
+  }
+
 }
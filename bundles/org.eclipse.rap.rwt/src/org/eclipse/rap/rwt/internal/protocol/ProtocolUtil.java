@@ -12,18 +12,23 @@ package org.eclipse.rap.rwt.internal.protocol;
 
 import static org.eclipse.rap.rwt.internal.protocol.JsonUtil.jsonToJava;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.eclipse.rap.json.JsonArray;
-import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.protocol.ClientMessage.CallOperation;
 import org.eclipse.rap.rwt.internal.protocol.ClientMessage.NotifyOperation;
 import org.eclipse.rap.rwt.internal.protocol.ClientMessage.Operation;
@@ -68,8 +73,7 @@ public final class ProtocolUtil {
     if( clientMessage == null ) {
       HttpServletRequest request = ContextProvider.getRequest();
       try {
-        JsonObject json = JsonObject.readFrom( getReader( request ) );
-        clientMessage = new ClientMessage( json );
+        clientMessage = ClientMessage.readFrom( getReader( request ) );
       } catch( IOException ioe ) {
         throw new IllegalStateException( "Unable to read the json message", ioe );
       }
@@ -83,12 +87,42 @@ public final class ProtocolUtil {
    * 411616: Application crash with very long messages
    * https://bugs.eclipse.org/bugs/show_bug.cgi?id=411616
    */
-  private static Reader getReader( HttpServletRequest request ) throws IOException {
+  static Reader getReader( HttpServletRequest request ) throws IOException {
     String encoding = request.getCharacterEncoding();
     if( encoding == null ) {
       encoding = HTTP.CHARSET_UTF_8;
     }
-    return new InputStreamReader( request.getInputStream(), encoding );
+    return new InputStreamReader( getInputStream( request ), encoding );
+  }
+
+  private static InputStream getInputStream( HttpServletRequest request ) throws IOException {
+    InputStream result = request.getInputStream();
+    if( RWTProperties.isClientMessageDecompressionEnabled() ) {
+      String contentEncoding = request.getHeader( "Content-Encoding" );
+      if( "gzip".equalsIgnoreCase( contentEncoding ) ) {
+        result = limit( createGZIPInputStream( result ) );
+      } else if( "deflate".equalsIgnoreCase( contentEncoding ) ) {
+        result = limit( new InflaterInputStream( result ) );
+      }
+    }
+    return result;
+  }
+
+  private static InputStream createGZIPInputStream( InputStream inputStream ) throws IOException {
+    InputStream result;
+    try {
+      // reads the gzip header
+      result = new GZIPInputStream( inputStream );
+    } catch( ZipException exception ) {
+      throw BoundedInputStream.createCorruptDataException();
+    } catch( EOFException exception ) {
+      throw BoundedInputStream.createCorruptDataException();
+    }
+    return result;
+  }
+
+  private static InputStream limit( InputStream inputStream ) {
+    return new BoundedInputStream( inputStream, RWTProperties.getDecompressedMessageLimit() );
   }
 
   public static void setClientMessage( ClientMessage clientMessage ) {
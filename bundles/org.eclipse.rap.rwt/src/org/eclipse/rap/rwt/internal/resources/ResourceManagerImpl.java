@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,8 @@
 package org.eclipse.rap.rwt.internal.resources;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -21,10 +22,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 import org.eclipse.rap.rwt.internal.util.StreamUtil;
 import org.eclipse.rap.rwt.service.ResourceLoader;
@@ -46,12 +54,29 @@ import org.eclipse.rap.rwt.service.ResourceManager;
  */
 public class ResourceManagerImpl implements ResourceManager {
 
+  static final String GZIP_EXTENSION = ".gz";
+  private static final String DIGEST_ALGORITHM = "MD5";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final String[] COMPRESSIBLE_EXTENSIONS = {
+    ".js", ".css", ".html", ".htm", ".json", ".txt", ".xml", ".svg"
+  };
+
   private final ResourceDirectory resourceDirectory;
   private final Set<String> resources;
+  private final Map<String,String> fingerprints;
+  private final boolean fingerprintsEnabled;
+  private final boolean compressionEnabled;
+  private final Map<String,byte[]> contents;
+  private final boolean cachingEnabled;
 
   public ResourceManagerImpl( ResourceDirectory resourceDirectory ) {
     this.resourceDirectory = resourceDirectory;
     resources = Collections.synchronizedSet( new HashSet<String>() );
+    fingerprints = Collections.synchronizedMap( new HashMap<String,String>() );
+    fingerprintsEnabled = RWTProperties.isResourceFingerprintingEnabled();
+    compressionEnabled = RWTProperties.isResourceCompressionEnabled();
+    contents = Collections.synchronizedMap( new HashMap<String,byte[]>() );
+    cachingEnabled = RWTProperties.isResourceCachingEnabled();
   }
 
   /////////////////////////////
@@ -88,8 +113,11 @@ public class ResourceManagerImpl implements ResourceManager {
     boolean result = false;
     if( resources.remove( name ) ) {
       result = true;
+      fingerprints.remove( getRequestPath( name ) );
+      contents.remove( name );
       File file = getDiskLocation( name );
       file.delete();
+      getCompressedFile( file ).delete();
     }
     return result;
   }
@@ -111,57 +139,180 @@ public class ResourceManagerImpl implements ResourceManager {
     ParamCheck.notNull( name, "name" );
     InputStream result = null;
     if( resources.contains( name ) ) {
-      File file = getDiskLocation( name );
-      try {
-        result = new FileInputStream( file );
-      } catch( FileNotFoundException fnfe ) {
-        throw new RuntimeException( fnfe );
+      byte[] content = contents.get( name );
+      if( content != null ) {
+        result = new ByteArrayInputStream( content );
+      } else {
+        File file = getDiskLocation( name );
+        try {
+          result = new FileInputStream( file );
+        } catch( FileNotFoundException fnfe ) {
+          throw new RuntimeException( fnfe );
+        }
       }
     }
     return result;
   }
 
+  /**
+   * Returns the fingerprint of the current content of a resource, or <code>null</code> if the
+   * resource is not registered or fingerprints are disabled.
+   *
+   * @param path the path of the resource relative to the resource directory, as used in its URL
+   */
+  public String getFingerprint( String path ) {
+    ParamCheck.notNull( path, "path" );
+    return fingerprints.get( path );
+  }
+
   //////////////////
   // helping methods
 
   private String createRequestUrl( String resourceName ) {
-    String newFileName = resourceName.replace( '\\', '/' );
     StringBuilder url = new StringBuilder();
     url.append( ResourceDirectory.DIRNAME );
     url.append( "/" );
-    String escapedResourceNamea = escapeResourceName( newFileName );
-    url.append( escapedResourceNamea );
+    String path = getRequestPath( resourceName );
+    url.append( path );
+    String fingerprint = fingerprints.get( path );
+    if( fingerprint != null ) {
+      // the query string changes with the content, the resource can be cached forever
+      url.append( "?" );
+      url.append( fingerprint );
+    }
     return url.toString();
   }
 
   private void internalRegister( String name, InputStream inputStream ) {
     File location = getDiskLocation( name );
     try {
-      createDirectories( location );
-      writeResource( inputStream, location );
+      byte[] content = readResource( inputStream );
+      byte[] digest = getDigest( content );
+      // leave unchanged files alone to avoid disk writes and to keep their modification time
+      File compressedLocation = getCompressedFile( location );
+      boolean changed = !isUnchanged( location, content.length, digest );
+      if( changed ) {
+        createDirectories( location );
+        writeResource( content, location );
+      }
+      if( compressionEnabled && isCompressible( name ) ) {
+        // the compressed copy is outdated if it is older than the resource, e.g. after a crash
+        if( changed || compressedLocation.lastModified() < location.lastModified() ) {
+          writeCompressedResource( content, compressedLocation );
+        }
+      } else if( changed ) {
+        compressedLocation.delete();
+      }
+      if( fingerprintsEnabled ) {
+        fingerprints.put( getRequestPath( name ), toHex( digest ) );
+      }
+      if( cachingEnabled ) {
+        contents.put( name, content );
+      }
     } catch ( IOException ioe ) {
       throw new RuntimeException( "Failed to register resource: " + name, ioe );
     }
     resources.add( name );
   }
 
-  private static void writeResource( InputStream inputStream, File location )
-    throws IOException
-  {
+  private static byte[] readResource( InputStream inputStream ) throws IOException {
     BufferedInputStream bufferedStream = new BufferedInputStream( inputStream );
-    OutputStream outputStream = new BufferedOutputStream( new FileOutputStream( location ) );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 4096 ];
+    int read = bufferedStream.read( buffer );
+    while( read != -1 ) {
+      outputStream.write( buffer, 0, read );
+      read = bufferedStream.read( buffer );
+    }
+    return outputStream.toByteArray();
+  }
+
+  private static void writeResource( byte[] content, File location ) throws IOException {
+    OutputStream outputStream = new FileOutputStream( location );
     try {
-      byte[] buffer = new byte[ 256 ];
-      int read = bufferedStream.read( buffer );
-      while( read != -1 ) {
-        outputStream.write( buffer, 0, read );
-        read = bufferedStream.read( buffer );
-      }
+      outputStream.write( content );
     } finally {
       outputStream.close();
     }
   }
 
+  private static void writeCompressedResource( byte[] content, File location )
+    throws IOException
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( content.length / 4 + 64 );
+    OutputStream gzipStream = new GZIPOutputStream( bytes );
+    try {
+      gzipStream.write( content );
+    } finally {
+      gzipStream.close();
+    }
+    // a compressed copy that is not smaller than the original would only waste bandwidth
+    if( bytes.size() < content.length ) {
+      writeResource( bytes.toByteArray(), location );
+    } else {
+      location.delete();
+    }
+  }
+
+  private static boolean isUnchanged( File location, int length, byte[] digest )
+    throws IOException
+  {
+    boolean result = false;
+    if( location.isFile() && location.length() == length ) {
+      MessageDigest fileDigest = createDigest();
+      InputStream inputStream = new FileInputStream( location );
+      try {
+        byte[] buffer = new byte[ 4096 ];
+        int read = inputStream.read( buffer );
+        while( read != -1 ) {
+          fileDigest.update( buffer, 0, read );
+          read = inputStream.read( buffer );
+        }
+      } finally {
+        inputStream.close();
+      }
+      result = MessageDigest.isEqual( fileDigest.digest(), digest );
+    }
+    return result;
+  }
+
+  private static byte[] getDigest( byte[] content ) {
+    return createDigest().digest( content );
+  }
+
+  private static MessageDigest createDigest() {
+    MessageDigest result;
+    try {
+      result = MessageDigest.getInstance( DIGEST_ALGORITHM );
+    } catch( NoSuchAlgorithmException exception ) {
+      // every Java platform is required to support MD5
+      throw new IllegalStateException( "Digest algorithm not available: " + DIGEST_ALGORITHM );
+    }
+    return result;
+  }
+
+  private static String toHex( byte[] bytes ) {
+    char[] result = new char[ bytes.length * 2 ];
+    for( int i = 0; i < bytes.length; i++ ) {
+      result[ i * 2 ] = HEX_DIGITS[ ( bytes[ i ] >> 4 ) & 0xf ];
+      result[ i * 2 + 1 ] = HEX_DIGITS[ bytes[ i ] & 0xf ];
+    }
+    return new String( result );
+  }
+
+  static File getCompressedFile( File file ) {
+    return new File( file.getPath() + GZIP_EXTENSION );
+  }
+
+  private static boolean isCompressible( String name ) {
+    String lowerCaseName = name.toLowerCase( Locale.ENGLISH );
+    boolean result = false;
+    for( int i = 0; i < COMPRESSIBLE_EXTENSIONS.length && !result; i++ ) {
+      result = lowerCaseName.endsWith( COMPRESSIBLE_EXTENSIONS[ i ] );
+    }
+    return result;
+  }
+
   private static void createDirectories( File file ) throws IOException {
     File dir = new File( file.getParent() );
     if( !dir.mkdirs() ) {
@@ -171,6 +322,10 @@ public class ResourceManagerImpl implements ResourceManager {
     }
   }
 
+  private static String getRequestPath( String resourceName ) {
+    return escapeResourceName( resourceName.replace( '\\', '/' ) );
+  }
+
   private File getDiskLocation( String resourceName ) {
     String escapedResourceName = escapeResourceName( resourceName );
     return new File( resourceDirectory.getDirectory(), escapedResourceName );
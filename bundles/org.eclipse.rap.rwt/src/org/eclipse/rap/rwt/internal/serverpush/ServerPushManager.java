@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,11 +13,15 @@ package org.eclipse.rap.rwt.internal.serverpush;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.eclipse.rap.rwt.SingletonUtil;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.ServiceStore;
 import org.eclipse.rap.rwt.internal.util.SerializableLock;
@@ -33,6 +37,7 @@ public final class ServerPushManager implements SerializableCompatibility {
 
   private static final int DEFAULT_REQUEST_CHECK_INTERVAL = 30000;
   private static final String FORCE_PUSH = ServerPushManager.class.getName() + "#forcePush";
+  private static final boolean ASYNC_API_AVAILABLE = isAsyncApiAvailable();
 
   private final ServerPushActivationTracker serverPushActivationTracker;
   private final SerializableLock lock;
@@ -43,6 +48,7 @@ public final class ServerPushManager implements SerializableCompatibility {
   private boolean hasRunnables;
   private int requestCheckInterval;
   private transient ServerPushRequestTracker serverPushRequestTracker;
+  private transient List<SuspendedRequest> suspendedRequests;
 
   private ServerPushManager() {
     lock = new SerializableLock();
@@ -50,6 +56,7 @@ public final class ServerPushManager implements SerializableCompatibility {
     uiThreadRunning = false;
     requestCheckInterval = DEFAULT_REQUEST_CHECK_INTERVAL;
     serverPushRequestTracker = new ServerPushRequestTracker();
+    suspendedRequests = new ArrayList<SuspendedRequest>();
   }
 
   public static ServerPushManager getInstance() {
@@ -73,6 +80,9 @@ public final class ServerPushManager implements SerializableCompatibility {
   public void releaseBlockedRequest() {
     synchronized( lock ) {
       lock.notifyAll();
+      if( !suspendedRequests.isEmpty() ) {
+        releaseSuspendedRequests();
+      }
     }
   }
 
@@ -126,7 +136,15 @@ public final class ServerPushManager implements SerializableCompatibility {
     return isServerPushActive() || forceServerPushForPendingRunnables();
   }
 
-  void processRequest( HttpServletResponse response ) {
+  void processRequest( HttpServletRequest request, HttpServletResponse response ) {
+    if( canSuspendRequest( request ) ) {
+      suspendRequest( request, response );
+    } else {
+      blockRequest( response );
+    }
+  }
+
+  private void blockRequest( HttpServletResponse response ) {
     synchronized( lock ) {
       if( isCallBackRequestBlocked() ) {
         releaseBlockedRequest();
@@ -139,7 +157,10 @@ public final class ServerPushManager implements SerializableCompatibility {
           boolean canRelease = false;
           while( !canRelease ) {
             lock.wait( requestCheckInterval );
-            canRelease = canReleaseBlockedRequest( response, requestStartTime );
+            canRelease = canReleaseBlockedRequest( Thread.currentThread(),
+                                                 ContextProvider.getUISession(),
+                                                 response,
+                                                 requestStartTime );
           }
         } catch( InterruptedException ie ) {
           Thread.interrupted(); // Reset interrupted state, see bug 300254
@@ -151,15 +172,72 @@ public final class ServerPushManager implements SerializableCompatibility {
     }
   }
 
-  private boolean canReleaseBlockedRequest( HttpServletResponse response, long requestStartTime ) {
+  private void suspendRequest( HttpServletRequest request, HttpServletResponse response ) {
+    synchronized( lock ) {
+      if( isCallBackRequestBlocked() ) {
+        releaseBlockedRequest();
+      }
+      if( mustBlockCallBackRequest() ) {
+        UISession uiSession = ContextProvider.getUISession();
+        SuspendedRequest suspendedRequest = new SuspendedRequest( this, uiSession, response );
+        serverPushRequestTracker.activate( suspendedRequest );
+        // previously suspended requests are no longer active and can be released right away
+        releaseSuspendedRequests();
+        suspendedRequests.add( suspendedRequest );
+        suspendedRequest.suspend( request, requestCheckInterval );
+      }
+    }
+  }
+
+  void checkSuspendedRequest( SuspendedRequest suspendedRequest ) {
+    synchronized( lock ) {
+      if( canReleaseSuspendedRequest( suspendedRequest ) ) {
+        releaseSuspendedRequest( suspendedRequest );
+      }
+    }
+  }
+
+  void releaseSuspendedRequest( SuspendedRequest suspendedRequest ) {
+    synchronized( lock ) {
+      serverPushRequestTracker.deactivate( suspendedRequest );
+      suspendedRequests.remove( suspendedRequest );
+      suspendedRequest.complete();
+    }
+  }
+
+  private void releaseSuspendedRequests() {
+    SuspendedRequest[] pending = new SuspendedRequest[ suspendedRequests.size() ];
+    suspendedRequests.toArray( pending );
+    for( SuspendedRequest suspendedRequest : pending ) {
+      if( canReleaseSuspendedRequest( suspendedRequest ) ) {
+        releaseSuspendedRequest( suspendedRequest );
+      }
+    }
+  }
+
+  // Broken connections of suspended requests are reported by the container through the
+  // AsyncListener, writing to the response here would block the waking thread on a slow client
+  private boolean canReleaseSuspendedRequest( SuspendedRequest suspendedRequest ) {
+    return canRelease( suspendedRequest,
+                       suspendedRequest.getUISession(),
+                       suspendedRequest.getStartTime() );
+  }
+
+  private boolean canReleaseBlockedRequest( Thread request,
+                                            UISession uiSession,
+                                            HttpServletResponse response,
+                                            long requestStartTime )
+  {
+    return canRelease( request, uiSession, requestStartTime ) || !isConnectionAlive( response );
+  }
+
+  private boolean canRelease( Object request, UISession uiSession, long requestStartTime ) {
     boolean result = false;
     if( !mustBlockCallBackRequest() ) {
       result = true;
-    } else if( isSessionExpired( requestStartTime ) ) {
+    } else if( !serverPushRequestTracker.isActive( request ) ) {
       result = true;
-    } else if( !isConnectionAlive( response ) ) {
-      result = true;
-    } else if( !serverPushRequestTracker.isActive( Thread.currentThread() ) ) {
+    } else if( isSessionExpired( uiSession, requestStartTime, System.currentTimeMillis() ) ) {
       result = true;
     }
     return result;
@@ -175,6 +253,7 @@ public final class ServerPushManager implements SerializableCompatibility {
 
   private Object readResolve() {
     serverPushRequestTracker = new ServerPushRequestTracker();
+    suspendedRequests = new ArrayList<SuspendedRequest>();
     return this;
   }
 
@@ -185,13 +264,33 @@ public final class ServerPushManager implements SerializableCompatibility {
     return result;
   }
 
-  private static boolean isSessionExpired( long requestStartTime ) {
-    return isSessionExpired( requestStartTime, System.currentTimeMillis() );
+  private static boolean canSuspendRequest( HttpServletRequest request ) {
+    return ASYNC_API_AVAILABLE
+        && RWTProperties.isAsyncServerPushEnabled()
+        && SuspendedRequest.isSupported( request );
+  }
+
+  private static boolean isAsyncApiAvailable() {
+    boolean result = true;
+    try {
+      ClassLoader classLoader = ServerPushManager.class.getClassLoader();
+      Class.forName( "javax.servlet.AsyncContext", false, classLoader );
+    } catch( Throwable notAvailable ) {
+      result = false;
+    }
+    return result;
   }
 
   static boolean isSessionExpired( long requestStartTime, long currentTime ) {
+    return isSessionExpired( ContextProvider.getUISession(), requestStartTime, currentTime );
+  }
+
+  private static boolean isSessionExpired( UISession uiSession,
+                                           long requestStartTime,
+                                           long currentTime )
+  {
     boolean result = false;
-    HttpSession httpSession = ContextProvider.getUISession().getHttpSession();
+    HttpSession httpSession = uiSession.getHttpSession();
     int maxInactiveInterval = httpSession.getMaxInactiveInterval();
     if( maxInactiveInterval > 0 ) {
       result = currentTime > requestStartTime + maxInactiveInterval * 1000;
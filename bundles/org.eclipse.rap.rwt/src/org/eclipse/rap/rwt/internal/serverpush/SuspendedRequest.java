@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.serverpush;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.service.ApplicationContextEvent;
+import org.eclipse.rap.rwt.service.ApplicationContextListener;
+import org.eclipse.rap.rwt.service.UISession;
+import org.eclipse.rap.rwt.service.UISessionEvent;
+import org.eclipse.rap.rwt.service.UISessionListener;
+import org.eclipse.swt.internal.SerializableCompatibility;
+
+
+/**
+ * A server push request that has been put into asynchronous mode instead of blocking the
+ * container thread. The request is completed by the <code>ServerPushManager</code> as soon as it
+ * can be released. A periodic check on the application scheduler detects expired sessions. The
+ * connection is not probed by writing to the response, broken connections are reported by the
+ * container through {@link #onError(AsyncEvent)}.
+ * <p>
+ * The request is registered as a listener of the UI session, which is serialized along with the
+ * HTTP session. As the request can not be resumed on another node, it is written as an inert
+ * listener that is dropped once the session is destroyed.
+ * </p>
+ * <p>
+ * This class depends on the Servlet 3.0 API and must only be loaded if that API is available.
+ * </p>
+ */
+final class SuspendedRequest
+  implements AsyncListener, UISessionListener, ApplicationContextListener,
+             SerializableCompatibility
+{
+
+  private final ServerPushManager manager;
+  private final UISession uiSession;
+  private final HttpServletResponse response;
+  private final long startTime;
+  private AsyncContext asyncContext;
+  private ScheduledFuture<?> check;
+  private boolean completed;
+
+  static boolean isSupported( HttpServletRequest request ) {
+    return request.isAsyncSupported();
+  }
+
+  SuspendedRequest( ServerPushManager manager,
+                    UISession uiSession,
+                    HttpServletResponse response )
+  {
+    this.manager = manager;
+    this.uiSession = uiSession;
+    this.response = response;
+    startTime = System.currentTimeMillis();
+  }
+
+  void suspend( HttpServletRequest request, int checkInterval ) {
+    asyncContext = request.startAsync( request, response );
+    asyncContext.setTimeout( 0 );
+    asyncContext.addListener( this );
+    uiSession.addUISessionListener( this );
+    uiSession.getApplicationContext().addApplicationContextListener( this );
+    ApplicationContextImpl applicationContext
+      = ( ApplicationContextImpl )uiSession.getApplicationContext();
+    ScheduledExecutorService scheduler = applicationContext.getScheduler();
+    check = scheduler.scheduleWithFixedDelay( new Runnable() {
+      public void run() {
+        manager.checkSuspendedRequest( SuspendedRequest.this );
+      }
+    }, checkInterval, checkInterval, TimeUnit.MILLISECONDS );
+  }
+
+  UISession getUISession() {
+    return uiSession;
+  }
+
+  long getStartTime() {
+    return startTime;
+  }
+
+  /*
+   * Must be called with the lock of the ServerPushManager held.
+   */
+  boolean complete() {
+    boolean result = !completed;
+    if( !completed ) {
+      completed = true;
+      if( check != null ) {
+        check.cancel( false );
+      }
+      uiSession.removeUISessionListener( this );
+      uiSession.getApplicationContext().removeApplicationContextListener( this );
+      if( asyncContext != null ) {
+        try {
+          asyncContext.complete();
+        } catch( IllegalStateException alreadyCompleted ) {
+          // the container has already completed the request, e.g. after an error
+        }
+      }
+    }
+    return result;
+  }
+
+  public void onComplete( AsyncEvent event ) {
+    manager.releaseSuspendedRequest( this );
+  }
+
+  public void onTimeout( AsyncEvent event ) {
+    manager.releaseSuspendedRequest( this );
+  }
+
+  public void onError( AsyncEvent event ) {
+    manager.releaseSuspendedRequest( this );
+  }
+
+  public void onStartAsync( AsyncEvent event ) {
+    // not interested in re-dispatched requests
+  }
+
+  public void beforeDestroy( UISessionEvent event ) {
+    manager.releaseSuspendedRequest( this );
+  }
+
+  public void beforeDestroy( ApplicationContextEvent event ) {
+    manager.releaseSuspendedRequest( this );
+  }
+
+  private Object writeReplace() {
+    return DetachedListener.INSTANCE;
+  }
+
+  private static final class DetachedListener
+    implements UISessionListener, SerializableCompatibility
+  {
+
+    static final DetachedListener INSTANCE = new DetachedListener();
+
+    public void beforeDestroy( UISessionEvent event ) {
+      // the suspended request has been left behind on the node that serialized the session
+    }
+
+    private Object readResolve() {
+      return INSTANCE;
+    }
+
+  }
+
+}
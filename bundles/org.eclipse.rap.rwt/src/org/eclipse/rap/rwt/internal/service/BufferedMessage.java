@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * The serialized form of a protocol message that is kept in the UI session to answer a
+ * duplicate request. The content is optionally stored gzip compressed.
+ */
+final class BufferedMessage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final byte[] content;
+  private final boolean compressed;
+
+  BufferedMessage( byte[] message, boolean compress ) throws IOException {
+    content = compress ? compress( message ) : message;
+    compressed = compress;
+  }
+
+  boolean isCompressed() {
+    return compressed;
+  }
+
+  int getSize() {
+    return content.length;
+  }
+
+  void writeTo( OutputStream outputStream ) throws IOException {
+    if( compressed ) {
+      InputStream inputStream = new GZIPInputStream( new ByteArrayInputStream( content ) );
+      try {
+        byte[] buffer = new byte[ 8192 ];
+        int read = inputStream.read( buffer );
+        while( read != -1 ) {
+          outputStream.write( buffer, 0, read );
+          read = inputStream.read( buffer );
+        }
+      } finally {
+        inputStream.close();
+      }
+    } else {
+      outputStream.write( content );
+    }
+  }
+
+  private static byte[] compress( byte[] message ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( message.length / 4 + 64 );
+    GZIPOutputStream gzipStream = new GZIPOutputStream( bytes );
+    try {
+      gzipStream.write( message );
+    } finally {
+      gzipStream.close();
+    }
+    return bytes.toByteArray();
+  }
+
+}
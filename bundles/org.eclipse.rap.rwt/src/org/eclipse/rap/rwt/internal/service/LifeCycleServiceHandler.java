@@ -17,7 +17,10 @@ import static org.eclipse.rap.rwt.internal.protocol.ProtocolUtil.getClientMessag
 import static org.eclipse.rap.rwt.internal.service.ContextProvider.getProtocolWriter;
 import static org.eclipse.rap.rwt.internal.service.ContextProvider.getUISession;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -28,10 +31,12 @@ import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
 import org.eclipse.rap.rwt.RWT;
 import org.eclipse.rap.rwt.client.WebClient;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.lifecycle.LifeCycle;
 import org.eclipse.rap.rwt.internal.lifecycle.LifeCycleFactory;
 import org.eclipse.rap.rwt.internal.lifecycle.RequestCounter;
 import org.eclipse.rap.rwt.internal.protocol.ClientMessage;
+import org.eclipse.rap.rwt.internal.protocol.InvalidRequestException;
 import org.eclipse.rap.rwt.internal.protocol.ProtocolMessageWriter;
 import org.eclipse.rap.rwt.internal.protocol.ProtocolUtil;
 import org.eclipse.rap.rwt.internal.remote.RemoteObjectLifeCycleAdapter;
@@ -44,6 +49,8 @@ public class LifeCycleServiceHandler implements ServiceHandler {
 
   private static final String PROP_ERROR = "error";
   private static final String PROP_REQUEST_COUNTER = "requestCounter";
+  private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+  private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
   private static final String ATTR_LAST_PROTOCOL_MESSAGE
     = LifeCycleServiceHandler.class.getName() + "#lastProtocolMessage";
   private static final String ATTR_SESSION_STARTED
@@ -72,11 +79,13 @@ public class LifeCycleServiceHandler implements ServiceHandler {
     throws IOException
   {
     if( HTTP.METHOD_POST.equals( request.getMethod() ) && isContentTypeValid( request ) ) {
-      try {
-        handleUIRequest( request, response );
-      } finally {
-        if( !isSessionShutdown() ) {
-          markSessionStarted();
+      if( readClientMessage( response ) ) {
+        try {
+          handleUIRequest( request, response );
+        } finally {
+          if( !isSessionShutdown() ) {
+            markSessionStarted();
+          }
         }
       }
     } else {
@@ -121,8 +130,16 @@ public class LifeCycleServiceHandler implements ServiceHandler {
         reinitializeServiceStore();
       }
       UrlParameters.merge();
-      runLifeCycle();
-      writeProtocolMessage( response );
+      boolean completed = false;
+      try {
+        runLifeCycle();
+        completed = true;
+      } finally {
+        if( !completed ) {
+          abortProtocolMessage();
+        }
+      }
+      writeProtocolMessage( request, response );
     }
   }
 
@@ -160,6 +177,18 @@ public class LifeCycleServiceHandler implements ServiceHandler {
     return sentRequestId != null && sentRequestId.asInt() == currentRequestId - 1;
   }
 
+  private static boolean readClientMessage( HttpServletResponse response ) throws IOException {
+    boolean result = true;
+    try {
+      getClientMessage();
+    } catch( InvalidRequestException exception ) {
+      setJsonResponseHeaders( response );
+      writeError( response, exception.getStatusCode(), "invalid request" );
+      result = false;
+    }
+    return result;
+  }
+
   private static boolean isContentTypeValid( ServletRequest request ) {
     String contentType = request.getContentType();
     return contentType != null && contentType.startsWith( HTTP.CONTENT_TYPE_JSON );
@@ -249,25 +278,89 @@ public class LifeCycleServiceHandler implements ServiceHandler {
     new ProtocolMessageWriter().createMessage().writeTo( response.getWriter() );
   }
 
-  private static void writeProtocolMessage( ServletResponse response ) throws IOException {
-    JsonObject message = getProtocolWriter().createMessage();
+  private static void writeProtocolMessage( HttpServletRequest request,
+                                            HttpServletResponse response )
+    throws IOException
+  {
+    ProtocolMessageWriter protocolWriter = getProtocolWriter();
+    byte[] message;
+    if( protocolWriter.isStreaming() ) {
+      // the operations have already been written to the response
+      message = protocolWriter.finishMessage();
+    } else {
+      message = toByteArray( protocolWriter.createMessage() );
+      writeMessage( request, response, message );
+    }
     bufferProtocolMessage( message );
-    message.writeTo( response.getWriter() );
+  }
+
+  // A streamed message may already have been committed with status 200, it is ended with an
+  // error so that the client does not process the truncated message
+  private static void abortProtocolMessage() {
+    ProtocolMessageWriter protocolWriter = getProtocolWriter();
+    if( protocolWriter.isStreaming() ) {
+      try {
+        protocolWriter.abortMessage( PROP_ERROR, JsonValue.valueOf( "server error" ) );
+      } catch( IOException exception ) {
+        // the client is gone, the exception of the life cycle is propagated anyway
+      }
+    }
+  }
+
+  private static void writeMessage( HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    byte[] message ) throws IOException
+  {
+    String encoding = null;
+    if(    RWTProperties.isProtocolCompressionEnabled()
+        && message.length >= RWTProperties.getProtocolCompressionThreshold() )
+    {
+      encoding = MessageCompressor.getEncoding( request.getHeader( HEADER_ACCEPT_ENCODING ) );
+    }
+    if( encoding != null ) {
+      byte[] compressedMessage = MessageCompressor.compress( message, encoding );
+      response.setHeader( HEADER_CONTENT_ENCODING, encoding );
+      response.setContentLength( compressedMessage.length );
+      response.getOutputStream().write( compressedMessage );
+    } else {
+      response.getOutputStream().write( message );
+    }
   }
 
   private static void writeBufferedResponse( HttpServletResponse response ) throws IOException {
-    getBufferedMessage().writeTo( response.getWriter() );
+    BufferedMessage message = getBufferedMessage();
+    if( message == null ) {
+      // the last message exceeded the buffer limit and cannot be sent again
+      writeInvalidRequestCounterError( response );
+    } else {
+      message.writeTo( response.getOutputStream() );
+    }
   }
 
-  private static void bufferProtocolMessage( JsonObject message ) {
+  private static void bufferProtocolMessage( byte[] message ) throws IOException {
     UISession uiSession = getUISession();
     if( uiSession != null ) {
-      uiSession.setAttribute( ATTR_LAST_PROTOCOL_MESSAGE, message );
+      // a streamed message is not available if it exceeds the limit
+      if( message != null && message.length <= RWTProperties.getBufferedMessageLimit() ) {
+        boolean compress = RWTProperties.isBufferedMessageCompressionEnabled();
+        BufferedMessage bufferedMessage = new BufferedMessage( message, compress );
+        uiSession.setAttribute( ATTR_LAST_PROTOCOL_MESSAGE, bufferedMessage );
+      } else {
+        uiSession.removeAttribute( ATTR_LAST_PROTOCOL_MESSAGE );
+      }
     }
   }
 
-  private static JsonObject getBufferedMessage() {
-    return ( JsonObject )getUISession().getAttribute( ATTR_LAST_PROTOCOL_MESSAGE );
+  private static BufferedMessage getBufferedMessage() {
+    return ( BufferedMessage )getUISession().getAttribute( ATTR_LAST_PROTOCOL_MESSAGE );
+  }
+
+  private static byte[] toByteArray( JsonObject message ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter( bytes, HTTP.CHARSET_UTF_8 );
+    message.writeTo( writer );
+    writer.flush();
+    return bytes.toByteArray();
   }
 
 }
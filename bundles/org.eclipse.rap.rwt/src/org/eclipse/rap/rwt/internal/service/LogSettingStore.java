@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.rap.rwt.internal.util.ParamCheck;
+import org.eclipse.rap.rwt.service.SettingStore;
+import org.eclipse.rap.rwt.service.SettingStoreEvent;
+import org.eclipse.rap.rwt.service.SettingStoreListener;
+
+
+/**
+ * A setting store that persists its attributes in a {@link SettingLog} shared by all setting
+ * stores of an application. The attributes of the loaded store are held in memory, every change
+ * is written to the log immediately.
+ */
+public final class LogSettingStore implements SettingStore {
+
+  private final SettingLog log;
+  private final Map<String, String> attributes;
+  private final Set<SettingStoreListener> listeners;
+  private String id;
+
+  public LogSettingStore( SettingLog log ) {
+    ParamCheck.notNull( log, "log" );
+    this.log = log;
+    attributes = new HashMap<String, String>();
+    listeners = new HashSet<SettingStoreListener>();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public synchronized String getAttribute( String name ) {
+    ParamCheck.notNull( name, "name" );
+    return attributes.get( name );
+  }
+
+  public synchronized void setAttribute( String name, String value ) throws IOException {
+    ParamCheck.notNull( name, "name" );
+    if( value == null ) {
+      removeAttribute( name );
+    } else {
+      String oldValue = attributes.get( name );
+      if( !value.equals( oldValue ) ) {
+        log.put( getLogId(), name, value );
+        attributes.put( name, value );
+        notifyListeners( name, oldValue, value );
+      }
+    }
+  }
+
+  public synchronized Enumeration<String> getAttributeNames() {
+    return Collections.enumeration( new ArrayList<String>( attributes.keySet() ) );
+  }
+
+  public synchronized void loadById( String id ) throws IOException {
+    ParamCheck.notNullOrEmpty( id, "id" );
+    Map<String, String> loadedAttributes = log.getAll( id );
+    this.id = id;
+    Map<String, String> removedAttributes = new HashMap<String, String>( attributes );
+    attributes.clear();
+    for( Entry<String, String> attribute : removedAttributes.entrySet() ) {
+      notifyListeners( attribute.getKey(), attribute.getValue(), null );
+    }
+    for( Entry<String, String> attribute : loadedAttributes.entrySet() ) {
+      attributes.put( attribute.getKey(), attribute.getValue() );
+      notifyListeners( attribute.getKey(), null, attribute.getValue() );
+    }
+  }
+
+  public synchronized void removeAttribute( String name ) throws IOException {
+    ParamCheck.notNull( name, "name" );
+    if( attributes.containsKey( name ) ) {
+      log.remove( getLogId(), name );
+      String oldValue = attributes.remove( name );
+      notifyListeners( name, oldValue, null );
+    }
+  }
+
+  public synchronized void addSettingStoreListener( SettingStoreListener listener ) {
+    ParamCheck.notNull( listener, "listener" );
+    listeners.add( listener );
+  }
+
+  public synchronized void removeSettingStoreListener( SettingStoreListener listener ) {
+    ParamCheck.notNull( listener, "listener" );
+    listeners.remove( listener );
+  }
+
+  private String getLogId() {
+    if( id == null ) {
+      throw new IllegalStateException( "Setting store has not been loaded" );
+    }
+    return id;
+  }
+
+  private void notifyListeners( String attribute, String oldValue, String newValue ) {
+    SettingStoreEvent event = new SettingStoreEvent( this, attribute, oldValue, newValue );
+    for( SettingStoreListener listener : new ArrayList<SettingStoreListener>( listeners ) ) {
+      try {
+        listener.settingChanged( event );
+      } catch( Exception exception ) {
+        String message = "Exception when invoking listener " + listener.getClass().getName();
+        ServletLog.log( message, exception );
+      } catch( LinkageError error ) {
+        String message = "Linkage error when invoking listener " + listener.getClass().getName();
+        ServletLog.log( message, error );
+      }
+    }
+  }
+
+}
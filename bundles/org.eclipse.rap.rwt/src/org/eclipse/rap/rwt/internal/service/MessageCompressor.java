@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+
+/**
+ * Compresses protocol messages with the gzip or deflate content coding. The deflaters are
+ * pooled, as creating a deflater allocates native memory that is only released when the
+ * deflater is ended or finalized.
+ */
+final class MessageCompressor {
+
+  static final String GZIP = "gzip";
+  static final String DEFLATE = "deflate";
+
+  private static final int POOL_SIZE = 16;
+  private static final byte[] GZIP_HEADER = new byte[] {
+    ( byte )0x1f, ( byte )0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, ( byte )0xff
+  };
+  private static final byte[] ZLIB_HEADER = new byte[] { 0x78, 0x01 };
+
+  private static final BlockingQueue<Deflater> POOL
+    = new ArrayBlockingQueue<Deflater>( POOL_SIZE );
+
+  private MessageCompressor() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the content coding to use for a response, or <code>null</code> if the client does
+   * not accept any of the supported codings. Gzip is preferred over deflate.
+   */
+  static String getEncoding( String acceptEncoding ) {
+    String result = null;
+    if( acceptEncoding != null ) {
+      String[] codings = acceptEncoding.split( "," );
+      for( int i = 0; i < codings.length && !GZIP.equals( result ); i++ ) {
+        String[] parts = codings[ i ].split( ";" );
+        String coding = parts[ 0 ].trim().toLowerCase( Locale.ENGLISH );
+        boolean rejected = parts.length > 1 && isZeroQuality( parts[ 1 ] );
+        if( !rejected && ( GZIP.equals( coding ) || DEFLATE.equals( coding ) ) ) {
+          result = coding;
+        }
+      }
+    }
+    return result;
+  }
+
+  static byte[] compress( byte[] message, String encoding ) {
+    boolean gzip = GZIP.equals( encoding );
+    ByteArrayOutputStream result = new ByteArrayOutputStream( message.length / 4 + 64 );
+    result.write( gzip ? GZIP_HEADER : ZLIB_HEADER, 0, gzip ? 10 : 2 );
+    Deflater deflater = acquireDeflater();
+    try {
+      deflater.setInput( message );
+      deflater.finish();
+      byte[] buffer = new byte[ 8192 ];
+      while( !deflater.finished() ) {
+        int length = deflater.deflate( buffer );
+        result.write( buffer, 0, length );
+      }
+    } finally {
+      releaseDeflater( deflater );
+    }
+    Checksum checksum = gzip ? ( Checksum )new CRC32() : new Adler32();
+    checksum.update( message, 0, message.length );
+    if( gzip ) {
+      writeIntLittleEndian( result, ( int )checksum.getValue() );
+      writeIntLittleEndian( result, message.length );
+    } else {
+      writeIntBigEndian( result, ( int )checksum.getValue() );
+    }
+    return result.toByteArray();
+  }
+
+  private static Deflater acquireDeflater() {
+    Deflater result = POOL.poll();
+    if( result == null ) {
+      // the header and trailer are written by the compressor, hence the raw deflate format
+      result = new Deflater( Deflater.BEST_SPEED, true );
+    }
+    return result;
+  }
+
+  private static void releaseDeflater( Deflater deflater ) {
+    deflater.reset();
+    if( !POOL.offer( deflater ) ) {
+      deflater.end();
+    }
+  }
+
+  private static boolean isZeroQuality( String parameter ) {
+    String trimmed = parameter.trim();
+    boolean result = false;
+    if( trimmed.startsWith( "q=" ) ) {
+      try {
+        result = Float.parseFloat( trimmed.substring( 2 ) ) == 0;
+      } catch( NumberFormatException exception ) {
+        // ignore malformed quality values
+      }
+    }
+    return result;
+  }
+
+  private static void writeIntLittleEndian( ByteArrayOutputStream outputStream, int value ) {
+    outputStream.write( value );
+    outputStream.write( value >>> 8 );
+    outputStream.write( value >>> 16 );
+    outputStream.write( value >>> 24 );
+  }
+
+  private static void writeIntBigEndian( ByteArrayOutputStream outputStream, int value ) {
+    outputStream.write( value >>> 24 );
+    outputStream.write( value >>> 16 );
+    outputStream.write( value >>> 8 );
+    outputStream.write( value );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,9 @@ package org.eclipse.rap.rwt.internal.service;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.internal.protocol.ProtocolMessageOutput;
 import org.eclipse.rap.rwt.internal.protocol.ProtocolMessageWriter;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 import org.eclipse.rap.rwt.service.UISession;
@@ -86,13 +88,13 @@ public final class ServiceContext {
   public ProtocolMessageWriter getProtocolWriter() {
     checkState();
     if( protocolWriter == null ) {
-      protocolWriter = new ProtocolMessageWriter();
+      protocolWriter = createProtocolWriter();
     }
     return protocolWriter;
   }
 
   public void resetProtocolWriter() {
-    protocolWriter = new ProtocolMessageWriter();
+    protocolWriter = createProtocolWriter();
   }
 
   public UISession getUISession() {
@@ -129,6 +131,13 @@ public final class ServiceContext {
     return disposed;
   }
 
+  private ProtocolMessageWriter createProtocolWriter() {
+    if( response != null && RWTProperties.isProtocolStreamingEnabled() ) {
+      return new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+    }
+    return new ProtocolMessageWriter();
+  }
+
   private void checkState() {
     if( disposed ) {
       throw new IllegalStateException( "The context has been disposed." );
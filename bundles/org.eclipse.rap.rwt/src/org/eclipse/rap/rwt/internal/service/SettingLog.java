@@ -0,0 +1,545 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.rap.rwt.internal.util.ParamCheck;
+
+
+/**
+ * Persists the attributes of all setting stores of an application in a single append-only file.
+ * Every change appends one record, an in-memory index points to the latest record of every
+ * attribute. Reading an attribute reads this one record, writing an attribute appends one record.
+ * <p>
+ * Records that have been replaced or removed remain in the file until it is compacted. The log is
+ * compacted when more than half of it is obsolete. With an executor, the compaction runs in the
+ * background: the latest records are copied to a new file while the log keeps using the old one,
+ * only the records that were appended in the meantime are copied when the files are switched. A
+ * record that was written incompletely, e.g. because the server crashed, is discarded when the
+ * file is opened.
+ * </p>
+ * <p>
+ * Where the compacted file can not be renamed over the log, the log is moved to a backup file
+ * first. If the log is missing when it is opened, it is restored from the backup file.
+ * </p>
+ */
+public class SettingLog {
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final String UTF_8 = "UTF-8";
+  private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final File file;
+  private final File backupFile;
+  private final Map<String, Map<String, Location>> index;
+  private RandomAccessFile randomAccessFile;
+  private long liveSize;
+  private Executor executor;
+  private boolean compacting;
+  // changes whenever the file is closed or replaced, outdates a running background compaction
+  private int generation;
+
+  public SettingLog( File file ) {
+    ParamCheck.notNull( file, "file" );
+    this.file = file;
+    backupFile = new File( file.getPath() + ".bak" );
+    index = new HashMap<String, Map<String, Location>>();
+  }
+
+  /**
+   * Sets the executor to compact the log in the background. Without an executor, the log is
+   * compacted by the thread that writes the record that makes the compaction necessary.
+   */
+  public synchronized void setExecutor( Executor executor ) {
+    this.executor = executor;
+  }
+
+  public synchronized String get( String storeId, String key ) throws IOException {
+    ParamCheck.notNull( storeId, "storeId" );
+    ParamCheck.notNull( key, "key" );
+    open();
+    String result = null;
+    Map<String, Location> locations = index.get( storeId );
+    Location location = locations == null ? null : locations.get( key );
+    if( location != null ) {
+      result = readRecord( location ).value;
+    }
+    return result;
+  }
+
+  /**
+   * Returns all attributes of the given setting store. Reads one record per attribute.
+   */
+  public synchronized Map<String, String> getAll( String storeId ) throws IOException {
+    ParamCheck.notNull( storeId, "storeId" );
+    open();
+    Map<String, String> result = new HashMap<String, String>();
+    Map<String, Location> locations = index.get( storeId );
+    if( locations != null ) {
+      for( Entry<String, Location> entry : locations.entrySet() ) {
+        result.put( entry.getKey(), readRecord( entry.getValue() ).value );
+      }
+    }
+    return result;
+  }
+
+  public synchronized void put( String storeId, String key, String value ) throws IOException {
+    ParamCheck.notNull( storeId, "storeId" );
+    ParamCheck.notNull( key, "key" );
+    ParamCheck.notNull( value, "value" );
+    open();
+    append( new Record( PUT, storeId, key, value ) );
+    compactIfNeeded();
+  }
+
+  public synchronized void remove( String storeId, String key ) throws IOException {
+    ParamCheck.notNull( storeId, "storeId" );
+    ParamCheck.notNull( key, "key" );
+    open();
+    Map<String, Location> locations = index.get( storeId );
+    if( locations != null && locations.containsKey( key ) ) {
+      append( new Record( REMOVE, storeId, key, null ) );
+      compactIfNeeded();
+    }
+  }
+
+  /**
+   * Rewrites the log with only the latest record of every attribute. A compaction that is
+   * running in the background is discarded.
+   */
+  public synchronized void compact() throws IOException {
+    open();
+    Map<String, Map<String, Location>> compactIndex = new HashMap<String, Map<String, Location>>();
+    CompactFile compactFile = new CompactFile( file );
+    try {
+      for( Entry<String, Map<String, Location>> store : index.entrySet() ) {
+        Map<String, Location> locations = new HashMap<String, Location>();
+        for( Entry<String, Location> attribute : store.getValue().entrySet() ) {
+          byte[] bytes = readBytes( randomAccessFile, attribute.getValue() );
+          locations.put( attribute.getKey(), compactFile.write( bytes ) );
+        }
+        compactIndex.put( store.getKey(), locations );
+      }
+      compactFile.close();
+      replaceFile( compactFile, compactIndex );
+    } finally {
+      compactFile.discard();
+    }
+  }
+
+  /**
+   * Closes the file. The log is opened again on the next access.
+   */
+  public synchronized void close() throws IOException {
+    generation++;
+    if( randomAccessFile != null ) {
+      try {
+        randomAccessFile.close();
+      } finally {
+        randomAccessFile = null;
+      }
+    }
+  }
+
+  synchronized long getSize() throws IOException {
+    open();
+    return randomAccessFile.length();
+  }
+
+  private void open() throws IOException {
+    if( randomAccessFile == null ) {
+      restoreBackup();
+      randomAccessFile = new RandomAccessFile( file, "rw" );
+      try {
+        readIndex();
+      } catch( IOException exception ) {
+        close();
+        throw exception;
+      }
+    }
+  }
+
+  // A backup file is left behind if replacing the log has been interrupted
+  private void restoreBackup() throws IOException {
+    if( !file.exists() && backupFile.exists() && !backupFile.renameTo( file ) ) {
+      throw new IOException( "Could not restore setting log from backup: " + backupFile );
+    }
+  }
+
+  // Truncates the file after the last complete and readable record
+  private void readIndex() throws IOException {
+    index.clear();
+    liveSize = 0;
+    long length = randomAccessFile.length();
+    long offset = 0;
+    boolean complete = true;
+    while( complete && offset < length ) {
+      complete = false;
+      if( offset + 4 <= length ) {
+        randomAccessFile.seek( offset );
+        int size = randomAccessFile.readInt() + 4;
+        if( size > 4 && offset + size <= length ) {
+          Location location = new Location( offset, size );
+          try {
+            updateIndex( readRecord( location ), location );
+            offset += size;
+            complete = true;
+          } catch( IOException corruptRecord ) {
+            complete = false;
+          }
+        }
+      }
+    }
+    if( offset < length ) {
+      randomAccessFile.setLength( offset );
+    }
+  }
+
+  private void append( Record record ) throws IOException {
+    byte[] bytes = record.toBytes();
+    long offset = randomAccessFile.length();
+    randomAccessFile.seek( offset );
+    randomAccessFile.write( bytes );
+    updateIndex( record, new Location( offset, bytes.length ) );
+  }
+
+  private void updateIndex( Record record, Location location ) {
+    Map<String, Location> locations = index.get( record.storeId );
+    if( locations == null ) {
+      locations = new HashMap<String, Location>();
+      index.put( record.storeId, locations );
+    }
+    Location oldLocation;
+    if( record.type == PUT ) {
+      oldLocation = locations.put( record.key, location );
+      liveSize += location.size;
+    } else {
+      oldLocation = locations.remove( record.key );
+      if( locations.isEmpty() ) {
+        index.remove( record.storeId );
+      }
+    }
+    if( oldLocation != null ) {
+      liveSize -= oldLocation.size;
+    }
+  }
+
+  private void compactIfNeeded() throws IOException {
+    long size = randomAccessFile.length();
+    if( !compacting && size > MIN_COMPACTION_SIZE && liveSize * 2 < size ) {
+      if( executor == null ) {
+        compact();
+      } else {
+        startCompaction();
+      }
+    }
+  }
+
+  private void startCompaction() throws IOException {
+    List<Location> locations = new ArrayList<Location>();
+    for( Map<String, Location> storeLocations : index.values() ) {
+      locations.addAll( storeLocations.values() );
+    }
+    compacting = true;
+    try {
+      executor.execute( new CompactionTask( locations, randomAccessFile.length(), generation ) );
+    } catch( RejectedExecutionException exception ) {
+      // the application is shutting down, the log is compacted when it is used again
+      compacting = false;
+    }
+  }
+
+  // Copies the records that were current when the compaction started without holding the lock
+  private void compactInBackground( List<Location> locations,
+                                    long startLength,
+                                    int startGeneration )
+    throws IOException
+  {
+    if( isCurrent( startGeneration ) ) {
+      CompactFile compactFile = new CompactFile( file );
+      try {
+        Map<Long, Location> copiedLocations = new HashMap<Long, Location>();
+        RandomAccessFile source = new RandomAccessFile( file, "r" );
+        try {
+          for( Location location : locations ) {
+            Location copiedLocation = compactFile.write( readBytes( source, location ) );
+            copiedLocations.put( Long.valueOf( location.offset ), copiedLocation );
+          }
+        } finally {
+          source.close();
+        }
+        synchronized( this ) {
+          if( isCurrent( startGeneration ) ) {
+            finishCompaction( compactFile, copiedLocations, startLength );
+          }
+        }
+      } finally {
+        compactFile.discard();
+      }
+    }
+  }
+
+  private synchronized boolean isCurrent( int startGeneration ) {
+    return randomAccessFile != null && generation == startGeneration;
+  }
+
+  // Appends the records that have been written since the compaction started, including removals
+  // of copied records, and switches files
+  private void finishCompaction( CompactFile compactFile,
+                                 Map<Long, Location> copiedLocations,
+                                 long startLength )
+    throws IOException
+  {
+    long shift = compactFile.getLength() - startLength;
+    compactFile.copy( randomAccessFile, startLength, randomAccessFile.length() );
+    Map<String, Map<String, Location>> compactIndex = new HashMap<String, Map<String, Location>>();
+    for( Entry<String, Map<String, Location>> store : index.entrySet() ) {
+      Map<String, Location> locations = new HashMap<String, Location>();
+      for( Entry<String, Location> attribute : store.getValue().entrySet() ) {
+        Location location = attribute.getValue();
+        Location compactLocation;
+        if( location.offset < startLength ) {
+          compactLocation = copiedLocations.get( Long.valueOf( location.offset ) );
+        } else {
+          compactLocation = new Location( location.offset + shift, location.size );
+        }
+        locations.put( attribute.getKey(), compactLocation );
+      }
+      compactIndex.put( store.getKey(), locations );
+    }
+    compactFile.close();
+    replaceFile( compactFile, compactIndex );
+  }
+
+  private void replaceFile( CompactFile compactFile,
+                            Map<String, Map<String, Location>> compactIndex )
+    throws IOException
+  {
+    close();
+    File tempFile = compactFile.file;
+    // renameTo does not replace existing files on all platforms
+    if( !tempFile.renameTo( file ) ) {
+      backupFile.delete();
+      if( !file.renameTo( backupFile ) ) {
+        throw new IOException( "Could not replace setting log: " + file );
+      }
+      if( !tempFile.renameTo( file ) ) {
+        if( !backupFile.renameTo( file ) ) {
+          // the log is restored from the backup when it is opened, the compacted file is kept
+          compactFile.keep();
+        }
+        throw new IOException( "Could not replace setting log: " + file );
+      }
+      backupFile.delete();
+    }
+    randomAccessFile = new RandomAccessFile( file, "rw" );
+    index.clear();
+    index.putAll( compactIndex );
+    liveSize = 0;
+    for( Map<String, Location> locations : compactIndex.values() ) {
+      for( Location location : locations.values() ) {
+        liveSize += location.size;
+      }
+    }
+  }
+
+  private Record readRecord( Location location ) throws IOException {
+    byte[] bytes = readBytes( randomAccessFile, location );
+    DataInputStream input = new DataInputStream( new ByteArrayInputStream( bytes ) );
+    input.readInt();
+    byte type = input.readByte();
+    String storeId = input.readUTF();
+    String key = input.readUTF();
+    String value = null;
+    if( type == PUT ) {
+      byte[] valueBytes = new byte[ input.readInt() ];
+      input.readFully( valueBytes );
+      value = new String( valueBytes, UTF_8 );
+    }
+    return new Record( type, storeId, key, value );
+  }
+
+  private static byte[] readBytes( RandomAccessFile source, Location location )
+    throws IOException
+  {
+    byte[] result = new byte[ location.size ];
+    source.seek( location.offset );
+    source.readFully( result );
+    return result;
+  }
+
+  private class CompactionTask implements Runnable {
+
+    private final List<Location> locations;
+    private final long startLength;
+    private final int startGeneration;
+
+    CompactionTask( List<Location> locations, long startLength, int startGeneration ) {
+      this.locations = locations;
+      this.startLength = startLength;
+      this.startGeneration = startGeneration;
+    }
+
+    public void run() {
+      try {
+        compactInBackground( locations, startLength, startGeneration );
+      } catch( IOException exception ) {
+        ServletLog.log( "Failed to compact setting log", exception );
+      } finally {
+        synchronized( SettingLog.this ) {
+          compacting = false;
+        }
+      }
+    }
+
+  }
+
+  // A new log file in the directory of the log, written through a buffer
+  private static final class CompactFile {
+
+    final File file;
+    private final FileOutputStream fileOutputStream;
+    private final OutputStream outputStream;
+    private long length;
+    private boolean closed;
+    private boolean kept;
+
+    CompactFile( File logFile ) throws IOException {
+      File directory = logFile.getAbsoluteFile().getParentFile();
+      file = File.createTempFile( logFile.getName() + ".compact", null, directory );
+      fileOutputStream = new FileOutputStream( file );
+      outputStream = new BufferedOutputStream( fileOutputStream, BUFFER_SIZE );
+    }
+
+    long getLength() {
+      return length;
+    }
+
+    Location write( byte[] bytes ) throws IOException {
+      Location result = new Location( length, bytes.length );
+      outputStream.write( bytes );
+      length += bytes.length;
+      return result;
+    }
+
+    void copy( RandomAccessFile source, long start, long end ) throws IOException {
+      byte[] buffer = new byte[ BUFFER_SIZE ];
+      source.seek( start );
+      long remaining = end - start;
+      while( remaining > 0 ) {
+        int read = source.read( buffer, 0, ( int )Math.min( buffer.length, remaining ) );
+        if( read == -1 ) {
+          throw new IOException( "Unexpected end of setting log: " + source );
+        }
+        outputStream.write( buffer, 0, read );
+        length += read;
+        remaining -= read;
+      }
+    }
+
+    void close() throws IOException {
+      outputStream.flush();
+      fileOutputStream.getFD().sync();
+      outputStream.close();
+      closed = true;
+    }
+
+    void keep() {
+      kept = true;
+    }
+
+    // Removes the file if it has not been renamed to the log file
+    void discard() {
+      if( !closed ) {
+        try {
+          outputStream.close();
+        } catch( IOException exception ) {
+          // ignore, the file is deleted anyway
+        }
+      }
+      if( !kept ) {
+        file.delete();
+      }
+    }
+
+  }
+
+  private static final class Location {
+
+    final long offset;
+    final int size;
+
+    Location( long offset, int size ) {
+      this.offset = offset;
+      this.size = size;
+    }
+
+  }
+
+  private static final class Record {
+
+    final byte type;
+    final String storeId;
+    final String key;
+    final String value;
+
+    Record( byte type, String storeId, String key, String value ) {
+      this.type = type;
+      this.storeId = storeId;
+      this.key = key;
+      this.value = value;
+    }
+
+    // The size of the record comes first so that incomplete records can be detected
+    byte[] toBytes() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream( bytes );
+      output.writeInt( 0 );
+      output.writeByte( type );
+      output.writeUTF( storeId );
+      output.writeUTF( key );
+      if( type == PUT ) {
+        byte[] valueBytes = value.getBytes( UTF_8 );
+        output.writeInt( valueBytes.length );
+        output.write( valueBytes );
+      }
+      output.close();
+      byte[] result = bytes.toByteArray();
+      int size = result.length - 4;
+      result[ 0 ] = ( byte )( size >>> 24 );
+      result[ 1 ] = ( byte )( size >>> 16 );
+      result[ 2 ] = ( byte )( size >>> 8 );
+      result[ 3 ] = ( byte )size;
+      return result;
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,12 +12,17 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.service;
 
+import java.io.Flushable;
+import java.io.IOException;
+
 import javax.servlet.http.Cookie;
 
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 import org.eclipse.rap.rwt.service.UISession;
 import org.eclipse.rap.rwt.service.SettingStore;
 import org.eclipse.rap.rwt.service.SettingStoreFactory;
+import org.eclipse.rap.rwt.service.UISessionEvent;
+import org.eclipse.rap.rwt.service.UISessionListener;
 
 
 public class SettingStoreManager {
@@ -35,6 +40,9 @@ public class SettingStoreManager {
     if( result == null ) {
       result = factory.createSettingStore( storeId );
       uiSession.setAttribute( storeId, result );
+      if( result instanceof Flushable ) {
+        uiSession.addUISessionListener( new FlushOnDestroyListener( ( Flushable )result ) );
+      }
     }
     return result;
   }
@@ -126,4 +134,25 @@ public class SettingStoreManager {
     }
     return result;
   }
+
+  private static class FlushOnDestroyListener implements UISessionListener {
+
+    private final transient Flushable store;
+
+    FlushOnDestroyListener( Flushable store ) {
+      this.store = store;
+    }
+
+    public void beforeDestroy( UISessionEvent event ) {
+      if( store != null ) {
+        try {
+          store.flush();
+        } catch( IOException exception ) {
+          ServletLog.log( "Failed to write setting store", exception );
+        }
+      }
+    }
+
+  }
+
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rap.rwt.internal.util.ParamCheck;
+
+
+/**
+ * Writes changed setting stores in the background. Stores that change are collected and flushed
+ * together once the write delay has passed, so that a burst of changes to a store results in a
+ * single write. A store that is scheduled again before it has been flushed is written only once.
+ */
+public class SettingStoreWriter {
+
+  private final ScheduledExecutorService scheduler;
+  private final long writeDelay;
+  private final Set<Flushable> pendingStores;
+  private boolean scheduled;
+
+  public SettingStoreWriter( ScheduledExecutorService scheduler, long writeDelay ) {
+    ParamCheck.notNull( scheduler, "scheduler" );
+    this.scheduler = scheduler;
+    this.writeDelay = writeDelay;
+    pendingStores = new LinkedHashSet<Flushable>();
+  }
+
+  public long getWriteDelay() {
+    return writeDelay;
+  }
+
+  public void schedule( Flushable store ) {
+    ParamCheck.notNull( store, "store" );
+    boolean schedule;
+    synchronized( pendingStores ) {
+      pendingStores.add( store );
+      schedule = !scheduled;
+      scheduled = true;
+    }
+    if( schedule ) {
+      try {
+        scheduler.schedule( new FlushTask(), writeDelay, TimeUnit.MILLISECONDS );
+      } catch( RejectedExecutionException exception ) {
+        // the application is shutting down, pending stores are written when their session ends
+        synchronized( pendingStores ) {
+          scheduled = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes all stores that have been scheduled and not been written yet.
+   */
+  public void flushAll() {
+    List<Flushable> stores;
+    synchronized( pendingStores ) {
+      stores = new ArrayList<Flushable>( pendingStores );
+      pendingStores.clear();
+      scheduled = false;
+    }
+    for( Flushable store : stores ) {
+      try {
+        store.flush();
+      } catch( IOException exception ) {
+        ServletLog.log( "Failed to write setting store", exception );
+      } catch( RuntimeException exception ) {
+        ServletLog.log( "Failed to write setting store", exception );
+      }
+    }
+  }
+
+  private class FlushTask implements Runnable {
+
+    public void run() {
+      flushAll();
+    }
+
+  }
+
+}
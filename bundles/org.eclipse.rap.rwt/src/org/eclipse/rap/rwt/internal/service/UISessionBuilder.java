@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,11 +40,12 @@ public class UISessionBuilder {
   }
 
   public UISessionImpl buildUISession() {
-    uiSession.attachToHttpSession();
     serviceContext.setUISession( uiSession );
     SingletonManager.install( uiSession );
     setCurrentTheme();
     selectClient();
+    // Attach last since existing UI sessions are looked up without a lock, see RWTServlet
+    uiSession.attachToHttpSession();
     return uiSession;
   }
 
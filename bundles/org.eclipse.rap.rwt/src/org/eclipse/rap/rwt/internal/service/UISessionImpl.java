@@ -29,6 +29,8 @@ import org.eclipse.rap.rwt.client.service.ClientInfo;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.client.ClientMessages;
 import org.eclipse.rap.rwt.internal.client.ClientSelector;
+import org.eclipse.rap.rwt.internal.engine.ReplicationHook;
+import org.eclipse.rap.rwt.internal.engine.SetAttributeReplicationHook;
 import org.eclipse.rap.rwt.internal.lifecycle.ContextUtil;
 import org.eclipse.rap.rwt.internal.lifecycle.ISessionShutdownAdapter;
 import org.eclipse.rap.rwt.internal.remote.ConnectionImpl;
@@ -87,7 +89,8 @@ public final class UISessionImpl
   }
 
   public void attachToHttpSession() {
-    httpSession.setAttribute( getUISessionAttributeName( connectionId ), this );
+    String name = getUISessionAttributeName( connectionId );
+    getReplicationHook().attributeChanged( getHttpSession(), name, this );
   }
 
   public void setApplicationContext( ApplicationContextImpl applicationContext ) {
@@ -298,6 +301,11 @@ public final class UISessionImpl
     return ATTR_UI_SESSION + ( connectionId == null ? "" : connectionId );
   }
 
+  private ReplicationHook getReplicationHook() {
+    ApplicationContextImpl context = applicationContext;
+    return context == null ? SetAttributeReplicationHook.INSTANCE : context.getReplicationHook();
+  }
+
   private void destroy() {
     synchronized( lock ) {
       inDestroy = true;
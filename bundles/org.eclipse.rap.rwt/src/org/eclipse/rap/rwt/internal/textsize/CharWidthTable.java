@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.textsize;
+
+import org.eclipse.rap.json.JsonArray;
+import org.eclipse.swt.internal.SerializableCompatibility;
+
+
+/**
+ * The widths of the characters of a font as measured by the client, used to compute the width
+ * of single line texts without a measurement round-trip. The table covers the printable Latin-1
+ * characters. The CJK ideographs, kana and full width forms share the width measured for a
+ * single ideograph. For other characters, the width is unknown.
+ */
+final class CharWidthTable implements SerializableCompatibility {
+
+  private static final char FIRST_CHAR = 0x20;
+  private static final char LAST_CHAR = 0xFF;
+  private static final char FULL_WIDTH_CHAR = 0x4E00;
+
+  // the characters that are measured by the client, in the order of the measured widths
+  static final String CHARACTERS;
+  static {
+    StringBuilder builder = new StringBuilder();
+    for( char ch = FIRST_CHAR; ch <= LAST_CHAR; ch++ ) {
+      if( !Character.isISOControl( ch ) ) {
+        builder.append( ch );
+      }
+    }
+    builder.append( FULL_WIDTH_CHAR );
+    CHARACTERS = builder.toString();
+  }
+
+  // widths in hundredths of a pixel to avoid rounding errors when adding them up
+  private final int[] widths;
+  private final int fullWidth;
+  // the pixels the client adds to every measured text that is not empty
+  private final int offset;
+
+  /**
+   * Creates a table from the widths measured for the <code>CHARACTERS</code>, followed by the
+   * offset that the client adds to measured texts, or returns <code>null</code> if the
+   * measurement does not match.
+   */
+  static CharWidthTable create( JsonArray measuredWidths ) {
+    CharWidthTable result = null;
+    if( measuredWidths.size() == CHARACTERS.length() + 1 ) {
+      int[] widths = new int[ LAST_CHAR - FIRST_CHAR + 1 ];
+      for( int i = 0; i < widths.length; i++ ) {
+        widths[ i ] = -1;
+      }
+      for( int i = 0; i < CHARACTERS.length() - 1; i++ ) {
+        widths[ CHARACTERS.charAt( i ) - FIRST_CHAR ] = toHundredths( measuredWidths, i );
+      }
+      int fullWidth = toHundredths( measuredWidths, CHARACTERS.length() - 1 );
+      int offset = Math.max( 0, measuredWidths.get( CHARACTERS.length() ).asInt() );
+      result = new CharWidthTable( widths, fullWidth, offset );
+    }
+    return result;
+  }
+
+  private CharWidthTable( int[] widths, int fullWidth, int offset ) {
+    this.widths = widths;
+    this.fullWidth = fullWidth;
+    this.offset = offset;
+  }
+
+  /**
+   * Returns the width of the given string in pixels, rounded up and with the offset added like
+   * the client does, or -1 if the string contains a character whose width is unknown.
+   */
+  int getWidth( String string ) {
+    int sum = 0;
+    int length = string.length();
+    for( int i = 0; i < length && sum != -1; i++ ) {
+      int width = getCharWidth( string.charAt( i ) );
+      sum = width == -1 ? -1 : sum + width;
+    }
+    int result = -1;
+    if( sum != -1 ) {
+      result = ( sum + 99 ) / 100;
+      result = result > 0 ? result + offset : 0;
+    }
+    return result;
+  }
+
+  private int getCharWidth( char ch ) {
+    int result = -1;
+    if( ch >= FIRST_CHAR && ch <= LAST_CHAR ) {
+      result = widths[ ch - FIRST_CHAR ];
+    } else if( isFullWidth( ch ) ) {
+      result = fullWidth;
+    }
+    return result;
+  }
+
+  private static boolean isFullWidth( char ch ) {
+    return    ch >= 0x3000 && ch <= 0x30FF // CJK punctuation, hiragana, katakana
+           || ch >= 0x3400 && ch <= 0x4DBF // CJK unified ideographs extension A
+           || ch >= 0x4E00 && ch <= 0x9FFF // CJK unified ideographs
+           || ch >= 0xFF01 && ch <= 0xFF60; // full width forms
+  }
+
+  private static int toHundredths( JsonArray measuredWidths, int index ) {
+    return Math.max( 0, Math.round( measuredWidths.get( index ).asFloat() * 100 ) );
+  }
+
+}
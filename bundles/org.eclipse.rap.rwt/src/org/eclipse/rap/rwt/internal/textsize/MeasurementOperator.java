@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,7 @@ class MeasurementOperator implements SerializableCompatibility {
   static final String PROPERTY_ITEMS = "items";
   static final String METHOD_STORE_MEASUREMENTS = "storeMeasurements";
   static final String PROPERTY_RESULTS = "results";
+  static final String PROPERTY_CHAR_WIDTHS = "charWidths";
 
   private final Set<Probe> probes;
   private final Set<MeasurementItem> items;
@@ -126,16 +127,18 @@ class MeasurementOperator implements SerializableCompatibility {
     List<CallOperation> operations = getCallOperationsFor( METHOD_STORE_MEASUREMENTS );
     while( probeList.hasNext() ) {
       Probe probe = ( Probe )probeList.next();
-      Point size = readMeasuredSize( operations, MeasurementUtil.getId( probe ) );
+      String id = MeasurementUtil.getId( probe );
+      Point size = readMeasuredSize( operations, id );
       if( size != null ) {
-        createProbeResult( probe, size );
+        CharWidthTable charWidthTable = readCharWidthTable( operations, id );
+        createProbeResult( probe, size, charWidthTable );
         probeList.remove();
       }
     }
   }
 
-  private void createProbeResult( Probe probe, Point size ) {
-    ProbeResultStore.getInstance().createProbeResult( probe, size );
+  private void createProbeResult( Probe probe, Point size, CharWidthTable charWidthTable ) {
+    ProbeResultStore.getInstance().createProbeResult( probe, size, charWidthTable );
   }
 
   private void addStartupProbesToBuffer() {
@@ -176,6 +179,20 @@ class MeasurementOperator implements SerializableCompatibility {
     return result;
   }
 
+  private static CharWidthTable readCharWidthTable( List<CallOperation> operations, String id ) {
+    CharWidthTable result = null;
+    for( CallOperation operation : operations ) {
+      JsonValue charWidths = operation.getProperty( PROPERTY_CHAR_WIDTHS );
+      if( charWidths != null && charWidths.isObject() ) {
+        JsonValue value = charWidths.asObject().get( id );
+        if( value != null && value.isArray() ) {
+          result = CharWidthTable.create( value.asArray() );
+        }
+      }
+    }
+    return result;
+  }
+
   private static void storeTextMeasurement( MeasurementItem item, Point size ) {
     FontData fontData = item.getFontData();
     String textToMeasure = item.getTextToMeasure();
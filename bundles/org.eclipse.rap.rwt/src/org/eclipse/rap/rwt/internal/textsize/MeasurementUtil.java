@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.rap.rwt.internal.textsize;
 import static org.eclipse.rap.rwt.internal.protocol.JsonUtil.createJsonArray;
 
 import org.eclipse.rap.json.JsonArray;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.protocol.ProtocolMessageWriter;
 import org.eclipse.rap.rwt.internal.protocol.ProtocolUtil;
 import org.eclipse.swt.SWT;
@@ -53,6 +54,9 @@ public class MeasurementUtil {
       .add( ( fontData.getStyle() & SWT.ITALIC ) != 0 )
       .add( -1 )
       .add( true );
+    if( RWTProperties.isCharWidthTablesEnabled() ) {
+      result.add( CharWidthTable.CHARACTERS );
+    }
     return result;
   }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,11 +21,17 @@ class ProbeResult implements SerializableCompatibility {
 
   private final Point size;
   private final Probe probe;
+  private final CharWidthTable charWidthTable;
   private transient float avgCharWidth;
 
   ProbeResult( Probe probe, Point size ) {
+    this( probe, size, null );
+  }
+
+  ProbeResult( Probe probe, Point size, CharWidthTable charWidthTable ) {
     this.probe = probe;
     this.size = size;
+    this.charWidthTable = charWidthTable;
   }
 
   Probe getProbe() {
@@ -36,6 +42,14 @@ class ProbeResult implements SerializableCompatibility {
     return size;
   }
 
+  /**
+   * Returns the character widths measured along with the probe, or <code>null</code> if the
+   * client did not measure them.
+   */
+  CharWidthTable getCharWidthTable() {
+    return charWidthTable;
+  }
+
   float getAvgCharWidth() {
     if( avgCharWidth == 0 ) {
       BigDecimal width = new BigDecimal( getSize().x );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,57 +11,90 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.textsize;
 
-import java.io.Serializable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.eclipse.rap.rwt.internal.textsize.TextSizeStorageUtil.Key;
+import org.eclipse.rap.rwt.internal.service.ServletLog;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.Point;
 
 
+/**
+ * Application wide store of measured text sizes. Lookups do not block each other. When the
+ * store overflows, the least recently used tenth of the entries is removed. The threshold is
+ * found by a linear selection over the access time stamps instead of sorting all entries.
+ * <p>
+ * The measured fonts and text sizes can be exported to and imported from a stream, e.g. to seed
+ * a new cluster node with the content of a warm one. Sizes are keyed by the result of the font
+ * probe, hence imported sizes are only used for clients that render the probe the same way.
+ * A journal stream receives every font and text size that is stored afterwards in the same
+ * format, which allows to keep an append-only file up to date.
+ * </p>
+ */
 public final class TextSizeStorage {
   public static final int MIN_STORE_SIZE = 1000;
   public static final int DEFAULT_STORE_SIZE = 10000;
 
+  private static final int MAGIC = 0x52545353;
+  private static final int VERSION = 1;
+  private static final byte FONT_RECORD = 1;
+  private static final byte SIZE_RECORD = 2;
+
   private final Object lock;
   // access is guarded by 'lock'
   private final Set<FontData> fontDatas;
-  // access is guarded by 'lock'
-  private final Map<Integer,Entry> data;
-  private int maximumStoreSize;
-  private int clearRange;
-  private long clock;
+  private final ConcurrentMap<Object,Entry> data;
+  private final Lock evictionLock;
+  private final AtomicLong clock;
+  private final AtomicLong hitCount;
+  private final AtomicLong missCount;
+  private final AtomicLong evictionCount;
+  private volatile int maximumStoreSize;
+  private volatile int clearRange;
+  private final Object journalLock;
+  // access is guarded by 'journalLock'
+  private DataOutputStream journal;
 
 
   private static class Entry {
-    private Point point;
-    private long timeStamp;
-  }
+    private final Point point;
+    private volatile long timeStamp;
 
-  private static class EntryComparator implements Comparator<Entry>, Serializable {
-
-    public int compare( Entry entry1, Entry entry2 ) {
-      int result = 0;
-      if( entry1.timeStamp > entry2.timeStamp ) {
-        result = 1;
-      } else if( entry1.timeStamp < entry2.timeStamp ) {
-        result = -1;
-      }
-      return result;
+    Entry( Point point, long timeStamp ) {
+      this.point = point;
+      this.timeStamp = timeStamp;
     }
   }
 
 
   public TextSizeStorage() {
     lock = new Object();
-    data = new HashMap<Integer,Entry>();
+    data = new ConcurrentHashMap<Object,Entry>();
     fontDatas = new HashSet<FontData>();
+    evictionLock = new ReentrantLock();
+    clock = new AtomicLong();
+    hitCount = new AtomicLong();
+    missCount = new AtomicLong();
+    evictionCount = new AtomicLong();
+    journalLock = new Object();
     setMaximumStoreSize( DEFAULT_STORE_SIZE );
   }
 
@@ -75,34 +108,209 @@ public final class TextSizeStorage {
   }
 
   void storeFont( FontData fontData ) {
+    boolean added;
     synchronized( lock ) {
-      fontDatas.add( fontData );
+      added = fontDatas.add( fontData );
+    }
+    if( added ) {
+      appendFontToJournal( fontData );
     }
   }
 
-  Point lookupTextSize( Integer key ) {
+  Point lookupTextSize( Object key ) {
     Point result = null;
-    synchronized( lock ) {
-      Entry entry = data.get( key );
-      if( entry != null ) {
-        updateTimestamp( entry );
-        result = entry.point;
-      }
+    Entry entry = data.get( key );
+    if( entry != null ) {
+      entry.timeStamp = clock.incrementAndGet();
+      hitCount.incrementAndGet();
+      result = entry.point;
+    } else {
+      missCount.incrementAndGet();
     }
     result = defensiveCopy( result );
     return result;
   }
 
-  void storeTextSize( Integer key, Point size ) {
-    Entry entry = new Entry();
-    entry.point = defensiveCopy( size );
-    updateTimestamp( entry );
-    synchronized( lock ) {
-      data.put( key, entry );
-      handleOverFlow();
+  void storeTextSize( Object key, Point size ) {
+    Entry entry = new Entry( defensiveCopy( size ), clock.incrementAndGet() );
+    data.put( key, entry );
+    handleOverFlow();
+    appendSizeToJournal( key, entry.point );
+  }
+
+  /////////////////
+  // import, export
+
+  /**
+   * Writes all fonts and the text sizes that are keyed by a probe result to the given stream.
+   * The stream is not closed.
+   */
+  public void exportTo( OutputStream outputStream ) throws IOException {
+    DataOutputStream output = new DataOutputStream( new BufferedOutputStream( outputStream ) );
+    writeHeader( output );
+    FontData[] fontList = getFontList();
+    for( int i = 0; i < fontList.length; i++ ) {
+      writeFont( output, fontList[ i ] );
+    }
+    Iterator<Map.Entry<Object,Entry>> entries = data.entrySet().iterator();
+    while( entries.hasNext() ) {
+      Map.Entry<Object,Entry> entry = entries.next();
+      if( entry.getKey() instanceof Key ) {
+        writeSize( output, ( Key )entry.getKey(), entry.getValue().point );
+      }
+    }
+    output.flush();
+  }
+
+  /**
+   * Adds the fonts and text sizes read from the given stream, which has to contain the format
+   * written by <code>exportTo</code> or a journal. A truncated last record, as left by a journal
+   * that was not closed, is ignored. The stream is not closed.
+   */
+  public void importFrom( InputStream inputStream ) throws IOException {
+    DataInputStream input = new DataInputStream( new BufferedInputStream( inputStream ) );
+    readHeader( input );
+    try {
+      while( true ) {
+        byte type = input.readByte();
+        if( type == FONT_RECORD ) {
+          FontData fontData = TextSizeStorageUtil.readFontData( input );
+          synchronized( lock ) {
+            fontDatas.add( fontData );
+          }
+        } else if( type == SIZE_RECORD ) {
+          Key key = Key.read( input );
+          Point size = new Point( input.readInt(), input.readInt() );
+          data.put( key, new Entry( size, clock.incrementAndGet() ) );
+          handleOverFlow();
+        } else {
+          throw new IOException( "Unknown record type: " + type );
+        }
+      }
+    } catch( EOFException endOfStream ) {
+      // all complete records are read
+    }
+  }
+
+  /**
+   * Starts to write every font and text size that is stored from now on to the given stream.
+   * The stream must be positioned at the end of an export or journal, or be empty.
+   */
+  public void startJournal( OutputStream outputStream, boolean writeHeader ) throws IOException {
+    DataOutputStream output = new DataOutputStream( new BufferedOutputStream( outputStream ) );
+    if( writeHeader ) {
+      writeHeader( output );
+    }
+    synchronized( journalLock ) {
+      stopJournal();
+      journal = output;
+    }
+  }
+
+  /**
+   * Flushes and closes the journal stream, if any.
+   */
+  public void stopJournal() {
+    synchronized( journalLock ) {
+      if( journal != null ) {
+        try {
+          journal.close();
+        } catch( IOException ioe ) {
+          ServletLog.log( "Failed to close text size journal", ioe );
+        }
+        journal = null;
+      }
+    }
+  }
+
+  private void appendFontToJournal( FontData fontData ) {
+    synchronized( journalLock ) {
+      if( journal != null ) {
+        try {
+          writeFont( journal, fontData );
+        } catch( IOException ioe ) {
+          handleJournalFailure( ioe );
+        }
+      }
+    }
+  }
+
+  private void appendSizeToJournal( Object key, Point size ) {
+    if( key instanceof Key ) {
+      synchronized( journalLock ) {
+        if( journal != null ) {
+          try {
+            writeSize( journal, ( Key )key, size );
+          } catch( IOException ioe ) {
+            handleJournalFailure( ioe );
+          }
+        }
+      }
+    }
+  }
+
+  private void handleJournalFailure( IOException ioe ) {
+    ServletLog.log( "Failed to write text size journal, journal stopped", ioe );
+    stopJournal();
+  }
+
+  private static void writeHeader( DataOutputStream output ) throws IOException {
+    output.writeInt( MAGIC );
+    output.writeInt( VERSION );
+  }
+
+  private static void readHeader( DataInputStream input ) throws IOException {
+    if( input.readInt() != MAGIC ) {
+      throw new IOException( "Not a text size store" );
+    }
+    int version = input.readInt();
+    if( version != VERSION ) {
+      throw new IOException( "Unsupported text size store version: " + version );
     }
   }
 
+  private static void writeFont( DataOutputStream output, FontData fontData ) throws IOException {
+    output.writeByte( FONT_RECORD );
+    TextSizeStorageUtil.writeFontData( output, fontData );
+  }
+
+  private static void writeSize( DataOutputStream output, Key key, Point size )
+    throws IOException
+  {
+    output.writeByte( SIZE_RECORD );
+    key.write( output );
+    output.writeInt( size.x );
+    output.writeInt( size.y );
+  }
+
+  /////////////
+  // statistics
+
+  /**
+   * Returns the number of lookups that found a stored text size.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of lookups that did not find a stored text size.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of entries that were removed because the store overflowed.
+   */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  int size() {
+    return data.size();
+  }
+
   ////////////////////
   // overflow handling
 
@@ -117,19 +325,73 @@ public final class TextSizeStorage {
   }
 
   private void handleOverFlow() {
-    if( data.size() >= maximumStoreSize ) {
-      Entry[] entries = sortEntries();
-      for( int i = 0; i < clearRange; i++ ) {
-        data.values().remove( entries[ i ] );
+    // threads that find the eviction in progress don't need to wait for it
+    if( data.size() >= maximumStoreSize && evictionLock.tryLock() ) {
+      try {
+        if( data.size() >= maximumStoreSize ) {
+          evictLeastRecentlyUsed();
+        }
+      } finally {
+        evictionLock.unlock();
       }
     }
   }
 
-  private Entry[] sortEntries() {
-    Entry[] result = new Entry[ data.size() ];
-    data.values().toArray( result );
-    Arrays.sort( result, new EntryComparator() );
-    return result;
+  private void evictLeastRecentlyUsed() {
+    long[] timeStamps = new long[ data.size() ];
+    int count = 0;
+    Iterator<Entry> entries = data.values().iterator();
+    while( entries.hasNext() && count < timeStamps.length ) {
+      timeStamps[ count++ ] = entries.next().timeStamp;
+    }
+    int removeCount = Math.min( clearRange, count );
+    if( removeCount > 0 ) {
+      long threshold = select( timeStamps, count, removeCount - 1 );
+      entries = data.values().iterator();
+      while( entries.hasNext() ) {
+        // entries that were accessed in the meantime have a newer time stamp and are kept
+        if( entries.next().timeStamp <= threshold ) {
+          entries.remove();
+          evictionCount.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /*
+   * Returns the k-th smallest of the first length values. The values are reordered.
+   */
+  static long select( long[] values, int length, int k ) {
+    int left = 0;
+    int right = length - 1;
+    while( left < right ) {
+      long pivot = values[ ( left + right ) >>> 1 ];
+      int i = left;
+      int j = right;
+      while( i <= j ) {
+        while( values[ i ] < pivot ) {
+          i++;
+        }
+        while( values[ j ] > pivot ) {
+          j--;
+        }
+        if( i <= j ) {
+          long swap = values[ i ];
+          values[ i ] = values[ j ];
+          values[ j ] = swap;
+          i++;
+          j--;
+        }
+      }
+      if( k <= j ) {
+        right = j;
+      } else if( k >= i ) {
+        left = i;
+      } else {
+        return values[ k ];
+      }
+    }
+    return values[ k ];
   }
 
 
@@ -152,10 +414,6 @@ public final class TextSizeStorage {
     return result;
   }
 
-  private void updateTimestamp( Entry entry ) {
-    entry.timeStamp = clock++;
-  }
-
   private void calculateClearRange( int maximumStoreSize ) {
     BigDecimal ten = new BigDecimal( 10 );
     BigDecimal bdStoreSize = new BigDecimal( maximumStoreSize );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,11 @@ package org.eclipse.rap.rwt.internal.textsize;
 
 import static org.eclipse.rap.rwt.internal.service.ContextProvider.getApplicationContext;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.Point;
@@ -20,11 +25,14 @@ import org.eclipse.swt.graphics.Point;
 
 final class TextSizeStorageUtil {
 
+  // a longer string in a store file is the length of a corrupt record
+  private static final int MAX_STRING_LENGTH = 1024 * 1024;
+
   static Point lookup( FontData fontData, String string, int wrapWidth, int mode ) {
     Point result = null;
     if( ProbeResultStore.getInstance().containsProbeResult( fontData ) ) {
       TextSizeStorage textSizeStorage = getApplicationContext().getTextSizeStorage();
-      Integer key = getKey( fontData, string, wrapWidth, mode );
+      Object key = getKey( fontData, string, wrapWidth, mode );
       result = textSizeStorage.lookupTextSize( key );
       if( result == null && wrapWidth > 0 ) {
         key = getKey( fontData, string, SWT.DEFAULT, mode );
@@ -46,26 +54,16 @@ final class TextSizeStorageUtil {
                      Point measuredTextSize )
   {
     checkFontExists( fontData );
-    Integer key = getKey( fontData, string, wrapWidth, mode );
+    Object key = getKey( fontData, string, wrapWidth, mode );
     getApplicationContext().getTextSizeStorage().storeTextSize( key, measuredTextSize );
   }
 
-  static Integer getKey( FontData fontData, String string, int wrapWidth, int mode ) {
+  static Object getKey( FontData fontData, String string, int wrapWidth, int mode ) {
     ProbeResultStore instance = ProbeResultStore.getInstance();
     ProbeResult probeResult = instance.getProbeResult( fontData );
-    String probeText = probeResult.getProbe().getText();
-    Point probeSize = probeResult.getSize();
-    int hashCode = 1;
-    hashCode = 31 * hashCode + probeText.hashCode();
-    hashCode = 31 * hashCode + probeSize.hashCode();
-    hashCode = 31 * hashCode + fontData.hashCode();
-    hashCode = 31 * hashCode + string.hashCode();
-    hashCode = 31 * hashCode + wrapWidth;
-    hashCode = 31 * hashCode + mode;
-    return Integer.valueOf( hashCode );
+    return new Key( probeResult, fontData, string, wrapWidth, mode );
   }
 
-
   private static void checkFontExists( FontData fontData ) {
     if( !ProbeResultStore.getInstance().containsProbeResult( fontData ) ) {
       String msg = "Font not probed yet: " + fontData.toString();
@@ -73,7 +71,134 @@ final class TextSizeStorageUtil {
     }
   }
 
+  static FontData readFontData( DataInput input ) throws IOException {
+    String name = readString( input );
+    int height = input.readInt();
+    int style = input.readInt();
+    return new FontData( name, height, style );
+  }
+
+  static void writeFontData( DataOutput output, FontData fontData ) throws IOException {
+    writeString( output, fontData.getName() );
+    output.writeInt( fontData.getHeight() );
+    output.writeInt( fontData.getStyle() );
+  }
+
+  // writeUTF is limited to 64k bytes, measured strings can be longer
+  private static String readString( DataInput input ) throws IOException {
+    int length = input.readInt();
+    if( length < 0 || length > MAX_STRING_LENGTH ) {
+      // handled like a truncated record, the records read so far are kept
+      throw new EOFException( "Invalid string length: " + length );
+    }
+    char[] chars = new char[ length ];
+    for( int i = 0; i < length; i++ ) {
+      chars[ i ] = input.readChar();
+    }
+    return new String( chars );
+  }
+
+  private static void writeString( DataOutput output, String string ) throws IOException {
+    output.writeInt( string.length() );
+    output.writeChars( string );
+  }
+
   private TextSizeStorageUtil() {
     // prevent instantiation
   }
-}
\ No newline at end of file
+
+  /*
+   * The sizes measured for a font depend on the client, which is identified by the result of
+   * the font probe. Compares all components to avoid that hash collisions return wrong sizes.
+   */
+  static final class Key {
+
+    private final String probeText;
+    private final int probeWidth;
+    private final int probeHeight;
+    private final FontData fontData;
+    private final String string;
+    private final int wrapWidth;
+    private final int mode;
+    private final int hashCode;
+
+    Key( ProbeResult probeResult, FontData fontData, String string, int wrapWidth, int mode ) {
+      this( probeResult.getProbe().getText(),
+            probeResult.getSize().x,
+            probeResult.getSize().y,
+            fontData,
+            string,
+            wrapWidth,
+            mode );
+    }
+
+    private Key( String probeText,
+                 int probeWidth,
+                 int probeHeight,
+                 FontData fontData,
+                 String string,
+                 int wrapWidth,
+                 int mode )
+    {
+      this.probeText = probeText;
+      this.probeWidth = probeWidth;
+      this.probeHeight = probeHeight;
+      this.fontData = fontData;
+      this.string = string;
+      this.wrapWidth = wrapWidth;
+      this.mode = mode;
+      int hash = 1;
+      hash = 31 * hash + probeText.hashCode();
+      hash = 31 * hash + probeWidth;
+      hash = 31 * hash + probeHeight;
+      hash = 31 * hash + fontData.hashCode();
+      hash = 31 * hash + string.hashCode();
+      hash = 31 * hash + wrapWidth;
+      hash = 31 * hash + mode;
+      hashCode = hash;
+    }
+
+    static Key read( DataInput input ) throws IOException {
+      String probeText = readString( input );
+      int probeWidth = input.readInt();
+      int probeHeight = input.readInt();
+      FontData fontData = readFontData( input );
+      String string = readString( input );
+      int wrapWidth = input.readInt();
+      int mode = input.readInt();
+      return new Key( probeText, probeWidth, probeHeight, fontData, string, wrapWidth, mode );
+    }
+
+    void write( DataOutput output ) throws IOException {
+      writeString( output, probeText );
+      output.writeInt( probeWidth );
+      output.writeInt( probeHeight );
+      writeFontData( output, fontData );
+      writeString( output, string );
+      output.writeInt( wrapWidth );
+      output.writeInt( mode );
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals( Object object ) {
+      boolean result = object == this;
+      if( !result && object instanceof Key ) {
+        Key other = ( Key )object;
+        result =    hashCode == other.hashCode
+                 && wrapWidth == other.wrapWidth
+                 && mode == other.mode
+                 && probeWidth == other.probeWidth
+                 && probeHeight == other.probeHeight
+                 && string.equals( other.string )
+                 && probeText.equals( other.probeText )
+                 && fontData.equals( other.fontData );
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.textsize;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.rap.rwt.internal.service.ServletLog;
+
+
+/**
+ * Keeps the content of a text size storage in an append-only file, so that the measured sizes
+ * survive a restart. On open, the file is read into the storage and rewritten with the current
+ * content of the storage, which drops the entries that were evicted. Sizes that are stored
+ * afterwards are appended to the file until it is closed.
+ * <p>
+ * When more has been appended than the rewritten file contained, at least 1 MB, the file is
+ * rewritten again on a background thread. Sizes that are stored while the file is rewritten are
+ * kept in memory only. Where the rewritten file can not be renamed over the store file, the store
+ * file is moved to a backup file first, which is restored on open if the store file is missing.
+ * </p>
+ * <p>
+ * The file is locked while it is open. If another application context or process already uses
+ * the same file, the file is left alone and the sizes are kept in memory only.
+ * </p>
+ */
+public final class TextSizeStoreFile {
+
+  private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+  private final File file;
+  private final File backupFile;
+  private final TextSizeStorage storage;
+  private final long minCompactionSize;
+  private RandomAccessFile lockFile;
+  private FileLock lock;
+  private volatile ExecutorService executor;
+
+  public TextSizeStoreFile( File file, TextSizeStorage storage ) {
+    this( file, storage, MIN_COMPACTION_SIZE );
+  }
+
+  TextSizeStoreFile( File file, TextSizeStorage storage, long minCompactionSize ) {
+    this.file = file;
+    this.storage = storage;
+    this.minCompactionSize = minCompactionSize;
+    backupFile = new File( file.getPath() + ".bak" );
+  }
+
+  public synchronized void open() {
+    if( lock() ) {
+      executor = Executors.newSingleThreadExecutor( new CompactionThreadFactory() );
+      if( !file.exists() && backupFile.exists() ) {
+        backupFile.renameTo( file );
+      }
+      if( file.isFile() ) {
+        load();
+      }
+      if( compact() ) {
+        startJournal();
+      }
+    }
+  }
+
+  public synchronized void close() {
+    storage.stopJournal();
+    if( executor != null ) {
+      executor.shutdown();
+      executor = null;
+    }
+    unlock();
+  }
+
+  private synchronized void compactJournal() {
+    // the store file may have been closed since the compaction was scheduled
+    if( lock != null ) {
+      storage.stopJournal();
+      if( compact() ) {
+        startJournal();
+      }
+    }
+  }
+
+  private void startJournal() {
+    try {
+      OutputStream outputStream = new FileOutputStream( file, true );
+      long limit = Math.max( file.length(), minCompactionSize );
+      storage.startJournal( new JournalOutputStream( outputStream, limit ), false );
+    } catch( IOException ioe ) {
+      ServletLog.log( "Failed to open text size store: " + file, ioe );
+    }
+  }
+
+  private boolean lock() {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if( parent != null ) {
+      parent.mkdirs();
+    }
+    // the store file itself is replaced when compacted, hence the separate lock file
+    try {
+      lockFile = new RandomAccessFile( new File( file.getPath() + ".lock" ), "rw" );
+      try {
+        lock = lockFile.getChannel().tryLock();
+      } catch( OverlappingFileLockException lockedInThisProcess ) {
+        lock = null;
+      }
+      if( lock == null ) {
+        ServletLog.log( "Text size store is used by another application: " + file, null );
+        unlock();
+      }
+    } catch( IOException ioe ) {
+      ServletLog.log( "Failed to lock text size store: " + file, ioe );
+      unlock();
+    }
+    return lock != null;
+  }
+
+  private void unlock() {
+    try {
+      if( lock != null ) {
+        lock.release();
+      }
+      if( lockFile != null ) {
+        lockFile.close();
+      }
+    } catch( IOException ioe ) {
+      ServletLog.log( "Failed to unlock text size store: " + file, ioe );
+    }
+    lock = null;
+    lockFile = null;
+  }
+
+  private void load() {
+    try {
+      InputStream inputStream = new FileInputStream( file );
+      try {
+        storage.importFrom( inputStream );
+      } finally {
+        inputStream.close();
+      }
+    } catch( IOException ioe ) {
+      ServletLog.log( "Failed to read text size store: " + file, ioe );
+    }
+  }
+
+  private boolean compact() {
+    boolean result = false;
+    File tempFile = new File( file.getPath() + ".tmp" );
+    try {
+      OutputStream outputStream = new FileOutputStream( tempFile );
+      try {
+        storage.exportTo( outputStream );
+      } finally {
+        outputStream.close();
+      }
+      replaceFile( tempFile );
+      result = true;
+    } catch( IOException ioe ) {
+      tempFile.delete();
+      ServletLog.log( "Failed to write text size store: " + file, ioe );
+    }
+    return result;
+  }
+
+  private void replaceFile( File tempFile ) throws IOException {
+    // renameTo does not replace an existing file on all platforms
+    if( !tempFile.renameTo( file ) ) {
+      backupFile.delete();
+      if( file.exists() && !file.renameTo( backupFile ) ) {
+        throw new IOException( "Failed to replace " + file );
+      }
+      if( !tempFile.renameTo( file ) ) {
+        backupFile.renameTo( file );
+        throw new IOException( "Failed to rename " + tempFile + " to " + file );
+      }
+      backupFile.delete();
+    }
+  }
+
+  private void scheduleCompaction() {
+    ExecutorService currentExecutor = executor;
+    if( currentExecutor != null ) {
+      try {
+        currentExecutor.execute( new Runnable() {
+          public void run() {
+            compactJournal();
+          }
+        } );
+      } catch( RejectedExecutionException shutDown ) {
+        // the store file has been closed
+      }
+    }
+  }
+
+  /*
+   * Counts the bytes appended to the store file and schedules a compaction once they exceed the
+   * limit. Writes happen while the storage holds its journal lock, the compaction must not run on
+   * the writing thread.
+   */
+  private final class JournalOutputStream extends FilterOutputStream {
+
+    private final long limit;
+    private long count;
+    private boolean compactionScheduled;
+
+    JournalOutputStream( OutputStream outputStream, long limit ) {
+      super( outputStream );
+      this.limit = limit;
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+      out.write( b );
+      countBytes( 1 );
+    }
+
+    @Override
+    public void write( byte[] bytes, int offset, int length ) throws IOException {
+      out.write( bytes, offset, length );
+      countBytes( length );
+    }
+
+    private void countBytes( int length ) {
+      count += length;
+      if( count > limit && !compactionScheduled ) {
+        compactionScheduled = true;
+        scheduleCompaction();
+      }
+    }
+
+  }
+
+  private static class CompactionThreadFactory implements ThreadFactory {
+
+    public Thread newThread( Runnable runnable ) {
+      Thread result = new Thread( runnable, "RWT Text Size Store Compaction" );
+      result.setDaemon( true );
+      return result;
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -95,6 +95,9 @@ public class TextSizeUtil {
   private static Point determineTextSize( Font font, String string, int wrapWidth, int mode ) {
     int normalizedWrapWidth = normalizeWrapWidth( wrapWidth );
     Point result = lookup( font, string, normalizedWrapWidth, mode );
+    if( result == null ) {
+      result = calculate( font, string, normalizedWrapWidth, mode );
+    }
     if( result == null ) {
       result = estimate( font, string, normalizedWrapWidth, mode );
       if( !isTemporaryResize() ) {
@@ -124,6 +127,26 @@ public class TextSizeUtil {
     return TextSizeStorageUtil.lookup( fontData, measurementString, wrapWidth, mode );
   }
 
+  /*
+   * Computes the size of single line texts from the character widths measured with the font
+   * probe. Returns null for markup, texts with mnemonics, texts that would wrap and texts with
+   * characters whose width is unknown, including line breaks. These are measured by the client.
+   */
+  private static Point calculate( Font font, String string, int wrapWidth, int mode ) {
+    Point result = null;
+    if( mode != MARKUP_EXTENT && string.indexOf( '&' ) == -1 ) {
+      ProbeResult probeResult = getProbeResult( font );
+      if( probeResult != null && probeResult.getCharWidthTable() != null ) {
+        String line = createMeasurementString( string, mode );
+        int width = probeResult.getCharWidthTable().getWidth( line );
+        if( width != -1 && ( wrapWidth == SWT.DEFAULT || width <= wrapWidth ) ) {
+          result = new Point( width, probeResult.getSize().y );
+        }
+      }
+    }
+    return result;
+  }
+
   private static Point estimate( Font font, String string, int wrapWidth, int mode ) {
     Point result;
     switch( mode ) {
@@ -10,36 +10,155 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
+/**
+ * Holds one shared instance per key. An instance is created on the first request for its key.
+ * Creators run without holding a lock on the buffer, concurrent requests for the same key wait
+ * for the one creation in progress.
+ * <p>
+ * A buffer created with a maximum size holds only weak references to its instances and keeps
+ * only the most recently requested instances from being garbage collected. Other instances are
+ * evicted as soon as they are no longer referenced elsewhere.
+ * </p>
+ */
 public class SharedInstanceBuffer<K, I> implements Serializable {
 
-  private final SerializableLock lock;
-  private final Map<K, I> store;
+  private final int maxSize;
+  private transient ConcurrentMap<K, InstanceHolder<K, I>> store;
+  private transient ReferenceQueue<I> collectedInstances;
+  private transient AtomicReferenceArray<I> recentInstances;
+  private transient AtomicInteger recentIndex;
 
   public SharedInstanceBuffer() {
-    lock = new SerializableLock();
-    store = new HashMap<K, I>();
+    this( -1 );
+  }
+
+  /**
+   * Creates a buffer that evicts instances which are no longer referenced, except for the
+   * <code>maxSize</code> most recently requested ones. A negative size keeps all instances.
+   */
+  public SharedInstanceBuffer( int maxSize ) {
+    this.maxSize = maxSize;
+    initialize();
   }
 
   public I get( K key, IInstanceCreator<I> instanceCreator ) {
     ParamCheck.notNull( instanceCreator, "instanceCreator" );
-    synchronized( lock ) {
-      I result = store.get( key );
-      if( result == null ) {
-        result = instanceCreator.createInstance();
-        store.put( key, result );
+    expungeCollectedInstances();
+    I result = null;
+    boolean found = false;
+    while( !found ) {
+      InstanceHolder<K, I> holder = store.get( key );
+      if( holder == null ) {
+        InstanceHolder<K, I> newHolder = new InstanceHolder<K, I>( key );
+        holder = store.putIfAbsent( key, newHolder );
+        if( holder == null ) {
+          result = create( newHolder, instanceCreator );
+          found = true;
+        }
+      }
+      if( !found ) {
+        result = holder.await();
+        // the instance was collected, or its creation failed or returned null
+        found = result != null;
+        if( !found ) {
+          store.remove( key, holder );
+        }
       }
-      return result;
     }
+    retain( result );
+    return result;
   }
 
   public I remove( K key ) {
-    synchronized( lock ) {
-      return store.remove( key );
+    InstanceHolder<K, I> holder = store.remove( key );
+    return holder == null ? null : holder.await();
+  }
+
+  /**
+   * Returns a snapshot of the instances that have been created and not been evicted.
+   */
+  public Map<K, I> getInstances() {
+    Map<K, I> result = new HashMap<K, I>();
+    for( Entry<K, InstanceHolder<K, I>> entry : store.entrySet() ) {
+      I instance = entry.getValue().peek();
+      if( instance != null ) {
+        result.put( entry.getKey(), instance );
+      }
+    }
+    return result;
+  }
+
+  private I create( InstanceHolder<K, I> holder, IInstanceCreator<I> instanceCreator ) {
+    I result = null;
+    try {
+      result = instanceCreator.createInstance();
+    } finally {
+      if( result == null ) {
+        store.remove( holder.key, holder );
+      }
+      holder.complete( result, maxSize < 0 ? null : collectedInstances );
+    }
+    return result;
+  }
+
+  private void retain( I instance ) {
+    if( recentInstances != null && instance != null ) {
+      int index = recentIndex.getAndIncrement() & Integer.MAX_VALUE;
+      recentInstances.set( index % recentInstances.length(), instance );
+    }
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private void expungeCollectedInstances() {
+    Reference<? extends I> reference = collectedInstances.poll();
+    while( reference != null ) {
+      InstanceHolder<K, I> holder = ( ( InstanceReference<K, I> )reference ).holder;
+      store.remove( holder.key, holder );
+      reference = collectedInstances.poll();
+    }
+  }
+
+  private void initialize() {
+    store = new ConcurrentHashMap<K, InstanceHolder<K, I>>();
+    collectedInstances = new ReferenceQueue<I>();
+    if( maxSize > 0 ) {
+      recentInstances = new AtomicReferenceArray<I>( maxSize );
+      recentIndex = new AtomicInteger();
+    }
+  }
+
+  // Only completed instances are written, weak references do not survive serialization
+  private void writeObject( ObjectOutputStream stream ) throws IOException {
+    stream.defaultWriteObject();
+    stream.writeObject( getInstances() );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    initialize();
+    Map<K, I> instances = ( Map<K, I> )stream.readObject();
+    for( Entry<K, I> entry : instances.entrySet() ) {
+      InstanceHolder<K, I> holder = new InstanceHolder<K, I>( entry.getKey() );
+      holder.complete( entry.getValue(), maxSize < 0 ? null : collectedInstances );
+      store.put( entry.getKey(), holder );
+      retain( entry.getValue() );
     }
   }
 
@@ -47,4 +166,64 @@ public class SharedInstanceBuffer<K, I> implements Serializable {
     T createInstance();
   }
 
+  private static final class InstanceHolder<K, I> {
+
+    final K key;
+    // cleared when complete, so that a cached holder does not keep the creating thread alive
+    private Thread creator;
+    private boolean done;
+    private I instance;
+    private Reference<I> reference;
+
+    InstanceHolder( K key ) {
+      this.key = key;
+      creator = Thread.currentThread();
+    }
+
+    synchronized void complete( I instance, ReferenceQueue<I> queue ) {
+      if( instance != null && queue != null ) {
+        reference = new InstanceReference<K, I>( instance, queue, this );
+      } else {
+        this.instance = instance;
+      }
+      done = true;
+      creator = null;
+      notifyAll();
+    }
+
+    synchronized I await() {
+      if( !done && creator == Thread.currentThread() ) {
+        throw new IllegalStateException( "Recursive creation of instance for key: " + key );
+      }
+      boolean interrupted = false;
+      while( !done ) {
+        try {
+          wait();
+        } catch( InterruptedException exception ) {
+          interrupted = true;
+        }
+      }
+      if( interrupted ) {
+        Thread.currentThread().interrupt();
+      }
+      return peek();
+    }
+
+    synchronized I peek() {
+      return reference != null ? reference.get() : instance;
+    }
+
+  }
+
+  private static final class InstanceReference<K, I> extends WeakReference<I> {
+
+    final InstanceHolder<K, I> holder;
+
+    InstanceReference( I instance, ReferenceQueue<I> queue, InstanceHolder<K, I> holder ) {
+      super( instance, queue );
+      this.holder = holder;
+    }
+
+  }
+
 }
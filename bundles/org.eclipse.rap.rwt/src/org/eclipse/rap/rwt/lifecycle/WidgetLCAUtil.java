@@ -29,6 +29,8 @@ import static org.eclipse.swt.internal.widgets.MarkupUtil.isToolTipMarkupEnabled
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
@@ -89,6 +91,9 @@ public final class WidgetLCAUtil {
   private static final String PROP_HELP_LISTENER = "Help";
 
   static final String LISTENER_PREFIX = "listener_";
+  // listener types are constants, caching their property names avoids a concatenation per call
+  private static final ConcurrentMap<String,String> LISTENER_PROPERTIES
+    = new ConcurrentHashMap<String,String>();
 
   private static final Rectangle DEF_ROUNDED_BORDER_RADIUS = new Rectangle( 0, 0, 0, 0 );
 
@@ -746,7 +751,7 @@ public final class WidgetLCAUtil {
    */
   public static void preserveListener( Widget widget, String listener, boolean value ) {
     WidgetAdapter adapter = WidgetUtil.getAdapter( widget );
-    adapter.preserve( LISTENER_PREFIX + listener, new Boolean( value ) );
+    adapter.preserve( getListenerProperty( listener ), Boolean.valueOf( value ) );
   }
 
   ////////////////////////////////////////////
@@ -1113,7 +1118,7 @@ public final class WidgetLCAUtil {
                                      boolean newValue,
                                      boolean defaultValue )
   {
-    String property = LISTENER_PREFIX + listener;
+    String property = getListenerProperty( listener );
     Boolean newValueObject = Boolean.valueOf( newValue );
     Boolean defaultValueObject = Boolean.valueOf( defaultValue );
     if( hasChanged( widget, property, newValueObject, defaultValueObject ) ) {
@@ -1238,6 +1243,15 @@ public final class WidgetLCAUtil {
     return StylesUtil.filterStyles( widget, styles );
   }
 
+  private static String getListenerProperty( String listener ) {
+    String result = LISTENER_PROPERTIES.get( listener );
+    if( result == null ) {
+      result = LISTENER_PREFIX + listener;
+      LISTENER_PROPERTIES.putIfAbsent( listener, result );
+    }
+    return result;
+  }
+
   static boolean equals( Object object1, Object object2 ) {
     boolean result;
     if( object1 == object2 ) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -25,16 +26,25 @@ import java.util.Properties;
 import java.util.Set;
 
 import org.eclipse.rap.rwt.internal.service.ServletLog;
+import org.eclipse.rap.rwt.internal.service.SettingStoreWriter;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 
 
 /**
  * A setting store implementation that persists all settings on the file system using Java
  * {@link Properties} files.
+ * <p>
+ * Settings are written to a temporary file first that replaces the file of the store. Where the
+ * file can not be replaced directly, it is kept as a backup until the temporary file has taken
+ * its place, and the settings are read from the backup if the file is missing. Stores created by a
+ * {@link FileSettingStoreFactory} with a write delay do not write every change immediately.
+ * Instead, changes are written in the background after the delay, when the UI session is
+ * destroyed, or when {@link #flush()} is called.
+ * </p>
  *
  * @since 2.0
  */
-public final class FileSettingStore implements SettingStore {
+public final class FileSettingStore implements SettingStore, Flushable {
 
   /**
    * This key (value "org.eclipse.rap.rwt.service.FileSettingStore.dir") can be used to configure
@@ -46,7 +56,10 @@ public final class FileSettingStore implements SettingStore {
   private final File workDir;
   private final Properties props;
   private final Set<SettingStoreListener> listeners;
+  private final SettingStoreWriter writer;
+  private final Object writeLock;
   private String id;
+  private boolean dirty;
 
   /**
    * Creates an empty instance with a random unique ID. Use {@link #loadById(String)} to initialize
@@ -57,11 +70,17 @@ public final class FileSettingStore implements SettingStore {
    * @see #loadById(String)
    */
   public FileSettingStore( File baseDirectory ) {
+    this( baseDirectory, null );
+  }
+
+  FileSettingStore( File baseDirectory, SettingStoreWriter writer ) {
     ParamCheck.notNull( baseDirectory, "baseDirectory" );
     checkWorkDir( baseDirectory );
     workDir = baseDirectory;
+    this.writer = writer;
     props = new Properties();
     listeners = new HashSet<SettingStoreListener>();
+    writeLock = new Object();
   }
 
   public String getId() {
@@ -98,18 +117,21 @@ public final class FileSettingStore implements SettingStore {
     };
   }
 
-  public synchronized void loadById( String id ) throws IOException {
+  public void loadById( String id ) throws IOException {
     ParamCheck.notNullOrEmpty( id, "id" );
-    this.id = id;
-    notifyForEachAttribute( true );
-    props.clear();
-    BufferedInputStream inputStream = getInputStream( id );
-    if( inputStream != null ) {
-      try {
-        props.load( inputStream );
-        notifyForEachAttribute( false );
-      } finally {
-        inputStream.close();
+    flush();
+    synchronized( this ) {
+      this.id = id;
+      notifyForEachAttribute( true );
+      props.clear();
+      BufferedInputStream inputStream = getInputStream( id );
+      if( inputStream != null ) {
+        try {
+          props.load( inputStream );
+          notifyForEachAttribute( false );
+        } finally {
+          inputStream.close();
+        }
       }
     }
   }
@@ -122,6 +144,33 @@ public final class FileSettingStore implements SettingStore {
     }
   }
 
+  /**
+   * Writes all changes that have not been written yet. Changes are only deferred when this store
+   * has been created with a write delay, see {@link FileSettingStoreFactory}.
+   *
+   * @throws IOException if the settings could not be written
+   * @since 2.3
+   */
+  public void flush() throws IOException {
+    synchronized( writeLock ) {
+      String fileName;
+      Properties snapshot;
+      synchronized( this ) {
+        fileName = id;
+        snapshot = dirty ? ( Properties )props.clone() : null;
+        dirty = false;
+      }
+      if( snapshot != null ) {
+        try {
+          write( fileName, snapshot );
+        } catch( IOException exception ) {
+          retry( fileName );
+          throw exception;
+        }
+      }
+    }
+  }
+
   public synchronized void addSettingStoreListener( SettingStoreListener listener ) {
     ParamCheck.notNull( listener, "listener" );
     listeners.add( listener );
@@ -141,6 +190,10 @@ public final class FileSettingStore implements SettingStore {
   private BufferedInputStream getInputStream( String streamId ) {
     BufferedInputStream result = null;
     File file = getStoreFile( streamId );
+    if( !file.exists() ) {
+      // left behind if replacing the file has been interrupted
+      file = getBackupFile( streamId );
+    }
     if( file.exists() ) {
       try {
         result = new BufferedInputStream( new FileInputStream( file ) );
@@ -151,12 +204,6 @@ public final class FileSettingStore implements SettingStore {
     return result;
   }
 
-  private BufferedOutputStream getOutputStream( String streamId )
-  throws FileNotFoundException {
-    File file = getStoreFile( streamId );
-    return new BufferedOutputStream( new FileOutputStream( file ) );
-  }
-
   private File getStoreFile( String fileName ) {
     return new File( workDir, fileName );
   }
@@ -197,14 +244,65 @@ public final class FileSettingStore implements SettingStore {
   }
 
   private void persist() throws IOException {
-    BufferedOutputStream outputStream = getOutputStream( id );
+    if( writer == null ) {
+      write( id, props );
+    } else {
+      dirty = true;
+      writer.schedule( this );
+    }
+  }
+
+  private void retry( String fileName ) {
+    boolean schedule = false;
+    synchronized( this ) {
+      if( fileName != null && fileName.equals( id ) ) {
+        dirty = true;
+        schedule = writer != null;
+      }
+    }
+    if( schedule ) {
+      writer.schedule( this );
+    }
+  }
+
+  // The file is replaced only after the new content has been written completely
+  private void write( String fileName, Properties properties ) throws IOException {
+    File file = getStoreFile( fileName );
+    File tempFile = File.createTempFile( fileName + ".tmp", null, workDir );
+    boolean keepTempFile = false;
     try {
-      props.store( outputStream, FileSettingStore.class.getName() );
+      BufferedOutputStream outputStream
+        = new BufferedOutputStream( new FileOutputStream( tempFile ) );
+      try {
+        properties.store( outputStream, FileSettingStore.class.getName() );
+      } finally {
+        outputStream.close();
+      }
+      // renameTo does not replace existing files on all platforms
+      if( !tempFile.renameTo( file ) ) {
+        File backupFile = getBackupFile( fileName );
+        backupFile.delete();
+        if( file.exists() && !file.renameTo( backupFile ) ) {
+          throw new IOException( "Could not replace setting store file: " + file );
+        }
+        if( !tempFile.renameTo( file ) ) {
+          // the settings are read from the backup file, the new settings are kept
+          keepTempFile = backupFile.exists() && !backupFile.renameTo( file );
+          throw new IOException( "Could not replace setting store file: " + file );
+        }
+        backupFile.delete();
+      }
     } finally {
-      outputStream.close();
+      if( !keepTempFile ) {
+        tempFile.delete();
+      }
     }
   }
 
+  private File getBackupFile( String fileName ) {
+    return new File( workDir, fileName + ".bak" );
+  }
+
   private static void checkWorkDir( File workDir ) {
     if( !workDir.isDirectory() ) {
       throw new IllegalArgumentException( "workDir is not a directory: " + workDir );
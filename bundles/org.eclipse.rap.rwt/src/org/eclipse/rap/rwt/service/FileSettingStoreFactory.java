@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,12 +13,18 @@ package org.eclipse.rap.rwt.service;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpSession;
 
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.ServletLog;
+import org.eclipse.rap.rwt.internal.service.SettingStoreWriter;
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 
 
@@ -37,16 +43,45 @@ import org.eclipse.rap.rwt.internal.util.ParamCheck;
  * The first path that can be obtained from the above choices (in the order given above) will be
  * used. If the path determined does not exist it will be created.
  * </p>
+ * <p>
+ * By default, every change to a setting store is written immediately. With a write delay, changes
+ * are collected and the stores that changed are written on a background thread of this factory
+ * once the delay has passed, when their UI session is destroyed, or when the application is
+ * stopped.
+ * </p>
  *
  * @since 2.0
  */
 public final class FileSettingStoreFactory implements SettingStoreFactory {
 
+  private final long writeDelay;
   private File directory;
+  private ScheduledExecutorService scheduler;
+  private SettingStoreWriter writer;
+
+  /**
+   * Creates a factory for setting stores that write every change immediately, unless a write
+   * delay is specified with the system property
+   * <code>"org.eclipse.rap.rwt.settingStoreWriteDelay"</code>.
+   */
+  public FileSettingStoreFactory() {
+    this( RWTProperties.getSettingStoreWriteDelay() );
+  }
+
+  /**
+   * Creates a factory for setting stores that defer writing changes by the given delay.
+   *
+   * @param writeDelay the time in milliseconds to collect changes before they are written, a
+   *          value of zero or less writes every change immediately
+   * @since 2.3
+   */
+  public FileSettingStoreFactory( long writeDelay ) {
+    this.writeDelay = writeDelay;
+  }
 
   public SettingStore createSettingStore( String id ) {
     ParamCheck.notNullOrEmpty( id, "id" );
-    SettingStore store = new FileSettingStore( getWorkingDir() );
+    SettingStore store = new FileSettingStore( getWorkingDir(), getWriter() );
     try {
       store.loadById( id );
     } catch( IOException sse ) {
@@ -63,6 +98,26 @@ public final class FileSettingStoreFactory implements SettingStoreFactory {
     return directory;
   }
 
+  private synchronized SettingStoreWriter getWriter() {
+    if( writer == null && writeDelay > 0 ) {
+      ApplicationContextImpl applicationContext = ContextProvider.getApplicationContext();
+      // writing blocks on file I/O and must not run on the shared application scheduler
+      scheduler = Executors.newSingleThreadScheduledExecutor( new WriterThreadFactory() );
+      writer = new SettingStoreWriter( scheduler, writeDelay );
+      applicationContext.addApplicationContextListener( new WriterShutdownListener() );
+    }
+    return writer;
+  }
+
+  private synchronized void shutdownWriter() {
+    if( writer != null ) {
+      writer.flushAll();
+      scheduler.shutdown();
+      writer = null;
+      scheduler = null;
+    }
+  }
+
   private static File selectWorkingDir() {
     File directory = getDirectoryFromServletContext();
     if( directory == null ) {
@@ -105,4 +160,22 @@ public final class FileSettingStoreFactory implements SettingStoreFactory {
     return session.getServletContext();
   }
 
+  private class WriterShutdownListener implements ApplicationContextListener {
+
+    public void beforeDestroy( ApplicationContextEvent event ) {
+      shutdownWriter();
+    }
+
+  }
+
+  private static class WriterThreadFactory implements ThreadFactory {
+
+    public Thread newThread( Runnable runnable ) {
+      Thread result = new Thread( runnable, "RWT Setting Store Writer" );
+      result.setDaemon( true );
+      return result;
+    }
+
+  }
+
 }
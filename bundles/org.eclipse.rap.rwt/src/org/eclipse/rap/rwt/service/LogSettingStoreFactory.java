@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.internal.service.ContextProvider;
+import org.eclipse.rap.rwt.internal.service.LogSettingStore;
+import org.eclipse.rap.rwt.internal.service.ServletLog;
+import org.eclipse.rap.rwt.internal.service.SettingLog;
+import org.eclipse.rap.rwt.internal.util.ParamCheck;
+
+
+/**
+ * A setting store factory that persists the settings of all setting stores in a single log file.
+ * <p>
+ * Changes are appended to the file, and an index of the latest value of every setting is kept in
+ * memory. Loading a setting store reads only the settings of this store, and changing a setting
+ * appends a single record. Obsolete records are removed from the file when it is compacted, which
+ * happens automatically in the background when more than half of the file is obsolete. The
+ * compaction runs on a thread of this factory that is stopped when the application is stopped.
+ * </p>
+ * <p>
+ * To use this factory, register it in the application configuration:
+ * </p>
+ * <pre>
+ * application.setSettingStoreFactory( new LogSettingStoreFactory( file ) );
+ * </pre>
+ * <p>
+ * The file is used exclusively by this factory and must not be shared with other applications or
+ * processes. It is created if it does not exist.
+ * </p>
+ *
+ * @see org.eclipse.rap.rwt.application.Application#setSettingStoreFactory(SettingStoreFactory)
+ * @since 2.3
+ */
+public final class LogSettingStoreFactory implements SettingStoreFactory {
+
+  private final SettingLog log;
+  private ExecutorService executor;
+
+  /**
+   * Creates a factory for setting stores that are persisted in the given file.
+   *
+   * @param file the log file, its parent directory must exist
+   */
+  public LogSettingStoreFactory( File file ) {
+    ParamCheck.notNull( file, "file" );
+    log = new SettingLog( file );
+  }
+
+  public SettingStore createSettingStore( String id ) {
+    ParamCheck.notNullOrEmpty( id, "id" );
+    attachToApplicationContext();
+    SettingStore store = new LogSettingStore( log );
+    try {
+      store.loadById( id );
+    } catch( IOException exception ) {
+      ServletLog.log( exception.getMessage(), exception );
+    }
+    return store;
+  }
+
+  private synchronized void attachToApplicationContext() {
+    if( executor == null ) {
+      ApplicationContextImpl applicationContext = ContextProvider.getApplicationContext();
+      applicationContext.addApplicationContextListener( new DetachListener() );
+      // compacting blocks on file I/O and must not run on the shared application scheduler
+      executor = Executors.newSingleThreadExecutor( new CompactionThreadFactory() );
+      log.setExecutor( executor );
+    }
+  }
+
+  private synchronized void detachFromApplicationContext() {
+    if( executor != null ) {
+      executor.shutdown();
+      executor = null;
+      log.setExecutor( null );
+      try {
+        log.close();
+      } catch( IOException exception ) {
+        ServletLog.log( "Failed to close setting log", exception );
+      }
+    }
+  }
+
+  private class DetachListener implements ApplicationContextListener {
+
+    public void beforeDestroy( ApplicationContextEvent event ) {
+      detachFromApplicationContext();
+    }
+
+  }
+
+  private static class CompactionThreadFactory implements ThreadFactory {
+
+    public Thread newThread( Runnable runnable ) {
+      Thread result = new Thread( runnable, "RWT Setting Log Compaction" );
+      result.setDaemon( true );
+      return result;
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,14 +11,21 @@
 package org.eclipse.rap.rwt.widgets;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.rap.rwt.RWT;
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.service.UISessionImpl;
 import org.eclipse.rap.rwt.service.ServiceHandler;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Synchronizer;
@@ -41,19 +48,42 @@ import org.eclipse.swt.widgets.Synchronizer;
  * @noextend This class is not intended to be subclassed by clients.
  */
 public class ClusteredSynchronizer extends Synchronizer {
+
+  // runnables added within this time are replicated together
+  static final long NOTIFICATION_DELAY = 50;
+
+  private final UISessionImpl uiSession;
+  private final boolean inProcess;
   private final String requestUrl;
   private final String cookies;
+  private final AtomicBoolean notificationPending;
 
   public ClusteredSynchronizer( Display display ) {
     super( display );
-    requestUrl = AsyncExecServiceHandler.createRequestUrl( RWT.getRequest() );
-    cookies = extractRequestCookies( RWT.getRequest() );
-    AsyncExecServiceHandler.register();
+    uiSession = ( UISessionImpl )RWT.getUISession( display );
+    inProcess = RWTProperties.isInProcessReplicationEnabled();
+    notificationPending = new AtomicBoolean();
+    if( inProcess ) {
+      requestUrl = null;
+      cookies = null;
+    } else {
+      requestUrl = AsyncExecServiceHandler.createRequestUrl( RWT.getRequest() );
+      cookies = extractRequestCookies( RWT.getRequest() );
+      AsyncExecServiceHandler.register();
+    }
   }
 
   @Override
   protected void runnableAdded( Runnable runnable ) {
-    notifyAsyncExecServiceHandler();
+    if( inProcess ) {
+      scheduleNotification();
+    } else {
+      notifyAsyncExecServiceHandler();
+    }
+  }
+
+  ScheduledExecutorService getScheduler() {
+    return uiSession.getApplicationContext().getScheduler();
   }
 
   static String extractRequestCookies( HttpServletRequest request ) {
@@ -70,6 +100,26 @@ public class ClusteredSynchronizer extends Synchronizer {
     return result;
   }
 
+  private void scheduleNotification() {
+    if( notificationPending.compareAndSet( false, true ) ) {
+      try {
+        getScheduler().schedule( new Runnable() {
+          public void run() {
+            markSessionChanged();
+          }
+        }, NOTIFICATION_DELAY, TimeUnit.MILLISECONDS );
+      } catch( RejectedExecutionException exception ) {
+        markSessionChanged();
+      }
+    }
+  }
+
+  // Lets the servlet engine replicate the session with the added runnables, see ReplicationHook
+  private void markSessionChanged() {
+    notificationPending.set( false );
+    uiSession.attachToHttpSession();
+  }
+
   private void notifyAsyncExecServiceHandler() {
     try {
       sendAsyncExecServiceHandlerRequest();
@@ -78,6 +128,8 @@ public class ClusteredSynchronizer extends Synchronizer {
     }
   }
 
+  // The request lets RWTClusterSupport mark the session as changed when the request completes,
+  // which is when most servlet engines replicate the session
   private void sendAsyncExecServiceHandlerRequest() throws IOException {
     HttpURLConnection connection = createConnection();
     connection.connect();
@@ -97,6 +149,12 @@ public class ClusteredSynchronizer extends Synchronizer {
     return result;
   }
 
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    // a notification that was pending on the other node is not scheduled here
+    notificationPending.set( false );
+  }
+
   static class AsyncExecServiceHandler implements ServiceHandler {
     static final String ID = "asyncExecServiceHandler";
 
@@ -122,4 +180,5 @@ public class ClusteredSynchronizer extends Synchronizer {
       // do nothing
     }
   }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.swt.graphics;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
+import org.eclipse.swt.internal.SerializableCompatibility;
 import org.eclipse.swt.internal.graphics.ColorUtil;
 
 
@@ -222,4 +223,24 @@ public class Color extends Resource {
     }
     return result;
   }
+
+  // Shared colors are created by the ResourceFactory and are written by value
+  private Object writeReplace() {
+    return device == null ? new SharedColor( colorNr ) : this;
+  }
+
+  private static final class SharedColor implements SerializableCompatibility {
+
+    private final int colorNr;
+
+    SharedColor( int colorNr ) {
+      this.colorNr = colorNr;
+    }
+
+    private Object readResolve() {
+      return new Color( colorNr );
+    }
+
+  }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import static org.eclipse.rap.rwt.internal.service.ContextProvider.getApplicatio
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTError;
 import org.eclipse.swt.SWTException;
+import org.eclipse.swt.internal.SerializableCompatibility;
 
 
 /**
@@ -35,6 +36,12 @@ public final class Font extends Resource {
     internalFontData = findFontData( fontData );
   }
 
+  // used to deserialize a shared font without access to the ResourceFactory
+  private Font( SharedFont sharedFont ) {
+    super( null );
+    internalFontData = sharedFont.fontData;
+  }
+
   /**
    * Constructs a new font given a device and font data
    * which describes the desired font's appearance.
@@ -209,8 +216,27 @@ public final class Font extends Resource {
     return buffer.toString();
   }
 
+  // Shared fonts are created by the ResourceFactory and are written by value
+  private Object writeReplace() {
+    return device == null ? new SharedFont( internalFontData ) : this;
+  }
+
   private static FontData findFontData( FontData fontData ) {
     return getApplicationContext().getFontDataFactory().findFontData( fontData );
   }
 
+  private static final class SharedFont implements SerializableCompatibility {
+
+    private final FontData fontData;
+
+    SharedFont( FontData fontData ) {
+      this.fontData = fontData;
+    }
+
+    private Object readResolve() {
+      return new Font( this );
+    }
+
+  }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2008, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,8 @@
  ******************************************************************************/
 package org.eclipse.swt.internal.graphics;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.rap.rwt.internal.util.ParamCheck;
 import org.eclipse.swt.graphics.ImageData;
@@ -31,7 +31,8 @@ final class ImageDataCache {
 
   ImageDataCache() {
     cacheLock = new Object();
-    cache = new HashMap<InternalImage,ImageData>( 25 );
+    // weak keys, so that image data does not outlive evicted images
+    cache = new WeakHashMap<InternalImage,ImageData>( 25 );
   }
 
   ImageData getImageData( InternalImage internalImage ) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 EclipseSource and others.
+ * Copyright (c) 2010, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,6 @@
  ******************************************************************************/
 package org.eclipse.swt.internal.graphics;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
@@ -20,6 +19,7 @@ import java.io.InputStream;
 import java.util.zip.CRC32;
 
 import org.eclipse.rap.rwt.RWT;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.util.SharedInstanceBuffer;
 import org.eclipse.rap.rwt.internal.util.SharedInstanceBuffer.IInstanceCreator;
 import org.eclipse.swt.SWT;
@@ -27,19 +27,21 @@ import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.internal.image.ImageHeader;
 
 
 public class InternalImageFactory {
 
   private final SharedInstanceBuffer<String,InternalImage> cache;
+  // images created from image data or streams may be evicted when no longer referenced
+  private final SharedInstanceBuffer<String,InternalImage> generatedImages;
 
   public InternalImageFactory() {
     cache = new SharedInstanceBuffer<String,InternalImage>();
+    int size = RWTProperties.getGeneratedImageCacheSize();
+    generatedImages = new SharedInstanceBuffer<String,InternalImage>( size );
   }
 
-  // TODO [rst] If we do not rely on the fact that there is only one
-  //            InternalImage instance, we could loose synchronization as in
-  //            ImageDataFactory.
   public InternalImage findInternalImage( final String fileName ) {
     return cache.get( fileName, new IInstanceCreator<InternalImage>() {
         public InternalImage createInstance() {
@@ -49,19 +51,21 @@ public class InternalImageFactory {
   }
 
   public InternalImage findInternalImage( InputStream stream ) {
-    final BufferedInputStream bufferedStream = new BufferedInputStream( stream );
-    final ImageData imageData = readImageData( bufferedStream );
-    final String path = createGeneratedImagePath( imageData );
-    return cache.get( path, new IInstanceCreator<InternalImage>() {
-      public InternalImage createInstance() {
-        return createInternalImage( path, bufferedStream, imageData );
-      }
-    } );
+    InternalImage result;
+    byte[] bytes = readBytes( stream );
+    ImageHeader header = ImageHeader.read( bytes );
+    if( header == null ) {
+      ImageData imageData = readImageData( new ByteArrayInputStream( bytes ) );
+      result = findInternalImage( imageData, bytes );
+    } else {
+      result = findInternalImage( header, bytes );
+    }
+    return result;
   }
 
   public InternalImage findInternalImage( final ImageData imageData ) {
     final String path = createGeneratedImagePath( imageData );
-    return cache.get( path, new IInstanceCreator<InternalImage>() {
+    return generatedImages.get( path, new IInstanceCreator<InternalImage>() {
       public InternalImage createInstance() {
         InputStream stream = createInputStream( imageData );
         return createInternalImage( path, stream, imageData );
@@ -69,13 +73,28 @@ public class InternalImageFactory {
     } );
   }
 
+  private InternalImage findInternalImage( final ImageHeader header, final byte[] bytes ) {
+    final String path = createGeneratedImagePath( header.getType(), getHash( bytes ) );
+    return generatedImages.get( path, new IInstanceCreator<InternalImage>() {
+      public InternalImage createInstance() {
+        return createInternalImage( path, bytes, header );
+      }
+    } );
+  }
+
   InternalImage findInternalImage( String key, final InputStream inputStream ) {
     return cache.get( key, new IInstanceCreator<InternalImage>() {
       public InternalImage createInstance() {
-        BufferedInputStream bufferedStream = new BufferedInputStream( inputStream );
-        ImageData imageData = readImageData( bufferedStream );
-        String path = createGeneratedImagePath( imageData );
-        return createInternalImage( path, bufferedStream, imageData );
+        return createInternalImage( inputStream );
+      }
+    } );
+  }
+
+  private InternalImage findInternalImage( final ImageData imageData, final byte[] bytes ) {
+    final String path = createGeneratedImagePath( imageData );
+    return generatedImages.get( path, new IInstanceCreator<InternalImage>() {
+      public InternalImage createInstance() {
+        return createInternalImage( path, new ByteArrayInputStream( bytes ), imageData );
       }
     } );
   }
@@ -126,10 +145,42 @@ public class InternalImageFactory {
   }
 
   private static InternalImage createInternalImage( InputStream stream ) {
-    InputStream bufferedStream = new BufferedInputStream( stream );
-    ImageData imageData = readImageData( bufferedStream );
-    String path = createGeneratedImagePath( imageData );
-    return createInternalImage( path, bufferedStream, imageData );
+    InternalImage result;
+    byte[] bytes = readBytes( stream );
+    ImageHeader header = ImageHeader.read( bytes );
+    if( header == null ) {
+      ImageData imageData = readImageData( new ByteArrayInputStream( bytes ) );
+      String path = createGeneratedImagePath( imageData );
+      result = createInternalImage( path, new ByteArrayInputStream( bytes ), imageData );
+    } else {
+      String path = createGeneratedImagePath( header.getType(), getHash( bytes ) );
+      result = createInternalImage( path, bytes, header );
+    }
+    return result;
+  }
+
+  // Registers the image file without decoding it, the pixels are only read by getImageData()
+  private static InternalImage createInternalImage( String path,
+                                                    byte[] bytes,
+                                                    ImageHeader header )
+  {
+    RWT.getResourceManager().register( path, new ByteArrayInputStream( bytes ) );
+    return new InternalImage( path, header.getWidth(), header.getHeight(), false );
+  }
+
+  private static byte[] readBytes( InputStream stream ) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 8192 ];
+    try {
+      int read = stream.read( buffer );
+      while( read != -1 ) {
+        outputStream.write( buffer, 0, read );
+        read = stream.read( buffer );
+      }
+    } catch( IOException ioe ) {
+      throw new SWTException( SWT.ERROR_IO, ioe.getMessage() );
+    }
+    return outputStream.toByteArray();
   }
 
   private static InternalImage createInternalImage( String path,
@@ -149,7 +200,10 @@ public class InternalImageFactory {
   }
 
   private static String createGeneratedImagePath( ImageData data ) {
-    int outputFormat = getOutputFormat( data );
+    return createGeneratedImagePath( getOutputFormat( data ), getHash( data ) );
+  }
+
+  private static String createGeneratedImagePath( int outputFormat, String hash ) {
     String extension;
     switch( outputFormat ) {
       case SWT.IMAGE_BMP:
@@ -173,8 +227,13 @@ public class InternalImageFactory {
         extension = ".png";
         break;
     }
-    String hash = getHash( data ) + extension;
-    return "generated/" + hash;
+    return "generated/" + hash + extension;
+  }
+
+  private static String getHash( byte[] bytes ) {
+    CRC32 crc32 = new CRC32();
+    crc32.update( bytes );
+    return Long.toHexString( crc32.getValue() );
   }
 
   /*
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+import org.eclipse.swt.SWT;
+
+
+/**
+ * The type and size of an image, read from the header of its file without decoding the pixels.
+ * Supports PNG, GIF, Windows BMP and baseline or progressive JPEG files. For GIF files, the size
+ * is the size of the first frame like in the <code>ImageData</code> read from the file.
+ * <p>
+ * The pixels are not validated. To detect truncated files, the header is only returned if the
+ * file ends with the trailer of its format, i.e. the IEND chunk of a PNG, the trailer of a GIF,
+ * the EOI marker of a JPEG or the file size given in the header of a BMP.
+ * </p>
+ */
+public final class ImageHeader {
+
+  private static final byte[] PNG_SIGNATURE = {
+    ( byte )0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+  };
+  private static final byte[] GIF_SIGNATURE = { 'G', 'I', 'F', '8' };
+  private static final byte[] BMP_SIGNATURE = { 'B', 'M' };
+  private static final byte[] JPEG_SIGNATURE = { ( byte )0xFF, ( byte )0xD8 };
+  private static final byte[] PNG_TRAILER = {
+    'I', 'E', 'N', 'D', ( byte )0xAE, 0x42, 0x60, ( byte )0x82
+  };
+  private static final byte[] GIF_TRAILER = { 0x3B };
+  private static final byte[] JPEG_TRAILER = { ( byte )0xFF, ( byte )0xD9 };
+
+  private final int type;
+  private final int width;
+  private final int height;
+
+  /**
+   * Reads the header of the given image file. Returns <code>null</code> if the format is not
+   * recognized, the header is incomplete or the file is truncated, in which case the image has
+   * to be decoded to find out its size and whether it is valid.
+   */
+  public static ImageHeader read( byte[] bytes ) {
+    ImageHeader result = null;
+    try {
+      if( startsWith( bytes, PNG_SIGNATURE ) ) {
+        result = readPNG( bytes );
+      } else if( startsWith( bytes, GIF_SIGNATURE ) ) {
+        result = readGIF( bytes );
+      } else if( startsWith( bytes, BMP_SIGNATURE ) ) {
+        result = readBMP( bytes );
+      } else if( startsWith( bytes, JPEG_SIGNATURE ) ) {
+        result = readJPEG( bytes );
+      }
+    } catch( ArrayIndexOutOfBoundsException incompleteHeader ) {
+      result = null;
+    }
+    boolean valid = result != null && result.width > 0 && result.height > 0;
+    return valid && isComplete( bytes, result.type ) ? result : null;
+  }
+
+  private ImageHeader( int type, int width, int height ) {
+    this.type = type;
+    this.width = width;
+    this.height = height;
+  }
+
+  public int getType() {
+    return type;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  // The IHDR chunk always comes first: length, "IHDR", width and height as big endian ints
+  private static ImageHeader readPNG( byte[] bytes ) {
+    ImageHeader result = null;
+    if( readUnsigned( bytes, 12 ) == 'I' && readUnsigned( bytes, 15 ) == 'R' ) {
+      int width = readIntBigEndian( bytes, 16 );
+      int height = readIntBigEndian( bytes, 20 );
+      result = new ImageHeader( SWT.IMAGE_PNG, width, height );
+    }
+    return result;
+  }
+
+  // Skips the global color table and the extensions up to the first image descriptor
+  private static ImageHeader readGIF( byte[] bytes ) {
+    ImageHeader result = null;
+    int offset = 13;
+    int flags = readUnsigned( bytes, 10 );
+    if( ( flags & 0x80 ) != 0 ) {
+      offset += 3 * ( 1 << ( ( flags & 0x07 ) + 1 ) );
+    }
+    boolean done = false;
+    while( !done ) {
+      int blockType = readUnsigned( bytes, offset );
+      if( blockType == 0x21 ) {
+        offset += 2;
+        int blockSize = readUnsigned( bytes, offset );
+        while( blockSize != 0 ) {
+          offset += blockSize + 1;
+          blockSize = readUnsigned( bytes, offset );
+        }
+        offset++;
+      } else {
+        if( blockType == 0x2C ) {
+          int width = readShortLittleEndian( bytes, offset + 5 );
+          int height = readShortLittleEndian( bytes, offset + 7 );
+          result = new ImageHeader( SWT.IMAGE_GIF, width, height );
+        }
+        done = true;
+      }
+    }
+    return result;
+  }
+
+  // Only the Windows info headers, OS/2 bitmaps with the 12 byte core header are decoded
+  private static ImageHeader readBMP( byte[] bytes ) {
+    ImageHeader result = null;
+    int headerSize = readIntLittleEndian( bytes, 14 );
+    if( headerSize >= 40 ) {
+      int width = readIntLittleEndian( bytes, 18 );
+      int height = Math.abs( readIntLittleEndian( bytes, 22 ) );
+      int compression = readIntLittleEndian( bytes, 30 );
+      int type = compression == 1 || compression == 2 ? SWT.IMAGE_BMP_RLE : SWT.IMAGE_BMP;
+      result = new ImageHeader( type, width, height );
+    }
+    return result;
+  }
+
+  // Walks the segments up to the frame header, only Huffman coded frames are supported by SWT
+  private static ImageHeader readJPEG( byte[] bytes ) {
+    ImageHeader result = null;
+    int offset = 2;
+    boolean done = false;
+    while( !done ) {
+      if( readUnsigned( bytes, offset ) != 0xFF ) {
+        done = true;
+      } else {
+        int marker = readUnsigned( bytes, offset + 1 );
+        if( marker == 0xFF ) {
+          offset++;
+        } else if( marker == 0x01 || marker >= 0xD0 && marker <= 0xD7 ) {
+          offset += 2;
+        } else if( marker == 0xC0 || marker == 0xC1 || marker == 0xC2 ) {
+          int height = readShortBigEndian( bytes, offset + 5 );
+          int width = readShortBigEndian( bytes, offset + 7 );
+          result = new ImageHeader( SWT.IMAGE_JPEG, width, height );
+          done = true;
+        } else if( marker >= 0xC3 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8
+                   && marker != 0xCC || marker == 0xD9 || marker == 0xDA )
+        {
+          done = true;
+        } else {
+          offset += 2 + readShortBigEndian( bytes, offset + 2 );
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean isComplete( byte[] bytes, int type ) {
+    boolean result;
+    switch( type ) {
+      case SWT.IMAGE_PNG:
+        result = endsWith( bytes, PNG_TRAILER );
+        break;
+      case SWT.IMAGE_GIF:
+        result = endsWith( bytes, GIF_TRAILER );
+        break;
+      case SWT.IMAGE_JPEG:
+        result = endsWith( bytes, JPEG_TRAILER );
+        break;
+      default:
+        result = bytes.length >= readIntLittleEndian( bytes, 2 );
+        break;
+    }
+    return result;
+  }
+
+  private static boolean endsWith( byte[] bytes, byte[] suffix ) {
+    int offset = bytes.length - suffix.length;
+    boolean result = offset >= 0;
+    for( int i = 0; result && i < suffix.length; i++ ) {
+      result = bytes[ offset + i ] == suffix[ i ];
+    }
+    return result;
+  }
+
+  private static boolean startsWith( byte[] bytes, byte[] prefix ) {
+    boolean result = bytes.length >= prefix.length;
+    for( int i = 0; result && i < prefix.length; i++ ) {
+      result = bytes[ i ] == prefix[ i ];
+    }
+    return result;
+  }
+
+  private static int readUnsigned( byte[] bytes, int offset ) {
+    return bytes[ offset ] & 0xFF;
+  }
+
+  private static int readShortBigEndian( byte[] bytes, int offset ) {
+    return readUnsigned( bytes, offset ) << 8 | readUnsigned( bytes, offset + 1 );
+  }
+
+  private static int readShortLittleEndian( byte[] bytes, int offset ) {
+    return readUnsigned( bytes, offset + 1 ) << 8 | readUnsigned( bytes, offset );
+  }
+
+  private static int readIntBigEndian( byte[] bytes, int offset ) {
+    return readShortBigEndian( bytes, offset ) << 16 | readShortBigEndian( bytes, offset + 2 );
+  }
+
+  private static int readIntLittleEndian( byte[] bytes, int offset ) {
+    return   readShortLittleEndian( bytes, offset + 2 ) << 16
+           | readShortLittleEndian( bytes, offset );
+  }
+
+}
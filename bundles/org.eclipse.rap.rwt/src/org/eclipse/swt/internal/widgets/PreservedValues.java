@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets;
+
+import java.util.Arrays;
+
+
+/**
+ * A compact map from property names to preserved values. The names are stored in an open
+ * addressing table that is kept when the values are cleared. As a widget preserves the same
+ * properties in every request, storing a value usually neither allocates nor probes.
+ */
+final class PreservedValues {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private String[] names;
+  private Object[] values;
+  private int size;
+
+  PreservedValues() {
+    names = new String[ INITIAL_CAPACITY ];
+    values = new Object[ INITIAL_CAPACITY ];
+  }
+
+  void put( String name, Object value ) {
+    int index = indexOf( name );
+    if( names[ index ] == null ) {
+      if( ( size + 1 ) * 2 > names.length ) {
+        grow();
+        index = indexOf( name );
+      }
+      names[ index ] = name;
+      size++;
+    }
+    values[ index ] = value;
+  }
+
+  Object get( String name ) {
+    return values[ indexOf( name ) ];
+  }
+
+  void clear() {
+    Arrays.fill( values, null );
+  }
+
+  private int indexOf( String name ) {
+    int mask = names.length - 1;
+    int index = hash( name ) & mask;
+    String current = names[ index ];
+    while( current != null && current != name && !current.equals( name ) ) {
+      index = ( index + 1 ) & mask;
+      current = names[ index ];
+    }
+    return index;
+  }
+
+  private void grow() {
+    String[] oldNames = names;
+    Object[] oldValues = values;
+    names = new String[ oldNames.length * 2 ];
+    values = new Object[ oldValues.length * 2 ];
+    for( int i = 0; i < oldNames.length; i++ ) {
+      if( oldNames[ i ] != null ) {
+        int index = indexOf( oldNames[ i ] );
+        names[ index ] = oldNames[ i ];
+        values[ index ] = oldValues[ i ];
+      }
+    }
+  }
+
+  private static int hash( String name ) {
+    int hash = name.hashCode();
+    return hash ^ ( hash >>> 16 );
+  }
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rap.rwt.SingletonUtil;
+import org.eclipse.swt.internal.SerializableCompatibility;
+
+
+/**
+ * Keeps track of the widget adapters that hold preserved values, so that these values can be
+ * cleared after rendering without visiting the entire widget tree.
+ */
+public final class PreservedWidgetAdapters implements SerializableCompatibility {
+
+  private transient List<WidgetAdapterImpl> adapters;
+
+  private PreservedWidgetAdapters() {
+    adapters = new ArrayList<WidgetAdapterImpl>();
+  }
+
+  public static PreservedWidgetAdapters getInstance() {
+    return SingletonUtil.getSessionInstance( PreservedWidgetAdapters.class );
+  }
+
+  void add( WidgetAdapterImpl adapter ) {
+    adapters.add( adapter );
+  }
+
+  public int size() {
+    return adapters.size();
+  }
+
+  public void clearPreserved() {
+    for( WidgetAdapterImpl adapter : adapters ) {
+      adapter.clearPreserved();
+    }
+    adapters.clear();
+  }
+
+  private Object readResolve() {
+    // preserved values are transient and therefore not tracked after deserialization
+    adapters = new ArrayList<WidgetAdapterImpl>();
+    return this;
+  }
+
+}
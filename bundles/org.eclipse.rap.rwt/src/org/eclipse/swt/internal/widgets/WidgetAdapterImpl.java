@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,34 +11,47 @@
  ******************************************************************************/
 package org.eclipse.swt.internal.widgets;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import org.eclipse.rap.rwt.SingletonUtil;
 import org.eclipse.rap.rwt.internal.lifecycle.DisposedWidgets;
 import org.eclipse.rap.rwt.internal.lifecycle.IRenderRunnable;
 import org.eclipse.rap.rwt.internal.lifecycle.UITestUtil;
+import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.lifecycle.WidgetAdapter;
+import org.eclipse.rap.rwt.service.UISession;
 import org.eclipse.swt.internal.SerializableCompatibility;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Widget;
 
 
 public final class WidgetAdapterImpl implements WidgetAdapter, SerializableCompatibility {
 
   private final String id;
+  private final Display display;
   private String customId;
   private boolean initialized;
-  private transient Map<String,Object> preservedValues;
+  private transient PreservedValues preservedValues;
+  private transient boolean preservedValuesTracked;
   private transient IRenderRunnable renderRunnable;
   private transient String cachedVariant;
+  private transient UISession uiSession;
   private Widget parent;
 
   public WidgetAdapterImpl( String id ) {
+    this( id, null );
+  }
+
+  /**
+   * Creates an adapter for a widget of the given display. The UI session of the display is used
+   * to track preserved values when they are preserved outside of a request.
+   */
+  public WidgetAdapterImpl( String id, Display display ) {
     this.id = id;
+    this.display = display;
     initialize();
   }
 
   private void initialize() {
-    preservedValues = new HashMap<String,Object>();
+    preservedValues = new PreservedValues();
   }
 
   public String getId() {
@@ -72,6 +85,10 @@ public final class WidgetAdapterImpl implements WidgetAdapter, SerializableCompa
   }
 
   public void preserve( String propertyName, Object value ) {
+    if( !preservedValuesTracked ) {
+      getPreservedWidgetAdapters().add( this );
+      preservedValuesTracked = true;
+    }
     preservedValues.put( propertyName, value );
   }
 
@@ -81,6 +98,7 @@ public final class WidgetAdapterImpl implements WidgetAdapter, SerializableCompa
 
   public void clearPreserved() {
     preservedValues.clear();
+    preservedValuesTracked = false;
   }
 
   public void setRenderRunnable( IRenderRunnable renderRunnable ) {
@@ -112,6 +130,24 @@ public final class WidgetAdapterImpl implements WidgetAdapter, SerializableCompa
     }
   }
 
+  private PreservedWidgetAdapters getPreservedWidgetAdapters() {
+    return SingletonUtil.getUniqueInstance( PreservedWidgetAdapters.class, getUISession() );
+  }
+
+  private UISession getUISession() {
+    UISession result = uiSession;
+    if( result == null ) {
+      if( display != null ) {
+        // the session is not serialized with the adapter, the display knows the current one
+        result = display.getAdapter( IDisplayAdapter.class ).getUISession();
+        uiSession = result;
+      } else {
+        result = ContextProvider.getUISession();
+      }
+    }
+    return result;
+  }
+
   private Object readResolve() {
     initialize();
     return this;
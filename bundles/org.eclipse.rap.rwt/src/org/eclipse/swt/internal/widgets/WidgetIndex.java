@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.internal.SerializableCompatibility;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Widget;
+
+
+/**
+ * Maps the ids of the living widgets of a display to the widgets. A widget is added as soon as
+ * its id is assigned and removed when it is disposed, hence looking up the target of a client
+ * operation does not require to traverse the widget tree.
+ */
+public final class WidgetIndex implements SerializableCompatibility {
+
+  private final Map<String, Widget> widgets;
+
+  /**
+   * Returns the widget with the given id or <code>null</code> if the display does not contain
+   * a living widget with this id.
+   */
+  public static Widget find( Display display, String id ) {
+    WidgetIndex index = display.getAdapter( WidgetIndex.class );
+    return index == null || id == null ? null : index.get( id );
+  }
+
+  public WidgetIndex() {
+    widgets = new HashMap<String, Widget>();
+  }
+
+  public void add( String id, Widget widget ) {
+    widgets.put( id, widget );
+  }
+
+  public void remove( String id, Widget widget ) {
+    if( widgets.get( id ) == widget ) {
+      widgets.remove( id );
+    }
+  }
+
+  public Widget get( String id ) {
+    return widgets.get( id );
+  }
+
+  public int size() {
+    return widgets.size();
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -133,7 +133,7 @@ public abstract class Control extends Widget implements Drawable {
   private boolean backgroundTransparency;
   private Font font;
   private Cursor cursor;
-  private Rectangle bufferedPadding;
+  private transient Rectangle bufferedPadding;
   private transient Accessible accessible;
   private boolean packed;
 
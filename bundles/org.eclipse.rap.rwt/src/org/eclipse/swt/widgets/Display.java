@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -62,6 +62,7 @@ import org.eclipse.swt.internal.events.EventUtil;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
 import org.eclipse.swt.internal.widgets.IdGeneratorProvider;
 import org.eclipse.swt.internal.widgets.WidgetAdapterImpl;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.internal.widgets.WidgetTreeVisitor;
 import org.eclipse.swt.internal.widgets.WidgetTreeVisitor.AllWidgetTreeVisitor;
 
@@ -230,6 +231,7 @@ public class Display extends Device implements Adaptable {
   private transient Monitor monitor;
   private transient IDisplayAdapter displayAdapter;
   private WidgetAdapterImpl widgetAdapter;
+  private final WidgetIndex widgetIndex;
   private Runnable[] disposeList;
   private Composite[] layoutDeferred;
   private int layoutDeferredCount;
@@ -272,6 +274,7 @@ public class Display extends Device implements Adaptable {
     attachThread();
     uiSession = ContextProvider.getUISession();
     shells = new ArrayList<Shell>();
+    widgetIndex = new WidgetIndex();
     monitor = new Monitor( this );
     cursorLocation = new Point( 0, 0 );
     bounds = readInitialBounds();
@@ -788,9 +791,11 @@ public class Display extends Device implements Adaptable {
     } else if( adapter == WidgetAdapter.class ) {
       if( widgetAdapter == null ) {
         String id = IdGeneratorProvider.getIdGenerator().createId( this );
-        widgetAdapter = new WidgetAdapterImpl( id );
+        widgetAdapter = new WidgetAdapterImpl( id, this );
       }
       result = ( T )widgetAdapter;
+    } else if( adapter == WidgetIndex.class ) {
+      result = ( T )widgetIndex;
     } else if( adapter == DisplayLifeCycleAdapter.class ) {
       result = ( T )getApplicationContext().getLifeCycleAdapterFactory().getAdapter( this );
     }
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.widgets;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.internal.SerializableCompatibility;
+
+
+/**
+ * The attributes of a single cell of a table or tree item. Subclasses add the sizes that their
+ * item caches, these are not serialized and are computed again on demand.
+ */
+abstract class ItemCell implements SerializableCompatibility {
+
+  String text = "";
+  Image image;
+  Font font;
+  Color background;
+  Color foreground;
+
+  // Cells are written field by field instead of as objects with their class descriptors
+  static void write( ObjectOutputStream stream, ItemCell[] cells ) throws IOException {
+    stream.writeInt( cells == null ? -1 : cells.length );
+    if( cells != null ) {
+      for( ItemCell cell : cells ) {
+        stream.writeBoolean( cell != null );
+        if( cell != null ) {
+          stream.writeObject( cell.text );
+          stream.writeObject( cell.image );
+          stream.writeObject( cell.font );
+          stream.writeObject( cell.background );
+          stream.writeObject( cell.foreground );
+        }
+      }
+    }
+  }
+
+  static <T extends ItemCell> T[] read( ObjectInputStream stream, Factory<T> factory )
+    throws IOException, ClassNotFoundException
+  {
+    T[] result = null;
+    int length = stream.readInt();
+    if( length >= 0 ) {
+      result = factory.createCells( length );
+      for( int i = 0; i < length; i++ ) {
+        if( stream.readBoolean() ) {
+          T cell = factory.createCell();
+          cell.text = ( String )stream.readObject();
+          cell.image = ( Image )stream.readObject();
+          cell.font = ( Font )stream.readObject();
+          cell.background = ( Color )stream.readObject();
+          cell.foreground = ( Color )stream.readObject();
+          result[ i ] = cell;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates the cells of an item when they are read from a stream.
+   */
+  interface Factory<T extends ItemCell> {
+    T[] createCells( int length );
+    T createCell();
+  }
+
+}
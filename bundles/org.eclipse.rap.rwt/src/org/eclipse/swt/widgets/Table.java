@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,9 @@ package org.eclipse.swt.widgets;
 
 import static org.eclipse.swt.internal.widgets.MarkupUtil.isMarkupEnabledFor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 import org.eclipse.rap.rwt.RWT;
 import org.eclipse.rap.rwt.internal.textsize.TextSizeUtil;
 import org.eclipse.rap.rwt.internal.theme.IThemeAdapter;
@@ -277,8 +280,8 @@ public class Table extends Composite {
   private TableColumn sortColumn;
   private int sortDirection;
   private Point itemImageSize;
-  private Rectangle bufferedCellPadding;
-  private int bufferedCellSpacing;
+  private transient Rectangle bufferedCellPadding;
+  private transient int bufferedCellSpacing;
   private int preloadedItems;
 
   /**
@@ -2714,6 +2717,12 @@ public class Table extends Composite {
     return result;
   }
 
+  // The theme values are buffered per node and are not written
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    bufferedCellSpacing = -1;
+  }
+
   ///////////////////
   // Skinning support
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,10 @@ package org.eclipse.swt.widgets;
 import static org.eclipse.swt.internal.widgets.MarkupUtil.isMarkupEnabledFor;
 import static org.eclipse.swt.internal.widgets.MarkupValidator.isValidationDisabledFor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.eclipse.rap.rwt.internal.textsize.TextSizeUtil;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -21,7 +25,6 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
-import org.eclipse.swt.internal.SerializableCompatibility;
 import org.eclipse.swt.internal.widgets.ITableItemAdapter;
 import org.eclipse.swt.internal.widgets.IWidgetColorAdapter;
 import org.eclipse.swt.internal.widgets.IWidgetFontAdapter;
@@ -101,21 +104,24 @@ public class TableItem extends Item {
     }
   }
 
-  private static final class Data implements SerializableCompatibility {
+  private static final class Data extends ItemCell {
     static final int UNKNOWN_WIDTH = -1;
-    String text = "";
     int textWidth = UNKNOWN_WIDTH;
-    Image image;
-    Font font;
-    Color background;
-    Color foreground;
+    static final ItemCell.Factory<Data> FACTORY = new ItemCell.Factory<Data>() {
+      public Data[] createCells( int length ) {
+        return new Data[ length ];
+      }
+      public Data createCell() {
+        return new Data();
+      }
+    };
   }
 
   private transient TableItemAdapter tableItemAdapter;
   final Table parent;
   boolean cached;
   int index;
-  private Data[] data;
+  private transient Data[] data;
   private boolean checked;
   private boolean grayed;
   private Color background;
@@ -1213,4 +1219,14 @@ public class TableItem extends Item {
     }
     return table;
   }
-}
\ No newline at end of file
+
+  private void writeObject( ObjectOutputStream stream ) throws IOException {
+    stream.defaultWriteObject();
+    ItemCell.write( stream, data );
+  }
+
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    data = ItemCell.read( stream, Data.FACTORY );
+  }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 EclipseSource and others.
+ * Copyright (c) 2010, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,12 +15,15 @@ import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectInputValidation;
 import java.io.ObjectOutputStream;
-import java.util.Collection;
-import java.util.Date;
-import java.util.LinkedList;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.engine.PostDeserialization;
 import org.eclipse.rap.rwt.internal.serverpush.ServerPushManager;
 import org.eclipse.rap.rwt.service.UISession;
@@ -28,99 +31,97 @@ import org.eclipse.swt.internal.SerializableCompatibility;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
 
 
+/*
+ * Schedules the runnables of Display#timerExec on the scheduler of the application context,
+ * which is shared by all UI sessions, instead of running a timer thread per display.
+ */
 class TimerExecScheduler implements SerializableCompatibility {
 
   final Display display;
   final ServerPushManager serverPushManager;
-  private final Collection<TimerExecTask> tasks;
-  private transient Timer timer;
+  // maps runnables by identity like SWT does
+  private final Map<Runnable,TimerExecTask> tasks;
 
   TimerExecScheduler( Display display ) {
     this.display = display;
     serverPushManager = ServerPushManager.getInstance();
-    tasks = new LinkedList<TimerExecTask>();
+    tasks = new IdentityHashMap<Runnable,TimerExecTask>();
   }
 
   void schedule( int milliseconds, Runnable runnable ) {
     synchronized( display.getDeviceLock() ) {
-      initializeTimer();
-      TimerExecTask task = findOrAddTask( runnable );
-      timer.schedule( task, milliseconds );
+      // a new task for every schedule, a run of the replaced task may already be waiting for the
+      // device lock
+      TimerExecTask task = createTask( runnable );
+      TimerExecTask previousTask = tasks.put( runnable, task );
+      if( previousTask != null ) {
+        previousTask.cancel();
+      }
+      scheduleTask( task, milliseconds );
     }
   }
 
   void cancel( Runnable runnable ) {
-    TimerExecTask task = findAndRemoveTask( runnable );
+    TimerExecTask task;
+    synchronized( display.getDeviceLock() ) {
+      task = tasks.remove( runnable );
+    }
     if( task != null ) {
       task.cancel();
     }
   }
 
   void dispose() {
+    List<TimerExecTask> disposedTasks;
     synchronized( display.getDeviceLock() ) {
-      if( timer != null ) {
-        timer.cancel();
-      }
+      disposedTasks = new ArrayList<TimerExecTask>( tasks.values() );
       tasks.clear();
     }
-  }
-
-  private void initializeTimer() {
-    if( timer == null ) {
-      timer = createTimer();
+    for( TimerExecTask task : disposedTasks ) {
+      task.cancel();
     }
   }
 
-  Timer createTimer() {
-    return new Timer( "RWT timerExec scheduler", true );
-  }
-
-  private TimerExecTask findOrAddTask( Runnable runnable ) {
-    synchronized( display.getDeviceLock() ) {
-      for( TimerExecTask task : tasks ) {
-        if( task.getRunnable() == runnable ) {
-          return task;
-        }
-      }
-      TimerExecTask task = createTask( runnable );
-      tasks.add( task );
-      return task;
-    }
+  ScheduledExecutorService getExecutor() {
+    return getApplicationContext().getScheduler();
   }
 
   TimerExecTask createTask( Runnable runnable ) {
     return new TimerExecTask( this, runnable );
   }
 
-  private TimerExecTask findAndRemoveTask( Runnable runnable ) {
+  void removeTask( TimerExecTask task ) {
     synchronized( display.getDeviceLock() ) {
-      for( TimerExecTask task : tasks ) {
-        if( task.getRunnable() == runnable ) {
-          tasks.remove( task );
-          return task;
-        }
+      if( tasks.get( task.getRunnable() ) == task ) {
+        tasks.remove( task.getRunnable() );
       }
     }
-    return null;
   }
 
-  void removeTask( TimerTask task ) {
-    synchronized( display.getDeviceLock() ) {
-      tasks.remove( task );
-    }
+  private void scheduleTask( TimerExecTask task, long delay ) {
+    long time = System.currentTimeMillis() + delay;
+    ScheduledFuture<?> future = getExecutor().schedule( task, delay, TimeUnit.MILLISECONDS );
+    task.setFuture( future, time );
   }
 
   private void rescheduleTasks() {
     synchronized( display.getDeviceLock() ) {
-      if( tasks.size() > 0 ) {
-        initializeTimer();
-        for( TimerExecTask task : tasks ) {
-          timer.schedule( task, new Date( task.scheduledExecutionTime() ) );
-        }
+      long now = System.currentTimeMillis();
+      for( TimerExecTask task : tasks.values() ) {
+        scheduleTask( task, Math.max( 0, task.getScheduledTime() - now ) );
       }
     }
   }
 
+  private ApplicationContextImpl getApplicationContext() {
+    return ( ApplicationContextImpl )getUISession().getApplicationContext();
+  }
+
+  private UISession getUISession() {
+    IDisplayAdapter adapter = display.getAdapter( IDisplayAdapter.class );
+    return adapter.getUISession();
+  }
+
   private void writeObject( ObjectOutputStream stream ) throws IOException {
     synchronized( display.getDeviceLock() ) {
       stream.defaultWriteObject();
@@ -134,17 +135,11 @@ class TimerExecScheduler implements SerializableCompatibility {
 
   private class PostDeserializationValidation implements ObjectInputValidation {
     public void validateObject() throws InvalidObjectException {
-      UISession uiSession = getUISession();
-      PostDeserialization.addProcessor( uiSession, new Runnable() {
+      PostDeserialization.addProcessor( getUISession(), new Runnable() {
         public void run() {
           rescheduleTasks();
         }
       } );
     }
-
-    private UISession getUISession() {
-      IDisplayAdapter adapter = display.getAdapter( IDisplayAdapter.class );
-      return adapter.getUISession();
-    }
   }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 EclipseSource and others.
+ * Copyright (c) 2010, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,15 +10,18 @@
  ******************************************************************************/
 package org.eclipse.swt.widgets;
 
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.swt.internal.SerializableCompatibility;
 
 
-class TimerExecTask extends TimerTask implements SerializableCompatibility {
+class TimerExecTask implements Runnable, SerializableCompatibility {
 
   private final TimerExecScheduler scheduler;
   private final Runnable runnable;
+  private long scheduledTime;
+  private volatile boolean cancelled;
+  private transient volatile ScheduledFuture<?> future;
 
   TimerExecTask( TimerExecScheduler scheduler, Runnable runnable ) {
     this.scheduler = scheduler;
@@ -26,25 +29,54 @@ class TimerExecTask extends TimerTask implements SerializableCompatibility {
     scheduler.serverPushManager.activateServerPushFor( this );
   }
 
-  @Override
+  /*
+   * A cancelled task does nothing, its future may already be running when it is cancelled or
+   * replaced by a new task for the same runnable.
+   */
   public void run() {
+    boolean current;
     synchronized( scheduler.display.getDeviceLock() ) {
-      scheduler.removeTask( this );
-      if( !scheduler.display.isDisposed() ) {
-        scheduler.display.asyncExec( runnable );
+      current = !cancelled;
+      if( current ) {
+        cancelled = true;
+        scheduler.removeTask( this );
+        if( !scheduler.display.isDisposed() ) {
+          scheduler.display.asyncExec( runnable );
+        }
       }
     }
-    scheduler.serverPushManager.deactivateServerPushFor( this );
+    if( current ) {
+      scheduler.serverPushManager.deactivateServerPushFor( this );
+    }
   }
 
-  @Override
-  public boolean cancel() {
+  boolean cancel() {
+    cancelled = true;
     scheduler.serverPushManager.deactivateServerPushFor( this );
-    return super.cancel();
+    return cancelFuture();
+  }
+
+  /*
+   * Replaces the future of a previous schedule, which is cancelled. Must be called with the
+   * device lock held.
+   */
+  void setFuture( ScheduledFuture<?> future, long scheduledTime ) {
+    cancelFuture();
+    this.future = future;
+    this.scheduledTime = scheduledTime;
+  }
+
+  long getScheduledTime() {
+    return scheduledTime;
   }
 
   Runnable getRunnable() {
     return runnable;
   }
 
+  private boolean cancelFuture() {
+    ScheduledFuture<?> currentFuture = future;
+    return currentFuture != null && currentFuture.cancel( false );
+  }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,8 @@ package org.eclipse.swt.widgets;
 
 import static org.eclipse.swt.internal.widgets.MarkupUtil.isMarkupEnabledFor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -129,7 +131,7 @@ public class Tree extends Composite {
   private boolean hasVScrollBar;
   private boolean hasHScrollBar;
   private Point itemImageSize;
-  LayoutCache layoutCache;
+  transient LayoutCache layoutCache;
   boolean isFlatIndexValid;
   private int visibleItemsCount;
   private int preloadedItems;
@@ -2346,6 +2348,12 @@ public class Tree extends Composite {
     }
   }
 
+  // The cached layout values are computed from the theme and are not written
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    layoutCache = new LayoutCache();
+  }
+
   ///////////////////
   // Skinning support
 
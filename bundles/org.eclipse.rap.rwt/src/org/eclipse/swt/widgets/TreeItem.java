@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,9 @@ package org.eclipse.swt.widgets;
 import static org.eclipse.swt.internal.widgets.MarkupUtil.isMarkupEnabledFor;
 import static org.eclipse.swt.internal.widgets.MarkupValidator.isValidationDisabledFor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,7 +28,6 @@ import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
-import org.eclipse.swt.internal.SerializableCompatibility;
 import org.eclipse.swt.internal.widgets.IItemHolderAdapter;
 import org.eclipse.swt.internal.widgets.ITreeItemAdapter;
 import org.eclipse.swt.internal.widgets.IWidgetColorAdapter;
@@ -56,7 +58,7 @@ public class TreeItem extends Item {
   int itemCount;
   private transient ITreeItemAdapter treeItemAdapter;
   int index;
-  private Data[] data;
+  private transient Data[] data;
   private Font font;
   private boolean expanded;
   private boolean checked;
@@ -1639,6 +1641,16 @@ public class TreeItem extends Item {
     return result;
   }
 
+  private void writeObject( ObjectOutputStream stream ) throws IOException {
+    stream.defaultWriteObject();
+    ItemCell.write( stream, data );
+  }
+
+  private void readObject( ObjectInputStream stream ) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    data = ItemCell.read( stream, Data.FACTORY );
+  }
+
   ////////////////
   // Inner classes
 
@@ -1725,16 +1737,19 @@ public class TreeItem extends Item {
     }
   }
 
-  private static final class Data implements SerializableCompatibility {
+  private static final class Data extends ItemCell {
     static final int UNKNOWN_WIDTH = -1;
-    String text = "";
     // Note [fappel]: Yourkit analysis with the UI workbench testsuite showed an extensive
     //                appearance of preferred width calculations. Buffering the preferred width
     //                speeds up the suite on my machine to 1/4th of the time needed without buffering.
     int preferredWidthBuffer = UNKNOWN_WIDTH;
-    Image image;
-    Font font;
-    Color background;
-    Color foreground;
+    static final ItemCell.Factory<Data> FACTORY = new ItemCell.Factory<Data>() {
+      public Data[] createCells( int length ) {
+        return new Data[ length ];
+      }
+      public Data createCell() {
+        return new Data();
+      }
+    };
   }
 }
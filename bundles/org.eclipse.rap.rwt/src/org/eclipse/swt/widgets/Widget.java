@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,7 @@ import org.eclipse.swt.internal.widgets.IWidgetGraphicsAdapter;
 import org.eclipse.swt.internal.widgets.IdGeneratorProvider;
 import org.eclipse.swt.internal.widgets.WidgetAdapterImpl;
 import org.eclipse.swt.internal.widgets.WidgetGraphicsAdapter;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 
 
 /**
@@ -175,7 +176,8 @@ public abstract class Widget implements Adaptable, SerializableCompatibility {
     if( adapter == WidgetAdapter.class ) {
       if( widgetAdapter == null ) {
         String id = IdGeneratorProvider.getIdGenerator().createId( this );
-        widgetAdapter = new WidgetAdapterImpl( id );
+        widgetAdapter = new WidgetAdapterImpl( id, display );
+        addToWidgetIndex( id );
       }
       result = ( T )widgetAdapter;
     } else if( adapter == IThemeAdapter.class ) {
@@ -380,10 +382,33 @@ public abstract class Widget implements Adaptable, SerializableCompatibility {
   private void handleCustomId( String key, Object value ) {
     if( key.equals( WidgetUtil.CUSTOM_WIDGET_ID ) && value instanceof String ) {
       WidgetAdapterImpl adapter = ( WidgetAdapterImpl )getAdapter( WidgetAdapter.class );
-      adapter.setCustomId( ( String )value );
+      removeFromWidgetIndex( adapter.getId() );
+      try {
+        adapter.setCustomId( ( String )value );
+      } finally {
+        addToWidgetIndex( adapter.getId() );
+      }
     }
   }
 
+  private void addToWidgetIndex( String id ) {
+    WidgetIndex widgetIndex = getWidgetIndex();
+    if( widgetIndex != null && !isDisposed() ) {
+      widgetIndex.add( id, this );
+    }
+  }
+
+  private void removeFromWidgetIndex( String id ) {
+    WidgetIndex widgetIndex = getWidgetIndex();
+    if( widgetIndex != null ) {
+      widgetIndex.remove( id, this );
+    }
+  }
+
+  private WidgetIndex getWidgetIndex() {
+    return display == null ? null : display.getAdapter( WidgetIndex.class );
+  }
+
   ///////////////////////////////////////////
   // Methods to get/set single and keyed data
 
@@ -860,6 +885,7 @@ public abstract class Widget implements Adaptable, SerializableCompatibility {
         releaseWidget();
         WidgetAdapter adapter = getAdapter( WidgetAdapter.class );
         adapter.markDisposed( this );
+        removeFromWidgetIndex( adapter.getId() );
       }
     }
   }
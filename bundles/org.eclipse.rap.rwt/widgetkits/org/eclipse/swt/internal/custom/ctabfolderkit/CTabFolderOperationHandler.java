@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource and others.
+ * Copyright (c) 2013, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,6 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PAR
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_ITEM;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SELECTION;
 import static org.eclipse.rap.rwt.lifecycle.WidgetLCAUtil.preserveProperty;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
 
 import org.eclipse.rap.json.JsonObject;
@@ -34,7 +33,9 @@ import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.internal.custom.ICTabFolderAdapter;
 import org.eclipse.swt.internal.events.EventTypes;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Widget;
 
 
 public class CTabFolderOperationHandler extends ControlOperationHandler<CTabFolder> {
@@ -213,7 +214,9 @@ public class CTabFolderOperationHandler extends ControlOperationHandler<CTabFold
   }
 
   private static CTabItem getItem( CTabFolder folder, String itemId ) {
-    return ( CTabItem )find( folder, itemId );
+    Widget widget = WidgetIndex.find( folder.getDisplay(), itemId );
+    boolean isItem = widget instanceof CTabItem && ( ( CTabItem )widget ).getParent() == folder;
+    return isItem ? ( CTabItem )widget : null;
   }
 
   private static ICTabFolderAdapter getCTabFolderAdapter( CTabFolder folder ) {
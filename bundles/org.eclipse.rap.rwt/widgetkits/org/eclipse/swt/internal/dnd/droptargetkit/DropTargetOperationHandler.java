@@ -14,7 +14,6 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PAR
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_TIME;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_X;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_Y;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 import static org.eclipse.swt.internal.dnd.DNDUtil.getDataTypeChangedValue;
 import static org.eclipse.swt.internal.dnd.DNDUtil.getDetailChangedValue;
 import static org.eclipse.swt.internal.dnd.DNDUtil.getFeedbackChangedValue;
@@ -39,9 +38,9 @@ import org.eclipse.swt.dnd.DropTarget;
 import org.eclipse.swt.dnd.Transfer;
 import org.eclipse.swt.dnd.TransferData;
 import org.eclipse.swt.internal.dnd.DNDEvent;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Item;
-import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Widget;
 
 
@@ -437,13 +436,7 @@ public class DropTargetOperationHandler extends WidgetOperationHandler<DropTarge
   }
 
   private static Widget findWidgetById( String id ) {
-    for( Shell shell : LifeCycleUtil.getSessionDisplay().getShells() ) {
-      Widget widget = find( shell, id );
-      if( widget != null ) {
-        return widget;
-      }
-    }
-    return null;
+    return WidgetIndex.find( LifeCycleUtil.getSessionDisplay(), id );
   }
 
   private static DragSource getDragSource( Control control ) {
@@ -19,10 +19,15 @@ import static org.eclipse.rap.rwt.internal.protocol.RemoteObjectFactory.getRemot
 import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.rap.rwt.RWT;
 import org.eclipse.rap.rwt.client.service.ExitConfirmation;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.lifecycle.DisplayLifeCycleAdapter;
 import org.eclipse.rap.rwt.internal.lifecycle.DisposedWidgets;
 import org.eclipse.rap.rwt.internal.lifecycle.RequestCounter;
@@ -44,12 +49,14 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.DragSource;
 import org.eclipse.swt.dnd.DropTarget;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
+import org.eclipse.swt.internal.widgets.PreservedWidgetAdapters;
 import org.eclipse.swt.internal.widgets.WidgetAdapterImpl;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.internal.widgets.WidgetTreeVisitor;
 import org.eclipse.swt.internal.widgets.WidgetTreeVisitor.AllWidgetTreeVisitor;
-import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Widget;
 
@@ -64,7 +71,11 @@ public class DisplayLCA implements DisplayLifeCycleAdapter {
 
   public void readData( Display display ) {
     handleOperations( display );
-    visitWidgets( display );
+    if( RWTProperties.isTargetedReadDataEnabled() ) {
+      readTargetedWidgets( display );
+    } else {
+      visitWidgets( display );
+    }
     DNDSupport.handleOperations();
     RemoteObjectLifeCycleAdapter.readData();
   }
@@ -112,17 +123,8 @@ public class DisplayLCA implements DisplayLifeCycleAdapter {
   public void clearPreserved( Display display ) {
     WidgetAdapterImpl widgetAdapter = ( WidgetAdapterImpl )getAdapter( display );
     widgetAdapter.clearPreserved();
-    Composite[] shells = getShells( display );
-    for( int i = 0; i < shells.length; i++ ) {
-      WidgetTreeVisitor.accept( shells[ i ], new AllWidgetTreeVisitor() {
-        @Override
-        public boolean doVisit( Widget widget ) {
-          WidgetAdapterImpl widgetAdapter = ( WidgetAdapterImpl )WidgetUtil.getAdapter( widget );
-          widgetAdapter.clearPreserved();
-          return true;
-        }
-      } );
-    }
+    // Only the widgets that were preserved hold values, no need to visit the whole widget tree
+    PreservedWidgetAdapters.getInstance().clearPreserved();
   }
 
   private static void handleOperations( Display display ) {
@@ -150,6 +152,35 @@ public class DisplayLCA implements DisplayLifeCycleAdapter {
     }
   }
 
+  private static void readTargetedWidgets( Display display ) {
+    ClientMessage clientMessage = ProtocolUtil.getClientMessage();
+    List<Widget> widgets = findTargetedWidgets( display, clientMessage.getAllTargets() );
+    if( widgets.size() > 1 ) {
+      // read the widgets in the same order as when reading all widgets
+      Collections.sort( widgets, new WidgetTreeOrder( getShells( display ) ) );
+    }
+    for( Widget widget : widgets ) {
+      WidgetLifeCycleAdapter adapter = WidgetUtil.getLCA( widget );
+      adapter.readData( widget );
+    }
+  }
+
+  static List<Widget> findTargetedWidgets( Display display, Set<String> targets ) {
+    // operations for the display and for remote objects are handled separately
+    Set<Widget> result = new LinkedHashSet<Widget>();
+    for( String target : targets ) {
+      Widget widget = WidgetIndex.find( display, target );
+      if( widget instanceof ScrollBar ) {
+        // scroll bars are not part of the widget tree, their events are read by the scrollable
+        widget = ( ( ScrollBar )widget ).getParent();
+      }
+      if( widget != null ) {
+        result.add( widget );
+      }
+    }
+    return new ArrayList<Widget>( result );
+  }
+
   private static void renderShells( Display display ) throws IOException {
     RenderVisitor visitor = new RenderVisitor();
     for( Shell shell : getShells( display ) ) {
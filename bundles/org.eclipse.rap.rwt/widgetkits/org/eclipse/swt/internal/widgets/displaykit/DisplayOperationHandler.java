@@ -15,17 +15,16 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_RES
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
-import org.eclipse.rap.rwt.lifecycle.WidgetUtil;
 import org.eclipse.rap.rwt.remote.AbstractOperationHandler;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.internal.events.EventUtil;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
-import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Widget;
 
 
@@ -99,14 +98,9 @@ public class DisplayOperationHandler extends AbstractOperationHandler {
     if( value != null && !value.isNull() ) {
       String id = value.asString();
       Control focusControl = null;
-      // TODO [rh] revise this: traversing the widget tree once more only to find
-      //      out which control is focused. Could that be optimized?
-      Shell[] shells = getDisplayAdapter( display ).getShells();
-      for( int i = 0; focusControl == null && i < shells.length; i++ ) {
-        Widget widget = WidgetUtil.find( shells[ i ], id );
-        if( widget instanceof Control ) {
-          focusControl = ( Control )widget;
-        }
+      Widget widget = WidgetIndex.find( display, id );
+      if( widget instanceof Control ) {
+        focusControl = ( Control )widget;
       }
       if( focusControl != null && EventUtil.isAccessible( focusControl ) ) {
         getDisplayAdapter( display ).setFocusControl( focusControl, false );
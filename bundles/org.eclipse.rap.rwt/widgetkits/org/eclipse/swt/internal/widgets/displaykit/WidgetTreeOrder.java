@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets.displaykit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rap.rwt.lifecycle.WidgetAdapter;
+import org.eclipse.swt.internal.widgets.WidgetTreeVisitor;
+import org.eclipse.swt.internal.widgets.WidgetTreeVisitor.AllWidgetTreeVisitor;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.swt.widgets.Widget;
+
+
+/**
+ * Orders widgets like the <code>WidgetTreeVisitor</code> visits the shells of a display: shells
+ * in the order of the display, parents before their children and siblings in the order they are
+ * visited. Only the ancestors of the compared widgets and their direct children are visited, not
+ * the whole widget tree. Widgets that are not found in the tree are ordered after their siblings.
+ */
+final class WidgetTreeOrder implements Comparator<Widget> {
+
+  private final Map<Widget, Integer> shellPositions;
+  private final Map<Widget, Map<Widget, Integer>> childPositions;
+
+  WidgetTreeOrder( Shell[] shells ) {
+    shellPositions = new HashMap<Widget, Integer>();
+    for( int i = 0; i < shells.length; i++ ) {
+      shellPositions.put( shells[ i ], Integer.valueOf( i ) );
+    }
+    childPositions = new HashMap<Widget, Map<Widget, Integer>>();
+  }
+
+  public int compare( Widget widget1, Widget widget2 ) {
+    List<Widget> path1 = getPath( widget1 );
+    List<Widget> path2 = getPath( widget2 );
+    int index = 0;
+    while(    index < path1.size()
+           && index < path2.size()
+           && path1.get( index ) == path2.get( index ) )
+    {
+      index++;
+    }
+    int result;
+    if( index == path1.size() || index == path2.size() ) {
+      // one widget is an ancestor of the other
+      result = path1.size() - path2.size();
+    } else {
+      Widget parent = index == 0 ? null : path1.get( index - 1 );
+      int position1 = getPosition( parent, path1.get( index ) );
+      int position2 = getPosition( parent, path2.get( index ) );
+      result = position1 < position2 ? -1 : ( position1 == position2 ? 0 : 1 );
+    }
+    return result;
+  }
+
+  private static Widget getParent( Widget widget ) {
+    Widget result = null;
+    if( widget instanceof TreeItem && ( ( TreeItem )widget ).getParentItem() != null ) {
+      result = ( ( TreeItem )widget ).getParentItem();
+    } else if( !( widget instanceof Shell ) ) {
+      result = widget.getAdapter( WidgetAdapter.class ).getParent();
+    }
+    return result;
+  }
+
+  // The ancestors of the widget and the widget itself, starting with the shell
+  private static List<Widget> getPath( Widget widget ) {
+    List<Widget> result = new ArrayList<Widget>();
+    Widget current = widget;
+    while( current != null ) {
+      result.add( current );
+      current = getParent( current );
+    }
+    Collections.reverse( result );
+    return result;
+  }
+
+  private int getPosition( Widget parent, Widget widget ) {
+    Map<Widget, Integer> positions;
+    if( parent == null ) {
+      positions = shellPositions;
+    } else {
+      positions = childPositions.get( parent );
+      if( positions == null ) {
+        positions = visitChildren( parent );
+        childPositions.put( parent, positions );
+      }
+    }
+    Integer position = positions.get( widget );
+    return position == null ? Integer.MAX_VALUE : position.intValue();
+  }
+
+  // Visits the widgets that the visitor visits directly below the parent, without descending
+  private static Map<Widget, Integer> visitChildren( final Widget parent ) {
+    final Map<Widget, Integer> result = new HashMap<Widget, Integer>();
+    WidgetTreeVisitor.accept( parent, new AllWidgetTreeVisitor() {
+      @Override
+      public boolean doVisit( Widget widget ) {
+        boolean isParent = widget == parent;
+        if( !isParent && !result.containsKey( widget ) ) {
+          result.put( widget, Integer.valueOf( result.size() ) );
+        }
+        return isParent;
+      }
+    } );
+    return result;
+  }
+
+}
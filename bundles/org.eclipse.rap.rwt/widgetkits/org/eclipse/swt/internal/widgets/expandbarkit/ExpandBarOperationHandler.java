@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource and others.
+ * Copyright (c) 2013, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,14 +13,15 @@ package org.eclipse.swt.internal.widgets.expandbarkit;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_COLLAPSE;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_EXPAND;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_ITEM;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.rwt.internal.protocol.ControlOperationHandler;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ExpandBar;
 import org.eclipse.swt.widgets.ExpandItem;
+import org.eclipse.swt.widgets.Widget;
 
 
 public class ExpandBarOperationHandler extends ControlOperationHandler<ExpandBar> {
@@ -63,7 +64,9 @@ public class ExpandBarOperationHandler extends ControlOperationHandler<ExpandBar
   }
 
   private static ExpandItem getItem( ExpandBar bar, String itemId ) {
-    return ( ExpandItem )find( bar, itemId );
+    Widget widget = WidgetIndex.find( bar.getDisplay(), itemId );
+    boolean isItem = widget instanceof ExpandItem && ( ( ExpandItem )widget ).getParent() == bar;
+    return isItem ? ( ExpandItem )widget : null;
   }
 
 }
@@ -13,7 +13,6 @@ package org.eclipse.swt.internal.widgets.shellkit;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_CLOSE;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_MOVE;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_RESIZE;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
@@ -23,6 +22,7 @@ import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.internal.events.EventUtil;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
 import org.eclipse.swt.internal.widgets.IShellAdapter;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Widget;
@@ -107,8 +107,8 @@ public class ShellOperationHandler extends ControlOperationHandler<Shell> {
     JsonValue value = properties.get( PROP_ACTIVE_CONTROL );
     if( value != null ) {
       String activeControlId = value.asString();
-      Widget widget = find( shell, activeControlId );
-      if( widget != null ) {
+      Widget widget = WidgetIndex.find( shell.getDisplay(), activeControlId );
+      if( widget instanceof Control && ( ( Control )widget ).getShell() == shell ) {
         setActiveControl( shell, widget );
       }
     }
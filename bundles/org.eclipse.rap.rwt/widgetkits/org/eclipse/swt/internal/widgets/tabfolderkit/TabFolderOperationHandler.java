@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource and others.
+ * Copyright (c) 2013, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,6 @@ package org.eclipse.swt.internal.widgets.tabfolderkit;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_ITEM;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SELECTION;
 import static org.eclipse.rap.rwt.lifecycle.WidgetLCAUtil.preserveProperty;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
 
 import org.eclipse.rap.json.JsonObject;
@@ -21,9 +20,11 @@ import org.eclipse.rap.json.JsonValue;
 import org.eclipse.rap.rwt.internal.protocol.ControlOperationHandler;
 import org.eclipse.rap.rwt.lifecycle.ProcessActionRunner;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.TabFolder;
 import org.eclipse.swt.widgets.TabItem;
+import org.eclipse.swt.widgets.Widget;
 
 
 public class TabFolderOperationHandler extends ControlOperationHandler<TabFolder> {
@@ -82,7 +83,9 @@ public class TabFolderOperationHandler extends ControlOperationHandler<TabFolder
   }
 
   private static TabItem getItem( TabFolder folder, String itemId ) {
-    return ( TabItem )find( folder, itemId );
+    Widget widget = WidgetIndex.find( folder.getDisplay(), itemId );
+    boolean isItem = widget instanceof TabItem && ( ( TabItem )widget ).getParent() == folder;
+    return isItem ? ( TabItem )widget : null;
   }
 
 }
@@ -14,7 +14,6 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_DEF
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_ITEM;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SELECTION;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SET_DATA;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
@@ -25,10 +24,12 @@ import org.eclipse.swt.internal.widgets.CellToolTipUtil;
 import org.eclipse.swt.internal.widgets.ICellToolTipAdapter;
 import org.eclipse.swt.internal.widgets.ICellToolTipProvider;
 import org.eclipse.swt.internal.widgets.ITableAdapter;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Widget;
 
 
 public class TableOperationHandler extends ControlOperationHandler<Table> {
@@ -211,7 +212,9 @@ public class TableOperationHandler extends ControlOperationHandler<Table> {
       int index = Integer.parseInt( idParts[ 1 ] );
       item = table.getItem( index );
     } else {
-      item = ( TableItem )find( table, itemId );
+      Widget widget = WidgetIndex.find( table.getDisplay(), itemId );
+      boolean isItem = widget instanceof TableItem && ( ( TableItem )widget ).getParent() == table;
+      item = isItem ? ( TableItem )widget : null;
     }
     return item;
   }
@@ -16,7 +16,6 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_EXP
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_PARAM_ITEM;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SELECTION;
 import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_SET_DATA;
-import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.find;
 import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
 
 import org.eclipse.rap.json.JsonArray;
@@ -28,6 +27,7 @@ import org.eclipse.swt.internal.widgets.CellToolTipUtil;
 import org.eclipse.swt.internal.widgets.ICellToolTipAdapter;
 import org.eclipse.swt.internal.widgets.ICellToolTipProvider;
 import org.eclipse.swt.internal.widgets.ITreeAdapter;
+import org.eclipse.swt.internal.widgets.WidgetIndex;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Tree;
@@ -217,21 +217,27 @@ public class TreeOperationHandler extends ControlOperationHandler<Tree> {
     TreeItem item = null;
     String[] idParts = itemId.split( "#" );
     if( idParts.length == 2 ) {
-      Widget parent = find( tree, idParts[ 0 ] );
-      if( parent != null ) {
-        int itemIndex = Integer.parseInt( idParts[ 1 ] );
-        if( getId( tree ).equals( idParts[ 0 ] ) ) {
-          item = tree.getItem( itemIndex );
-        } else {
-          item = ( ( TreeItem )parent ).getItem( itemIndex );
+      int itemIndex = Integer.parseInt( idParts[ 1 ] );
+      if( getId( tree ).equals( idParts[ 0 ] ) ) {
+        item = tree.getItem( itemIndex );
+      } else {
+        TreeItem parentItem = findItem( tree, idParts[ 0 ] );
+        if( parentItem != null ) {
+          item = parentItem.getItem( itemIndex );
         }
       }
     } else {
-      item = ( TreeItem )find( tree, itemId );
+      item = findItem( tree, itemId );
     }
     return item;
   }
 
+  private static TreeItem findItem( Tree tree, String itemId ) {
+    Widget widget = WidgetIndex.find( tree.getDisplay(), itemId );
+    boolean isItem = widget instanceof TreeItem && ( ( TreeItem )widget ).getParent() == tree;
+    return isItem ? ( TreeItem )widget : null;
+  }
+
   private static void setScrollBarSelection( ScrollBar scrollBar, int selection ) {
     if( scrollBar != null ) {
       scrollBar.setSelection( selection );
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.cluster.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.servlet.http.HttpSession;
+
+import org.eclipse.rap.rwt.cluster.test.entrypoints.WidgetsEntryPoint;
+import org.eclipse.rap.rwt.cluster.testfixture.ClusterTestHelper;
+import org.eclipse.rap.rwt.cluster.testfixture.ReplicaStore;
+import org.eclipse.rap.rwt.cluster.testfixture.ReplicaStore.Replica;
+import org.eclipse.rap.rwt.cluster.testfixture.client.RWTClient;
+import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngine;
+import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngineFactory;
+import org.eclipse.rap.rwt.cluster.testfixture.server.JettyFactory;
+import org.eclipse.rap.rwt.cluster.testfixture.server.TomcatFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+
+@RunWith( Parameterized.class )
+public class DeltaReplication_Test {
+
+  private static final String SINGLETON_MANAGER_ATTRIBUTE
+    = "org.eclipse.rap.rwt.internal.SingletonManager#instance";
+
+  private final IServletEngineFactory servletEngineFactory;
+  private ReplicaStore replicaStore;
+  private IServletEngine servletEngine;
+  private RWTClient client;
+
+  @Parameters
+  public static Collection<Object[]> getParameters() {
+    return Arrays.asList( new Object[][] { { new JettyFactory() }, { new TomcatFactory() } } );
+  }
+
+  public DeltaReplication_Test( IServletEngineFactory servletEngineFactory ) {
+    this.servletEngineFactory = servletEngineFactory;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    replicaStore = new ReplicaStore();
+    ReplicaStore.activate( replicaStore );
+    servletEngine = servletEngineFactory.createServletEngine();
+    servletEngine.start( WidgetsEntryPoint.class );
+    client = new RWTClient( servletEngine );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    servletEngine.stop();
+    ReplicaStore.deactivate();
+  }
+
+  @Test
+  public void testReplicatesOneDeltaPerRequest() throws Exception {
+    client.sendStartupRequest();
+    client.sendInitializationRequest();
+    int replicatedDeltas = replicaStore.getReplicatedBytes().length;
+
+    client.sendDisplayResizeRequest( 600, 800 );
+
+    assertEquals( replicatedDeltas + 1, replicaStore.getReplicatedBytes().length );
+  }
+
+  @Test
+  public void testDeltaIsSmallerThanUISession() throws Exception {
+    client.sendStartupRequest();
+    client.sendInitializationRequest();
+    client.sendDisplayResizeRequest( 600, 800 );
+    client.sendDisplayResizeRequest( 500, 700 );
+
+    int[] replicatedBytes = replicaStore.getReplicatedBytes();
+    int deltaSize = replicatedBytes[ replicatedBytes.length - 1 ];
+    Object uiSession = ClusterTestHelper.getFirstUISession( servletEngine );
+    assertTrue( deltaSize < ReplicaStore.getSerializedSize( uiSession ) );
+  }
+
+  @Test
+  public void testReplicaContainsUISessionAttributes() throws Exception {
+    client.sendStartupRequest();
+    client.sendInitializationRequest();
+
+    HttpSession httpSession = ClusterTestHelper.getFirstHttpSession( servletEngine );
+    Replica replica = replicaStore.getReplica( httpSession.getId() );
+    assertNotNull( replica.getAttribute( SINGLETON_MANAGER_ATTRIBUTE ) );
+  }
+
+}
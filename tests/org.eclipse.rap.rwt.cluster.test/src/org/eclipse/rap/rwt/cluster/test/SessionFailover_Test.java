@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpSession;
@@ -43,7 +45,11 @@ import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngineCluster;
 import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngineFactory;
 import org.eclipse.rap.rwt.cluster.testfixture.server.JettyFactory;
 import org.eclipse.rap.rwt.cluster.testfixture.server.TomcatFactory;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.internal.engine.ReplicationHook;
+import org.eclipse.rap.rwt.internal.engine.SetAttributeReplicationHook;
+import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.UISessionImpl;
 import org.eclipse.rap.rwt.lifecycle.WidgetUtil;
 import org.eclipse.rap.rwt.service.UISession;
@@ -93,6 +99,7 @@ public class SessionFailover_Test {
 
   @After
   public void tearDown() throws Exception {
+    System.getProperties().remove( RWTProperties.IN_PROCESS_REPLICATION );
     cluster.stop();
   }
 
@@ -171,6 +178,25 @@ public class SessionFailover_Test {
     assertTrue( AsyncExecEntryPoint.wasRunnableExecuted( secondaryUiSession ) );
   }
 
+  @Test
+  public void testAsyncExecEntryPoint_withInProcessReplication() throws Exception {
+    System.setProperty( RWTProperties.IN_PROCESS_REPLICATION, "true" );
+    initializeClient( AsyncExecEntryPoint.class );
+    OutsideRequestHook hook = installOutsideRequestHook( primary );
+    AsyncExecEntryPoint.scheduleAsyncRunnable( getFirstDisplay( primary ) );
+
+    assertTrue( hook.awaitSessionChanged() );
+    // Jetty and Tomcat replicate the changed session when the next request completes
+    client.sendDisplayResizeRequest( 100, 100 );
+    cluster.removeServletEngine( primary );
+    client.changeServletEngine( secondary );
+    client.sendDisplayResizeRequest( 200, 200 );
+
+    prepareExamination();
+    UISession secondaryUiSession = ClusterTestHelper.getFirstUISession( secondary );
+    assertTrue( AsyncExecEntryPoint.wasRunnableExecuted( secondaryUiSession ) );
+  }
+
   @Test
   public void testSyncExecEntryPoint() throws Exception {
     initializeClient( AsyncExecEntryPoint.class );
@@ -244,6 +270,14 @@ public class SessionFailover_Test {
     client.sendInitializationRequest();
   }
 
+  private static OutsideRequestHook installOutsideRequestHook( IServletEngine servletEngine ) {
+    HttpSession session = ClusterTestHelper.getFirstHttpSession( servletEngine );
+    ServletContext servletContext = session.getServletContext();
+    OutsideRequestHook result = new OutsideRequestHook();
+    ApplicationContextImpl.getFrom( servletContext ).setReplicationHook( result );
+    return result;
+  }
+
   private static void assertImageDataEquals( ImageData expected, ImageData actual ) {
     byte[] expectedBytes = getImageBytes( expected );
     byte[] actualBytes = getImageBytes( actual );
@@ -336,4 +370,21 @@ public class SessionFailover_Test {
   public interface SerializableRunnable extends Runnable, Serializable {
   }
 
+  // Records that a session was marked as changed outside of a request
+  private static class OutsideRequestHook implements ReplicationHook {
+
+    private final CountDownLatch sessionChanged = new CountDownLatch( 1 );
+
+    public void attributeChanged( HttpSession httpSession, String name, Object value ) {
+      if( !ContextProvider.hasContext() && value instanceof UISession ) {
+        sessionChanged.countDown();
+      }
+      SetAttributeReplicationHook.INSTANCE.attributeChanged( httpSession, name, value );
+    }
+
+    boolean awaitSessionChanged() throws InterruptedException {
+      return sessionChanged.await( 2, TimeUnit.SECONDS );
+    }
+  }
+
 }
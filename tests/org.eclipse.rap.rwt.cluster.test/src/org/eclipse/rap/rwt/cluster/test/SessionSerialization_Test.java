@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,11 +17,14 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 
 import org.eclipse.rap.rwt.cluster.test.entrypoints.WidgetsEntryPoint;
+import org.eclipse.rap.rwt.cluster.testfixture.ClusterTestHelper;
+import org.eclipse.rap.rwt.cluster.testfixture.SerializationBenchmark;
 import org.eclipse.rap.rwt.cluster.testfixture.client.RWTClient;
 import org.eclipse.rap.rwt.cluster.testfixture.client.Response;
 import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngine;
 import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngineCluster;
 import org.eclipse.rap.rwt.cluster.testfixture.server.JettyFactory;
+import org.eclipse.rap.rwt.service.UISession;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -59,6 +62,19 @@ public class SessionSerialization_Test {
     assertTrue( response.isValidJsonResponse() );
   }
 
+  @Test
+  public void testSerializationBenchmark() throws Exception {
+    sendRequestToPrimary();
+    UISession uiSession = ClusterTestHelper.getFirstUISession( primary );
+
+    SerializationBenchmark benchmark
+      = SerializationBenchmark.run( uiSession, getClass().getClassLoader(), 20 );
+
+    assertTrue( benchmark.getSize() > 0 );
+    assertTrue( benchmark.getSerializationTime() > 0 );
+    assertTrue( benchmark.getDeserializationTime() > 0 );
+  }
+
   private Response sendRequestToPrimary() throws IOException {
     client.sendStartupRequest();
     client.sendInitializationRequest();
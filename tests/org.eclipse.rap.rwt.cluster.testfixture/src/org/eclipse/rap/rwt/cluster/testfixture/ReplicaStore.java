@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.cluster.testfixture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpSession;
+
+import org.eclipse.rap.rwt.internal.engine.ReplicationHook;
+import org.eclipse.rap.rwt.lifecycle.WidgetUtil;
+import org.eclipse.rap.rwt.service.UISession;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Widget;
+
+
+/**
+ * A replication hook that measures how much of a UI session would have to be replicated if only
+ * the changed parts were sent to other cluster nodes. The session is still replicated as a whole
+ * by setting the attribute again.
+ * <p>
+ * Every time a UI session is marked as changed, its attributes are serialized one by one and
+ * compared with the replica that is kept per HTTP session. References to widgets, the display
+ * and the UI session are written as placeholders, so that an attribute does not pull in the
+ * widget tree. The changed and removed attributes form the delta, its serialized size is
+ * recorded. Changes of the widgets themselves are not measured.
+ * </p>
+ * <p>
+ * An active store is installed as the replication hook of all applications that are started by
+ * the servlet engines of the test fixture.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public class ReplicaStore implements ReplicationHook {
+
+  private static volatile ReplicaStore activeStore;
+
+  private final Map<String, Replica> replicas;
+  private final List<Integer> replicatedBytes;
+
+  public static void activate( ReplicaStore replicaStore ) {
+    activeStore = replicaStore;
+  }
+
+  public static void deactivate() {
+    activeStore = null;
+  }
+
+  public static ReplicaStore getActiveStore() {
+    return activeStore;
+  }
+
+  public static int getSerializedSize( Object object ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream output = new ObjectOutputStream( bytes );
+    output.writeObject( object );
+    output.close();
+    return bytes.size();
+  }
+
+  public ReplicaStore() {
+    replicas = new HashMap<String, Replica>();
+    replicatedBytes = new ArrayList<Integer>();
+  }
+
+  public void attributeChanged( HttpSession httpSession, String name, Object value ) {
+    httpSession.setAttribute( name, value );
+    if( value instanceof UISession ) {
+      try {
+        replicate( httpSession.getId(), ( UISession )value );
+      } catch( IOException exception ) {
+        throw new RuntimeException( "Failed to serialize UI session attributes", exception );
+      }
+    }
+  }
+
+  /**
+   * Returns the sizes of the serialized deltas in the order they were created, one per request.
+   */
+  public synchronized int[] getReplicatedBytes() {
+    int[] result = new int[ replicatedBytes.size() ];
+    for( int i = 0; i < result.length; i++ ) {
+      result[ i ] = replicatedBytes.get( i ).intValue();
+    }
+    return result;
+  }
+
+  public synchronized Replica getReplica( String httpSessionId ) {
+    Replica result = replicas.get( httpSessionId );
+    if( result == null ) {
+      result = new Replica();
+      replicas.put( httpSessionId, result );
+    }
+    return result;
+  }
+
+  private synchronized void replicate( String httpSessionId, UISession uiSession )
+    throws IOException
+  {
+    Map<String, byte[]> attributes = new LinkedHashMap<String, byte[]>();
+    Enumeration<String> names = uiSession.getAttributeNames();
+    while( names.hasMoreElements() ) {
+      String name = names.nextElement();
+      attributes.put( name, serializeReplacingReferences( uiSession.getAttribute( name ) ) );
+    }
+    Delta delta = getReplica( httpSessionId ).apply( attributes );
+    replicatedBytes.add( Integer.valueOf( getSerializedSize( delta ) ) );
+  }
+
+  private static byte[] serializeReplacingReferences( Object value ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream output = new ReferenceReplacingOutputStream( bytes );
+    output.writeObject( value );
+    output.close();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * The serialized attributes of the UI session of an HTTP session as of the last request.
+   */
+  public static class Replica {
+
+    private final Map<String, byte[]> attributes;
+
+    Replica() {
+      attributes = new HashMap<String, byte[]>();
+    }
+
+    public synchronized byte[] getAttribute( String name ) {
+      return attributes.get( name );
+    }
+
+    synchronized Delta apply( Map<String, byte[]> currentAttributes ) {
+      Delta result = new Delta();
+      for( Map.Entry<String, byte[]> entry : currentAttributes.entrySet() ) {
+        byte[] previous = attributes.put( entry.getKey(), entry.getValue() );
+        if( !Arrays.equals( previous, entry.getValue() ) ) {
+          result.changedAttributes.put( entry.getKey(), entry.getValue() );
+        }
+      }
+      Set<String> removedNames = new HashSet<String>( attributes.keySet() );
+      removedNames.removeAll( currentAttributes.keySet() );
+      for( String name : removedNames ) {
+        attributes.remove( name );
+        result.removedAttributes.add( name );
+      }
+      return result;
+    }
+
+  }
+
+  private static final class Delta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final Map<String, byte[]> changedAttributes = new LinkedHashMap<String, byte[]>();
+    final List<String> removedAttributes = new ArrayList<String>();
+
+  }
+
+  private static final class ReferenceReplacingOutputStream extends ObjectOutputStream {
+
+    ReferenceReplacingOutputStream( OutputStream output ) throws IOException {
+      super( output );
+      enableReplaceObject( true );
+    }
+
+    @Override
+    protected Object replaceObject( Object object ) {
+      Object result = object;
+      if( object instanceof Widget ) {
+        result = new ObjectReference( WidgetUtil.getId( ( Widget )object ) );
+      } else if( object instanceof Display ) {
+        result = new ObjectReference( "display" );
+      } else if( object instanceof UISession ) {
+        result = new ObjectReference( "uiSession" );
+      }
+      return result;
+    }
+
+  }
+
+  private static final class ObjectReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final String id;
+
+    ObjectReference( String id ) {
+      this.id = id;
+    }
+
+  }
+
+}
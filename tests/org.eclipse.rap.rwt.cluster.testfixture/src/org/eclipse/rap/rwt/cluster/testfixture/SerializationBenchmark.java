@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.cluster.testfixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+
+
+/**
+ * Measures the serialized size of an object, e.g. a UI session, and the average time needed to
+ * serialize and deserialize it.
+ */
+public class SerializationBenchmark {
+
+  private final int size;
+  private final long serializationTime;
+  private final long deserializationTime;
+
+  /**
+   * Serializes and deserializes the given object repeatedly. Classes are resolved with the given
+   * class loader, which must be able to load the classes of the application.
+   */
+  public static SerializationBenchmark run( Object object,
+                                            ClassLoader classLoader,
+                                            int iterations )
+    throws Exception
+  {
+    byte[] bytes = null;
+    long serializationTime = 0;
+    long deserializationTime = 0;
+    for( int i = 0; i < iterations; i++ ) {
+      long start = System.nanoTime();
+      bytes = serialize( object );
+      serializationTime += System.nanoTime() - start;
+      start = System.nanoTime();
+      deserialize( bytes, classLoader );
+      deserializationTime += System.nanoTime() - start;
+    }
+    return new SerializationBenchmark( bytes == null ? 0 : bytes.length,
+                                       serializationTime / Math.max( iterations, 1 ),
+                                       deserializationTime / Math.max( iterations, 1 ) );
+  }
+
+  private SerializationBenchmark( int size, long serializationTime, long deserializationTime ) {
+    this.size = size;
+    this.serializationTime = serializationTime;
+    this.deserializationTime = deserializationTime;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return the average serialization time in nanoseconds
+   */
+  public long getSerializationTime() {
+    return serializationTime;
+  }
+
+  /**
+   * @return the average deserialization time in nanoseconds
+   */
+  public long getDeserializationTime() {
+    return deserializationTime;
+  }
+
+  @Override
+  public String toString() {
+    return   "size: " + size + " bytes, serialization: " + serializationTime / 1000
+           + " us, deserialization: " + deserializationTime / 1000 + " us";
+  }
+
+  private static byte[] serialize( Object object ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream output = new ObjectOutputStream( bytes );
+    output.writeObject( object );
+    output.close();
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize( byte[] bytes, ClassLoader classLoader ) throws Exception {
+    InputStream input = new ByteArrayInputStream( bytes );
+    return new ClassLoaderObjectInputStream( input, classLoader ).readObject();
+  }
+
+  private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+    private final ClassLoader classLoader;
+
+    ClassLoaderObjectInputStream( InputStream input, ClassLoader classLoader )
+      throws IOException
+    {
+      super( input );
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    protected Class<?> resolveClass( ObjectStreamClass description )
+      throws IOException, ClassNotFoundException
+    {
+      Class<?> result;
+      try {
+        result = Class.forName( description.getName(), false, classLoader );
+      } catch( ClassNotFoundException exception ) {
+        result = super.resolveClass( description );
+      }
+      return result;
+    }
+
+  }
+
+}
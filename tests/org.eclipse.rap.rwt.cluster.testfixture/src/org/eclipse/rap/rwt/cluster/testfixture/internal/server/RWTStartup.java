@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.cluster.testfixture.internal.server;
 
+import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 
@@ -18,9 +19,12 @@ import org.eclipse.rap.rwt.application.ApplicationConfiguration;
 import org.eclipse.rap.rwt.application.ApplicationRunner;
 import org.eclipse.rap.rwt.application.EntryPoint;
 import org.eclipse.rap.rwt.application.Application.OperationMode;
+import org.eclipse.rap.rwt.cluster.testfixture.ReplicaStore;
 import org.eclipse.rap.rwt.cluster.testfixture.server.IServletEngine;
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 
 
+@SuppressWarnings("restriction")
 public class RWTStartup {
 
   public static ServletContextListener createServletContextListener(
@@ -41,11 +45,19 @@ public class RWTStartup {
       ApplicationConfiguration configuration = new TestApplicationConfigurator( entryPointClass );
       applicationRunner = new ApplicationRunner( configuration, event.getServletContext() );
       applicationRunner.start();
+      installReplicaStore( event.getServletContext() );
     }
 
     public void contextDestroyed( ServletContextEvent event ) {
       applicationRunner.stop();
     }
+
+    private static void installReplicaStore( ServletContext servletContext ) {
+      ReplicaStore replicaStore = ReplicaStore.getActiveStore();
+      if( replicaStore != null ) {
+        ApplicationContextImpl.getFrom( servletContext ).setReplicationHook( replicaStore );
+      }
+    }
   }
 
   private static class TestApplicationConfigurator implements ApplicationConfiguration {
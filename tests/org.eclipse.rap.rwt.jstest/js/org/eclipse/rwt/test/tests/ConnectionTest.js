@@ -163,6 +163,21 @@ rwt.qx.Class.define( "org.eclipse.rwt.test.tests.ConnectionTest", {
       connection._retry();
 
       assertEquals( [ "retry" ], log );
+    },
+
+    testHandleSuccess_showsErrorOfAbortedMessage : function() {
+      var log = [];
+      var showErrorBox = rwt.runtime.ErrorHandler.showErrorBox;
+      rwt.runtime.ErrorHandler.showErrorBox = function( errorType ) { log.push( errorType ); };
+      try {
+        connection._handleSuccess( {
+          "responseText" : "{\"head\":{\"error\":\"server error\"},\"operations\":[]}"
+        } );
+      } finally {
+        rwt.runtime.ErrorHandler.showErrorBox = showErrorBox;
+      }
+
+      assertEquals( [ "server error" ], log );
     }
 
   }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -68,6 +68,50 @@ rwt.qx.Class.define( "org.eclipse.rwt.test.tests.FontSizeCalculationTest", {
       assertEquals( 2, op.properties.results[ "1767849485" ].length );
     },
 
+    testMeasureCharWidthsByProtocol : function() {
+      var fontName = [ "Verdana", "Lucida Sans", "Arial", "Helvetica", "sans-serif" ];
+      TestUtil.initRequestLog();
+
+      MessageProcessor.processOperation( {
+        "target" : "rwt.client.TextSizeMeasurement",
+        "action" : "call",
+        "method" : "measureItems",
+        "properties" : {
+          "items" : [
+             [ "p1", "ABC", fontName, 12, false, false, -1, true, "i W" ]
+          ]
+        }
+      } );
+
+      var message = TestUtil.getMessageObject();
+      var op = message.findCallOperation( "rwt.client.TextSizeMeasurement", "storeMeasurements" );
+      var widths = op.properties.charWidths[ "p1" ];
+      assertEquals( 4, widths.length );
+      assertTrue( widths[ 0 ] > 0 );
+      assertTrue( widths[ 1 ] > 0 );
+      assertTrue( widths[ 0 ] < widths[ 2 ] );
+      assertEquals( rwt.widgets.util.FontSizeCalculation._offset, widths[ 3 ] );
+    },
+
+    testMeasureItemsWithoutCharWidths : function() {
+      var fontName = [ "Verdana", "Lucida Sans", "Arial", "Helvetica", "sans-serif" ];
+      TestUtil.initRequestLog();
+
+      MessageProcessor.processOperation( {
+        "target" : "rwt.client.TextSizeMeasurement",
+        "action" : "call",
+        "method" : "measureItems",
+        "properties" : {
+          "items" : [
+             [ "p1", "ABC", fontName, 12, false, false, -1, true ]
+          ]
+        }
+      } );
+
+      var message = TestUtil.getMessageObject();
+      var op = message.findCallOperation( "rwt.client.TextSizeMeasurement", "storeMeasurements" );
+      assertTrue( op.properties.charWidths === undefined );
+    },
 
     testSizeWithSequentialWhitespacesNoWrap : function() {
       var FontSizeCalculation = rwt.widgets.util.FontSizeCalculation;
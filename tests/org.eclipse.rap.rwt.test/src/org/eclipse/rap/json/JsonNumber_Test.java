@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.rap.json;
 import static org.eclipse.rap.json.TestUtil.serializeAndDeserialize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -157,6 +158,70 @@ public class JsonNumber_Test {
     assertFalse( new JsonNumber( "23" ).hashCode() == new JsonNumber( "42" ).hashCode() );
   }
 
+  @Test
+  public void create_write() throws IOException {
+    JsonNumber.create( -23 ).write( writer );
+    JsonNumber.create( 4711 ).write( writer );
+
+    assertEquals( "-234711", output.toString() );
+  }
+
+  @Test
+  public void create_toString() {
+    assertEquals( "4711", JsonNumber.create( 4711 ).toString() );
+  }
+
+  @Test
+  public void create_returnsCachedInstanceForSmallValues() {
+    assertSame( JsonNumber.create( 23 ), JsonNumber.create( 23 ) );
+  }
+
+  @Test
+  public void create_asInt() {
+    assertEquals( 23, JsonNumber.create( 23 ).asInt() );
+    assertEquals( Integer.MIN_VALUE, JsonNumber.create( Integer.MIN_VALUE ).asInt() );
+  }
+
+  @Test( expected = NumberFormatException.class )
+  public void create_asInt_failsWithExceedingValues() {
+    JsonNumber.create( Integer.MAX_VALUE + 1L ).asInt();
+  }
+
+  @Test
+  public void create_asLong() {
+    assertEquals( Long.MAX_VALUE, JsonNumber.create( Long.MAX_VALUE ).asLong() );
+  }
+
+  @Test
+  public void create_asFloat() {
+    assertEquals( 4711f, JsonNumber.create( 4711 ).asFloat(), 0 );
+  }
+
+  @Test
+  public void create_asDouble() {
+    assertEquals( 4711d, JsonNumber.create( 4711 ).asDouble(), 0 );
+  }
+
+  @Test
+  public void create_equalsNumberString() {
+    assertEquals( new JsonNumber( "4711" ), JsonNumber.create( 4711 ) );
+    assertEquals( JsonNumber.create( 4711 ), new JsonNumber( "4711" ) );
+    assertEquals( JsonNumber.create( 4711 ), JsonNumber.create( 4711 ) );
+    assertFalse( JsonNumber.create( 4711 ).equals( new JsonNumber( "4711.0" ) ) );
+  }
+
+  @Test
+  public void create_hashCodeEqualsNumberString() {
+    assertEquals( new JsonNumber( "4711" ).hashCode(), JsonNumber.create( 4711 ).hashCode() );
+  }
+
+  @Test
+  public void create_canBeSerializedAndDeserialized() throws Exception {
+    JsonNumber number = JsonNumber.create( 4711 );
+
+    assertEquals( number, serializeAndDeserialize( number ) );
+  }
+
   @Test
   public void canBeSerializedAndDeserialized() throws Exception {
     JsonNumber number = new JsonNumber( "3.14" );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -272,6 +272,35 @@ public class JsonParser_Test {
     assertEquals( " \t ", parse( "\" \\t \"" ).asString() );
   }
 
+  @Test
+  public void strings_repeatedNamesAndValues_areShared() {
+    JsonArray array = parse( "[{\"foo\":\"w23\"},{\"foo\":\"w23\"}]" ).asArray();
+
+    JsonObject first = array.get( 0 ).asObject();
+    JsonObject second = array.get( 1 ).asObject();
+    assertSame( first.names().get( 0 ), second.names().get( 0 ) );
+    assertSame( first.get( "foo" ).asString(), second.get( "foo" ).asString() );
+  }
+
+  @Test
+  public void strings_differentStringsWithSameHash_areDistinguished() {
+    // "Aa" and "BB" have the same hash code
+    JsonArray array = parse( "[\"Aa\",\"BB\",\"Aa\"]" ).asArray();
+
+    assertEquals( "Aa", array.get( 0 ).asString() );
+    assertEquals( "BB", array.get( 1 ).asString() );
+    assertEquals( "Aa", array.get( 2 ).asString() );
+  }
+
+  @Test
+  public void strings_repeatedStringsThatExceedBufferSize() throws IOException {
+    String input = "[ \"lorem\", \"lorem\", \"lorem\" ]";
+
+    JsonValue value = new JsonParser( new StringReader( input ), 3 ).parse();
+
+    assertEquals( "[\"lorem\",\"lorem\",\"lorem\"]", value.toString() );
+  }
+
   @Test
   public void strings_escape_atStart() {
     assertEquals( "\\x", parse( "\"\\\\x\"" ).asString() );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource.
+ * Copyright (c) 2013, 2014 EclipseSource.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -203,6 +203,43 @@ public class JsonWriter_Test {
     assertEquals( "[23,\"foo\",false]", output.toString() );
   }
 
+  @Test
+  public void writeNumber() throws IOException {
+    writer.writeNumber( 23 );
+
+    assertEquals( "23", output.toString() );
+  }
+
+  @Test
+  public void writeNumber_zero() throws IOException {
+    writer.writeNumber( 0 );
+
+    assertEquals( "0", output.toString() );
+  }
+
+  @Test
+  public void writeNumber_negative() throws IOException {
+    writer.writeNumber( -4711 );
+
+    assertEquals( "-4711", output.toString() );
+  }
+
+  @Test
+  public void writeNumber_extremeValues() throws IOException {
+    writer.writeNumber( Long.MAX_VALUE );
+    writer.write( "," );
+    writer.writeNumber( Long.MIN_VALUE );
+
+    assertEquals( "9223372036854775807,-9223372036854775808", output.toString() );
+  }
+
+  @Test
+  public void writeString_escapesAtStartAndEnd() throws IOException {
+    writer.writeString( "\nfoo\n" );
+
+    assertEquals( "\"\\nfoo\\n\"", output.toString() );
+  }
+
   private static String string( char ... chars ) {
     String string = String.valueOf( chars );
     return string;
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
+import org.eclipse.rap.rwt.internal.resources.ResourceDirectory;
+import org.eclipse.rap.rwt.internal.resources.ResourceManagerImpl;
+import org.eclipse.rap.rwt.testfixture.FileUtil;
+import org.eclipse.rap.rwt.testfixture.Fixture;
+import org.eclipse.rap.rwt.testfixture.TestServletOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class RWTResourceServlet_Test {
+
+  private static final byte[] CONTENT = new byte[] { 1, 2, 3 };
+  private static final byte[] COMPRESSED_CONTENT = new byte[] { 4, 5 };
+
+  private File directory;
+  private ApplicationContextImpl applicationContext;
+  private ResourceManagerImpl resourceManager;
+  private RWTResourceServlet servlet;
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private TestServletOutputStream outputStream;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = new File( Fixture.TEMP_DIR, "rwt-resources" );
+    directory.mkdirs();
+    applicationContext = mockApplicationContext( directory );
+    resourceManager = mock( ResourceManagerImpl.class );
+    when( applicationContext.getResourceManager() ).thenReturn( resourceManager );
+    servlet = new RWTResourceServlet() {
+      @Override
+      public ServletContext getServletContext() {
+        return mockServletContext( applicationContext );
+      }
+    };
+    request = mock( HttpServletRequest.class );
+    when( Long.valueOf( request.getDateHeader( anyString() ) ) ).thenReturn( Long.valueOf( -1 ) );
+    response = mock( HttpServletResponse.class );
+    outputStream = new TestServletOutputStream();
+    when( response.getOutputStream() ).thenReturn( outputStream );
+  }
+
+  @After
+  public void tearDown() {
+    FileUtil.delete( directory );
+  }
+
+  @Test
+  public void testDoGet_deliversResource() throws Exception {
+    write( "foo.js", CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+
+    servlet.doGet( request, response );
+
+    assertArrayEquals( CONTENT, outputStream.getContent().toByteArray() );
+    verify( response ).setHeader( "Cache-Control", "no-cache" );
+    verify( response, never() ).setHeader( "Content-Encoding", "gzip" );
+  }
+
+  @Test
+  public void testDoGet_withFingerprint_cachesForever() throws Exception {
+    write( "foo.js", CONTENT );
+    when( resourceManager.getFingerprint( "foo.js" ) ).thenReturn( "1a2b3c" );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( request.getQueryString() ).thenReturn( "1a2b3c" );
+
+    servlet.doGet( request, response );
+
+    verify( response ).setHeader( "Cache-Control", "public, max-age=31536000, immutable" );
+  }
+
+  @Test
+  public void testDoGet_withOutdatedFingerprint_revalidates() throws Exception {
+    write( "foo.js", CONTENT );
+    when( resourceManager.getFingerprint( "foo.js" ) ).thenReturn( "4d5e6f" );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( request.getQueryString() ).thenReturn( "1a2b3c" );
+
+    servlet.doGet( request, response );
+
+    verify( response ).setHeader( "Cache-Control", "no-cache" );
+  }
+
+  @Test
+  public void testDoGet_withUnknownFingerprint_revalidates() throws Exception {
+    write( "foo.js", CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( request.getQueryString() ).thenReturn( "1a2b3c" );
+
+    servlet.doGet( request, response );
+
+    verify( response ).setHeader( "Cache-Control", "no-cache" );
+  }
+
+  @Test
+  public void testDoGet_deliversCompressedResource() throws Exception {
+    write( "foo.js", CONTENT );
+    write( "foo.js.gz", COMPRESSED_CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( request.getHeader( "Accept-Encoding" ) ).thenReturn( "gzip, deflate" );
+
+    servlet.doGet( request, response );
+
+    assertArrayEquals( COMPRESSED_CONTENT, outputStream.getContent().toByteArray() );
+    verify( response ).setHeader( "Content-Encoding", "gzip" );
+    verify( response ).setHeader( "Vary", "Accept-Encoding" );
+  }
+
+  @Test
+  public void testDoGet_ignoresCompressedResourceWithoutAcceptEncoding() throws Exception {
+    write( "foo.js", CONTENT );
+    write( "foo.js.gz", COMPRESSED_CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+
+    servlet.doGet( request, response );
+
+    assertArrayEquals( CONTENT, outputStream.getContent().toByteArray() );
+  }
+
+  @Test
+  public void testDoGet_ignoresCompressedResourceWithZeroQuality() throws Exception {
+    write( "foo.js", CONTENT );
+    write( "foo.js.gz", COMPRESSED_CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( request.getHeader( "Accept-Encoding" ) ).thenReturn( "gzip;q=0, deflate" );
+
+    servlet.doGet( request, response );
+
+    assertArrayEquals( CONTENT, outputStream.getContent().toByteArray() );
+  }
+
+  @Test
+  public void testDoGet_rejectsCompressedCopy() throws Exception {
+    write( "foo.js", CONTENT );
+    write( "foo.js.gz", COMPRESSED_CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js.gz" );
+
+    servlet.doGet( request, response );
+
+    verify( response ).sendError( HttpServletResponse.SC_NOT_FOUND );
+  }
+
+  @Test
+  public void testDoGet_deliversResourceWithGzipExtension() throws Exception {
+    write( "foo.gz", COMPRESSED_CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.gz" );
+
+    servlet.doGet( request, response );
+
+    assertArrayEquals( COMPRESSED_CONTENT, outputStream.getContent().toByteArray() );
+  }
+
+  @Test
+  public void testAcceptsGzip() {
+    assertTrue( RWTResourceServlet.acceptsGzip( "gzip" ) );
+    assertTrue( RWTResourceServlet.acceptsGzip( "deflate, GZIP;q=0.5" ) );
+    assertTrue( RWTResourceServlet.acceptsGzip( "x-gzip" ) );
+    assertTrue( RWTResourceServlet.acceptsGzip( "*" ) );
+  }
+
+  @Test
+  public void testAcceptsGzip_rejectsMissingOrZeroQuality() {
+    assertFalse( RWTResourceServlet.acceptsGzip( null ) );
+    assertFalse( RWTResourceServlet.acceptsGzip( "deflate" ) );
+    assertFalse( RWTResourceServlet.acceptsGzip( "gzip;q=0" ) );
+    assertFalse( RWTResourceServlet.acceptsGzip( "gzip ; q=0.000" ) );
+    assertFalse( RWTResourceServlet.acceptsGzip( "*, gzip;q=0" ) );
+    assertFalse( RWTResourceServlet.acceptsGzip( "*;q=0" ) );
+  }
+
+  @Test
+  public void testDoGet_notModified() throws Exception {
+    File file = write( "foo.js", CONTENT );
+    when( request.getPathInfo() ).thenReturn( "/foo.js" );
+    when( Long.valueOf( request.getDateHeader( "If-Modified-Since" ) ) )
+      .thenReturn( Long.valueOf( file.lastModified() + 1000 ) );
+
+    servlet.doGet( request, response );
+
+    verify( response ).setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+    assertEquals( 0, outputStream.getContent().size() );
+  }
+
+  @Test
+  public void testDoGet_missingResource() throws Exception {
+    when( request.getPathInfo() ).thenReturn( "/missing.js" );
+
+    servlet.doGet( request, response );
+
+    verify( response ).sendError( HttpServletResponse.SC_NOT_FOUND );
+  }
+
+  @Test
+  public void testDoGet_whenApplicationContextDoesNotAllowRequests() throws Exception {
+    when( Boolean.valueOf( applicationContext.allowsRequests() ) ).thenReturn( Boolean.FALSE );
+
+    servlet.doGet( request, response );
+
+    verify( response ).sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+  }
+
+  @Test
+  public void testGetResourceFile_rejectsPathOutsideDirectory() throws Exception {
+    write( "../outside.js", CONTENT );
+
+    File file = RWTResourceServlet.getResourceFile( directory, "/../outside.js" );
+
+    assertNull( file );
+    new File( directory, "../outside.js" ).delete();
+  }
+
+  @Test
+  public void testGetResourceFile_rejectsDirectory() throws Exception {
+    new File( directory, "dir" ).mkdirs();
+
+    assertNull( RWTResourceServlet.getResourceFile( directory, "/dir" ) );
+  }
+
+  private File write( String name, byte[] content ) throws IOException {
+    File file = new File( directory, name );
+    FileOutputStream outputStream = new FileOutputStream( file );
+    try {
+      outputStream.write( content );
+    } finally {
+      outputStream.close();
+    }
+    return file;
+  }
+
+  private static ServletContext mockServletContext( ApplicationContextImpl applicationContext ) {
+    ServletContext servletContext = mock( ServletContext.class );
+    when( servletContext.getAttribute( anyString() ) ).thenReturn( applicationContext );
+    return servletContext;
+  }
+
+  private static ApplicationContextImpl mockApplicationContext( File directory ) {
+    ApplicationContextImpl applicationContext = mock( ApplicationContextImpl.class );
+    when( Boolean.valueOf( applicationContext.allowsRequests() ) ).thenReturn( Boolean.TRUE );
+    ResourceDirectory resourceDirectory = mock( ResourceDirectory.class );
+    when( resourceDirectory.getDirectory() ).thenReturn( directory );
+    when( applicationContext.getResourceDirectory() ).thenReturn( resourceDirectory );
+    return applicationContext;
+  }
+
+}
@@ -18,6 +18,10 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.ServletContext;
@@ -37,6 +41,7 @@ import org.eclipse.rap.rwt.internal.service.ServiceStore;
 import org.eclipse.rap.rwt.internal.service.UISessionImpl;
 import org.eclipse.rap.rwt.service.ApplicationContext;
 import org.eclipse.rap.rwt.service.ServiceHandler;
+import org.eclipse.rap.rwt.service.UISession;
 import org.eclipse.rap.rwt.testfixture.TestRequest;
 import org.eclipse.rap.rwt.testfixture.TestResponse;
 import org.eclipse.rap.rwt.testfixture.TestServletContext;
@@ -233,6 +238,70 @@ public class RWTServlet_Test {
     ContextProvider.disposeContext();
   }
 
+  @Test
+  public void testEnsureUISession_createsOneUISessionForConcurrentRequests() throws Exception {
+    final ApplicationContextImpl applicationContext = createRealApplicationContext();
+    final HttpSession httpSession = new TestSession();
+    final Set<UISession> uiSessions = Collections.synchronizedSet( new HashSet<UISession>() );
+    final CountDownLatch startSignal = new CountDownLatch( 1 );
+    Thread[] threads = new Thread[ 8 ];
+    for( int i = 0; i < threads.length; i++ ) {
+      threads[ i ] = new Thread( new Runnable() {
+        public void run() {
+          TestRequest request = new TestRequest();
+          request.setSession( httpSession );
+          request.setParameter( "cid", "foo" );
+          ServiceContext serviceContext
+            = new ServiceContext( request, new TestResponse(), applicationContext );
+          ContextProvider.setContext( serviceContext );
+          try {
+            startSignal.await();
+            RWTServlet.ensureUISession( serviceContext );
+            uiSessions.add( serviceContext.getUISession() );
+          } catch( InterruptedException exception ) {
+            throw new RuntimeException( exception );
+          } finally {
+            ContextProvider.disposeContext();
+          }
+        }
+      } );
+      threads[ i ].start();
+    }
+
+    startSignal.countDown();
+    for( Thread thread : threads ) {
+      thread.join();
+    }
+
+    assertEquals( 1, uiSessions.size() );
+    assertSame( UISessionImpl.getInstanceFromSession( httpSession, "foo" ),
+                uiSessions.iterator().next() );
+  }
+
+  @Test
+  public void testEnsureUISession_createsUISessionPerConnection() {
+    ApplicationContextImpl applicationContext = createRealApplicationContext();
+    HttpSession httpSession = new TestSession();
+    request.setSession( httpSession );
+    request.setParameter( "cid", "foo" );
+    ServiceContext serviceContext = new ServiceContext( request, response, applicationContext );
+    ContextProvider.setContext( serviceContext );
+    RWTServlet.ensureUISession( serviceContext );
+    ContextProvider.disposeContext();
+    TestRequest otherRequest = new TestRequest();
+    otherRequest.setSession( httpSession );
+    otherRequest.setParameter( "cid", "bar" );
+    ServiceContext otherContext
+      = new ServiceContext( otherRequest, response, applicationContext );
+    ContextProvider.setContext( otherContext );
+
+    RWTServlet.ensureUISession( otherContext );
+
+    assertNotSame( UISessionImpl.getInstanceFromSession( httpSession, "foo" ),
+                   otherContext.getUISession() );
+    ContextProvider.disposeContext();
+  }
+
   private static ServletContext mockServletContext( ApplicationContext applicationContext ) {
     ServletContext servletContext = mock( ServletContext.class );
     when( servletContext.getAttribute( anyString() ) ).thenReturn( applicationContext );
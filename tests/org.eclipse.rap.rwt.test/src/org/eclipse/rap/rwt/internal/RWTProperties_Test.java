@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource and others.
+ * Copyright (c) 2013, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,6 +60,25 @@ public class RWTProperties_Test {
     assertTrue( RWTProperties.getBooleanProperty( TEST_PROPERTY, false ) );
   }
 
+  @Test
+  public void testGetIntProperty() {
+    System.setProperty( TEST_PROPERTY, "23" );
+
+    assertEquals( 23, RWTProperties.getIntProperty( TEST_PROPERTY, 42 ) );
+  }
+
+  @Test
+  public void testGetIntProperty_usesDefault() {
+    assertEquals( 42, RWTProperties.getIntProperty( TEST_PROPERTY, 42 ) );
+  }
+
+  @Test
+  public void testGetIntProperty_usesDefaultForInvalidValue() {
+    System.setProperty( TEST_PROPERTY, "foo" );
+
+    assertEquals( 42, RWTProperties.getIntProperty( TEST_PROPERTY, 42 ) );
+  }
+
   @Test
   public void testGetBooleanProperty_usesDefault() {
     assertTrue( RWTProperties.getBooleanProperty( TEST_PROPERTY, true ) );
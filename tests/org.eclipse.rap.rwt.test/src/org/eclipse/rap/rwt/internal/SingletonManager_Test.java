@@ -217,6 +217,16 @@ public class SingletonManager_Test {
     assertEquals( singleton.value, deserializedSingleton.value );
   }
 
+  @Test
+  public void testSerialize_createsNewSingletonsAfterDeserialization() throws Exception {
+    SingletonManager singletonManager = new SingletonManager();
+    singletonManager.getSingleton( SerializableTestSingleton.class );
+
+    SingletonManager deserialized = Fixture.serializeAndDeserialize( singletonManager );
+
+    assertNotNull( deserialized.getSingleton( TestSingleton.class ) );
+  }
+
   @Test( expected = NotSerializableException.class )
   public void testSerializableWithNonSerializableSingleton() throws IOException {
     SingletonManager singletonManager = new SingletonManager();
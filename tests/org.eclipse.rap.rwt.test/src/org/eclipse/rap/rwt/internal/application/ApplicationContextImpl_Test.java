@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.servlet.ServletContext;
 
@@ -444,6 +447,58 @@ public class ApplicationContextImpl_Test {
     assertTrue( applicationContextActive.get() );
   }
 
+  @Test
+  public void testGetScheduler_returnsSameInstance() {
+    applicationContext = new ApplicationContextImpl( null, null );
+
+    ScheduledExecutorService scheduler = applicationContext.getScheduler();
+
+    assertNotNull( scheduler );
+    assertSame( scheduler, applicationContext.getScheduler() );
+  }
+
+  @Test
+  public void testGetScheduler_blockedTaskDoesNotDelayOtherTasks() throws Exception {
+    applicationContext = new ApplicationContextImpl( null, null );
+    ScheduledExecutorService scheduler = applicationContext.getScheduler();
+    final CountDownLatch release = new CountDownLatch( 1 );
+    final CountDownLatch otherTaskRun = new CountDownLatch( 1 );
+    scheduler.execute( new Runnable() {
+      public void run() {
+        try {
+          release.await();
+        } catch( InterruptedException interrupted ) {
+          // end the task
+        }
+      }
+    } );
+
+    scheduler.execute( new Runnable() {
+      public void run() {
+        otherTaskRun.countDown();
+      }
+    } );
+
+    try {
+      assertTrue( otherTaskRun.await( 5, TimeUnit.SECONDS ) );
+    } finally {
+      release.countDown();
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDeactivate_shutsDownScheduler() {
+    ServletContext servletContext = createServletContext();
+    applicationContext = new ApplicationContextImpl( createConfiguration(), servletContext );
+    applicationContext.activate();
+    ScheduledExecutorService scheduler = applicationContext.getScheduler();
+
+    applicationContext.deactivate();
+
+    assertTrue( scheduler.isShutdown() );
+  }
+
   @Test
   public void testExceptionHandlingInApplicationContextListeners() {
     ServletContext servletContext = createServletContext();
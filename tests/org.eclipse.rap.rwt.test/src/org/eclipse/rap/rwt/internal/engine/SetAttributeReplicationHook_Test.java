@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.engine;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import javax.servlet.http.HttpSession;
+
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.util.ClassInstantiationException;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class SetAttributeReplicationHook_Test {
+
+  @After
+  public void tearDown() {
+    System.getProperties().remove( RWTProperties.REPLICATION_HOOK );
+  }
+
+  @Test
+  public void testAttributeChanged_setsAttribute() {
+    HttpSession httpSession = mock( HttpSession.class );
+    Object value = new Object();
+
+    SetAttributeReplicationHook.INSTANCE.attributeChanged( httpSession, "name", value );
+
+    verify( httpSession ).setAttribute( "name", value );
+  }
+
+  @Test
+  public void testCreateConfiguredHook_default() {
+    ReplicationHook hook = SetAttributeReplicationHook.createConfiguredHook();
+
+    assertSame( SetAttributeReplicationHook.INSTANCE, hook );
+  }
+
+  @Test
+  public void testCreateConfiguredHook_withCustomClass() {
+    System.setProperty( RWTProperties.REPLICATION_HOOK, CustomReplicationHook.class.getName() );
+
+    ReplicationHook hook = SetAttributeReplicationHook.createConfiguredHook();
+
+    assertTrue( hook instanceof CustomReplicationHook );
+  }
+
+  @Test( expected = ClassInstantiationException.class )
+  public void testCreateConfiguredHook_withNonReplicationHookClass() {
+    System.setProperty( RWTProperties.REPLICATION_HOOK, Object.class.getName() );
+
+    SetAttributeReplicationHook.createConfiguredHook();
+  }
+
+  public static class CustomReplicationHook implements ReplicationHook {
+    public void attributeChanged( HttpSession httpSession, String name, Object value ) {
+    }
+  }
+
+}
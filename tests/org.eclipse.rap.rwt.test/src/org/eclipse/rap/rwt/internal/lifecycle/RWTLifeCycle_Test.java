@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ThreadFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -490,7 +491,7 @@ public class RWTLifeCycle_Test {
     Runnable runnable = new Runnable() {
       public void run() {
         while( continueLoop[ 0 ] ) {
-          IUIThreadHolder uiThread = ( IUIThreadHolder )Thread.currentThread();
+          IUIThreadHolder uiThread = UIThread.getCurrent();
           synchronized( uiThread.getLock() ) {
           }
           uiThread.updateServiceContext();
@@ -516,7 +517,7 @@ public class RWTLifeCycle_Test {
     }
     assertSame( originContext, uiContext[ 0 ] );
     assertEquals( "executedInUIThread", log.toString() );
-    assertTrue( getUIThread().isAlive() );
+    assertTrue( getUIThread().getThread().isAlive() );
     // simulates subsequent request
     log.setLength( 0 );
     uiContext[ 0 ] = null;
@@ -531,7 +532,7 @@ public class RWTLifeCycle_Test {
     }
     assertSame( secondContext, uiContext[ 0 ] );
     assertEquals( "executedInUIThread", log.toString() );
-    assertTrue( getUIThread().isAlive() );
+    assertTrue( getUIThread().getThread().isAlive() );
     // simulates request that ends event loop
     UIThread endingUIThread = getUIThread();
     continueLoop[ 0 ] = false;
@@ -541,7 +542,7 @@ public class RWTLifeCycle_Test {
         throw error[ 0 ];
       }
     }
-    assertFalse( endingUIThread.isAlive() );
+    assertFalse( endingUIThread.getThread().isAlive() );
     assertNull( getUIThread() );
     // clean up
     ContextProvider.releaseContextHolder();
@@ -553,7 +554,6 @@ public class RWTLifeCycle_Test {
     UIThread thread = new UIThread( null );
     ServiceContext firstContext = ContextProvider.getContext();
     thread.setServiceContext( firstContext );
-    thread.run();
     ServiceContext secondContext = newContext( firstContext.getUISession() );
     thread.setServiceContext( secondContext );
     thread.updateServiceContext();
@@ -616,7 +616,7 @@ public class RWTLifeCycle_Test {
         try {
           synchronized( uiThread[ 0 ].getLock() ) {
           }
-          IUIThreadHolder uiThread = ( IUIThreadHolder )Thread.currentThread();
+          IUIThreadHolder uiThread = UIThread.getCurrent();
           uiThread.updateServiceContext();
           lifeCycle.continueLifeCycle();
           log.setLength( 0 );
@@ -706,7 +706,7 @@ public class RWTLifeCycle_Test {
              + PhaseId.PROCESS_ACTION
              + "readAndDispatch";
     assertEquals( expected, log.toString() );
-    assertFalse( uiThread[ 0 ].isAlive() );
+    assertFalse( uiThread[ 0 ].getThread().isAlive() );
   }
 
   @Test
@@ -845,6 +845,60 @@ public class RWTLifeCycle_Test {
     assertEquals( "disposeEvent, beforeDestroy", log.toString() );
   }
 
+  @Test
+  public void testUIThreadIsCreatedByThreadFactory() throws Exception {
+    final Thread[] createdThread = { null };
+    final IUIThreadHolder[] currentHolder = { null };
+    ThreadFactory threadFactory = new ThreadFactory() {
+      public Thread newThread( Runnable runnable ) {
+        createdThread[ 0 ] = new Thread( runnable );
+        return createdThread[ 0 ];
+      }
+    };
+    UIThread uiThread = new UIThread( new Runnable() {
+      public void run() {
+        currentHolder[ 0 ] = UIThread.getCurrent();
+      }
+    }, threadFactory );
+
+    uiThread.start();
+    uiThread.getThread().join();
+
+    assertSame( createdThread[ 0 ], uiThread.getThread() );
+    assertSame( uiThread, currentHolder[ 0 ] );
+    assertNull( UIThread.getCurrent() );
+  }
+
+  @Test
+  public void testSwitchThreadReturnsAfterUIThreadTerminated() {
+    ThreadFactory slowlyTerminatingThreadFactory = new ThreadFactory() {
+      public Thread newThread( final Runnable runnable ) {
+        return new Thread( new Runnable() {
+          public void run() {
+            runnable.run();
+            try {
+              Thread.sleep( 100 );
+            } catch( InterruptedException notExpected ) {
+              throw new RuntimeException( notExpected );
+            }
+          }
+        } );
+      }
+    };
+    UIThread uiThread = new UIThread( new Runnable() {
+      public void run() {
+        // terminate immediately
+      }
+    }, slowlyTerminatingThreadFactory );
+
+    synchronized( uiThread.getLock() ) {
+      uiThread.start();
+      uiThread.switchThread();
+    }
+
+    assertFalse( uiThread.getThread().isAlive() );
+  }
+
   @Test
   public void testSwitchThreadCannotBeInterrupted() throws Exception {
     final Throwable[] errorInUIThread = { new Exception( "did not run" ) };
@@ -865,7 +919,7 @@ public class RWTLifeCycle_Test {
     } );
     uiThread[ 0 ].start();
     Thread.sleep( 100 );
-    uiThread[ 0 ].interrupt();
+    uiThread[ 0 ].getThread().interrupt();
     synchronized( errorInUIThread ) {
       assertNull( "switchThread must not unblock when thread is interrupted",
                   errorInUIThread[ 0 ] );
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.lifecycle;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.util.ClassInstantiationException;
+import org.junit.After;
+import org.junit.Test;
+
+
+public class UIThreadFactoryProvider_Test {
+
+  @After
+  public void tearDown() {
+    System.getProperties().remove( RWTProperties.UI_THREAD_FACTORY );
+  }
+
+  @Test
+  public void testGetThreadFactory_default() {
+    ThreadFactory threadFactory = UIThreadFactoryProvider.getThreadFactory();
+
+    assertSame( UIThreadFactoryProvider.DEFAULT_THREAD_FACTORY, threadFactory );
+  }
+
+  @Test
+  public void testGetThreadFactory_withCustomClass() {
+    System.setProperty( RWTProperties.UI_THREAD_FACTORY, CustomThreadFactory.class.getName() );
+
+    ThreadFactory threadFactory = UIThreadFactoryProvider.getThreadFactory();
+
+    assertTrue( threadFactory instanceof CustomThreadFactory );
+  }
+
+  @Test( expected = ClassInstantiationException.class )
+  public void testGetThreadFactory_withNonThreadFactoryClass() {
+    UIThreadFactoryProvider.getThreadFactory( Object.class.getName() );
+  }
+
+  @Test( expected = ClassInstantiationException.class )
+  public void testGetThreadFactory_withUnknownClass() {
+    UIThreadFactoryProvider.getThreadFactory( "does.not.Exist" );
+  }
+
+  @Test
+  public void testGetThreadFactory_virtual() {
+    ThreadFactory threadFactory
+      = UIThreadFactoryProvider.getThreadFactory( UIThreadFactoryProvider.VIRTUAL );
+
+    assertNotNull( threadFactory.newThread( new Runnable() {
+      public void run() {
+      }
+    } ) );
+  }
+
+  @Test
+  public void testHasUnpinnedMonitors() {
+    assertFalse( UIThreadFactoryProvider.hasUnpinnedMonitors( null ) );
+    assertFalse( UIThreadFactoryProvider.hasUnpinnedMonitors( "1.5" ) );
+    assertFalse( UIThreadFactoryProvider.hasUnpinnedMonitors( "21" ) );
+    assertFalse( UIThreadFactoryProvider.hasUnpinnedMonitors( "23" ) );
+    assertFalse( UIThreadFactoryProvider.hasUnpinnedMonitors( "unknown" ) );
+    assertTrue( UIThreadFactoryProvider.hasUnpinnedMonitors( "24" ) );
+    assertTrue( UIThreadFactoryProvider.hasUnpinnedMonitors( "25.1" ) );
+  }
+
+  public static class CustomThreadFactory implements ThreadFactory {
+    public Thread newThread( Runnable runnable ) {
+      return new Thread( runnable );
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,10 @@ package org.eclipse.rap.rwt.internal.protocol;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.eclipse.rap.json.JsonArray;
@@ -80,6 +84,28 @@ public class ClientMessage_Test {
     }
   }
 
+  @Test
+  public void testGetAllTargets() {
+    String json = "{ \"head\" : {}, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : \"foo\" } ],"
+                + "[ \"notify\", \"w4\", \"Selection\", {} ],"
+                + "[ \"set\", \"w3\", { \"p2\" : \"bar\" } ]"
+                + "] }";
+
+    ClientMessage message = new ClientMessage( JsonObject.readFrom( json ) );
+
+    assertEquals( new HashSet<String>( Arrays.asList( "w3", "w4" ) ), message.getAllTargets() );
+  }
+
+  @Test
+  public void testGetAllTargets_withoutOperations() {
+    String json = "{ \"head\" : {}, \"operations\" : [] }";
+
+    ClientMessage message = new ClientMessage( JsonObject.readFrom( json ) );
+
+    assertTrue( message.getAllTargets().isEmpty() );
+  }
+
   @Test
   public void testGetHeader() {
     String json = "{ \"head\": { \"abc\" : \"foo\" }, \"operations\": [] }";
@@ -437,6 +463,124 @@ public class ClientMessage_Test {
     assertTrue( names.isEmpty() );
   }
 
+  @Test
+  public void testReadFrom() throws IOException {
+    String json = "{ \"head\" : { \"requestCounter\" : 3 }, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : \"foo\" } ],"
+                + "[ \"notify\", \"w\\u0034\", \"Selection\", {} ]"
+                + "] }";
+
+    ClientMessage message = ClientMessage.readFrom( new StringReader( json ) );
+
+    assertEquals( 3, message.getHeader( "requestCounter" ).asInt() );
+    SetOperation operation = message.getLastSetOperationFor( "w3", "p1" );
+    assertEquals( "foo", operation.getProperty( "p1" ).asString() );
+    assertEquals( "Selection", message.getLastNotifyOperationFor( "w4", null ).getEventName() );
+  }
+
+  @Test
+  public void testReadFrom_withUnterminatedString() throws IOException {
+    String json = "{ \"head\" : {}, \"operations\" : [ [ \"set\", \"w3\", { \"p1\" : \"foo } ] ] }";
+
+    try {
+      ClientMessage.readFrom( new StringReader( json ) );
+      fail();
+    } catch( IllegalArgumentException expected ) {
+      assertTrue( expected.getMessage().startsWith( "Unexpected end of input" ) );
+    }
+  }
+
+  @Test
+  public void testReadFrom_withMalformedProperty() throws IOException {
+    String json = "{ \"head\" : {}, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : foo } ]"
+                + "] }";
+
+    try {
+      ClientMessage.readFrom( new StringReader( json ) );
+      fail();
+    } catch( IllegalArgumentException expected ) {
+      assertTrue( expected.getMessage().startsWith( "Expected value" ) );
+    }
+  }
+
+  @Test
+  public void testReadFrom_withMismatchedBrackets() throws IOException {
+    String json = "{ \"head\" : {}, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : [ 1, 2 } ] ]"
+                + "] }";
+
+    try {
+      ClientMessage.readFrom( new StringReader( json ) );
+      fail();
+    } catch( IllegalArgumentException expected ) {
+      assertTrue( expected.getMessage().startsWith( "Expected ']'" ) );
+    }
+  }
+
+  @Test
+  public void testReadFrom_withInvalidEscapeSequence() throws IOException {
+    String json = "{ \"head\" : {}, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : \"\\x\" } ]"
+                + "] }";
+
+    try {
+      ClientMessage.readFrom( new StringReader( json ) );
+      fail();
+    } catch( IllegalArgumentException expected ) {
+      assertTrue( expected.getMessage().startsWith( "Invalid escape sequence" ) );
+    }
+  }
+
+  @Test
+  public void testReadFrom_quotesExcerptOfMessageInError() throws IOException {
+    StringBuilder json = new StringBuilder( "{ \"head\" : {}, \"operations\" : [" );
+    for( int i = 0; i < 1000; i++ ) {
+      json.append( "[ \"set\", \"w3\", { \"p1\" : \"foo\" } ]," );
+    }
+    json.append( "[ \"set\", \"w3\", { \"p1\" : foo } ] ] }" );
+
+    try {
+      ClientMessage.readFrom( new StringReader( json.toString() ) );
+      fail();
+    } catch( IllegalArgumentException expected ) {
+      assertTrue( expected.getMessage().length() < 200 );
+      assertTrue( expected.getMessage().contains( "foo }" ) );
+    }
+  }
+
+  @Test
+  public void testOperationGetProperties_afterReadFrom() throws IOException {
+    String json = "{ \"head\" : {}, \"operations\" : ["
+                + "[ \"set\", \"w3\", { \"p1\" : \"foo\" } ]"
+                + "] }";
+    ClientMessage message = ClientMessage.readFrom( new StringReader( json ) );
+
+    JsonObject properties = message.getAllOperations().get( 0 ).getProperties();
+
+    assertEquals( new JsonObject().add( "p1", "foo" ), properties );
+  }
+
+  @Test
+  public void testConstructor_usesGivenProperties() {
+    JsonObject properties = new JsonObject().add( "p1", "foo" );
+    JsonArray operation = new JsonArray().add( "set" ).add( "w3" ).add( properties );
+    JsonObject json = new JsonObject()
+      .add( "head", new JsonObject() )
+      .add( "operations", new JsonArray().add( operation ) );
+
+    ClientMessage message = new ClientMessage( json );
+
+    assertSame( properties, message.getAllOperations().get( 0 ).getProperties() );
+  }
+
+  @Test
+  public void testOperationGetProperties_returnsSameObject() {
+    Operation operation = createOperation( "[ \"set\", \"w3\", { \"p1\" : \"foo\" } ]" );
+
+    assertSame( operation.getProperties(), operation.getProperties() );
+  }
+
   private static Operation createOperation( String operationJson ) {
     String json = "{ \"head\" : {}, \"operations\" : [" + operationJson + "] }";
     ClientMessage message = new ClientMessage( JsonObject.readFrom( json ) );
@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2011, 2013 EclipseSource and others.
+* Copyright (c) 2011, 2014 EclipseSource and others.
 * All rights reserved. This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License v1.0
 * which accompanies this distribution, and is available at
@@ -13,8 +13,18 @@ package org.eclipse.rap.rwt.internal.protocol;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
@@ -28,6 +38,7 @@ import org.eclipse.rap.rwt.testfixture.Message.CreateOperation;
 import org.eclipse.rap.rwt.testfixture.Message.DestroyOperation;
 import org.eclipse.rap.rwt.testfixture.Message.ListenOperation;
 import org.eclipse.rap.rwt.testfixture.Message.SetOperation;
+import org.eclipse.rap.rwt.testfixture.TestResponse;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Display;
@@ -411,6 +422,204 @@ public class ProtocolMessageWriter_Test {
     assertEquals( "Hello", property.get( 1 ).asString() );
   }
 
+  @Test
+  public void testIsStreaming_default() {
+    assertFalse( writer.isStreaming() );
+  }
+
+  @Test
+  public void testIsStreaming_withOutput() {
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( new TestResponse() ) );
+
+    assertTrue( writer.isStreaming() );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testFinishMessage_failsWhenNotStreaming() throws IOException {
+    writer.finishMessage();
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testCreateMessage_failsWhenStreaming() {
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( new TestResponse() ) );
+
+    writer.createMessage();
+  }
+
+  @Test
+  public void testFinishMessage_emptyMessage() throws IOException {
+    TestResponse response = new TestResponse();
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+
+    writer.finishMessage();
+
+    Message message = new Message( JsonObject.readFrom( response.getContent() ) );
+    assertEquals( 0, message.getOperationCount() );
+  }
+
+  @Test
+  public void testFinishMessage_returnsWrittenBytes() throws IOException {
+    TestResponse response = new TestResponse();
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+    writer.appendSet( shellId, "text", "\u00e4\u20ac" );
+
+    byte[] bytes = writer.finishMessage();
+
+    assertEquals( response.getContent(), new String( bytes, "UTF-8" ) );
+  }
+
+  @Test
+  public void testFinishMessage_twice() throws IOException {
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( new TestResponse() ) );
+    writer.finishMessage();
+
+    try {
+      writer.finishMessage();
+      fail();
+    } catch( IllegalStateException expected ) {
+    }
+  }
+
+  @Test
+  public void testFinishMessage_returnsNullWhenExceedingCopyLimit() throws IOException {
+    TestResponse response = new TestResponse();
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response, 10 ) );
+    writer.appendSet( shellId, "text", "foo" );
+
+    byte[] bytes = writer.finishMessage();
+
+    assertNull( bytes );
+    Message message = new Message( JsonObject.readFrom( response.getContent() ) );
+    assertEquals( 1, message.getOperationCount() );
+  }
+
+  @Test
+  public void testAbortMessage_failsWhenNotStreaming() throws IOException {
+    try {
+      writer.abortMessage( "error", JsonValue.valueOf( "server error" ) );
+      fail();
+    } catch( IllegalStateException expected ) {
+    }
+  }
+
+  @Test
+  public void testAbortMessage_discardsOutputWhenNotCommitted() throws IOException {
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    when( response.getWriter() ).thenReturn( new PrintWriter( new StringWriter() ) );
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+    writer.appendCreate( shellId, "rwt.widgets.Shell" );
+    writer.appendCreate( "w2", "rwt.widgets.Button" );
+
+    writer.abortMessage( "error", JsonValue.valueOf( "server error" ) );
+
+    verify( response ).resetBuffer();
+  }
+
+  @Test
+  public void testAbortMessage_writesErrorWhenCommitted() throws IOException {
+    StringWriter content = new StringWriter();
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    when( response.getWriter() ).thenReturn( new PrintWriter( content ) );
+    when( Boolean.valueOf( response.isCommitted() ) ).thenReturn( Boolean.TRUE );
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+    writer.appendHead( "requestCounter", 1 );
+    writer.appendCreate( shellId, "rwt.widgets.Shell" );
+    writer.appendCreate( "w2", "rwt.widgets.Button" );
+
+    writer.abortMessage( "error", JsonValue.valueOf( "server error" ) );
+
+    JsonObject message = JsonObject.readFrom( content.toString() );
+    JsonObject expectedHead = new JsonObject().add( "error", "server error" );
+    assertEquals( expectedHead, message.get( "head" ) );
+    assertEquals( 1, message.get( "operations" ).asArray().size() );
+  }
+
+  @Test
+  public void testStreaming_writesCompletedOperations() {
+    TestResponse response = new TestResponse();
+    ProtocolMessageOutput output = new ProtocolMessageOutput( response );
+    writer = new ProtocolMessageWriter( output );
+
+    writer.appendCreate( shellId, "rwt.widgets.Shell" );
+    writer.appendSet( shellId, "text", "foo" );
+    writer.appendCall( shellId, "method", null );
+
+    assertEquals( "{\"operations\":[[\"create\",\"" + shellId + "\",\"rwt.widgets.Shell\","
+                  + "{\"text\":\"foo\"}]", getOutputContent( output ) );
+  }
+
+  @Test
+  public void testStreaming_mergesOperations() throws IOException {
+    TestResponse response = new TestResponse();
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+
+    writer.appendCreate( shellId, "rwt.widgets.Shell" );
+    writer.appendSet( shellId, "key1", "value1" );
+    writer.appendSet( shellId, "key1", "value2" );
+    writer.appendListen( shellId, "event", true );
+    writer.appendListen( shellId, "event2", false );
+    writer.appendDestroy( shellId );
+    writer.finishMessage();
+
+    Message message = new Message( JsonObject.readFrom( response.getContent() ) );
+    assertEquals( 3, message.getOperationCount() );
+    CreateOperation createOperation = ( CreateOperation )message.getOperation( 0 );
+    assertEquals( "value2", createOperation.getProperty( "key1" ).asString() );
+    ListenOperation listenOperation = ( ListenOperation )message.getOperation( 1 );
+    assertTrue( listenOperation.listensTo( "event" ) );
+    assertFalse( listenOperation.listensTo( "event2" ) );
+    assertTrue( message.getOperation( 2 ) instanceof DestroyOperation );
+  }
+
+  @Test
+  public void testStreaming_writesHead() throws IOException {
+    TestResponse response = new TestResponse();
+    writer = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+
+    writer.appendSet( shellId, "key", 23 );
+    writer.appendHead( "foo", 42 );
+    writer.finishMessage();
+
+    JsonObject message = JsonObject.readFrom( response.getContent() );
+    assertEquals( 42, message.get( "head" ).asObject().get( "foo" ).asInt() );
+    assertEquals( 1, message.get( "operations" ).asArray().size() );
+  }
+
+  @Test
+  public void testStreaming_producesSameMessageAsDefault() throws IOException {
+    TestResponse response = new TestResponse();
+    ProtocolMessageWriter streamingWriter
+      = new ProtocolMessageWriter( new ProtocolMessageOutput( response ) );
+
+    appendMixedOperations( writer );
+    appendMixedOperations( streamingWriter );
+    streamingWriter.finishMessage();
+
+    JsonObject expected = writer.createMessage();
+    JsonObject actual = JsonObject.readFrom( response.getContent() );
+    assertEquals( expected.get( "head" ), actual.get( "head" ) );
+    assertEquals( expected.get( "operations" ), actual.get( "operations" ) );
+  }
+
+  private void appendMixedOperations( ProtocolMessageWriter writer ) {
+    writer.appendHead( "requestCounter", 1 );
+    writer.appendCreate( shellId, "rwt.widgets.Shell" );
+    writer.appendSet( shellId, "bounds", new JsonArray().add( 1 ).add( 2 ).add( 3 ).add( 4 ) );
+    writer.appendSet( shellId, "visible", true );
+    writer.appendListen( shellId, "Selection", true );
+    writer.appendCall( shellId, "method", new JsonObject().add( "key", "value" ) );
+    writer.appendSet( "w2", "alpha", 0.5 );
+    writer.appendDestroy( "w3" );
+  }
+
+  private static String getOutputContent( ProtocolMessageOutput output ) {
+    try {
+      return new String( output.toByteArray(), "UTF-8" );
+    } catch( IOException exception ) {
+      throw new RuntimeException( exception );
+    }
+  }
+
   private Message getMessage() {
     return new Message( writer.createMessage() );
   }
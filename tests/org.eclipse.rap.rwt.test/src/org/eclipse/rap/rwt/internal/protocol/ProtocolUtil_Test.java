@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 EclipseSource and others.
+ * Copyright (c) 2013, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,12 +12,27 @@ package org.eclipse.rap.rwt.internal.protocol;
 
 import static org.eclipse.rap.rwt.internal.protocol.JsonUtil.createJsonArray;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
@@ -46,6 +61,8 @@ public class ProtocolUtil_Test {
   @After
   public void tearDown() {
     Fixture.tearDown();
+    System.clearProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES );
+    System.clearProperty( RWTProperties.DECOMPRESSED_MESSAGE_LIMIT );
   }
 
   @Test
@@ -471,6 +488,126 @@ public class ProtocolUtil_Test {
   //////////////////
   // Helping methods
 
+  @Test
+  public void testGetReader() throws IOException {
+    HttpServletRequest request = mockRequest( "{\"head\":{}}".getBytes( "UTF-8" ), null );
+
+    Reader reader = ProtocolUtil.getReader( request );
+
+    assertEquals( "{\"head\":{}}", read( reader ) );
+  }
+
+  @Test
+  public void testGetReader_withGzipContentEncoding() throws IOException {
+    System.setProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES, "true" );
+    HttpServletRequest request = mockRequest( gzip( "{\"head\":{}}" ), "gzip" );
+
+    Reader reader = ProtocolUtil.getReader( request );
+
+    assertEquals( "{\"head\":{}}", read( reader ) );
+  }
+
+  @Test
+  public void testGetReader_withDeflateContentEncoding() throws IOException {
+    System.setProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES, "true" );
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream outputStream = new DeflaterOutputStream( bytes );
+    outputStream.write( "{\"head\":{}}".getBytes( "UTF-8" ) );
+    outputStream.close();
+    HttpServletRequest request = mockRequest( bytes.toByteArray(), "deflate" );
+
+    Reader reader = ProtocolUtil.getReader( request );
+
+    assertEquals( "{\"head\":{}}", read( reader ) );
+  }
+
+  @Test
+  public void testGetReader_withGzipContentEncodingWhenDecompressionDisabled() throws IOException {
+    byte[] content = gzip( "{\"head\":{}}" );
+    HttpServletRequest request = mockRequest( content, "gzip" );
+
+    Reader reader = ProtocolUtil.getReader( request );
+
+    assertEquals( new String( content, "UTF-8" ), read( reader ) );
+  }
+
+  @Test
+  public void testGetReader_withDecompressedMessageExceedingLimit() throws IOException {
+    System.setProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES, "true" );
+    System.setProperty( RWTProperties.DECOMPRESSED_MESSAGE_LIMIT, "10" );
+    HttpServletRequest request = mockRequest( gzip( "{\"head\":{}}" ), "gzip" );
+    Reader reader = ProtocolUtil.getReader( request );
+
+    try {
+      read( reader );
+      fail();
+    } catch( InvalidRequestException expected ) {
+      assertEquals( HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, expected.getStatusCode() );
+    }
+  }
+
+  @Test
+  public void testGetReader_withCorruptGzipHeader() throws IOException {
+    System.setProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES, "true" );
+    HttpServletRequest request = mockRequest( "{\"head\":{}}".getBytes( "UTF-8" ), "gzip" );
+
+    try {
+      ProtocolUtil.getReader( request );
+      fail();
+    } catch( InvalidRequestException expected ) {
+      assertEquals( HttpServletResponse.SC_BAD_REQUEST, expected.getStatusCode() );
+    }
+  }
+
+  @Test
+  public void testGetReader_withTruncatedGzipContent() throws IOException {
+    System.setProperty( RWTProperties.DECOMPRESS_CLIENT_MESSAGES, "true" );
+    byte[] content = gzip( "{\"head\":{}}" );
+    byte[] truncated = new byte[ content.length - 12 ];
+    System.arraycopy( content, 0, truncated, 0, truncated.length );
+    Reader reader = ProtocolUtil.getReader( mockRequest( truncated, "gzip" ) );
+
+    try {
+      read( reader );
+      fail();
+    } catch( InvalidRequestException expected ) {
+      assertEquals( HttpServletResponse.SC_BAD_REQUEST, expected.getStatusCode() );
+    }
+  }
+
+  private static byte[] gzip( String content ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream outputStream = new GZIPOutputStream( bytes );
+    outputStream.write( content.getBytes( "UTF-8" ) );
+    outputStream.close();
+    return bytes.toByteArray();
+  }
+
+  private static HttpServletRequest mockRequest( byte[] content, String contentEncoding )
+    throws IOException
+  {
+    final InputStream inputStream = new ByteArrayInputStream( content );
+    HttpServletRequest request = mock( HttpServletRequest.class );
+    when( request.getInputStream() ).thenReturn( new ServletInputStream() {
+      @Override
+      public int read() throws IOException {
+        return inputStream.read();
+      }
+    } );
+    when( request.getHeader( "Content-Encoding" ) ).thenReturn( contentEncoding );
+    return request;
+  }
+
+  private static String read( Reader reader ) throws IOException {
+    StringBuilder result = new StringBuilder();
+    int character = reader.read();
+    while( character != -1 ) {
+      result.append( ( char )character );
+      character = reader.read();
+    }
+    return result.toString();
+  }
+
   private void fakeNewJsonMessage() {
     Fixture.fakeNewRequest();
     Fixture.fakeHeadParameter( "requestCounter", 21 );
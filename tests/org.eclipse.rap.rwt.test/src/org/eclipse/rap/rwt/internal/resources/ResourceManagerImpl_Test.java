@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,7 +31,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.service.ResourceLoader;
 import org.eclipse.rap.rwt.testfixture.FileUtil;
 import org.eclipse.rap.rwt.testfixture.Fixture;
@@ -55,6 +57,9 @@ public class ResourceManagerImpl_Test {
   public void tearDown() {
     File path = new File( getWebContextDirectory(), ResourceDirectory.DIRNAME );
     FileUtil.delete( path );
+    System.getProperties().remove( RWTProperties.RESOURCE_FINGERPRINTS );
+    System.getProperties().remove( RWTProperties.COMPRESS_RESOURCES );
+    System.getProperties().remove( RWTProperties.CACHE_RESOURCES );
     Fixture.tearDown();
   }
 
@@ -391,6 +396,201 @@ public class ResourceManagerImpl_Test {
     }
   }
 
+  @Test
+  public void testGetLocation_withoutFingerprint() {
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    String location = resourceManager.getLocation( "foo.js" );
+
+    assertTrue( location.endsWith( "/foo.js" ) );
+  }
+
+  @Test
+  public void testGetLocation_withFingerprint() {
+    System.setProperty( RWTProperties.RESOURCE_FINGERPRINTS, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    String location = resourceManager.getLocation( "foo.js" );
+
+    assertTrue( location.matches( ".*/foo\\.js\\?[0-9a-f]+" ) );
+  }
+
+  @Test
+  public void testGetLocation_fingerprintChangesWithContent() {
+    System.setProperty( RWTProperties.RESOURCE_FINGERPRINTS, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+    String location = resourceManager.getLocation( "foo.js" );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 4 } ) );
+
+    assertFalse( location.equals( resourceManager.getLocation( "foo.js" ) ) );
+  }
+
+  @Test
+  public void testGetFingerprint_matchesLocation() {
+    System.setProperty( RWTProperties.RESOURCE_FINGERPRINTS, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    String fingerprint = resourceManager.getFingerprint( "foo.js" );
+
+    assertEquals( 32, fingerprint.length() );
+    assertTrue( resourceManager.getLocation( "foo.js" ).endsWith( "?" + fingerprint ) );
+  }
+
+  @Test
+  public void testGetFingerprint_withoutFingerprints() {
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    assertNull( resourceManager.getFingerprint( "foo.js" ) );
+  }
+
+  @Test
+  public void testRegister_withCompression_writesCompressedCopy() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    File compressedFile = getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION );
+    assertTrue( compressedFile.exists() );
+    assertTrue( compressedFile.length() < getResourceCopyFile( "foo.js" ).length() );
+  }
+
+  @Test
+  public void testRegister_withCompression_skipsBinaryResources() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+
+    resourceManager.register( "foo.png", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    assertFalse( getResourceCopyFile( "foo.png" + ResourceManagerImpl.GZIP_EXTENSION ).exists() );
+  }
+
+  @Test
+  public void testRegister_withCompression_skipsIncompressibleContent() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    assertFalse( getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION ).exists() );
+  }
+
+  @Test
+  public void testRegister_withoutCompression_doesNotWriteCompressedCopy() {
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    assertFalse( getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION ).exists() );
+  }
+
+  @Test
+  public void testUnregister_deletesCompressedCopy() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    resourceManager.unregister( "foo.js" );
+
+    assertFalse( getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION ).exists() );
+  }
+
+  @Test
+  public void testRegister_doesNotRewriteUnchangedResource() {
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+    File file = getResourceCopyFile( "foo.js" );
+    file.setLastModified( 1000 );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    assertEquals( 1000, file.lastModified() );
+  }
+
+  @Test
+  public void testRegister_rewritesChangedResource() throws IOException {
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 4 } ) );
+
+    assertArrayEquals( new byte[] { 1, 2, 4 }, read( getResourceCopyFile( "foo.js" ) ) );
+  }
+
+  @Test
+  public void testRegister_withCompression_rewritesCompressedCopyOfChangedResource()
+    throws IOException
+  {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+    File compressedFile = getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION );
+    byte[] compressedContent = read( compressedFile );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[ 4096 ] ) );
+
+    assertFalse( Arrays.equals( compressedContent, read( compressedFile ) ) );
+  }
+
+  @Test
+  public void testRegister_withCompression_rewritesOutdatedCompressedCopy() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+    File compressedFile = getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION );
+    compressedFile.setLastModified( 1000 );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    assertTrue( compressedFile.lastModified() > 1000 );
+  }
+
+  @Test
+  public void testRegister_withCompression_deletesCompressedCopyOfIncompressibleChange() {
+    System.setProperty( RWTProperties.COMPRESS_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( createCompressibleContent() ) );
+
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    assertFalse( getResourceCopyFile( "foo.js" + ResourceManagerImpl.GZIP_EXTENSION ).exists() );
+  }
+
+  @Test
+  public void testGetRegisteredContent_withCaching_doesNotReadFile() throws IOException {
+    System.setProperty( RWTProperties.CACHE_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+    getResourceCopyFile( "foo.js" ).delete();
+
+    InputStream content = resourceManager.getRegisteredContent( "foo.js" );
+
+    assertArrayEquals( new byte[] { 1, 2, 3 }, read( content ) );
+  }
+
+  @Test
+  public void testUnregister_withCaching_releasesContent() {
+    System.setProperty( RWTProperties.CACHE_RESOURCES, "true" );
+    resourceManager = createResourceManager();
+    resourceManager.register( "foo.js", new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) );
+
+    resourceManager.unregister( "foo.js" );
+
+    assertNull( resourceManager.getRegisteredContent( "foo.js" ) );
+  }
+
+  private static ResourceManagerImpl createResourceManager() {
+    return new ResourceManagerImpl( getApplicationContext().getResourceDirectory() );
+  }
+
+  private static byte[] createCompressibleContent() {
+    byte[] result = new byte[ 4096 ];
+    for( int i = 0; i < result.length; i++ ) {
+      result[ i ] = ( byte )( 'a' + i % 4 );
+    }
+    return result;
+  }
+
   private static byte[] read( File file ) throws IOException {
     FileInputStream inputStream = new FileInputStream( file );
     try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,7 +17,11 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -26,9 +30,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionBindingListener;
 
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.ServiceContext;
@@ -36,6 +46,8 @@ import org.eclipse.rap.rwt.internal.service.ServiceStore;
 import org.eclipse.rap.rwt.lifecycle.PhaseId;
 import org.eclipse.rap.rwt.lifecycle.ProcessActionRunner;
 import org.eclipse.rap.rwt.service.UISession;
+import org.eclipse.rap.rwt.service.UISessionEvent;
+import org.eclipse.rap.rwt.service.UISessionListener;
 import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.rap.rwt.testfixture.TestRequest;
 import org.eclipse.rap.rwt.testfixture.TestResponse;
@@ -80,6 +92,7 @@ public class ServerPushManager_Test {
 
   @After
   public void tearDown() {
+    System.getProperties().remove( RWTProperties.ASYNC_SERVER_PUSH );
     Fixture.tearDown();
   }
 
@@ -261,7 +274,142 @@ public class ServerPushManager_Test {
     manager.activateServerPushFor( HANDLE_1 );
 
     // must not block
-    manager.processRequest( ContextProvider.getResponse() );
+    manager.processRequest( ContextProvider.getRequest(), ContextProvider.getResponse() );
+  }
+
+  @Test
+  public void testProcessRequest_suspendsRequestWithAsyncServerPush() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    HttpServletRequest request = mockAsyncRequest( asyncContext );
+    manager.activateServerPushFor( HANDLE_1 );
+
+    manager.processRequest( request, ContextProvider.getResponse() );
+
+    verify( asyncContext ).setTimeout( 0 );
+    verify( asyncContext, never() ).complete();
+    assertTrue( manager.isCallBackRequestBlocked() );
+  }
+
+  @Test
+  public void testProcessRequest_doesNotSuspendWithoutAsyncServerPush() {
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    HttpServletRequest request = mockAsyncRequest( asyncContext );
+
+    manager.processRequest( request, ContextProvider.getResponse() );
+
+    verify( request, never() ).startAsync( any( ServletRequest.class ),
+                                           any( ServletResponse.class ) );
+  }
+
+  @Test
+  public void testProcessRequest_doesNotSuspendWhenNotBlocking() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    HttpServletRequest request = mockAsyncRequest( asyncContext );
+
+    manager.processRequest( request, ContextProvider.getResponse() );
+
+    verify( request, never() ).startAsync( any( ServletRequest.class ),
+                                           any( ServletResponse.class ) );
+    assertFalse( manager.isCallBackRequestBlocked() );
+  }
+
+  @Test
+  public void testWakeClient_completesSuspendedRequest() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    manager.activateServerPushFor( HANDLE_1 );
+    manager.processRequest( mockAsyncRequest( asyncContext ), ContextProvider.getResponse() );
+
+    manager.setHasRunnables( true );
+    manager.wakeClient();
+
+    verify( asyncContext ).complete();
+    assertFalse( manager.isCallBackRequestBlocked() );
+  }
+
+  @Test
+  public void testDeactivateServerPush_completesSuspendedRequest() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    manager.activateServerPushFor( HANDLE_1 );
+    manager.processRequest( mockAsyncRequest( asyncContext ), ContextProvider.getResponse() );
+
+    manager.deactivateServerPushFor( HANDLE_1 );
+
+    verify( asyncContext ).complete();
+  }
+
+  @Test
+  public void testProcessRequest_completesPreviouslySuspendedRequest() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext1 = mock( AsyncContext.class );
+    AsyncContext asyncContext2 = mock( AsyncContext.class );
+    manager.activateServerPushFor( HANDLE_1 );
+    manager.processRequest( mockAsyncRequest( asyncContext1 ), ContextProvider.getResponse() );
+
+    manager.processRequest( mockAsyncRequest( asyncContext2 ), ContextProvider.getResponse() );
+
+    verify( asyncContext1 ).complete();
+    verify( asyncContext2, never() ).complete();
+    assertTrue( manager.isCallBackRequestBlocked() );
+  }
+
+  @Test
+  public void testSuspendedRequestIsCompletedWhenSessionExpires() {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    ContextProvider.getUISession().getHttpSession().setMaxInactiveInterval( 1 );
+    manager.setRequestCheckInterval( 10 );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    manager.activateServerPushFor( HANDLE_1 );
+
+    manager.processRequest( mockAsyncRequest( asyncContext ), ContextProvider.getResponse() );
+
+    verify( asyncContext, timeout( 3000 ) ).complete();
+  }
+
+  @Test
+  public void testWakeClient_doesNotWriteToSuspendedResponse() throws IOException {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    manager.activateServerPushFor( HANDLE_1 );
+    manager.processRequest( mockAsyncRequest( asyncContext ), response );
+
+    manager.wakeClient();
+
+    verify( response, never() ).getWriter();
+    verify( response, never() ).getOutputStream();
+    verify( asyncContext, never() ).complete();
+  }
+
+  @Test
+  public void testSuspendedRequestCheck_doesNotWriteToResponse() throws Exception {
+    System.setProperty( RWTProperties.ASYNC_SERVER_PUSH, "true" );
+    manager.setRequestCheckInterval( 10 );
+    AsyncContext asyncContext = mock( AsyncContext.class );
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    manager.activateServerPushFor( HANDLE_1 );
+    manager.processRequest( mockAsyncRequest( asyncContext ), response );
+
+    Thread.sleep( SLEEP_TIME );
+
+    verify( response, never() ).getWriter();
+    verify( response, never() ).getOutputStream();
+    assertTrue( manager.isCallBackRequestBlocked() );
+  }
+
+  @Test
+  public void testSuspendedRequest_isDetachedWhenSerialized() throws Exception {
+    UISession uiSession = ContextProvider.getUISession();
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    SuspendedRequest suspendedRequest = new SuspendedRequest( manager, uiSession, response );
+
+    Object deserialized = Fixture.deserialize( Fixture.serialize( suspendedRequest ) );
+
+    assertFalse( deserialized instanceof SuspendedRequest );
+    ( ( UISessionListener )deserialized ).beforeDestroy( mock( UISessionEvent.class ) );
   }
 
   @Test
@@ -587,6 +735,14 @@ public class ServerPushManager_Test {
     ContextProvider.getUISession().setAttribute( "org.eclipse.swt.display", display );
   }
 
+  private static HttpServletRequest mockAsyncRequest( AsyncContext asyncContext ) {
+    HttpServletRequest request = mock( HttpServletRequest.class );
+    when( Boolean.valueOf( request.isAsyncSupported() ) ).thenReturn( Boolean.TRUE );
+    when( request.startAsync( any( ServletRequest.class ), any( ServletResponse.class ) ) )
+      .thenReturn( asyncContext );
+    return request;
+  }
+
   private static ServiceContext createServiceContext( TestResponse response ) {
     UISession uiSession = ContextProvider.getContext().getUISession();
     TestRequest request = new TestRequest();
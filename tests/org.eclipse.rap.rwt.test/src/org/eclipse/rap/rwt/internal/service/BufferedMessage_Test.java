@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+
+public class BufferedMessage_Test {
+
+  private static final byte[] MESSAGE = createMessage();
+
+  @Test
+  public void testWriteTo_uncompressed() throws IOException {
+    BufferedMessage message = new BufferedMessage( MESSAGE, false );
+
+    assertArrayEquals( MESSAGE, getContent( message ) );
+  }
+
+  @Test
+  public void testWriteTo_compressed() throws IOException {
+    BufferedMessage message = new BufferedMessage( MESSAGE, true );
+
+    assertArrayEquals( MESSAGE, getContent( message ) );
+  }
+
+  @Test
+  public void testGetSize_uncompressed() throws IOException {
+    BufferedMessage message = new BufferedMessage( MESSAGE, false );
+
+    assertFalse( message.isCompressed() );
+    assertEquals( MESSAGE.length, message.getSize() );
+  }
+
+  @Test
+  public void testGetSize_compressed() throws IOException {
+    BufferedMessage message = new BufferedMessage( MESSAGE, true );
+
+    assertTrue( message.isCompressed() );
+    assertTrue( message.getSize() < MESSAGE.length );
+  }
+
+  @Test
+  public void testIsSerializable() throws Exception {
+    BufferedMessage message = new BufferedMessage( MESSAGE, true );
+
+    BufferedMessage deserialized = serializeAndDeserialize( message );
+
+    assertArrayEquals( MESSAGE, getContent( deserialized ) );
+  }
+
+  private static byte[] getContent( BufferedMessage message ) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    message.writeTo( outputStream );
+    return outputStream.toByteArray();
+  }
+
+  private static BufferedMessage serializeAndDeserialize( BufferedMessage message )
+    throws Exception
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream outputStream = new ObjectOutputStream( bytes );
+    outputStream.writeObject( message );
+    outputStream.close();
+    ByteArrayInputStream inputStream = new ByteArrayInputStream( bytes.toByteArray() );
+    return ( BufferedMessage )new ObjectInputStream( inputStream ).readObject();
+  }
+
+  private static byte[] createMessage() {
+    StringBuilder message = new StringBuilder( "{\"head\":{},\"operations\":[" );
+    for( int i = 0; i < 100; i++ ) {
+      message.append( i == 0 ? "" : "," );
+      message.append( "[\"set\",\"w" + i + "\",{\"text\":\"ä€\"}]" );
+    }
+    message.append( "]}" );
+    try {
+      return message.toString().getBytes( "UTF-8" );
+    } catch( IOException exception ) {
+      throw new RuntimeException( exception );
+    }
+  }
+
+}
@@ -26,9 +26,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -39,6 +43,7 @@ import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.rwt.application.EntryPoint;
 import org.eclipse.rap.rwt.client.Client;
 import org.eclipse.rap.rwt.client.WebClient;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.lifecycle.EntryPointManager;
 import org.eclipse.rap.rwt.internal.lifecycle.LifeCycle;
@@ -56,6 +61,7 @@ import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.rap.rwt.testfixture.Message;
 import org.eclipse.rap.rwt.testfixture.TestRequest;
 import org.eclipse.rap.rwt.testfixture.TestResponse;
+import org.eclipse.rap.rwt.testfixture.TestServletOutputStream;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.junit.After;
@@ -86,6 +92,11 @@ public class LifeCycleServiceHandler_Test {
 
   @After
   public void tearDown() {
+    System.clearProperty( RWTProperties.STREAM_PROTOCOL_MESSAGES );
+    System.clearProperty( RWTProperties.COMPRESS_BUFFERED_MESSAGE );
+    System.clearProperty( RWTProperties.BUFFERED_MESSAGE_LIMIT );
+    System.clearProperty( RWTProperties.COMPRESS_PROTOCOL_MESSAGES );
+    System.clearProperty( RWTProperties.PROTOCOL_COMPRESSION_THRESHOLD );
     Fixture.tearDown();
   }
 
@@ -394,6 +405,65 @@ public class LifeCycleServiceHandler_Test {
     assertEquals( firstResponse, secondResponse );
   }
 
+  @Test
+  public void testSendBufferedResponse_withStreaming() throws IOException {
+    System.setProperty( RWTProperties.STREAM_PROTOCOL_MESSAGES, "true" );
+    LifeCycleServiceHandler.markSessionStarted();
+    simulateUiRequest();
+    RequestCounter.getInstance().nextRequestId();
+    int requestCounter = RequestCounter.getInstance().nextRequestId();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+    String firstResponse = getResponse().getContent();
+
+    simulateUiRequest();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+    String secondResponse = getResponse().getContent();
+
+    assertEquals( firstResponse, secondResponse );
+    assertNotNull( JsonObject.readFrom( secondResponse ).get( "operations" ) );
+  }
+
+  @Test
+  public void testSendBufferedResponse_withCompression() throws IOException {
+    System.setProperty( RWTProperties.COMPRESS_BUFFERED_MESSAGE, "true" );
+    LifeCycleServiceHandler.markSessionStarted();
+    simulateUiRequest();
+    RequestCounter.getInstance().nextRequestId();
+    int requestCounter = RequestCounter.getInstance().nextRequestId();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+    String firstResponse = getResponse().getContent();
+
+    simulateUiRequest();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+    String secondResponse = getResponse().getContent();
+
+    assertEquals( firstResponse, secondResponse );
+  }
+
+  @Test
+  public void testSendBufferedResponse_exceedingLimit() throws IOException {
+    System.setProperty( RWTProperties.BUFFERED_MESSAGE_LIMIT, "10" );
+    LifeCycleServiceHandler.markSessionStarted();
+    simulateUiRequest();
+    RequestCounter.getInstance().nextRequestId();
+    int requestCounter = RequestCounter.getInstance().nextRequestId();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+    simulateUiRequest();
+    Fixture.fakeHeadParameter( "requestCounter", requestCounter );
+    service( new LifeCycleServiceHandler( getLifeCycleFactory(), mockStartupPage() ) );
+
+    assertEquals( HttpServletResponse.SC_PRECONDITION_FAILED, getResponse().getStatus() );
+    assertEquals( "invalid request counter", getMessageFromResponse().getError() );
+  }
+
   @Test
   public void testHasValidRequestCounter_trueWithValidParameter() {
     int nextRequestId = RequestCounter.getInstance().nextRequestId();
@@ -443,6 +513,69 @@ public class LifeCycleServiceHandler_Test {
     assertFalse( valid );
   }
 
+  @Test
+  public void testWriteProtocolMessage_withCompression() throws IOException {
+    System.setProperty( RWTProperties.COMPRESS_PROTOCOL_MESSAGES, "true" );
+    System.setProperty( RWTProperties.PROTOCOL_COMPRESSION_THRESHOLD, "0" );
+    simulateUiRequest();
+    TestRequest request = ( TestRequest )ContextProvider.getRequest();
+    request.setHeader( "Accept-Encoding", "gzip, deflate" );
+    LifeCycleServiceHandler.markSessionStarted();
+
+    service( handler );
+
+    assertEquals( "gzip", getResponse().getHeader( "Content-Encoding" ) );
+    assertNotNull( readCompressedMessageFromResponse().get( "head" ) );
+  }
+
+  @Test
+  public void testWriteProtocolMessage_withCompression_belowThreshold() throws IOException {
+    System.setProperty( RWTProperties.COMPRESS_PROTOCOL_MESSAGES, "true" );
+    simulateUiRequest();
+    TestRequest request = ( TestRequest )ContextProvider.getRequest();
+    request.setHeader( "Accept-Encoding", "gzip, deflate" );
+    LifeCycleServiceHandler.markSessionStarted();
+
+    service( handler );
+
+    assertNull( getResponse().getHeader( "Content-Encoding" ) );
+    assertNotNull( JsonObject.readFrom( getResponse().getContent() ).get( "head" ) );
+  }
+
+  @Test
+  public void testWriteProtocolMessage_withCompression_notAcceptedByClient() throws IOException {
+    System.setProperty( RWTProperties.COMPRESS_PROTOCOL_MESSAGES, "true" );
+    System.setProperty( RWTProperties.PROTOCOL_COMPRESSION_THRESHOLD, "0" );
+    simulateUiRequest();
+    LifeCycleServiceHandler.markSessionStarted();
+
+    service( handler );
+
+    assertNull( getResponse().getHeader( "Content-Encoding" ) );
+    assertNotNull( JsonObject.readFrom( getResponse().getContent() ).get( "head" ) );
+  }
+
+  @Test
+  public void testWriteProtocolMessage_withoutCompression() throws IOException {
+    System.setProperty( RWTProperties.PROTOCOL_COMPRESSION_THRESHOLD, "0" );
+    simulateUiRequest();
+    TestRequest request = ( TestRequest )ContextProvider.getRequest();
+    request.setHeader( "Accept-Encoding", "gzip, deflate" );
+    LifeCycleServiceHandler.markSessionStarted();
+
+    service( handler );
+
+    assertNull( getResponse().getHeader( "Content-Encoding" ) );
+  }
+
+  private static JsonObject readCompressedMessageFromResponse() throws IOException {
+    TestServletOutputStream outputStream
+      = ( TestServletOutputStream )getResponse().getOutputStream();
+    byte[] content = outputStream.getContent().toByteArray();
+    InputStream inputStream = new GZIPInputStream( new ByteArrayInputStream( content ) );
+    return JsonObject.readFrom( new InputStreamReader( inputStream, "UTF-8" ) );
+  }
+
   private void simulateInitialUiRequest() {
     Fixture.fakeNewRequest();
     Fixture.fakeHeadParameter( ClientMessageConst.RWT_INITIALIZE, true );
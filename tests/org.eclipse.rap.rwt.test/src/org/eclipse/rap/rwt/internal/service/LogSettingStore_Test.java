@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rap.rwt.service.SettingStoreEvent;
+import org.eclipse.rap.rwt.service.SettingStoreListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+
+public class LogSettingStore_Test {
+
+  private File file;
+  private SettingLog log;
+  private LogSettingStore store;
+
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile( "settings", ".log" );
+    log = new SettingLog( file );
+    store = new LogSettingStore( log );
+    store.loadById( "store" );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    log.close();
+    file.delete();
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testCreate_failsWithNullLog() {
+    new LogSettingStore( null );
+  }
+
+  @Test
+  public void testGetId() {
+    assertEquals( "store", store.getId() );
+  }
+
+  @Test
+  public void testGetAttribute_unknownKey() {
+    assertNull( store.getAttribute( "key" ) );
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testGetAttribute_failsWithNullKey() {
+    store.getAttribute( null );
+  }
+
+  @Test
+  public void testSetAttribute() throws Exception {
+    store.setAttribute( "key", "value" );
+
+    assertEquals( "value", store.getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testSetAttribute_writesToLog() throws Exception {
+    store.setAttribute( "key", "value" );
+
+    assertEquals( "value", log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testSetAttribute_withSameValueDoesNotWrite() throws Exception {
+    store.setAttribute( "key", "value" );
+    long size = log.getSize();
+
+    store.setAttribute( "key", "value" );
+
+    assertEquals( size, log.getSize() );
+  }
+
+  @Test
+  public void testSetAttribute_withNullValueRemovesAttribute() throws Exception {
+    store.setAttribute( "key", "value" );
+
+    store.setAttribute( "key", null );
+
+    assertNull( store.getAttribute( "key" ) );
+    assertNull( log.get( "store", "key" ) );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testSetAttribute_failsWhenNotLoaded() throws Exception {
+    new LogSettingStore( log ).setAttribute( "key", "value" );
+  }
+
+  @Test
+  public void testRemoveAttribute() throws Exception {
+    store.setAttribute( "key", "value" );
+
+    store.removeAttribute( "key" );
+
+    assertNull( store.getAttribute( "key" ) );
+    assertNull( log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testGetAttributeNames() throws Exception {
+    store.setAttribute( "key1", "value1" );
+    store.setAttribute( "key2", "value2" );
+
+    List<String> names = Collections.list( store.getAttributeNames() );
+    Collections.sort( names );
+
+    List<String> expected = new ArrayList<String>();
+    expected.add( "key1" );
+    expected.add( "key2" );
+    assertEquals( expected, names );
+  }
+
+  @Test
+  public void testLoadById_loadsAttributesOfId() throws Exception {
+    log.put( "other", "key", "value" );
+
+    store.loadById( "other" );
+
+    assertEquals( "other", store.getId() );
+    assertEquals( "value", store.getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testLoadById_clearsAttributesOfPreviousId() throws Exception {
+    store.setAttribute( "key", "value" );
+
+    store.loadById( "other" );
+
+    assertNull( store.getAttribute( "key" ) );
+    assertFalse( store.getAttributeNames().hasMoreElements() );
+  }
+
+  @Test
+  public void testLoadById_keepsAttributesOfPreviousIdInLog() throws Exception {
+    store.setAttribute( "key", "value" );
+    store.loadById( "other" );
+
+    store.loadById( "store" );
+
+    assertEquals( "value", store.getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testSettingStoreListener_notifiedOnChange() throws Exception {
+    SettingStoreListener listener = mock( SettingStoreListener.class );
+    store.addSettingStoreListener( listener );
+
+    store.setAttribute( "key", "value" );
+
+    SettingStoreEvent event = captureEvent( listener );
+    assertSame( store, event.getSource() );
+    assertEquals( "key", event.getAttributeName() );
+    assertNull( event.getOldValue() );
+    assertEquals( "value", event.getNewValue() );
+  }
+
+  @Test
+  public void testSettingStoreListener_notifiedOnLoad() throws Exception {
+    log.put( "other", "key", "value" );
+    SettingStoreListener listener = mock( SettingStoreListener.class );
+    store.addSettingStoreListener( listener );
+
+    store.loadById( "other" );
+
+    SettingStoreEvent event = captureEvent( listener );
+    assertEquals( "key", event.getAttributeName() );
+    assertEquals( "value", event.getNewValue() );
+  }
+
+  @Test
+  public void testSettingStoreListener_notNotifiedAfterRemove() throws Exception {
+    SettingStoreListener listener = mock( SettingStoreListener.class );
+    store.addSettingStoreListener( listener );
+    store.removeSettingStoreListener( listener );
+
+    store.setAttribute( "key", "value" );
+
+    verify( listener, never() ).settingChanged( any( SettingStoreEvent.class ) );
+  }
+
+  @Test
+  public void testSettingStoreListener_exceptionDoesNotPreventChange() throws Exception {
+    store.addSettingStoreListener( new SettingStoreListener() {
+      public void settingChanged( SettingStoreEvent event ) {
+        throw new RuntimeException();
+      }
+    } );
+
+    store.setAttribute( "key", "value" );
+
+    assertEquals( "value", store.getAttribute( "key" ) );
+  }
+
+  private static SettingStoreEvent captureEvent( SettingStoreListener listener ) {
+    ArgumentCaptor<SettingStoreEvent> captor = ArgumentCaptor.forClass( SettingStoreEvent.class );
+    verify( listener ).settingChanged( captor.capture() );
+    return captor.getValue();
+  }
+
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+
+public class MessageCompressor_Test {
+
+  @Test
+  public void testGetEncoding_withoutHeader() {
+    assertNull( MessageCompressor.getEncoding( null ) );
+  }
+
+  @Test
+  public void testGetEncoding_withUnsupportedCodings() {
+    assertNull( MessageCompressor.getEncoding( "br, identity" ) );
+  }
+
+  @Test
+  public void testGetEncoding_prefersGzip() {
+    assertEquals( "gzip", MessageCompressor.getEncoding( "deflate, gzip" ) );
+  }
+
+  @Test
+  public void testGetEncoding_withDeflate() {
+    assertEquals( "deflate", MessageCompressor.getEncoding( "br, deflate" ) );
+  }
+
+  @Test
+  public void testGetEncoding_isCaseInsensitive() {
+    assertEquals( "gzip", MessageCompressor.getEncoding( "GZip" ) );
+  }
+
+  @Test
+  public void testGetEncoding_ignoresRejectedCodings() {
+    assertEquals( "deflate", MessageCompressor.getEncoding( "gzip;q=0, deflate;q=0.5" ) );
+  }
+
+  @Test
+  public void testCompress_gzip() throws IOException {
+    byte[] message = createMessage();
+
+    byte[] compressed = MessageCompressor.compress( message, "gzip" );
+
+    assertTrue( compressed.length < message.length );
+    assertArrayEquals( message, decompress( compressed ) );
+  }
+
+  @Test
+  public void testCompress_deflate() throws IOException {
+    byte[] message = createMessage();
+
+    byte[] compressed = MessageCompressor.compress( message, "deflate" );
+
+    InputStream inputStream = new InflaterInputStream( new ByteArrayInputStream( compressed ) );
+    assertArrayEquals( message, read( inputStream ) );
+  }
+
+  @Test
+  public void testCompress_reusesDeflaters() throws IOException {
+    byte[] message = createMessage();
+
+    MessageCompressor.compress( message, "gzip" );
+    byte[] compressed = MessageCompressor.compress( message, "gzip" );
+
+    assertArrayEquals( message, decompress( compressed ) );
+  }
+
+  @Test
+  public void testCompress_emptyMessage() throws IOException {
+    byte[] compressed = MessageCompressor.compress( new byte[ 0 ], "gzip" );
+
+    assertEquals( 0, decompress( compressed ).length );
+  }
+
+  private static byte[] createMessage() {
+    StringBuilder builder = new StringBuilder( "{\"head\":{},\"operations\":[" );
+    for( int i = 0; i < 100; i++ ) {
+      builder.append( "[\"set\",\"w" + i + "\",{\"bounds\":[0,0,100,20]}]," );
+    }
+    builder.append( "]}" );
+    return builder.toString().getBytes();
+  }
+
+  private static byte[] decompress( byte[] compressed ) throws IOException {
+    return read( new GZIPInputStream( new ByteArrayInputStream( compressed ) ) );
+  }
+
+  private static byte[] read( InputStream inputStream ) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 1024 ];
+    int read = inputStream.read( buffer );
+    while( read != -1 ) {
+      result.write( buffer, 0, read );
+      read = inputStream.read( buffer );
+    }
+    return result.toByteArray();
+  }
+
+}
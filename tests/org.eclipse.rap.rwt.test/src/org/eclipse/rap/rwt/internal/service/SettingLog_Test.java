@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class SettingLog_Test {
+
+  private File file;
+  private SettingLog log;
+
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile( "settings", ".log" );
+    log = new SettingLog( file );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    log.close();
+    file.delete();
+    getBackupFile().delete();
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testCreate_failsWithNullFile() {
+    new SettingLog( null );
+  }
+
+  @Test
+  public void testGet_returnsNullForUnknownKey() throws Exception {
+    assertNull( log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testGet_returnsLatestValue() throws Exception {
+    log.put( "store", "key", "value1" );
+    log.put( "store", "key", "value2" );
+
+    assertEquals( "value2", log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testGet_separatesStores() throws Exception {
+    log.put( "store1", "key", "value1" );
+    log.put( "store2", "key", "value2" );
+
+    assertEquals( "value1", log.get( "store1", "key" ) );
+    assertEquals( "value2", log.get( "store2", "key" ) );
+  }
+
+  @Test
+  public void testGet_afterRemove() throws Exception {
+    log.put( "store", "key", "value" );
+
+    log.remove( "store", "key" );
+
+    assertNull( log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testPut_supportsNonAsciiValues() throws Exception {
+    log.put( "store", "key", "\u00e4\u20ac\n" );
+
+    assertEquals( "\u00e4\u20ac\n", log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testPut_appendsToFile() throws Exception {
+    log.put( "store", "key", "value1" );
+    long size = log.getSize();
+
+    log.put( "store", "key", "value2" );
+
+    assertEquals( 2 * size, log.getSize() );
+  }
+
+  @Test
+  public void testRemove_unknownKeyDoesNotWrite() throws Exception {
+    log.remove( "store", "key" );
+
+    assertEquals( 0, log.getSize() );
+  }
+
+  @Test
+  public void testGetAll() throws Exception {
+    log.put( "store", "key1", "value1" );
+    log.put( "store", "key2", "value2" );
+    log.put( "store", "key3", "value3" );
+    log.remove( "store", "key3" );
+    log.put( "other", "key4", "value4" );
+
+    Map<String, String> expected = new HashMap<String, String>();
+    expected.put( "key1", "value1" );
+    expected.put( "key2", "value2" );
+    assertEquals( expected, log.getAll( "store" ) );
+  }
+
+  @Test
+  public void testGetAll_returnsEmptyMapForUnknownStore() throws Exception {
+    assertTrue( log.getAll( "store" ).isEmpty() );
+  }
+
+  @Test
+  public void testReopen_restoresIndex() throws Exception {
+    log.put( "store", "key1", "value1" );
+    log.put( "store", "key1", "value2" );
+    log.put( "store", "key2", "value3" );
+    log.remove( "store", "key2" );
+    log.close();
+
+    SettingLog reopenedLog = new SettingLog( file );
+
+    assertEquals( "value2", reopenedLog.get( "store", "key1" ) );
+    assertNull( reopenedLog.get( "store", "key2" ) );
+    reopenedLog.close();
+  }
+
+  @Test
+  public void testReopen_discardsIncompleteRecord() throws Exception {
+    log.put( "store", "key", "value" );
+    long size = log.getSize();
+    log.close();
+    appendToFile( new byte[] { 0, 0, 0, 100, 1, 0 } );
+
+    SettingLog reopenedLog = new SettingLog( file );
+
+    assertEquals( "value", reopenedLog.get( "store", "key" ) );
+    assertEquals( size, reopenedLog.getSize() );
+    reopenedLog.close();
+  }
+
+  @Test
+  public void testReopen_restoresMissingLogFromBackup() throws Exception {
+    log.put( "store", "key", "value" );
+    log.close();
+    assertTrue( file.renameTo( getBackupFile() ) );
+
+    SettingLog reopenedLog = new SettingLog( file );
+
+    assertEquals( "value", reopenedLog.get( "store", "key" ) );
+    assertFalse( getBackupFile().exists() );
+    reopenedLog.close();
+  }
+
+  @Test
+  public void testCompact_removesObsoleteRecords() throws Exception {
+    log.put( "store", "key1", "value" );
+    long size = log.getSize();
+    log.put( "store", "key1", "value" );
+    log.put( "store", "key2", "value" );
+    log.remove( "store", "key2" );
+
+    log.compact();
+
+    assertEquals( size, log.getSize() );
+    assertEquals( "value", log.get( "store", "key1" ) );
+    assertNull( log.get( "store", "key2" ) );
+  }
+
+  @Test
+  public void testCompact_keepsContentAfterReopen() throws Exception {
+    log.put( "store", "key", "value1" );
+    log.put( "store", "key", "value2" );
+    log.compact();
+    log.close();
+
+    SettingLog reopenedLog = new SettingLog( file );
+
+    assertEquals( "value2", reopenedLog.get( "store", "key" ) );
+    reopenedLog.close();
+  }
+
+  @Test
+  public void testPut_compactsWhenMostOfLogIsObsolete() throws Exception {
+    for( int i = 0; i < 10000; i++ ) {
+      log.put( "store", "key", "value" + i );
+    }
+
+    assertTrue( log.getSize() < 100 * 1024 );
+    assertEquals( "value9999", log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testPut_compactsInBackgroundWithExecutor() throws Exception {
+    CapturingExecutor executor = new CapturingExecutor();
+    log.setExecutor( executor );
+    fillUntilCompactionStarts( executor );
+    long size = log.getSize();
+
+    executor.runTasks();
+
+    assertTrue( log.getSize() < size );
+    assertEquals( "last", log.get( "store", "key" ) );
+  }
+
+  @Test
+  public void testBackgroundCompaction_keepsChangesMadeDuringCompaction() throws Exception {
+    CapturingExecutor executor = new CapturingExecutor();
+    log.setExecutor( executor );
+    log.put( "store", "removed", "value" );
+    fillUntilCompactionStarts( executor );
+    log.put( "store", "key", "changed" );
+    log.put( "other", "key", "added" );
+    log.remove( "store", "removed" );
+
+    executor.runTasks();
+    log.close();
+
+    SettingLog reopenedLog = new SettingLog( file );
+    assertEquals( "changed", reopenedLog.get( "store", "key" ) );
+    assertEquals( "added", reopenedLog.get( "other", "key" ) );
+    assertNull( reopenedLog.get( "store", "removed" ) );
+    reopenedLog.close();
+  }
+
+  @Test
+  public void testBackgroundCompaction_isDiscardedAfterCompact() throws Exception {
+    CapturingExecutor executor = new CapturingExecutor();
+    log.setExecutor( executor );
+    fillUntilCompactionStarts( executor );
+    log.compact();
+    log.put( "store", "key", "changed" );
+    long size = log.getSize();
+
+    executor.runTasks();
+
+    assertEquals( size, log.getSize() );
+    assertEquals( "changed", log.get( "store", "key" ) );
+  }
+
+  private void fillUntilCompactionStarts( CapturingExecutor executor ) throws Exception {
+    for( int i = 0; executor.tasks.isEmpty(); i++ ) {
+      log.put( "store", "key", "value" + i );
+    }
+    log.put( "store", "key", "last" );
+  }
+
+  private void appendToFile( byte[] bytes ) throws Exception {
+    RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+    try {
+      randomAccessFile.seek( randomAccessFile.length() );
+      randomAccessFile.write( bytes );
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private File getBackupFile() {
+    return new File( file.getPath() + ".bak" );
+  }
+
+  private static class CapturingExecutor implements Executor {
+
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    public void execute( Runnable command ) {
+      tasks.add( command );
+    }
+
+    void runTasks() {
+      for( Runnable task : new ArrayList<Runnable>( tasks ) ) {
+        task.run();
+      }
+      tasks.clear();
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,13 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import java.io.Flushable;
 import java.util.regex.Pattern;
 
 import javax.servlet.http.Cookie;
@@ -177,6 +183,21 @@ public class SettingStoreManager_Test {
     }
   }
 
+  @Test
+  public void testGetStore_flushesStoreWhenSessionIsDestroyed() throws Exception {
+    SettingStore store
+      = mock( SettingStore.class, withSettings().extraInterfaces( Flushable.class ) );
+    SettingStoreFactory factory = mock( SettingStoreFactory.class );
+    when( factory.createSettingStore( anyString() ) ).thenReturn( store );
+    SettingStoreManager settingStoreManager = new SettingStoreManager();
+    settingStoreManager.register( factory );
+    settingStoreManager.getStore();
+
+    ( ( UISessionImpl )ContextProvider.getUISession() ).shutdown();
+
+    verify( ( Flushable )store ).flush();
+  }
+
   private void fakeNewSession() {
     ContextProvider.disposeContext();
     Fixture.createServiceContext();
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.service;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+
+public class SettingStoreWriter_Test {
+
+  private ScheduledExecutorService scheduler;
+  private SettingStoreWriter writer;
+
+  @Before
+  public void setUp() {
+    scheduler = mock( ScheduledExecutorService.class );
+    writer = new SettingStoreWriter( scheduler, 500 );
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testCreate_failsWithNullScheduler() {
+    new SettingStoreWriter( null, 500 );
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testSchedule_failsWithNullStore() {
+    writer.schedule( null );
+  }
+
+  @Test
+  public void testSchedule_schedulesFlushWithWriteDelay() {
+    writer.schedule( mock( Flushable.class ) );
+
+    verify( scheduler ).schedule( any( Runnable.class ), eq( 500L ), eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testSchedule_schedulesOnlyOnceUntilFlushed() {
+    writer.schedule( mock( Flushable.class ) );
+    writer.schedule( mock( Flushable.class ) );
+
+    verify( scheduler, times( 1 ) )
+      .schedule( any( Runnable.class ), eq( 500L ), eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testSchedule_schedulesAgainAfterFlush() {
+    writer.schedule( mock( Flushable.class ) );
+    writer.flushAll();
+
+    writer.schedule( mock( Flushable.class ) );
+
+    verify( scheduler, times( 2 ) )
+      .schedule( any( Runnable.class ), eq( 500L ), eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testScheduledTask_flushesStoresOnce() throws IOException {
+    Flushable store = mock( Flushable.class );
+    writer.schedule( store );
+    writer.schedule( store );
+
+    getScheduledTask().run();
+
+    verify( store, times( 1 ) ).flush();
+  }
+
+  @Test
+  public void testFlushAll_flushesAllStores() throws IOException {
+    Flushable store1 = mock( Flushable.class );
+    Flushable store2 = mock( Flushable.class );
+    writer.schedule( store1 );
+    writer.schedule( store2 );
+
+    writer.flushAll();
+
+    verify( store1 ).flush();
+    verify( store2 ).flush();
+  }
+
+  @Test
+  public void testFlushAll_continuesAfterFailure() throws IOException {
+    Flushable store1 = mock( Flushable.class );
+    doThrow( new IOException() ).when( store1 ).flush();
+    Flushable store2 = mock( Flushable.class );
+    writer.schedule( store1 );
+    writer.schedule( store2 );
+
+    writer.flushAll();
+
+    verify( store2 ).flush();
+  }
+
+  @Test
+  public void testFlushAll_doesNotFlushStoresTwice() throws IOException {
+    Flushable store = mock( Flushable.class );
+    writer.schedule( store );
+    writer.flushAll();
+
+    writer.flushAll();
+
+    verify( store, times( 1 ) ).flush();
+  }
+
+  @Test
+  public void testSchedule_withShutdownScheduler_keepsStorePending() throws IOException {
+    when( scheduler.schedule( any( Runnable.class ), eq( 500L ), eq( TimeUnit.MILLISECONDS ) ) )
+      .thenThrow( new RejectedExecutionException() );
+    Flushable store = mock( Flushable.class );
+    writer.schedule( store );
+
+    writer.flushAll();
+
+    verify( store ).flush();
+  }
+
+  private Runnable getScheduledTask() {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass( Runnable.class );
+    verify( scheduler ).schedule( captor.capture(), eq( 500L ), eq( TimeUnit.MILLISECONDS ) );
+    return captor.getValue();
+  }
+
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.textsize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rap.json.JsonArray;
+import org.junit.Test;
+
+
+public class CharWidthTable_Test {
+
+  @Test
+  public void testCharacters() {
+    String characters = CharWidthTable.CHARACTERS;
+
+    assertTrue( characters.indexOf( 'a' ) != -1 );
+    assertTrue( characters.indexOf( 'ä' ) != -1 );
+    assertTrue( characters.indexOf( '一' ) != -1 );
+    assertFalse( characters.indexOf( '\n' ) != -1 );
+    assertFalse( characters.indexOf( '\u0085' ) != -1 );
+  }
+
+  @Test
+  public void testCreate_withWrongNumberOfWidths() {
+    assertNull( CharWidthTable.create( new JsonArray().add( 1 ) ) );
+  }
+
+  @Test
+  public void testGetWidth() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f );
+
+    assertEquals( 16, table.getWidth( "iiW" ) );
+  }
+
+  @Test
+  public void testGetWidth_roundsUp() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f );
+
+    assertEquals( 3, table.getWidth( "i" ) );
+  }
+
+  @Test
+  public void testGetWidth_emptyString() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f );
+
+    assertEquals( 0, table.getWidth( "" ) );
+  }
+
+  @Test
+  public void testGetWidth_addsOffset() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f, 1 );
+
+    assertEquals( 17, table.getWidth( "iiW" ) );
+  }
+
+  @Test
+  public void testGetWidth_emptyStringWithOffset() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f, 1 );
+
+    assertEquals( 0, table.getWidth( "" ) );
+  }
+
+  @Test
+  public void testGetWidth_fullWidthCharacters() {
+    CharWidthTable table = createTable( '一', 12, 'W', 10 );
+
+    assertEquals( 36, table.getWidth( "日本あ" ) );
+  }
+
+  @Test
+  public void testGetWidth_unknownCharacter() {
+    CharWidthTable table = createTable( 'i', 2.5f, 'W', 10.25f );
+
+    assertEquals( -1, table.getWidth( "iا" ) );
+    assertEquals( -1, table.getWidth( "i\ni" ) );
+    assertEquals( -1, table.getWidth( "i\ti" ) );
+  }
+
+  private static CharWidthTable createTable( char char1, float width1, char char2, float width2 ) {
+    return createTable( char1, width1, char2, width2, 0 );
+  }
+
+  private static CharWidthTable createTable( char char1,
+                                             float width1,
+                                             char char2,
+                                             float width2,
+                                             int offset )
+  {
+    JsonArray widths = new JsonArray();
+    String characters = CharWidthTable.CHARACTERS;
+    for( int i = 0; i < characters.length(); i++ ) {
+      char ch = characters.charAt( i );
+      widths.add( ch == char1 ? width1 : ch == char2 ? width2 : 1 );
+    }
+    widths.add( offset );
+    return CharWidthTable.create( widths );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,13 +15,17 @@ import static org.eclipse.rap.rwt.internal.protocol.JsonUtil.createJsonArray;
 import static org.eclipse.rap.rwt.internal.service.ContextProvider.getApplicationContext;
 import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.METHOD_MEASURE_ITEMS;
 import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.METHOD_STORE_MEASUREMENTS;
+import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.PROPERTY_CHAR_WIDTHS;
 import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.PROPERTY_ITEMS;
 import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.PROPERTY_RESULTS;
 import static org.eclipse.rap.rwt.internal.textsize.MeasurementOperator.TYPE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
 import org.eclipse.rap.rwt.testfixture.Fixture;
@@ -115,6 +119,41 @@ public class MeasurementOperator_Test {
     assertEquals( 0, operator.getItemCount() );
   }
 
+  @Test
+  public void testHandleMeasurementResults_withCharWidths() {
+    requestProbingOfFont1();
+    operator.handleMeasurementRequests();
+    JsonArray widths = new JsonArray();
+    for( int i = 0; i < CharWidthTable.CHARACTERS.length(); i++ ) {
+      widths.add( 5.5f );
+    }
+    widths.add( 0 );
+    String id = MeasurementUtil.getId( FONT_DATA_1 );
+    JsonObject parameters = new JsonObject()
+      .add( PROPERTY_RESULTS, new JsonObject().add( id, createJsonArray( 3, 4 ) ) )
+      .add( PROPERTY_CHAR_WIDTHS, new JsonObject().add( id, widths ) );
+    Fixture.fakeNewRequest();
+    Fixture.fakeCallOperation( TYPE, METHOD_STORE_MEASUREMENTS, parameters );
+
+    operator.handleMeasurementResults();
+
+    ProbeResult probeResult = ProbeResultStore.getInstance().getProbeResult( FONT_DATA_1 );
+    assertNotNull( probeResult.getCharWidthTable() );
+    assertEquals( 11, probeResult.getCharWidthTable().getWidth( "ab" ) );
+  }
+
+  @Test
+  public void testHandleMeasurementResults_withoutCharWidths() {
+    requestProbingOfFont1();
+    operator.handleMeasurementRequests();
+    fakeMessageWithMeasurementResult( FONT_DATA_1, null );
+
+    operator.handleMeasurementResults();
+
+    ProbeResult probeResult = ProbeResultStore.getInstance().getProbeResult( FONT_DATA_1 );
+    assertNull( probeResult.getCharWidthTable() );
+  }
+
   @Test
   public void testInitStartupProbes() {
     createProbeOfFont1();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.rap.rwt.internal.textsize;
 import static org.junit.Assert.assertEquals;
 
 import org.eclipse.rap.json.JsonArray;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.FontData;
@@ -33,6 +34,7 @@ public class MeasurementUtil_Test {
   @After
   public void tearDown() {
     Fixture.tearDown();
+    System.clearProperty( RWTProperties.CHAR_WIDTH_TABLES );
   }
 
   @Test
@@ -53,6 +55,17 @@ public class MeasurementUtil_Test {
     assertEquals( expected, probeObject );
   }
 
+  @Test
+  public void testCreateProbeParamObject_withCharWidthTables() {
+    System.setProperty( RWTProperties.CHAR_WIDTH_TABLES, "true" );
+    Probe probe = createProbe();
+
+    JsonArray probeObject = MeasurementUtil.createProbeParamObject( probe );
+
+    assertEquals( 9, probeObject.size() );
+    assertEquals( CharWidthTable.CHARACTERS, probeObject.get( 8 ).asString() );
+  }
+
   @Test
   public void testCreateItemParamObject() {
     MeasurementItem item = createMeasurementItem();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 Frank Appel and others.
+ * Copyright (c) 2011, 2014 Frank Appel and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,17 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.textsize;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 
 import org.eclipse.rap.rwt.testfixture.Fixture;
@@ -102,6 +107,202 @@ public class TextSizeStorage_Test {
     }
   }
 
+  @Test
+  public void testStatistics() {
+    storage.storeTextSize( KEY_FIRST, SIZE_FIRST );
+
+    storage.lookupTextSize( KEY_FIRST );
+    storage.lookupTextSize( KEY_FIRST );
+    storage.lookupTextSize( KEY_OVERFLOW );
+
+    assertEquals( 2, storage.getHitCount() );
+    assertEquals( 1, storage.getMissCount() );
+    assertEquals( 0, storage.getEvictionCount() );
+  }
+
+  @Test
+  public void testEvictionCount() {
+    populateUntilOverflowThresholdIsReached();
+
+    forceOverflow();
+
+    assertEquals( 100, storage.getEvictionCount() );
+    assertEquals( TextSizeStorage.MIN_STORE_SIZE - 100, storage.size() );
+  }
+
+  @Test
+  public void testSelect() {
+    long[] values = new long[] { 5, 3, 9, 1, 7, 3, 8 };
+
+    assertEquals( 1, TextSizeStorage.select( values.clone(), values.length, 0 ) );
+    assertEquals( 3, TextSizeStorage.select( values.clone(), values.length, 1 ) );
+    assertEquals( 3, TextSizeStorage.select( values.clone(), values.length, 2 ) );
+    assertEquals( 5, TextSizeStorage.select( values.clone(), values.length, 3 ) );
+    assertEquals( 9, TextSizeStorage.select( values.clone(), values.length, 6 ) );
+  }
+
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    storage.setMaximumStoreSize( TextSizeStorage.MIN_STORE_SIZE );
+    final Throwable[] problem = new Throwable[ 1 ];
+    Thread[] threads = new Thread[ 4 ];
+    for( int i = 0; i < threads.length; i++ ) {
+      final int offset = i * 10000;
+      threads[ i ] = new Thread( new Runnable() {
+        public void run() {
+          try {
+            for( int j = 0; j < 5000; j++ ) {
+              Integer key = new Integer( offset + j );
+              Point size = new Point( j, j );
+              storage.storeTextSize( key, size );
+              Point foundSize = storage.lookupTextSize( key );
+              if( foundSize != null && !size.equals( foundSize ) ) {
+                throw new IllegalStateException( "Wrong size for key " + key );
+              }
+            }
+          } catch( Throwable throwable ) {
+            synchronized( problem ) {
+              problem[ 0 ] = throwable;
+            }
+          }
+        }
+      } );
+      threads[ i ].start();
+    }
+    for( Thread thread : threads ) {
+      thread.join();
+    }
+
+    synchronized( problem ) {
+      assertNull( problem[ 0 ] );
+    }
+    assertTrue( storage.size() < 2 * TextSizeStorage.MIN_STORE_SIZE );
+  }
+
+  @Test
+  public void testExportAndImport() throws IOException {
+    storage.storeFont( FONT_DATA_1 );
+    Object key = createKey( FONT_DATA_1, "foo" );
+    storage.storeTextSize( key, new Point( 20, 12 ) );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    storage.exportTo( outputStream );
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    assertArrayEquals( new FontData[] { FONT_DATA_1 }, newStorage.getFontList() );
+    Point size = newStorage.lookupTextSize( createKey( FONT_DATA_1, "foo" ) );
+    assertEquals( new Point( 20, 12 ), size );
+  }
+
+  @Test
+  public void testExport_skipsOtherKeys() throws IOException {
+    storage.storeTextSize( KEY_FIRST, SIZE_FIRST );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    storage.exportTo( outputStream );
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    assertEquals( 0, newStorage.size() );
+  }
+
+  @Test
+  public void testImport_withLongString() throws IOException {
+    char[] chars = new char[ 70000 ];
+    Arrays.fill( chars, '\u00e4' );
+    String string = new String( chars );
+    storage.storeTextSize( createKey( FONT_DATA_1, string ), new Point( 1, 2 ) );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    storage.exportTo( outputStream );
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    Point size = newStorage.lookupTextSize( createKey( FONT_DATA_1, string ) );
+    assertEquals( new Point( 1, 2 ), size );
+  }
+
+  @Test
+  public void testImport_ignoresTruncatedRecord() throws IOException {
+    storage.storeTextSize( createKey( FONT_DATA_1, "foo" ), new Point( 20, 12 ) );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    storage.exportTo( outputStream );
+    storage.storeTextSize( createKey( FONT_DATA_1, "bar" ), new Point( 20, 12 ) );
+    ByteArrayOutputStream fullOutputStream = new ByteArrayOutputStream();
+    storage.exportTo( fullOutputStream );
+    byte[] bytes = fullOutputStream.toByteArray();
+    // cut off the last record in the middle
+    int length = ( bytes.length + outputStream.size() ) / 2;
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( bytes, 0, length ) );
+
+    assertEquals( 1, newStorage.size() );
+  }
+
+  @Test
+  public void testImport_ignoresRecordWithInvalidStringLength() throws IOException {
+    storage.storeTextSize( createKey( FONT_DATA_1, "foo" ), new Point( 20, 12 ) );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    storage.exportTo( outputStream );
+    DataOutputStream output = new DataOutputStream( outputStream );
+    // a size record that starts with the length of its probe text
+    output.writeByte( 2 );
+    output.writeInt( Integer.MAX_VALUE );
+    output.flush();
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    assertEquals( 1, newStorage.size() );
+  }
+
+  @Test
+  public void testImport_withInvalidContent() {
+    byte[] bytes = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+    try {
+      storage.importFrom( new ByteArrayInputStream( bytes ) );
+      fail();
+    } catch( IOException expected ) {
+    }
+  }
+
+  @Test
+  public void testJournal() throws IOException {
+    storage.storeFont( FONT_DATA_1 );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    storage.startJournal( outputStream, true );
+    storage.storeFont( FONT_DATA_2 );
+    storage.storeTextSize( createKey( FONT_DATA_2, "foo" ), new Point( 20, 12 ) );
+    storage.stopJournal();
+    TextSizeStorage newStorage = new TextSizeStorage();
+    newStorage.importFrom( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    assertArrayEquals( new FontData[] { FONT_DATA_2 }, newStorage.getFontList() );
+    Point size = newStorage.lookupTextSize( createKey( FONT_DATA_2, "foo" ) );
+    assertEquals( new Point( 20, 12 ), size );
+  }
+
+  @Test
+  public void testJournal_stopsWhenStopped() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    storage.startJournal( outputStream, true );
+    storage.stopJournal();
+    int size = outputStream.size();
+
+    storage.storeFont( FONT_DATA_1 );
+
+    assertEquals( size, outputStream.size() );
+  }
+
+  private static Object createKey( FontData fontData, String string ) {
+    ProbeResult probeResult = new ProbeResult( new Probe( fontData ), new Point( 100, 12 ) );
+    return new TextSizeStorageUtil.Key( probeResult, fontData, string, SWT.DEFAULT, 0 );
+  }
+
   private void populateUntilOverflowThresholdIsReached() {
     storage.setMaximumStoreSize( TextSizeStorage.MIN_STORE_SIZE );
     for( int i = 0; i < TextSizeStorage.MIN_STORE_SIZE - 1; i++ ) {
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.internal.textsize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.Point;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class TextSizeStoreFile_Test {
+
+  private static final FontData FONT_DATA = new FontData( "arial", 10, SWT.NORMAL );
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile( "textsizes", ".bin" );
+    file.delete();
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+    new File( file.getPath() + ".lock" ).delete();
+  }
+
+  @Test
+  public void testOpen_createsFile() {
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, new TextSizeStorage() );
+
+    storeFile.open();
+    storeFile.close();
+
+    assertTrue( file.isFile() );
+  }
+
+  @Test
+  public void testOpen_restoresStoredSizes() {
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage );
+    storeFile.open();
+    storage.storeFont( FONT_DATA );
+    storage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    storeFile.close();
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, newStorage );
+    newStoreFile.open();
+    newStoreFile.close();
+
+    assertArrayEquals( new FontData[] { FONT_DATA }, newStorage.getFontList() );
+    assertEquals( new Point( 20, 12 ), newStorage.lookupTextSize( createKey( "foo" ) ) );
+  }
+
+  @Test
+  public void testOpen_compactsFile() {
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage );
+    storeFile.open();
+    storage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    storage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    storeFile.close();
+    long length = file.length();
+
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, new TextSizeStorage() );
+    newStoreFile.open();
+    newStoreFile.close();
+
+    assertTrue( file.length() < length );
+  }
+
+  @Test
+  public void testOpen_withInvalidFile() throws IOException {
+    FileOutputStream outputStream = new FileOutputStream( file );
+    outputStream.write( new byte[] { 1, 2, 3 } );
+    outputStream.close();
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage );
+
+    storeFile.open();
+    storeFile.close();
+
+    assertEquals( 0, storage.size() );
+    assertFalse( new File( file.getPath() + ".tmp" ).exists() );
+  }
+
+  @Test
+  public void testOpen_withFileInUse_keepsSizesInMemoryOnly() {
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage );
+    storeFile.open();
+    TextSizeStorage otherStorage = new TextSizeStorage();
+    TextSizeStoreFile otherStoreFile = new TextSizeStoreFile( file, otherStorage );
+
+    otherStoreFile.open();
+    otherStorage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    otherStoreFile.close();
+    storeFile.close();
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, newStorage );
+    newStoreFile.open();
+    newStoreFile.close();
+    assertEquals( 0, newStorage.size() );
+  }
+
+  @Test
+  public void testClose_releasesFile() {
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, new TextSizeStorage() );
+    storeFile.open();
+    storeFile.close();
+    TextSizeStorage otherStorage = new TextSizeStorage();
+    TextSizeStoreFile otherStoreFile = new TextSizeStoreFile( file, otherStorage );
+
+    otherStoreFile.open();
+    otherStorage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    otherStoreFile.close();
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, newStorage );
+    newStoreFile.open();
+    newStoreFile.close();
+    assertEquals( new Point( 20, 12 ), newStorage.lookupTextSize( createKey( "foo" ) ) );
+  }
+
+  @Test
+  public void testStore_compactsFileWhenLimitIsExceeded() throws InterruptedException {
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage, 1000 );
+    storeFile.open();
+
+    // the journal is buffered, write more than the buffer size
+    for( int i = 0; i < 1000; i++ ) {
+      storage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    }
+    // the same size is appended 1000 times, the compacted file contains it once
+    for( int i = 0; i < 100 && file.length() > 10000; i++ ) {
+      Thread.sleep( 20 );
+    }
+    long length = file.length();
+    storeFile.close();
+
+    assertTrue( length < 10000 );
+    TextSizeStorage newStorage = new TextSizeStorage();
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, newStorage );
+    newStoreFile.open();
+    newStoreFile.close();
+    assertEquals( new Point( 20, 12 ), newStorage.lookupTextSize( createKey( "foo" ) ) );
+  }
+
+  @Test
+  public void testOpen_restoresMissingFileFromBackup() {
+    TextSizeStorage storage = new TextSizeStorage();
+    TextSizeStoreFile storeFile = new TextSizeStoreFile( file, storage );
+    storeFile.open();
+    storage.storeTextSize( createKey( "foo" ), new Point( 20, 12 ) );
+    storeFile.close();
+    File backupFile = new File( file.getPath() + ".bak" );
+    file.renameTo( backupFile );
+
+    TextSizeStorage newStorage = new TextSizeStorage();
+    TextSizeStoreFile newStoreFile = new TextSizeStoreFile( file, newStorage );
+    newStoreFile.open();
+    newStoreFile.close();
+
+    assertEquals( new Point( 20, 12 ), newStorage.lookupTextSize( createKey( "foo" ) ) );
+    assertFalse( backupFile.exists() );
+  }
+
+  private static Object createKey( String string ) {
+    ProbeResult probeResult = new ProbeResult( new Probe( FONT_DATA ), new Point( 100, 12 ) );
+    return new TextSizeStorageUtil.Key( probeResult, FONT_DATA, string, SWT.DEFAULT, 0 );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import static org.eclipse.rap.rwt.internal.service.ContextProvider.getApplicatio
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import org.eclipse.rap.json.JsonArray;
 import org.eclipse.rap.rwt.internal.service.ContextProvider;
 import org.eclipse.rap.rwt.internal.service.ServiceStore;
 import org.eclipse.rap.rwt.testfixture.Fixture;
@@ -193,6 +194,82 @@ public class TextSizeUtil_Test {
     assertEquals( 40, size.y );
   }
 
+  @Test
+  public void testStringExtentUsesCharWidthTable() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    Point size = TextSizeUtil.stringExtent( getFont(), TEST_STRING );
+
+    assertEquals( new Point( 21, 10 ), size );
+    assertEquals( 0, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testStringExtentWithUnknownCharactersIsMeasured() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    TextSizeUtil.stringExtent( getFont(), "\u0627\u0644" );
+
+    assertEquals( 1, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testStringExtentWithMnemonicIsMeasured() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    TextSizeUtil.stringExtent( getFont(), "&test" );
+
+    assertEquals( 1, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testTextExtentWithWrapWidthUsesCharWidthTableIfTextFits() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    Point size = TextSizeUtil.textExtent( getFont(), TEST_STRING, 100 );
+
+    assertEquals( new Point( 21, 10 ), size );
+    assertEquals( 0, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testTextExtentWithWrapWidthIsMeasuredIfTextWraps() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    TextSizeUtil.textExtent( getFont(), TEST_STRING, 20 );
+
+    assertEquals( 1, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testTextExtentWithLineBreakIsMeasured() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    TextSizeUtil.textExtent( getFont(), "multi\nline", 0 );
+
+    assertEquals( 1, getMeasurementItems().length );
+  }
+
+  @Test
+  public void testMarkupExtentIsMeasured() {
+    fakeProbeWithCharWidths( 5.25f );
+
+    TextSizeUtil.markupExtent( getFont(), TEST_STRING, 0 );
+
+    assertEquals( 1, getMeasurementItems().length );
+  }
+
+  private void fakeProbeWithCharWidths( float width ) {
+    JsonArray widths = new JsonArray();
+    for( int i = 0; i < CharWidthTable.CHARACTERS.length(); i++ ) {
+      widths.add( width );
+    }
+    widths.add( 0 );
+    CharWidthTable charWidthTable = CharWidthTable.create( widths );
+    Probe probe = new Probe( FONT_DATA );
+    ProbeResultStore.getInstance().createProbeResult( probe, new Point( 10, 10 ), charWidthTable );
+  }
+
   private void fakeMeasurement( String text, int wrapWidth, int mode, Point size ) {
     ProbeResultStore.getInstance().createProbeResult( new Probe( FONT_DATA ), new Point( 10, 10 ) );
     getApplicationContext().getTextSizeStorage().storeFont( FONT_DATA );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,19 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.internal.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.rap.rwt.internal.util.SharedInstanceBuffer.IInstanceCreator;
+import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -123,6 +130,125 @@ public class SharedInstanceBuffer_Test {
     }
   }
 
+  @Test
+  public void testGetAndCreateWithNullValue() {
+    keyValueStore.get( "key", new TestInstanceCreator( null ) );
+    Object value = new Object();
+
+    Object returnedValue = keyValueStore.get( "key", new TestInstanceCreator( value ) );
+
+    assertSame( value, returnedValue );
+  }
+
+  @Test
+  public void testGetAndCreateAfterFailedCreation() {
+    try {
+      keyValueStore.get( "key", new IInstanceCreator<Object>() {
+        public Object createInstance() {
+          throw new IllegalStateException();
+        }
+      } );
+      fail();
+    } catch( IllegalStateException expected ) {
+    }
+    Object value = new Object();
+
+    Object returnedValue = keyValueStore.get( "key", new TestInstanceCreator( value ) );
+
+    assertSame( value, returnedValue );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testGetAndCreateRecursively() {
+    keyValueStore.get( "key", new IInstanceCreator<Object>() {
+      public Object createInstance() {
+        return keyValueStore.get( "key", new TestInstanceCreator( new Object() ) );
+      }
+    } );
+  }
+
+  @Test
+  public void testGetAndCreateConcurrently() throws Exception {
+    final AtomicInteger creationCount = new AtomicInteger();
+    final CountDownLatch creationStarted = new CountDownLatch( 1 );
+    final CountDownLatch creationReleased = new CountDownLatch( 1 );
+    final Object value = new Object();
+    final Object[] returnedValues = new Object[ 2 ];
+    Thread creatingThread = new Thread( new Runnable() {
+      public void run() {
+        returnedValues[ 0 ] = keyValueStore.get( "key", new IInstanceCreator<Object>() {
+          public Object createInstance() {
+            creationCount.incrementAndGet();
+            creationStarted.countDown();
+            await( creationReleased );
+            return value;
+          }
+        } );
+      }
+    } );
+    Thread waitingThread = new Thread( new Runnable() {
+      public void run() {
+        returnedValues[ 1 ] = keyValueStore.get( "key", new IInstanceCreator<Object>() {
+          public Object createInstance() {
+            creationCount.incrementAndGet();
+            return new Object();
+          }
+        } );
+      }
+    } );
+    creatingThread.start();
+    creationStarted.await();
+    waitingThread.start();
+
+    // other keys are not blocked by the creation in progress
+    Object otherValue = keyValueStore.get( "otherKey", new TestInstanceCreator( "other" ) );
+    creationReleased.countDown();
+    creatingThread.join();
+    waitingThread.join();
+
+    assertEquals( "other", otherValue );
+    assertEquals( 1, creationCount.get() );
+    assertSame( value, returnedValues[ 0 ] );
+    assertSame( value, returnedValues[ 1 ] );
+  }
+
+  @Test
+  public void testGetAndCreateWithMaxSize() {
+    keyValueStore = new SharedInstanceBuffer<Object,Object>( 1 );
+    Object value = new Object();
+    keyValueStore.get( "key", new TestInstanceCreator( value ) );
+
+    Object returnedValue = keyValueStore.get( "key", new TestInstanceCreator( new Object() ) );
+
+    assertSame( value, returnedValue );
+  }
+
+  @Test
+  public void testSerialize() throws Exception {
+    keyValueStore.get( "key", new TestInstanceCreator( "value" ) );
+
+    SharedInstanceBuffer<Object,Object> deserialized = serializeAndDeserialize( keyValueStore );
+
+    Object returnedValue = deserialized.get( "key", new TestInstanceCreator( "other" ) );
+    assertEquals( "value", returnedValue );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private static SharedInstanceBuffer<Object,Object> serializeAndDeserialize(
+    SharedInstanceBuffer<Object,Object> buffer ) throws Exception
+  {
+    byte[] bytes = Fixture.serialize( buffer );
+    return ( SharedInstanceBuffer<Object,Object> )Fixture.deserialize( bytes );
+  }
+
+  private static void await( CountDownLatch latch ) {
+    try {
+      latch.await( 5, TimeUnit.SECONDS );
+    } catch( InterruptedException exception ) {
+      throw new RuntimeException( exception );
+    }
+  }
+
   private static class TestInstanceCreator implements IInstanceCreator<Object> {
     private final Object value;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2012 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,10 +16,20 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.io.File;
 import java.util.Enumeration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.rap.rwt.internal.service.SettingStoreWriter;
 import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.junit.After;
 import org.junit.Before;
@@ -32,6 +42,7 @@ public class FileSettingStore_Test {
   private static int instanceCount = 0;
   private String storeId;
   private SettingStore store;
+  private File directory;
 
   @Before
   public void setUp() {
@@ -42,6 +53,12 @@ public class FileSettingStore_Test {
 
   @After
   public void tearDown() {
+    if( directory != null ) {
+      for( File file : directory.listFiles() ) {
+        file.delete();
+      }
+      directory.delete();
+    }
     Fixture.tearDown();
   }
 
@@ -285,12 +302,137 @@ public class FileSettingStore_Test {
     assertNotNull( lastEvent.getNewValue() );
   }
 
+  @Test
+  public void testSetAttribute_leavesNoTemporaryFiles() throws Exception {
+    createDirectory();
+    FileSettingStore fileStore = new FileSettingStore( directory );
+    fileStore.loadById( storeId );
+
+    fileStore.setAttribute( "key", "value" );
+    fileStore.setAttribute( "key", "value2" );
+
+    assertEquals( 1, directory.list().length );
+    assertTrue( new File( directory, storeId ).isFile() );
+  }
+
+  @Test
+  public void testSetAttribute_withWriter_defersWrite() throws Exception {
+    createDirectory();
+    FileSettingStore fileStore = createStoreWithWriter( directory );
+
+    fileStore.setAttribute( "key", "value" );
+
+    assertNull( loadStore( directory ).getAttribute( "key" ) );
+    assertEquals( "value", fileStore.getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testSetAttribute_withWriter_schedulesWriteOnce() throws Exception {
+    ScheduledExecutorService scheduler = mock( ScheduledExecutorService.class );
+    FileSettingStore fileStore = createStoreWithWriter( createDirectory(), scheduler );
+
+    fileStore.setAttribute( "key", "value" );
+    fileStore.setAttribute( "key", "value2" );
+    fileStore.removeAttribute( "key" );
+
+    verify( scheduler, times( 1 ) )
+      .schedule( any( Runnable.class ), eq( 1000L ), eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testFlush_withWriter_writesChanges() throws Exception {
+    createDirectory();
+    FileSettingStore fileStore = createStoreWithWriter( directory );
+    fileStore.setAttribute( "key", "value" );
+
+    fileStore.flush();
+
+    assertEquals( "value", loadStore( directory ).getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testLoadById_withWriter_writesChangesOfPreviousId() throws Exception {
+    createDirectory();
+    FileSettingStore fileStore = createStoreWithWriter( directory );
+    fileStore.setAttribute( "key", "value" );
+
+    fileStore.loadById( createUniqueId() );
+
+    assertEquals( "value", loadStore( directory ).getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testFlush_withWriter_reschedulesAfterFailure() throws Exception {
+    ScheduledExecutorService scheduler = mock( ScheduledExecutorService.class );
+    SettingStoreWriter writer = new SettingStoreWriter( scheduler, 1000 );
+    FileSettingStore fileStore = new FileSettingStore( createDirectory(), writer );
+    fileStore.loadById( storeId );
+    fileStore.setAttribute( "key", "value" );
+    directory.delete();
+
+    writer.flushAll();
+
+    verify( scheduler, times( 2 ) )
+      .schedule( any( Runnable.class ), eq( 1000L ), eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testLoadById_readsBackupWhenFileIsMissing() throws Exception {
+    createDirectory();
+    loadStore( directory ).setAttribute( "key", "value" );
+    File file = new File( directory, storeId );
+    assertTrue( file.renameTo( new File( directory, storeId + ".bak" ) ) );
+
+    SettingStore loadedStore = loadStore( directory );
+
+    assertEquals( "value", loadedStore.getAttribute( "key" ) );
+  }
+
+  @Test
+  public void testSetAttribute_withBackupLeftBehind() throws Exception {
+    createDirectory();
+    loadStore( directory ).setAttribute( "key", "value" );
+    File file = new File( directory, storeId );
+    assertTrue( file.renameTo( new File( directory, storeId + ".bak" ) ) );
+
+    loadStore( directory ).setAttribute( "key", "value2" );
+
+    assertEquals( "value2", loadStore( directory ).getAttribute( "key" ) );
+  }
+
   @Test
   public void testGetId() {
     assertNotNull( store.getId() );
     assertEquals( storeId, store.getId() );
   }
 
+  private FileSettingStore createStoreWithWriter( File directory ) throws Exception {
+    return createStoreWithWriter( directory, mock( ScheduledExecutorService.class ) );
+  }
+
+  private FileSettingStore createStoreWithWriter( File directory,
+                                                 ScheduledExecutorService scheduler )
+    throws Exception
+  {
+    SettingStoreWriter writer = new SettingStoreWriter( scheduler, 1000 );
+    FileSettingStore result = new FileSettingStore( directory, writer );
+    result.loadById( storeId );
+    return result;
+  }
+
+  private SettingStore loadStore( File directory ) throws Exception {
+    SettingStore result = new FileSettingStore( directory );
+    result.loadById( storeId );
+    return result;
+  }
+
+  private File createDirectory() throws Exception {
+    directory = File.createTempFile( "settings", null );
+    directory.delete();
+    directory.mkdir();
+    return directory;
+  }
+
   private int countElements( Enumeration enu ) {
     int result = 0;
     while( enu.hasMoreElements() ) {
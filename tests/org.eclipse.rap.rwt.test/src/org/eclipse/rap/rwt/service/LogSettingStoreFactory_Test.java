@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.rap.rwt.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import org.eclipse.rap.rwt.internal.service.LogSettingStore;
+import org.eclipse.rap.rwt.testfixture.Fixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class LogSettingStoreFactory_Test {
+
+  private File file;
+  private SettingStoreFactory factory;
+
+  @Before
+  public void setUp() throws Exception {
+    Fixture.setUp();
+    file = File.createTempFile( "settings", ".log" );
+    factory = new LogSettingStoreFactory( file );
+  }
+
+  @After
+  public void tearDown() {
+    Fixture.tearDown();
+    file.delete();
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void testCreateFactory_failsWithNullFile() {
+    new LogSettingStoreFactory( null );
+  }
+
+  @Test
+  public void testCreate_failsWithNullId() {
+    try {
+      factory.createSettingStore( null );
+      fail();
+    } catch( NullPointerException exception ) {
+      assertTrue( exception.getMessage().contains( "id" ) );
+    }
+  }
+
+  @Test
+  public void testCreate_failsWithEmptyId() {
+    try {
+      factory.createSettingStore( "" );
+      fail();
+    } catch( IllegalArgumentException exception ) {
+      assertTrue( exception.getMessage().contains( "empty" ) );
+    }
+  }
+
+  @Test
+  public void testCreate_createsInstancesWithCorrectType() {
+    SettingStore instance = factory.createSettingStore( "id" );
+
+    assertSame( LogSettingStore.class, instance.getClass() );
+  }
+
+  @Test
+  public void testCreate_createsLoadedStore() {
+    SettingStore instance = factory.createSettingStore( "id" );
+
+    assertEquals( "id", instance.getId() );
+  }
+
+  @Test
+  public void testCreate_createsNewInstances() {
+    SettingStore instance1 = factory.createSettingStore( "id" );
+    SettingStore instance2 = factory.createSettingStore( "id" );
+
+    assertNotSame( instance1, instance2 );
+  }
+
+  @Test
+  public void testCreate_readsSettingsOfPreviousInstance() throws Exception {
+    factory.createSettingStore( "id" ).setAttribute( "key", "value" );
+
+    SettingStore instance = new LogSettingStoreFactory( file ).createSettingStore( "id" );
+
+    assertEquals( "value", instance.getAttribute( "key" ) );
+  }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,15 +11,62 @@
 package org.eclipse.rap.rwt.widgets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpSession;
 
+import org.eclipse.rap.rwt.RWT;
+import org.eclipse.rap.rwt.internal.RWTProperties;
+import org.eclipse.rap.rwt.internal.service.ServiceManagerImpl;
+import org.eclipse.rap.rwt.internal.service.UISessionImpl;
+import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.rap.rwt.testfixture.TestRequest;
+import org.eclipse.rap.rwt.widgets.ClusteredSynchronizer.AsyncExecServiceHandler;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 
 public class ClusteredSynchronizer_Test {
 
+  private Display display;
+  private ScheduledExecutorService scheduler;
+  private HttpSession httpSession;
+  private UISessionImpl uiSession;
+
+  @Before
+  public void setUp() {
+    Fixture.setUp();
+    display = new Display();
+    scheduler = mock( ScheduledExecutorService.class );
+    httpSession = mock( HttpSession.class );
+    uiSession = ( UISessionImpl )RWT.getUISession( display );
+    uiSession.setHttpSession( httpSession );
+  }
+
+  @After
+  public void tearDown() {
+    System.getProperties().remove( RWTProperties.IN_PROCESS_REPLICATION );
+    Fixture.tearDown();
+  }
+
   @Test
   public void testExtractRequestCookiesWithSingleCookie() {
     TestRequest request = new TestRequest();
@@ -49,4 +96,100 @@ public class ClusteredSynchronizer_Test {
 
     assertEquals( "", cookies );
   }
+
+  @Test
+  public void testCreate_registersServiceHandlerByDefault() {
+    new ClusteredSynchronizer( display );
+
+    ServiceManagerImpl serviceManager = ( ServiceManagerImpl )RWT.getServiceManager();
+    Object handler = serviceManager.getServiceHandler( AsyncExecServiceHandler.ID );
+    assertTrue( handler instanceof AsyncExecServiceHandler );
+  }
+
+  @Test
+  public void testCreate_withInProcessReplication_doesNotRegisterServiceHandler() {
+    System.setProperty( RWTProperties.IN_PROCESS_REPLICATION, "true" );
+
+    new ClusteredSynchronizer( display );
+
+    ServiceManagerImpl serviceManager = ( ServiceManagerImpl )RWT.getServiceManager();
+    assertNull( serviceManager.getServiceHandler( AsyncExecServiceHandler.ID ) );
+  }
+
+  @Test
+  public void testAsyncExec_schedulesNotification() {
+    setInProcessSynchronizer();
+
+    display.asyncExec( mock( Runnable.class ) );
+
+    verify( scheduler ).schedule( any( Runnable.class ),
+                                  eq( ClusteredSynchronizer.NOTIFICATION_DELAY ),
+                                  eq( TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testAsyncExec_coalescesNotifications() {
+    setInProcessSynchronizer();
+
+    display.asyncExec( mock( Runnable.class ) );
+    display.asyncExec( mock( Runnable.class ) );
+    display.asyncExec( mock( Runnable.class ) );
+
+    verify( scheduler, times( 1 ) ).schedule( any( Runnable.class ),
+                                           anyLong(),
+                                           any( TimeUnit.class ) );
+  }
+
+  @Test
+  public void testNotification_marksSessionChanged() {
+    setInProcessSynchronizer();
+
+    display.asyncExec( mock( Runnable.class ) );
+
+    runScheduledNotification();
+
+    verify( httpSession ).setAttribute( anyString(), same( uiSession ) );
+  }
+
+  @Test
+  public void testAsyncExec_schedulesNotificationAfterPreviousNotification() {
+    setInProcessSynchronizer();
+
+    display.asyncExec( mock( Runnable.class ) );
+    runScheduledNotification();
+
+    display.asyncExec( mock( Runnable.class ) );
+
+    verify( scheduler, times( 2 ) ).schedule( any( Runnable.class ),
+                                           anyLong(),
+                                           any( TimeUnit.class ) );
+  }
+
+  @Test
+  public void testAsyncExec_marksSessionChangedWhenSchedulerRejects() {
+    setInProcessSynchronizer();
+    when( scheduler.schedule( any( Runnable.class ), anyLong(), any( TimeUnit.class ) ) )
+      .thenThrow( new RejectedExecutionException() );
+
+    display.asyncExec( mock( Runnable.class ) );
+
+    verify( httpSession ).setAttribute( anyString(), same( uiSession ) );
+  }
+
+  private void setInProcessSynchronizer() {
+    System.setProperty( RWTProperties.IN_PROCESS_REPLICATION, "true" );
+    display.setSynchronizer( new ClusteredSynchronizer( display ) {
+      @Override
+      ScheduledExecutorService getScheduler() {
+        return scheduler;
+      }
+    } );
+  }
+
+  private void runScheduledNotification() {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass( Runnable.class );
+    verify( scheduler ).schedule( captor.capture(), anyLong(), any( TimeUnit.class ) );
+    captor.getValue().run();
+  }
+
 }
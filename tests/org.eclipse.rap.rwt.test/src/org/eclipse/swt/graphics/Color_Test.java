@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -232,4 +232,15 @@ public class Color_Test {
     assertFalse( deserializedColor.isDisposed() );
   }
 
+  @Test
+  public void testSerializeSharedColor_isSharedAgain() throws Exception {
+    Color color = Graphics.getColor( 1, 2, 3 );
+    Color[] colors = new Color[] { color, color };
+
+    Color[] deserializedColors = Fixture.serializeAndDeserialize( colors );
+
+    assertEquals( color, deserializedColors[ 0 ] );
+    assertSame( deserializedColors[ 0 ], deserializedColors[ 1 ] );
+  }
+
 }
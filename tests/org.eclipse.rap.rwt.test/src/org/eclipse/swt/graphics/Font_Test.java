@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -220,6 +221,17 @@ public class Font_Test {
     assertEquals( font.getFontData()[ 0 ], deserializedFont.getFontData()[ 0 ] );
   }
 
+  @Test
+  public void testSerializeSharedFont_isSharedAgain() throws Exception {
+    Font font = Graphics.getFont( "roman", 1, SWT.NORMAL );
+    Font[] fonts = new Font[] { font, font };
+
+    Font[] deserializedFonts = Fixture.serializeAndDeserialize( fonts );
+
+    assertEquals( font, deserializedFonts[ 0 ] );
+    assertSame( deserializedFonts[ 0 ], deserializedFonts[ 1 ] );
+  }
+
   private static void assertFontDataEquals( FontData expected, FontData actual ) {
     assertEquals( expected.getName(), actual.getName() );
     assertEquals( expected.getHeight(), actual.getHeight() );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -104,6 +104,21 @@ public class Image_Test {
     }
   }
 
+  @Test
+  public void testStreamConstructorWithTruncatedImage() throws IOException {
+    ClassLoader loader = Fixture.class.getClassLoader();
+    InputStream stream = loader.getResourceAsStream( Fixture.IMAGE_100x50 );
+    byte[] bytes = new byte[ 200 ];
+    int length = stream.read( bytes );
+    stream.close();
+    try {
+      new Image( device, new ByteArrayInputStream( bytes, 0, length ) );
+      fail( "Must throw exception when passing in truncated image data" );
+    } catch( SWTException e ) {
+      assertEquals( SWT.ERROR_INVALID_IMAGE, e.code );
+    }
+  }
+
   ///////////////////////
   // Filename constructor
 
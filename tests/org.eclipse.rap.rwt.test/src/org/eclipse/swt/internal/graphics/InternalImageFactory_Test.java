@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -100,6 +100,17 @@ public class InternalImageFactory_Test {
     assertSame( internalImage1, internalImage2 );
   }
 
+  @Test
+  public void testInternalImageFromInputStreamHasSizeFromHeader() throws IOException {
+    InputStream stream = CLASS_LOADER.getResourceAsStream( Fixture.IMAGE_100x50 );
+    InternalImage internalImage = internalImageFactory.findInternalImage( stream );
+    stream.close();
+
+    assertEquals( 100, internalImage.getBounds().width );
+    assertEquals( 50, internalImage.getBounds().height );
+    assertTrue( RWT.getResourceManager().isRegistered( internalImage.getResourceName() ) );
+  }
+
   @Test
   public void testInternalImagesFromFilenameAreCached() throws IOException {
     File imageFile = new File( Fixture.TEMP_DIR, "test.gif" );
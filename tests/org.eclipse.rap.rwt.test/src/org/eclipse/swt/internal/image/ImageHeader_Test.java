@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.rap.rwt.testfixture.Fixture;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+
+public class ImageHeader_Test {
+
+  private static final ClassLoader CLASS_LOADER = ImageHeader_Test.class.getClassLoader();
+
+  @Test
+  public void testRead_PNG() throws IOException {
+    ImageHeader header = ImageHeader.read( readResource( Fixture.IMAGE_100x50 ) );
+
+    assertEquals( SWT.IMAGE_PNG, header.getType() );
+    assertEquals( 100, header.getWidth() );
+    assertEquals( 50, header.getHeight() );
+  }
+
+  @Test
+  public void testRead_GIF() throws IOException {
+    byte[] bytes = readResource( Fixture.IMAGE1 );
+    ImageData imageData = new ImageData( new ByteArrayInputStream( bytes ) );
+
+    ImageHeader header = ImageHeader.read( bytes );
+
+    assertEquals( SWT.IMAGE_GIF, header.getType() );
+    assertEquals( imageData.width, header.getWidth() );
+    assertEquals( imageData.height, header.getHeight() );
+  }
+
+  @Test
+  public void testRead_JPEG() {
+    ImageHeader header = ImageHeader.read( createImage( SWT.IMAGE_JPEG, 30, 20 ) );
+
+    assertEquals( SWT.IMAGE_JPEG, header.getType() );
+    assertEquals( 30, header.getWidth() );
+    assertEquals( 20, header.getHeight() );
+  }
+
+  @Test
+  public void testRead_BMP() {
+    ImageHeader header = ImageHeader.read( createImage( SWT.IMAGE_BMP, 30, 20 ) );
+
+    assertEquals( SWT.IMAGE_BMP, header.getType() );
+    assertEquals( 30, header.getWidth() );
+    assertEquals( 20, header.getHeight() );
+  }
+
+  @Test
+  public void testRead_incompleteHeader() {
+    byte[] bytes = createImage( SWT.IMAGE_JPEG, 30, 20 );
+    byte[] truncated = new byte[ 10 ];
+    System.arraycopy( bytes, 0, truncated, 0, truncated.length );
+
+    assertNull( ImageHeader.read( truncated ) );
+  }
+
+  @Test
+  public void testRead_truncatedPNG() throws IOException {
+    assertNull( ImageHeader.read( truncate( readResource( Fixture.IMAGE_100x50 ) ) ) );
+  }
+
+  @Test
+  public void testRead_truncatedGIF() throws IOException {
+    assertNull( ImageHeader.read( truncate( readResource( Fixture.IMAGE1 ) ) ) );
+  }
+
+  @Test
+  public void testRead_truncatedJPEG() {
+    assertNull( ImageHeader.read( truncate( createImage( SWT.IMAGE_JPEG, 30, 20 ) ) ) );
+  }
+
+  @Test
+  public void testRead_truncatedBMP() {
+    assertNull( ImageHeader.read( truncate( createImage( SWT.IMAGE_BMP, 30, 20 ) ) ) );
+  }
+
+  @Test
+  public void testRead_unknownFormat() {
+    assertNull( ImageHeader.read( new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 } ) );
+  }
+
+  @Test
+  public void testRead_empty() {
+    assertNull( ImageHeader.read( new byte[ 0 ] ) );
+  }
+
+  private static byte[] truncate( byte[] bytes ) {
+    byte[] result = new byte[ bytes.length - 1 ];
+    System.arraycopy( bytes, 0, result, 0, result.length );
+    return result;
+  }
+
+  private static byte[] createImage( int format, int width, int height ) {
+    ImageLoader imageLoader = new ImageLoader();
+    imageLoader.data = new ImageData[] {
+      new ImageData( width, height, 24, new PaletteData( 0xFF0000, 0xFF00, 0xFF ) )
+    };
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    imageLoader.save( outputStream, format );
+    return outputStream.toByteArray();
+  }
+
+  private static byte[] readResource( String name ) throws IOException {
+    InputStream stream = CLASS_LOADER.getResourceAsStream( name );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try {
+      int read = stream.read();
+      while( read != -1 ) {
+        outputStream.write( read );
+        read = stream.read();
+      }
+    } finally {
+      stream.close();
+    }
+    return outputStream.toByteArray();
+  }
+
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class PreservedValues_Test {
+
+  private PreservedValues values;
+
+  @Before
+  public void setUp() {
+    values = new PreservedValues();
+  }
+
+  @Test
+  public void testGet_initiallyNull() {
+    assertNull( values.get( "foo" ) );
+  }
+
+  @Test
+  public void testPut() {
+    values.put( "foo", "bar" );
+
+    assertEquals( "bar", values.get( "foo" ) );
+  }
+
+  @Test
+  public void testPut_replacesValue() {
+    values.put( "foo", "bar" );
+
+    values.put( "foo", "baz" );
+
+    assertEquals( "baz", values.get( "foo" ) );
+  }
+
+  @Test
+  public void testPut_withNullValue() {
+    values.put( "foo", "bar" );
+
+    values.put( "foo", null );
+
+    assertNull( values.get( "foo" ) );
+  }
+
+  @Test
+  public void testGet_withEqualName() {
+    values.put( "foo", "bar" );
+
+    assertEquals( "bar", values.get( new String( "foo" ) ) );
+  }
+
+  @Test
+  public void testPut_manyNames() {
+    for( int i = 0; i < 100; i++ ) {
+      values.put( "name" + i, Integer.valueOf( i ) );
+    }
+
+    for( int i = 0; i < 100; i++ ) {
+      assertEquals( Integer.valueOf( i ), values.get( "name" + i ) );
+    }
+    assertNull( values.get( "name100" ) );
+  }
+
+  @Test
+  public void testClear() {
+    values.put( "foo", "bar" );
+    values.put( "baz", "qux" );
+
+    values.clear();
+
+    assertNull( values.get( "foo" ) );
+    assertNull( values.get( "baz" ) );
+  }
+
+  @Test
+  public void testPut_afterClear() {
+    values.put( "foo", "bar" );
+    values.clear();
+
+    values.put( "foo", "baz" );
+
+    assertEquals( "baz", values.get( "foo" ) );
+  }
+
+}
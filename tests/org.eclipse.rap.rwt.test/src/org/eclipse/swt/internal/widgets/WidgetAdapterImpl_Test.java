@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -122,6 +122,53 @@ public class WidgetAdapterImpl_Test {
     }
   }
 
+  @Test
+  public void testPreserve_tracksAdapterOnce() {
+    WidgetAdapterImpl adapter = new WidgetAdapterImpl( "id" );
+
+    adapter.preserve( "foo", "bar" );
+    adapter.preserve( "baz", "qux" );
+
+    assertEquals( 1, PreservedWidgetAdapters.getInstance().size() );
+  }
+
+  @Test
+  public void testClearPreserved_clearsTrackedAdapters() {
+    WidgetAdapterImpl adapter = new WidgetAdapterImpl( "id" );
+    adapter.preserve( "foo", "bar" );
+
+    PreservedWidgetAdapters.getInstance().clearPreserved();
+
+    assertNull( adapter.getPreserved( "foo" ) );
+    assertEquals( 0, PreservedWidgetAdapters.getInstance().size() );
+  }
+
+  @Test
+  public void testPreserve_tracksAdapterAgainAfterClear() {
+    WidgetAdapterImpl adapter = new WidgetAdapterImpl( "id" );
+    adapter.preserve( "foo", "bar" );
+    PreservedWidgetAdapters.getInstance().clearPreserved();
+
+    adapter.preserve( "foo", "bar" );
+
+    assertEquals( 1, PreservedWidgetAdapters.getInstance().size() );
+  }
+
+  @Test
+  public void testPreserve_tracksAdapterOutsideOfRequest() throws InterruptedException {
+    final WidgetAdapterImpl adapter = new WidgetAdapterImpl( "id", display );
+
+    Thread thread = new Thread( new Runnable() {
+      public void run() {
+        adapter.preserve( "foo", "bar" );
+      }
+    } );
+    thread.start();
+    thread.join();
+
+    assertEquals( 1, PreservedWidgetAdapters.getInstance().size() );
+  }
+
   @Test
   public void testSetRenderRunnable() {
     WidgetAdapterImpl adapter = new WidgetAdapterImpl( "id" );
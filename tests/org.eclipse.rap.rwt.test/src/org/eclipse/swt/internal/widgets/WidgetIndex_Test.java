@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets;
+
+import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.eclipse.rap.rwt.internal.lifecycle.UITestUtilAdapter;
+import org.eclipse.rap.rwt.lifecycle.WidgetUtil;
+import org.eclipse.rap.rwt.testfixture.Fixture;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.swt.widgets.Widget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class WidgetIndex_Test {
+
+  private Display display;
+  private Shell shell;
+
+  @Before
+  public void setUp() {
+    Fixture.setUp();
+    display = new Display();
+    shell = new Shell( display );
+  }
+
+  @After
+  public void tearDown() {
+    Fixture.tearDown();
+    UITestUtilAdapter.setUITestEnabled( false );
+  }
+
+  @Test
+  public void testDisplayProvidesIndex() {
+    WidgetIndex index = display.getAdapter( WidgetIndex.class );
+
+    assertNotNull( index );
+    assertSame( index, display.getAdapter( WidgetIndex.class ) );
+  }
+
+  @Test
+  public void testAdd() {
+    WidgetIndex index = new WidgetIndex();
+    Widget widget = mock( Widget.class );
+
+    index.add( "w1", widget );
+
+    assertSame( widget, index.get( "w1" ) );
+    assertEquals( 1, index.size() );
+  }
+
+  @Test
+  public void testRemove() {
+    WidgetIndex index = new WidgetIndex();
+    Widget widget = mock( Widget.class );
+    index.add( "w1", widget );
+
+    index.remove( "w1", widget );
+
+    assertNull( index.get( "w1" ) );
+    assertEquals( 0, index.size() );
+  }
+
+  @Test
+  public void testRemove_ignoresOtherWidget() {
+    WidgetIndex index = new WidgetIndex();
+    Widget widget = mock( Widget.class );
+    index.add( "w1", widget );
+
+    index.remove( "w1", mock( Widget.class ) );
+
+    assertSame( widget, index.get( "w1" ) );
+  }
+
+  @Test
+  public void testFind_withNullId() {
+    assertNull( WidgetIndex.find( display, null ) );
+  }
+
+  @Test
+  public void testFind_withUnknownId() {
+    assertNull( WidgetIndex.find( display, "unknown" ) );
+  }
+
+  @Test
+  public void testFind_returnsCreatedWidgets() {
+    Composite composite = new Composite( shell, SWT.NONE );
+    Button button = new Button( composite, SWT.PUSH );
+    Tree tree = new Tree( composite, SWT.NONE );
+    TreeItem item = new TreeItem( tree, SWT.NONE );
+    TreeItem subItem = new TreeItem( item, SWT.NONE );
+
+    assertSame( shell, WidgetIndex.find( display, getId( shell ) ) );
+    assertSame( composite, WidgetIndex.find( display, getId( composite ) ) );
+    assertSame( button, WidgetIndex.find( display, getId( button ) ) );
+    assertSame( item, WidgetIndex.find( display, getId( item ) ) );
+    assertSame( subItem, WidgetIndex.find( display, getId( subItem ) ) );
+  }
+
+  @Test
+  public void testFind_returnsScrollBars() {
+    Tree tree = new Tree( shell, SWT.H_SCROLL );
+
+    Widget scrollBar = tree.getHorizontalBar();
+
+    assertSame( scrollBar, WidgetIndex.find( display, getId( scrollBar ) ) );
+  }
+
+  @Test
+  public void testFind_afterDispose() {
+    Composite composite = new Composite( shell, SWT.NONE );
+    Button button = new Button( composite, SWT.PUSH );
+    String compositeId = getId( composite );
+    String buttonId = getId( button );
+
+    composite.dispose();
+
+    assertNull( WidgetIndex.find( display, compositeId ) );
+    assertNull( WidgetIndex.find( display, buttonId ) );
+  }
+
+  @Test
+  public void testFind_afterDisposeOfItems() {
+    Tree tree = new Tree( shell, SWT.NONE );
+    TreeItem item = new TreeItem( tree, SWT.NONE );
+    TreeItem subItem = new TreeItem( item, SWT.NONE );
+    String subItemId = getId( subItem );
+
+    tree.removeAll();
+
+    assertNull( WidgetIndex.find( display, getId( item ) ) );
+    assertNull( WidgetIndex.find( display, subItemId ) );
+  }
+
+  @Test
+  public void testFind_withCustomId() {
+    UITestUtilAdapter.setUITestEnabled( true );
+    Button button = new Button( shell, SWT.PUSH );
+    String generatedId = getId( button );
+
+    button.setData( WidgetUtil.CUSTOM_WIDGET_ID, "myButton" );
+
+    assertSame( button, WidgetIndex.find( display, "myButton" ) );
+    assertNull( WidgetIndex.find( display, generatedId ) );
+  }
+
+  @Test
+  public void testFind_withCustomIdAfterDispose() {
+    UITestUtilAdapter.setUITestEnabled( true );
+    Button button = new Button( shell, SWT.PUSH );
+    button.setData( WidgetUtil.CUSTOM_WIDGET_ID, "myButton" );
+
+    button.dispose();
+
+    assertNull( WidgetIndex.find( display, "myButton" ) );
+  }
+
+}
@@ -26,18 +26,24 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.rap.json.JsonObject;
 import org.eclipse.rap.json.JsonValue;
 import org.eclipse.rap.rwt.RWT;
 import org.eclipse.rap.rwt.application.EntryPoint;
 import org.eclipse.rap.rwt.client.service.ExitConfirmation;
+import org.eclipse.rap.rwt.internal.RWTProperties;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.lifecycle.DisplayLifeCycleAdapter;
 import org.eclipse.rap.rwt.internal.lifecycle.DisplayUtil;
@@ -69,7 +75,9 @@ import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.internal.widgets.IControlHolderAdapter;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
+import org.eclipse.swt.internal.widgets.Props;
 import org.eclipse.swt.internal.widgets.WidgetAdapterImpl;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
@@ -77,6 +85,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.Widget;
 import org.junit.After;
 import org.junit.Before;
@@ -103,6 +112,7 @@ public class DisplayLCA_Test {
   public void tearDown() {
     Fixture.tearDown();
     setEnableUiTests( false );
+    System.clearProperty( RWTProperties.TARGETED_READ_DATA );
   }
 
   @Test
@@ -121,6 +131,46 @@ public class DisplayLCA_Test {
     assertNull( exitConfirmation );
   }
 
+  @Test
+  public void testClearPreserved() {
+    Shell shell = new Shell( display );
+    Button button = new Button( shell, SWT.PUSH );
+    Fixture.markInitialized( display );
+    Fixture.preserveWidgets();
+    assertNotNull( WidgetUtil.getAdapter( button ).getPreserved( Props.BOUNDS ) );
+
+    displayLCA.clearPreserved( display );
+
+    assertNull( WidgetUtil.getAdapter( shell ).getPreserved( Props.BOUNDS ) );
+    assertNull( WidgetUtil.getAdapter( button ).getPreserved( Props.BOUNDS ) );
+  }
+
+  @Test
+  public void testClearPreserved_includesWidgetsPreservedInPreviousRequest() {
+    Shell shell = new Shell( display );
+    Fixture.markInitialized( display );
+    Fixture.preserveWidgets();
+    Fixture.fakeNewRequest();
+
+    displayLCA.clearPreserved( display );
+
+    assertNull( WidgetUtil.getAdapter( shell ).getPreserved( Props.BOUNDS ) );
+  }
+
+  @Test
+  public void testClearPreserved_includesDisposedWidgets() {
+    Shell shell = new Shell( display );
+    Button button = new Button( shell, SWT.PUSH );
+    Fixture.markInitialized( display );
+    Fixture.preserveWidgets();
+    WidgetAdapter buttonAdapter = WidgetUtil.getAdapter( button );
+    button.dispose();
+
+    displayLCA.clearPreserved( display );
+
+    assertNull( buttonAdapter.getPreserved( Props.BOUNDS ) );
+  }
+
   @Test
   public void testRender() throws IOException {
     AbstractWidgetLCA lca = mock( AbstractWidgetLCA.class );
@@ -171,6 +221,113 @@ public class DisplayLCA_Test {
     verifyNoMoreInteractions( lca );
   }
 
+  @Test
+  public void testReadData_withTargetedReadData() {
+    System.setProperty( RWTProperties.TARGETED_READ_DATA, "true" );
+    AbstractWidgetLCA lca = mock( AbstractWidgetLCA.class );
+    Composite shell = new CustomLCAShell( display, lca );
+    Widget button = new CustomLCAWidget( shell, lca );
+    Widget text = new CustomLCAWidget( shell, lca );
+    Fixture.fakeNotifyOperation( getId( text ), "Selection", null );
+    Fixture.fakeSetProperty( getId( shell ), "bounds", createJsonArray( 0, 0, 30, 70 ) );
+
+    displayLCA.readData( display );
+
+    InOrder inOrder = inOrder( lca );
+    inOrder.verify( lca ).readData( shell );
+    inOrder.verify( lca ).readData( text );
+    verify( lca, never() ).readData( button );
+  }
+
+  @Test
+  public void testReadData_withTargetedReadData_withoutWidgetOperations() {
+    System.setProperty( RWTProperties.TARGETED_READ_DATA, "true" );
+    AbstractWidgetLCA lca = mock( AbstractWidgetLCA.class );
+    new CustomLCAShell( display, lca );
+    Fixture.fakeSetProperty( getId( display ), "bounds", createJsonArray( 0, 0, 30, 70 ) );
+
+    displayLCA.readData( display );
+
+    verifyNoMoreInteractions( lca );
+    assertEquals( new Rectangle( 0, 0, 30, 70 ), display.getBounds() );
+  }
+
+  @Test
+  public void testReadData_withTargetedReadData_readsInTreeOrder() {
+    System.setProperty( RWTProperties.TARGETED_READ_DATA, "true" );
+    AbstractWidgetLCA lca = mock( AbstractWidgetLCA.class );
+    Composite shell = new CustomLCAShell( display, lca );
+    Composite composite = new CustomLCAWidget( shell, lca );
+    Widget button = new CustomLCAWidget( shell, lca );
+    Widget child = new CustomLCAWidget( composite, lca );
+    Fixture.fakeNotifyOperation( getId( button ), "Selection", null );
+    Fixture.fakeNotifyOperation( getId( child ), "Selection", null );
+    Fixture.fakeSetProperty( getId( composite ), "bounds", createJsonArray( 0, 0, 30, 70 ) );
+
+    displayLCA.readData( display );
+
+    InOrder inOrder = inOrder( lca );
+    inOrder.verify( lca ).readData( composite );
+    inOrder.verify( lca ).readData( child );
+    inOrder.verify( lca ).readData( button );
+    verifyNoMoreInteractions( lca );
+  }
+
+  @Test
+  public void testReadData_withTargetedReadData_doesNotVisitWidgetTree() {
+    System.setProperty( RWTProperties.TARGETED_READ_DATA, "true" );
+    AbstractWidgetLCA lca = mock( AbstractWidgetLCA.class );
+    Composite shell = new CustomLCAShell( display, lca );
+    CountingComposite composite = new CountingComposite( shell );
+    new Button( composite, SWT.PUSH );
+    Widget button = new CustomLCAWidget( shell, lca );
+    Widget text = new CustomLCAWidget( shell, lca );
+    Fixture.fakeNotifyOperation( getId( button ), "Selection", null );
+    Fixture.fakeNotifyOperation( getId( text ), "Selection", null );
+    composite.controlHolderRequests = 0;
+
+    displayLCA.readData( display );
+
+    assertEquals( 0, composite.controlHolderRequests );
+    InOrder inOrder = inOrder( lca );
+    inOrder.verify( lca ).readData( button );
+    inOrder.verify( lca ).readData( text );
+  }
+
+  @Test
+  public void testFindTargetedWidgets() {
+    Shell shell = new Shell( display );
+    Button button = new Button( shell, SWT.PUSH );
+    Set<String> targets = new HashSet<String>( Arrays.asList( getId( button ), displayId, "r1" ) );
+
+    List<Widget> widgets = DisplayLCA.findTargetedWidgets( display, targets );
+
+    assertEquals( Arrays.asList( button ), widgets );
+  }
+
+  @Test
+  public void testFindTargetedWidgets_withScrollBar() {
+    Shell shell = new Shell( display );
+    Table table = new Table( shell, SWT.V_SCROLL );
+    Set<String> targets = new HashSet<String>( Arrays.asList( getId( table.getVerticalBar() ) ) );
+
+    List<Widget> widgets = DisplayLCA.findTargetedWidgets( display, targets );
+
+    assertEquals( Arrays.asList( table ), widgets );
+  }
+
+  @Test
+  public void testFindTargetedWidgets_withDisposedWidget() {
+    Shell shell = new Shell( display );
+    Button button = new Button( shell, SWT.PUSH );
+    Set<String> targets = new HashSet<String>( Arrays.asList( getId( button ) ) );
+    button.dispose();
+
+    List<Widget> widgets = DisplayLCA.findTargetedWidgets( display, targets );
+
+    assertTrue( widgets.isEmpty() );
+  }
+
   @Test
   public void testReadDisplayBounds() {
     Fixture.fakeSetProperty( getId( display ), "bounds", createJsonArray( 0, 0, 30, 70 ) );
@@ -581,6 +738,24 @@ public class DisplayLCA_Test {
     }
   }
 
+  private static class CountingComposite extends Composite {
+    private static final long serialVersionUID = 1L;
+
+    int controlHolderRequests;
+
+    CountingComposite( Composite parent ) {
+      super( parent, 0 );
+    }
+
+    @Override
+    public <T> T getAdapter( Class<T> adapter ) {
+      if( adapter == IControlHolderAdapter.class ) {
+        controlHolderRequests++;
+      }
+      return super.getAdapter( adapter );
+    }
+  }
+
   public static final class TestRenderInitiallyDisposedEntryPoint implements EntryPoint {
     public int createUI() {
       Display display = new Display();
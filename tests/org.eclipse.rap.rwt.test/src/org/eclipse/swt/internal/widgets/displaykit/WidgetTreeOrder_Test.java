@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2014 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    EclipseSource - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.swt.internal.widgets.displaykit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rap.rwt.testfixture.Fixture;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Menu;
+import org.eclipse.swt.widgets.MenuItem;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.swt.widgets.Widget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class WidgetTreeOrder_Test {
+
+  private Display display;
+  private Shell shell;
+
+  @Before
+  public void setUp() {
+    Fixture.setUp();
+    display = new Display();
+    shell = new Shell( display );
+  }
+
+  @After
+  public void tearDown() {
+    Fixture.tearDown();
+  }
+
+  @Test
+  public void testSort_parentsBeforeChildren() {
+    Composite composite = new Composite( shell, SWT.NONE );
+    Button button = new Button( composite, SWT.PUSH );
+
+    List<Widget> widgets = sort( button, composite, shell );
+
+    assertEquals( Arrays.asList( shell, composite, button ), widgets );
+  }
+
+  @Test
+  public void testSort_siblingsInOrderOfParent() {
+    Button button1 = new Button( shell, SWT.PUSH );
+    Button button2 = new Button( shell, SWT.PUSH );
+    button2.moveAbove( button1 );
+
+    List<Widget> widgets = sort( button1, button2 );
+
+    assertEquals( Arrays.asList( button2, button1 ), widgets );
+  }
+
+  @Test
+  public void testSort_childrenBeforeFollowingSiblingsOfParent() {
+    Composite composite = new Composite( shell, SWT.NONE );
+    Button button = new Button( shell, SWT.PUSH );
+    Button child = new Button( composite, SWT.PUSH );
+
+    List<Widget> widgets = sort( button, child, composite );
+
+    assertEquals( Arrays.asList( composite, child, button ), widgets );
+  }
+
+  @Test
+  public void testSort_shellsInOrderOfDisplay() {
+    Shell shell2 = new Shell( display );
+    Button button = new Button( shell, SWT.PUSH );
+
+    List<Widget> widgets = sort( shell2, button );
+
+    assertEquals( Arrays.asList( button, shell2 ), widgets );
+  }
+
+  @Test
+  public void testSort_treeItemsBelowParentItem() {
+    Tree tree = new Tree( shell, SWT.NONE );
+    TreeItem item1 = new TreeItem( tree, SWT.NONE );
+    TreeItem item2 = new TreeItem( tree, SWT.NONE );
+    TreeItem subItem = new TreeItem( item1, SWT.NONE );
+
+    List<Widget> widgets = sort( item2, subItem, item1 );
+
+    assertEquals( Arrays.asList( item1, subItem, item2 ), widgets );
+  }
+
+  @Test
+  public void testSort_menusBeforeControls() {
+    Button button = new Button( shell, SWT.PUSH );
+    Menu menu = new Menu( button );
+    MenuItem menuItem = new MenuItem( menu, SWT.PUSH );
+
+    List<Widget> widgets = sort( button, menuItem );
+
+    assertEquals( Arrays.asList( menuItem, button ), widgets );
+  }
+
+  private List<Widget> sort( Widget... widgets ) {
+    List<Widget> result = new ArrayList<Widget>( Arrays.asList( widgets ) );
+    Collections.sort( result, new WidgetTreeOrder( display.getShells() ) );
+    return result;
+  }
+
+}
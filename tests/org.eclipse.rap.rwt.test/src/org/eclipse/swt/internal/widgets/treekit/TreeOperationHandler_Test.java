@@ -27,6 +27,7 @@ import static org.eclipse.rap.rwt.internal.protocol.ClientMessageConst.EVENT_TRA
 import static org.eclipse.rap.rwt.lifecycle.WidgetUtil.getId;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -423,6 +424,35 @@ public class TreeOperationHandler_Test {
     assertEquals( item, captor.getValue().item );
   }
 
+  @Test
+  public void testHandleNotifyExpand_withVirtualSubItemId() {
+    Tree spyTree = spy( tree );
+    handler = new TreeOperationHandler( spyTree );
+    TreeItem item = new TreeItem( spyTree, SWT.NONE );
+    TreeItem subItem = new TreeItem( item, SWT.NONE );
+
+    JsonObject properties = new JsonObject().add( "item", getId( item ) + "#0" );
+    handler.handleNotify( EVENT_EXPAND, properties );
+
+    ArgumentCaptor<Event> captor = ArgumentCaptor.forClass( Event.class );
+    verify( spyTree ).notifyListeners( eq( SWT.Expand ), captor.capture() );
+    assertEquals( subItem, captor.getValue().item );
+  }
+
+  @Test
+  public void testHandleNotifyExpand_withItemOfOtherTree() {
+    Tree spyTree = spy( tree );
+    handler = new TreeOperationHandler( spyTree );
+    TreeItem otherItem = new TreeItem( new Tree( shell, SWT.NONE ), SWT.NONE );
+
+    JsonObject properties = new JsonObject().add( "item", getId( otherItem ) );
+    handler.handleNotify( EVENT_EXPAND, properties );
+
+    ArgumentCaptor<Event> captor = ArgumentCaptor.forClass( Event.class );
+    verify( spyTree ).notifyListeners( eq( SWT.Expand ), captor.capture() );
+    assertNull( captor.getValue().item );
+  }
+
   @Test
   public void testHandleNotifyCollapse() {
     Tree spyTree = spy( tree );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.rap.rwt.SingletonUtil;
 import org.eclipse.rap.rwt.internal.application.ApplicationContextImpl;
 import org.eclipse.rap.rwt.internal.engine.RWTClusterSupport;
 import org.eclipse.rap.rwt.internal.lifecycle.SimpleLifeCycle;
@@ -39,6 +40,7 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.internal.widgets.IDisplayAdapter;
+import org.eclipse.swt.internal.widgets.PreservedWidgetAdapters;
 import org.eclipse.swt.internal.widgets.WidgetAdapterImpl;
 import org.junit.After;
 import org.junit.Before;
@@ -99,6 +101,18 @@ public class DisplaySerialization_Test {
     assertEquals( adapter.getId(), deserializedAdapter.getId() );
   }
 
+  @Test
+  public void testWidgetAdapterUsesUISessionOfDeserializedDisplay() throws Exception {
+    Display deserializedDisplay = serializeAndDeserialize( display );
+    UISession uiSession = getDisplayAdapter( deserializedDisplay ).getUISession();
+
+    getWidgetAdapter( deserializedDisplay ).preserve( "foo", "bar" );
+
+    PreservedWidgetAdapters adapters
+      = SingletonUtil.getUniqueInstance( PreservedWidgetAdapters.class, uiSession );
+    assertEquals( 1, adapters.size() );
+  }
+
   @Test
   public void testUISessionIsSerializable() throws Exception {
     Display deserializedDisplay = serializeAndDeserialize( display );
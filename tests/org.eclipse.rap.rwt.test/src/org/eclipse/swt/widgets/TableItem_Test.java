@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2007, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1248,6 +1248,22 @@ public class TableItem_Test {
     assertEquals( itemText, deserializedItem.getText() );
   }
 
+  @Test
+  public void testIsSerializable_withCells() throws Exception {
+    Table table = new Table( shell, SWT.NONE );
+    new TableColumn( table, SWT.NONE );
+    new TableColumn( table, SWT.NONE );
+    TableItem item = new TableItem( table, SWT.NONE );
+    item.setText( 1, "foo" );
+    item.setBackground( 1, display.getSystemColor( SWT.COLOR_RED ) );
+
+    TableItem deserializedItem = Fixture.serializeAndDeserialize( item );
+
+    assertEquals( "", deserializedItem.getText( 0 ) );
+    assertEquals( "foo", deserializedItem.getText( 1 ) );
+    assertEquals( item.getBackground( 1 ), deserializedItem.getBackground( 1 ) );
+  }
+
   @Test
   public void testVirtualGetBoundsMaterializeItems() {
     Table table = new Table( shell, SWT.VIRTUAL );
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 EclipseSource and others.
+ * Copyright (c) 2011, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,12 @@
  ******************************************************************************/
 package org.eclipse.swt.widgets;
 
+import static org.eclipse.rap.rwt.internal.service.ContextProvider.getApplicationContext;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -21,7 +24,9 @@ import static org.mockito.Mockito.when;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
-import java.util.Timer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.rap.rwt.testfixture.Fixture;
 import org.eclipse.rap.rwt.testfixture.internal.NoOpRunnable;
@@ -36,17 +41,17 @@ public class TimerExecScheduler_Test {
   private TimerExecScheduler scheduler;
   private Display display;
   private Collection<Throwable> exceptions;
-  private Timer timer;
+  private ScheduledExecutorService executor;
 
   @Before
   public void setUp() {
     Fixture.setUp();
     display = new Display();
-    timer = mock( Timer.class );
+    executor = mock( ScheduledExecutorService.class );
     scheduler = new TimerExecScheduler( display ) {
       @Override
-      Timer createTimer() {
-        return timer;
+      ScheduledExecutorService getExecutor() {
+        return executor;
       }
       @Override
       TimerExecTask createTask( Runnable runnable ) {
@@ -70,21 +75,22 @@ public class TimerExecScheduler_Test {
     scheduler.schedule( 23, runnable );
 
     ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 23L ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
     assertSame( runnable, taskCaptor.getValue().getRunnable() );
   }
 
   @Test
-  public void testSchedule_reschedulesSameRunnable() {
+  public void testSchedule_replacesTaskOfSameRunnable() {
     Runnable runnable = mock( Runnable.class );
 
     scheduler.schedule( 23, runnable );
     scheduler.schedule( 42, runnable );
 
     ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 23L ) );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 42L ) );
-    assertSame( taskCaptor.getAllValues().get( 0 ), taskCaptor.getAllValues().get( 1 ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 42L ), eq( TimeUnit.MILLISECONDS ) );
+    assertNotSame( taskCaptor.getAllValues().get( 0 ), taskCaptor.getAllValues().get( 1 ) );
+    verify( taskCaptor.getAllValues().get( 0 ) ).cancel();
   }
 
   @Test
@@ -95,7 +101,7 @@ public class TimerExecScheduler_Test {
     scheduler.cancel( runnable );
 
     ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 23L ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
     verify( taskCaptor.getValue() ).cancel();
   }
 
@@ -113,11 +119,42 @@ public class TimerExecScheduler_Test {
     scheduler.schedule( 42, runnable );
 
     ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 23L ) );
-    verify( timer ).schedule( taskCaptor.capture(), eq( 42L ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 42L ), eq( TimeUnit.MILLISECONDS ) );
     assertNotSame( taskCaptor.getAllValues().get( 0 ), taskCaptor.getAllValues().get( 1 ) );
   }
 
+  @Test
+  public void testSchedule_passesFutureToTask() {
+    ScheduledFuture future = mock( ScheduledFuture.class );
+    when( executor.schedule( any( Runnable.class ), anyLong(), any( TimeUnit.class ) ) )
+      .thenReturn( future );
+
+    scheduler.schedule( 23, mock( Runnable.class ) );
+
+    ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
+    verify( taskCaptor.getValue() ).setFuture( eq( future ), anyLong() );
+  }
+
+  @Test
+  public void testSchedule_usesSchedulerOfApplicationContext() {
+    scheduler = new TimerExecScheduler( display );
+
+    assertSame( getApplicationContext().getScheduler(), scheduler.getExecutor() );
+  }
+
+  @Test
+  public void testDispose_cancelsTasks() {
+    scheduler.schedule( 23, mock( Runnable.class ) );
+
+    scheduler.dispose();
+
+    ArgumentCaptor<TimerExecTask> taskCaptor = ArgumentCaptor.forClass( TimerExecTask.class );
+    verify( executor ).schedule( taskCaptor.capture(), eq( 23L ), eq( TimeUnit.MILLISECONDS ) );
+    verify( taskCaptor.getValue() ).cancel();
+  }
+
   @Test
   public void testSerializationIsThreadSafe() throws Exception {
     scheduler = new TimerExecScheduler( display );
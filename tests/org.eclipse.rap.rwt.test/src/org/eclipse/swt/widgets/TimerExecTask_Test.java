@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 EclipseSource and others.
+ * Copyright (c) 2012, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.rap.rwt.internal.serverpush.ServerPushManager;
 import org.eclipse.rap.rwt.testfixture.Fixture;
@@ -104,6 +107,28 @@ public class TimerExecTask_Test {
     assertFalse( ServerPushManager.getInstance().isServerPushActive() );
   }
 
+  @Test
+  public void testRun_doesNothingWhenCancelled() {
+    Runnable runnable = mock( Runnable.class );
+    TimerExecTask task = new TimerExecTask( scheduler, runnable );
+    task.cancel();
+
+    task.run();
+
+    verify( display, times( 0 ) ).asyncExec( any( Runnable.class ) );
+  }
+
+  @Test
+  public void testRun_addsRunnableOnlyOnce() {
+    Runnable runnable = mock( Runnable.class );
+    TimerExecTask task = new TimerExecTask( scheduler, runnable );
+
+    task.run();
+    task.run();
+
+    verify( display, times( 1 ) ).asyncExec( same( runnable ) );
+  }
+
   @Test
   public void testCancel_deactivatesServerPush() {
     Runnable runnable = mock( Runnable.class );
@@ -114,4 +139,29 @@ public class TimerExecTask_Test {
     assertFalse( ServerPushManager.getInstance().isServerPushActive() );
   }
 
+  @Test
+  public void testCancel_cancelsFuture() {
+    TimerExecTask task = new TimerExecTask( scheduler, mock( Runnable.class ) );
+    ScheduledFuture future = mock( ScheduledFuture.class );
+    task.setFuture( future, 23 );
+
+    task.cancel();
+
+    verify( future ).cancel( false );
+  }
+
+  @Test
+  public void testSetFuture_cancelsPreviousFuture() {
+    TimerExecTask task = new TimerExecTask( scheduler, mock( Runnable.class ) );
+    ScheduledFuture future1 = mock( ScheduledFuture.class );
+    ScheduledFuture future2 = mock( ScheduledFuture.class );
+    task.setFuture( future1, 23 );
+
+    task.setFuture( future2, 42 );
+
+    verify( future1 ).cancel( false );
+    verifyZeroInteractions( future2 );
+    assertEquals( 42, task.getScheduledTime() );
+  }
+
 }
@@ -1,5 +1,5 @@
 /******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -2211,6 +2211,33 @@ public class TreeItem_Test {
     assertFalse( subItem.hasPreferredWidthBuffer( 0 ) );
   }
 
+  @Test
+  public void testIsSerializable_withCells() throws Exception {
+    Tree tree = new Tree( shell, SWT.NONE );
+    new TreeColumn( tree, SWT.NONE );
+    new TreeColumn( tree, SWT.NONE );
+    TreeItem item = new TreeItem( tree, SWT.NONE );
+    item.setText( 1, "foo" );
+    item.setBackground( 1, display.getSystemColor( SWT.COLOR_RED ) );
+
+    TreeItem deserializedItem = Fixture.serializeAndDeserialize( item );
+
+    assertEquals( "", deserializedItem.getText( 0 ) );
+    assertEquals( "foo", deserializedItem.getText( 1 ) );
+    assertEquals( item.getBackground( 1 ), deserializedItem.getBackground( 1 ) );
+  }
+
+  @Test
+  public void testIsSerializable_withoutPreferredWidthBuffer() throws Exception {
+    Tree tree = new Tree( shell, SWT.NONE );
+    TreeItem item = new TreeItem( tree, SWT.NONE );
+    item.setPreferredWidthBuffer( 0, 42 );
+
+    TreeItem deserializedItem = Fixture.serializeAndDeserialize( item );
+
+    assertFalse( deserializedItem.hasPreferredWidthBuffer( 0 ) );
+  }
+
   //////////////////
   // Helping methods
 
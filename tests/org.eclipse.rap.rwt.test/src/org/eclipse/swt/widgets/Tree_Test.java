@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2013 Innoopract Informationssysteme GmbH and others.
+ * Copyright (c) 2002, 2014 Innoopract Informationssysteme GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1603,6 +1603,15 @@ public class Tree_Test {
     assertEquals( 1, deserializedTree.getColumnCount() );
   }
 
+  @Test
+  public void testIsSerializable_recomputesLayoutCache() throws Exception {
+    int itemHeight = tree.getItemHeight();
+
+    Tree deserializedTree = Fixture.serializeAndDeserialize( tree );
+
+    assertEquals( itemHeight, deserializedTree.getItemHeight() );
+  }
+
   @Test
   public void testLayoutCacheIsSerializable() throws Exception {
     tree.setHeaderVisible( true );
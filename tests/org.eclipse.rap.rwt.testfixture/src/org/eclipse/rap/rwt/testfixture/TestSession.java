@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 EclipseSource and others.
+ * Copyright (c) 2009, 2014 EclipseSource and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
  ******************************************************************************/
 package org.eclipse.rap.rwt.testfixture;
 
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -41,7 +42,7 @@ public class TestSession implements HttpSession {
   private int maxInactiveInterval;
 
   public TestSession() {
-    attributes = new HashMap<String,Object>();
+    attributes = Collections.synchronizedMap( new HashMap<String,Object>() );
     servletContext = new TestServletContext();
     id = String.valueOf( hashCode() );
   }